@@ -0,0 +1,16 @@
+package br.gov.sp.tce.icp_brasil_authenticator;
+
+import org.springframework.boot.SpringApplication;
+
+// Validação offline, sem servidor web, com o mesmo motor da API (perfil cli):
+// java -Dloader.main=br.gov.sp.tce.icp_brasil_authenticator.IcpBrasilBatchApplication -jar app.jar \
+//     --input=/dados/certificados --input=ACcompactado.zip --output=validacao.csv
+public class IcpBrasilBatchApplication {
+
+	public static void main(String[] args) {
+		SpringApplication application = new SpringApplication(IcpBrasilAuthenticatorApplication.class);
+		application.setAdditionalProfiles("cli");
+		System.exit(SpringApplication.exit(application.run(args)));
+	}
+
+}
@@ -0,0 +1,52 @@
+package br.gov.sp.tce.icp_brasil_authenticator.configuration;
+
+import java.io.IOException;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import br.gov.sp.tce.icp_brasil_authenticator.domain.audit.AuditPipeline;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.audit.AuditSink;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.audit.JdbcAuditSink;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.audit.LogAuditSink;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.audit.RollingFileAuditSink;
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Configuration
+@EnableConfigurationProperties(AuditProperties.class)
+public class AuditConfiguration {
+    
+    private static final String SINK_PROPERTY = "icp-brasil.audit.sink";
+    
+    @Bean
+    @ConditionalOnProperty(name = SINK_PROPERTY, havingValue = "log", matchIfMissing = true)
+    public AuditSink logAuditSink() {
+        return new LogAuditSink();
+    }
+    
+    @Bean
+    @ConditionalOnProperty(name = SINK_PROPERTY, havingValue = "file")
+    public AuditSink rollingFileAuditSink(AuditProperties properties) throws IOException {
+        return new RollingFileAuditSink(properties.getFile().getPath(),
+            properties.getFile().getMaxFileSize().toBytes(), properties.getFile().getMaxHistory());
+    }
+    
+    @Bean
+    @ConditionalOnProperty(name = SINK_PROPERTY, havingValue = "jdbc")
+    public AuditSink jdbcAuditSink(JdbcTemplate jdbcTemplate) {
+        return new JdbcAuditSink(jdbcTemplate);
+    }
+    
+    @Bean
+    public AuditPipeline auditPipeline(AuditProperties properties, AuditSink auditSink,
+                                       MeterRegistry meterRegistry) throws IOException {
+        AuditSink spillSink = properties.getOverflowPolicy() == AuditProperties.OverflowPolicy.SPILL
+            ? new RollingFileAuditSink(properties.getSpillFile(),
+                properties.getFile().getMaxFileSize().toBytes(), properties.getFile().getMaxHistory())
+            : null;
+        return new AuditPipeline(properties, auditSink, spillSink, meterRegistry);
+    }
+}
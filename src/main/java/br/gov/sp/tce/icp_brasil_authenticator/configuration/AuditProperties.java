@@ -0,0 +1,72 @@
+package br.gov.sp.tce.icp_brasil_authenticator.configuration;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "icp-brasil.audit")
+public class AuditProperties {
+    
+    public enum Sink { LOG, FILE, JDBC }
+    
+    public enum OverflowPolicy { BLOCK, DROP, SPILL }
+    
+    // Destino dos eventos LOGIN_CERTIFICADO
+    private Sink sink = Sink.LOG;
+    
+    // Capacidade da fila em memória (arredondada para potência de 2)
+    private int capacity = 8192;
+    
+    // Quantidade máxima de eventos entregues ao sink por vez
+    private int batchSize = 256;
+    
+    // Threads consumidoras
+    private int consumers = 1;
+    
+    // Espera do consumidor quando a fila está vazia
+    private Duration pollInterval = Duration.ofMillis(5);
+    
+    // Comportamento com a fila cheia: bloquear a requisição, descartar (com contador) ou gravar em disco
+    private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+    
+    // Arquivo usado pela política SPILL
+    private Path spillFile = Path.of("logs/audit/login-certificado-overflow.log");
+    
+    private File file = new File();
+    
+    private Store store = new Store();
+    
+    @Data
+    public static class File {
+        
+        private Path path = Path.of("logs/audit/login-certificado.log");
+        
+        private DataSize maxFileSize = DataSize.ofMegabytes(100);
+        
+        private int maxHistory = 30;
+    }
+    
+    // Tabela de auditoria (Liquibase) e endpoint de consulta
+    @Data
+    public static class Store {
+        
+        private boolean enabled = false;
+        
+        // Meses à frente com partição mensal já criada (apenas Postgres)
+        private int partitionMonthsAhead = 3;
+        
+        private int defaultPageSize = 50;
+        
+        private int maxPageSize = 500;
+        
+        // CPFs (do certificado cliente) autorizados a consultar a auditoria
+        private List<String> auditorCpfs = new ArrayList<>();
+    }
+}
@@ -0,0 +1,27 @@
+package br.gov.sp.tce.icp_brasil_authenticator.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "icp-brasil.batch")
+public class BatchProperties {
+    
+    // Habilita POST /api/certificate/validate/batch
+    private boolean enabled = false;
+    
+    // Threads de validação (0 = quantidade de processadores)
+    private int parallelism = 0;
+    
+    // Certificados lidos e ainda não escritos na resposta, por lote; limita a memória e
+    // faz a leitura da entrada acompanhar a escrita da saída
+    private int maxInFlight = 256;
+    
+    // Tamanho máximo de uma linha NDJSON ou de um bloco PEM
+    private DataSize maxItemSize = DataSize.ofKilobytes(64);
+    
+    // Validação offline: arquivos acima deste tamanho são mapeados em memória em vez de lidos no heap
+    private DataSize mappedFileThreshold = DataSize.ofMegabytes(1);
+}
@@ -0,0 +1,9 @@
+package br.gov.sp.tce.icp_brasil_authenticator.configuration;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(CertificateCacheProperties.class)
+public class CertificateCacheConfiguration {
+}
@@ -0,0 +1,21 @@
+package br.gov.sp.tce.icp_brasil_authenticator.configuration;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "icp-brasil.certificate-cache")
+public class CertificateCacheProperties {
+    
+    // Habilita o cache dos dados extraídos do certificado (chave: fingerprint SHA-256 do DER)
+    private boolean enabled = true;
+    
+    // Quantidade máxima de certificados mantidos em memória
+    private long maximumSize = 10_000;
+    
+    // Tempo máximo de permanência de uma entrada (limitado também pelo notAfter do certificado)
+    private Duration ttl = Duration.ofHours(1);
+}
@@ -0,0 +1,40 @@
+package br.gov.sp.tce.icp_brasil_authenticator.configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "icp-brasil.client-certificate")
+public class ClientCertificateProperties {
+    
+    // De onde vem o certificado do cliente: handshake mTLS deste servidor ou cabeçalho do proxy
+    private Source source = Source.TLS;
+    
+    // Certificado em PEM com URL-encoding (nginx $ssl_client_escaped_cert) ou DER em base64 (HAProxy)
+    private String header = "X-SSL-Client-Cert";
+    
+    // Cadeia do cliente (opcional), no mesmo formato de header
+    private String chainHeader;
+    
+    // Cabeçalho do Envoy com Cert/Chain; vale o último elemento, incluído pelo proxy à frente do serviço
+    private String xfccHeader = "X-Forwarded-Client-Cert";
+    
+    // Endereços (IP ou CIDR) dos proxies autorizados a repassar o certificado
+    private List<String> trustedProxies = List.of("127.0.0.1", "::1");
+    
+    // IP do cliente repassado pelo proxy, usado na auditoria no lugar do IP do proxy
+    private String forwardedForHeader = "X-Forwarded-For";
+    
+    // Certificados já decodificados, indexados pelo SHA-256 do valor do cabeçalho (0 desliga)
+    private long decodeCacheSize = 10_000;
+    
+    private Duration decodeCacheTtl = Duration.ofHours(1);
+    
+    public enum Source {
+        TLS, HEADER, XFCC
+    }
+}
@@ -0,0 +1,53 @@
+package br.gov.sp.tce.icp_brasil_authenticator.configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "icp-brasil.concurrency-limit")
+public class ConcurrencyLimitProperties {
+    
+    // Responde 503 quando as requisições em andamento atingem o limite
+    private boolean enabled = false;
+    
+    // Prefixos de caminho com limite ajustado pela latência
+    private List<String> paths = List.of("/api/certificate/");
+    
+    // Caminhos fora do limite (o lote tem o próprio controle de itens em andamento)
+    private List<String> excludedPaths = List.of("/api/certificate/validate/batch");
+    
+    private int initialLimit = 20;
+    
+    private int minLimit = 4;
+    
+    // Abaixo de server.tomcat.threads.max (200), para sobrar threads ao health e ao actuator
+    private int maxLimit = 150;
+    
+    // Reduz o limite quando a latência média passa deste múltiplo da latência sem carga
+    private double tolerance = 2.0;
+    
+    // Fator aplicado ao limite em cada redução
+    private double backoffRatio = 0.9;
+    
+    // Amostras de latência por ajuste
+    private int windowSize = 20;
+    
+    // Período da menor média de janela usada como latência sem carga; uma dependência que fica lenta de vez
+    // passa a ser a nova referência depois de dois períodos
+    private Duration minRttWindow = Duration.ofSeconds(30);
+    
+    // Health e actuator, com limite fixo próprio
+    private Management management = new Management();
+    
+    @Data
+    public static class Management {
+        
+        private List<String> paths = List.of("/api/health/", "/actuator/");
+        
+        private int limit = 10;
+    }
+}
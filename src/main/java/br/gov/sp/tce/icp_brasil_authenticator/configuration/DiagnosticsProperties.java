@@ -0,0 +1,28 @@
+package br.gov.sp.tce.icp_brasil_authenticator.configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "icp-brasil.diagnostics")
+public class DiagnosticsProperties {
+    
+    // Últimos diagnósticos mantidos em memória
+    private int capacity = 256;
+    
+    // Fração das requisições capturadas (0 = nenhuma); alterável em tempo de execução pelo actuator
+    private double sampleRate = 0;
+    
+    // Fingerprints SHA-256 sempre capturados
+    private List<String> fingerprints = new ArrayList<>();
+    
+    // IPs ou CIDRs de clientes sempre capturados
+    private List<String> addresses = new ArrayList<>();
+    
+    // CPFs (do certificado cliente) autorizados a usar /actuator/diagnostics
+    private List<String> operatorCpfs = new ArrayList<>();
+}
@@ -0,0 +1,45 @@
+package br.gov.sp.tce.icp_brasil_authenticator.configuration;
+
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "icp-brasil.rate-limit")
+public class RateLimitProperties {
+    
+    // Responde 429 quando um certificado ou endereço excede o limite
+    private boolean enabled = false;
+    
+    // Prefixos de caminho limitados
+    private List<String> paths = List.of("/api/certificate/");
+    
+    // Por fingerprint do certificado do cliente
+    private Limit certificate = new Limit(5, 20);
+    
+    // Por IP do cliente (NAT de um órgão inteiro pode aparecer como um único endereço)
+    private Limit address = new Limit(50, 200);
+    
+    // Buckets de cada tabela (arredondado para potência de 2); a memória é fixa: 8 bytes por bucket
+    private int buckets = 65_536;
+    
+    @Data
+    public static class Limit {
+        
+        // Requisições por segundo em regime
+        private double rate;
+        
+        // Requisições seguidas aceitas antes de o limite se aplicar
+        private int burst;
+        
+        public Limit() {
+        }
+        
+        public Limit(double rate, int burst) {
+            this.rate = rate;
+            this.burst = burst;
+        }
+    }
+}
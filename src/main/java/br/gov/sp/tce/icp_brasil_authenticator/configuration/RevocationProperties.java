@@ -0,0 +1,95 @@
+package br.gov.sp.tce.icp_brasil_authenticator.configuration;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "icp-brasil.revocation")
+public class RevocationProperties {
+    
+    private Crl crl = new Crl();
+    
+    private Ocsp ocsp = new Ocsp();
+    
+    // Verificação local por LCR: índices carregados em segundo plano, nunca na requisição
+    @Data
+    public static class Crl {
+        
+        private boolean enabled = false;
+        
+        // Diretório com arquivos .crl (DER ou PEM)
+        private Path directory;
+        
+        // Espelhos HTTP das LCRs
+        private List<URI> urls = new ArrayList<>();
+        
+        // Frequência com que as fontes são verificadas
+        private Duration checkInterval = Duration.ofMinutes(1);
+        
+        // Antecedência em relação ao nextUpdate para buscar a nova LCR
+        private Duration refreshMargin = Duration.ofMinutes(5);
+        
+        // Intervalo de recarga quando a LCR não informa nextUpdate
+        private Duration refreshInterval = Duration.ofHours(1);
+        
+        private Duration httpTimeout = Duration.ofSeconds(30);
+        
+        // Taxa de falso positivo do filtro de Bloom à frente do índice de seriais
+        private double bloomFalsePositiveRate = 0.001;
+        
+        // Descarta LCRs cuja assinatura não é verificada por uma AC do truststore
+        private boolean requireSignature = true;
+        
+        // Sem LCR da AC, ou com a LCR vencida (UNKNOWN): SOFT aceita o certificado; HARD rejeita
+        private FailurePolicy failurePolicy = FailurePolicy.SOFT;
+    }
+    
+    // Consulta OCSP com cache por (hash da chave do emissor, serial) até o nextUpdate
+    @Data
+    public static class Ocsp {
+        
+        private boolean enabled = false;
+        
+        // Responder fixo; quando ausente, usa a URL OCSP do AuthorityInfoAccess do certificado
+        private URI responderUrl;
+        
+        // CNs das ACs consultadas por OCSP; vazio consulta todas as que publicam responder
+        private List<String> issuers = new ArrayList<>();
+        
+        private Duration connectTimeout = Duration.ofSeconds(2);
+        
+        // Tempo máximo de espera da requisição pela resposta do responder
+        private Duration requestTimeout = Duration.ofSeconds(3);
+        
+        // SOFT aceita o certificado quando o responder falha; HARD rejeita
+        private FailurePolicy failurePolicy = FailurePolicy.SOFT;
+        
+        private long maximumSize = 100_000;
+        
+        // Validade máxima no cache, mesmo com nextUpdate mais distante (ou ausente)
+        private Duration maximumTtl = Duration.ofHours(1);
+        
+        // Idade máxima do thisUpdate de uma resposta sem nextUpdate; acima disso ela é recusada
+        private Duration maximumAge = Duration.ofHours(1);
+        
+        // Tolerância de relógio para um thisUpdate no futuro
+        private Duration clockSkew = Duration.ofMinutes(5);
+        
+        // Tempo em que uma falha do responder fica em cache, evitando repetir o timeout a cada login
+        private Duration failureTtl = Duration.ofSeconds(30);
+        
+        // Entradas consultadas nesta janela antes de expirar são renovadas em segundo plano
+        private Duration prefetchBefore = Duration.ofMinutes(2);
+    }
+    
+    public enum FailurePolicy {
+        SOFT, HARD
+    }
+}
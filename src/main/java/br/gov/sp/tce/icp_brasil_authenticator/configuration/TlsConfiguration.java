@@ -0,0 +1,46 @@
+package br.gov.sp.tce.icp_brasil_authenticator.configuration;
+
+import org.apache.coyote.http11.AbstractHttp11JsseProtocol;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import br.gov.sp.tce.icp_brasil_authenticator.security.tls.InstrumentedSslImplementation;
+import br.gov.sp.tce.icp_brasil_authenticator.security.tls.TlsHandshakeMetrics;
+
+@Configuration
+@EnableConfigurationProperties(TlsProperties.class)
+public class TlsConfiguration {
+    
+    // O Tomcat instancia a implementação SSL pelo nome da classe; as configurações de sessão e as
+    // métricas são passadas antes da criação do conector e valem também para recargas do bundle
+    @Bean
+    public WebServerFactoryCustomizer<TomcatServletWebServerFactory> tlsCustomizer(TlsProperties properties,
+                                                                                   TlsHandshakeMetrics metrics) {
+        applySessionTickets(properties);
+        InstrumentedSslImplementation.configure(properties, metrics);
+        
+        return factory -> {
+            // Carrega a libtcnative na inicialização do servidor; se ela faltar, o conector volta ao JSSE
+            if (properties.getEngine() == TlsProperties.Engine.OPENSSL) {
+                factory.setUseApr(true);
+            }
+            factory.addConnectorCustomizers(connector -> {
+                if (connector.getProtocolHandler() instanceof AbstractHttp11JsseProtocol<?> protocol) {
+                    protocol.setSslImplementationName(InstrumentedSslImplementation.class.getName());
+                }
+            });
+        };
+    }
+    
+    // Lidas pelo JSSE ao criar o SSLContext do servidor (e a rotação, no primeiro ticket emitido),
+    // por isso são definidas aqui, antes do Tomcat iniciar
+    private static void applySessionTickets(TlsProperties properties) {
+        TlsProperties.SessionTickets tickets = properties.getSessionTickets();
+        System.setProperty("jdk.tls.server.enableSessionTicketExtension", Boolean.toString(tickets.isEnabled()));
+        System.setProperty("jdk.tls.server.statelessKeyTimeout", Long.toString(tickets.getKeyRotation().toSeconds()));
+        System.setProperty("jdk.tls.server.sessionTicketTimeout", Long.toString(properties.getSessionTimeout().toSeconds()));
+    }
+}
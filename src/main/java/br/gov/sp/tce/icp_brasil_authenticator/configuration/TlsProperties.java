@@ -0,0 +1,38 @@
+package br.gov.sp.tce.icp_brasil_authenticator.configuration;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "icp-brasil.tls")
+public class TlsProperties {
+    
+    // Implementação TLS do conector; OPENSSL exige a tomcat-native (libtcnative) no java.library.path
+    private Engine engine = Engine.JSSE;
+    
+    // Sessões TLS mantidas no cache do servidor para retomada por ID (TLS 1.2) ou PSK (TLS 1.3)
+    private int sessionCacheSize = 20_480;
+    
+    // Validade de uma sessão para retomada; também é o tempo de vida anunciado nos session tickets
+    private Duration sessionTimeout = Duration.ofHours(8);
+    
+    private SessionTickets sessionTickets = new SessionTickets();
+    
+    public enum Engine {
+        JSSE,
+        OPENSSL
+    }
+    
+    @Data
+    public static class SessionTickets {
+        
+        // Session tickets sem estado no servidor (RFC 5077 / TLS 1.3): o cliente guarda a sessão cifrada
+        private boolean enabled = true;
+        
+        // Intervalo de rotação da chave que cifra os tickets; chaves anteriores seguem aceitas até expirarem
+        private Duration keyRotation = Duration.ofHours(1);
+    }
+}
@@ -0,0 +1,34 @@
+package br.gov.sp.tce.icp_brasil_authenticator.configuration;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "icp-brasil.token")
+public class TokenProperties {
+    
+    // Emite um JWS de curta duração no /validate para certificados válidos
+    private boolean enabled = false;
+    
+    // Validade do token (claim exp)
+    private Duration ttl = Duration.ofMinutes(5);
+    
+    // Claim iss, conferida pelos serviços que verificam o token
+    private String issuer = "icp-brasil-authenticator";
+    
+    // Claim aud (opcional)
+    private String audience;
+    
+    // Bundle SSL (spring.ssl.bundle.*) com a chave de assinatura EC P-256 ou Ed25519
+    private String bundle;
+    
+    // Algoritmo da chave efêmera gerada quando não há bundle (apenas desenvolvimento)
+    private Algorithm algorithm = Algorithm.ES256;
+    
+    public enum Algorithm {
+        ES256, EDDSA
+    }
+}
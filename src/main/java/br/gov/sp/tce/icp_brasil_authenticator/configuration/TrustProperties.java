@@ -0,0 +1,32 @@
+package br.gov.sp.tce.icp_brasil_authenticator.configuration;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "icp-brasil.trust")
+public class TrustProperties {
+    
+    // Exige cadeia confiável (até uma AC do truststore) para o certificado ser considerado válido
+    private boolean requireTrustedChain = false;
+    
+    // Quantidade máxima de verificações de assinatura (certificado, chave da AC) mantidas em cache
+    private long signatureCacheSize = 10_000;
+    
+    // Profundidade máxima do caminho até uma AC do truststore
+    private int maxPathLength = 8;
+    
+    // Diretório de certificados .crt/.cer/.pem que compõem o truststore (alternativa ao .p12)
+    private Path certificatesDirectory;
+    
+    // Frequência de verificação de alterações no diretório de certificados
+    private Duration watchInterval = Duration.ofSeconds(10);
+    
+    // Snapshot binário das ACs gerado no build (perfil fast-startup); usado na inicialização no lugar
+    // do .p12 do bundle quando foi gerado desse mesmo arquivo
+    private Path snapshot;
+}
@@ -0,0 +1,25 @@
+package br.gov.sp.tce.icp_brasil_authenticator.configuration;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import br.gov.sp.tce.icp_brasil_authenticator.metrics.VirtualThreadPinningMetrics;
+
+// Com spring.threads.virtual.enabled o Tomcat atende cada requisição em uma virtual thread, sem o
+// limite de server.tomcat.threads.max; bloqueios em I/O (OCSP, banco) deixam de ocupar uma thread
+// de plataforma. O pinning, que anula esse ganho, é acompanhado por métrica.
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfiguration {
+    
+    @Bean(destroyMethod = "close")
+    public VirtualThreadPinningMetrics virtualThreadPinningMetrics(
+            @Value("${icp-brasil.virtual-threads.pinned-threshold:20ms}") Duration threshold) {
+        return new VirtualThreadPinningMetrics(threshold);
+    }
+}
@@ -0,0 +1,31 @@
+package br.gov.sp.tce.icp_brasil_authenticator.diagnostics;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+// Retrato de uma requisição amostrada: dados HTTP, sessão TLS, certificados apresentados e
+// atributos da requisição, com o motivo da captura (sample, fingerprint ou address)
+public record DiagnosticSnapshot(
+    LocalDateTime timestamp,
+    String reason,
+    String method,
+    String uri,
+    int status,
+    long durationMicros,
+    String remoteAddr,
+    String clientAddress,
+    String userAgent,
+    boolean secure,
+    Tls tls,
+    List<Certificate> certificates,
+    Map<String, String> attributes) {
+    
+    public record Tls(String protocol, String cipherSuite, Integer keySize, String sessionId) {
+    }
+    
+    // fingerprint apenas no certificado do cliente, já calculado pelo filtro
+    public record Certificate(String subjectDN, String issuerDN, String serialNumber, LocalDateTime notBefore,
+                              LocalDateTime notAfter, String fingerprint) {
+    }
+}
@@ -0,0 +1,58 @@
+package br.gov.sp.tce.icp_brasil_authenticator.diagnostics;
+
+import java.util.List;
+
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import br.gov.sp.tce.icp_brasil_authenticator.configuration.LoggingConfiguration;
+import br.gov.sp.tce.icp_brasil_authenticator.diagnostics.DiagnosticsRecorder.Sampling;
+import lombok.RequiredArgsConstructor;
+
+// /actuator/diagnostics: GET lista os retratos e a amostragem atual, POST altera a amostragem e
+// DELETE esvazia o buffer. O acesso é restrito aos CPFs de icp-brasil.diagnostics.operator-cpfs
+// (SecurityConfig). Alterações valem até o próximo reinício.
+@Component
+@Endpoint(id = "diagnostics")
+@RequiredArgsConstructor
+public class DiagnosticsEndpoint {
+    
+    private final DiagnosticsRecorder diagnosticsRecorder;
+    
+    @ReadOperation
+    public Report report() {
+        return new Report(diagnosticsRecorder.sampling(), diagnosticsRecorder.capacity(),
+            diagnosticsRecorder.recorded(), diagnosticsRecorder.snapshots());
+    }
+    
+    // fingerprints e addresses separados por vírgula; vazio remove os seletores
+    @WriteOperation
+    public Sampling update(@Nullable Double sampleRate, @Nullable String fingerprints, @Nullable String addresses) {
+        Sampling sampling;
+        try {
+            sampling = diagnosticsRecorder.update(sampleRate, split(fingerprints), split(addresses));
+        } catch (IllegalArgumentException e) {
+            // 400 em vez de 500
+            throw new InvalidEndpointRequestException(e.getMessage(), e.getMessage());
+        }
+        LoggingConfiguration.ACESSO_LOG.info("Amostragem de diagnóstico alterada: {}", sampling);
+        return sampling;
+    }
+    
+    @DeleteOperation
+    public void clear() {
+        diagnosticsRecorder.clear();
+    }
+    
+    private static List<String> split(String values) {
+        return values == null ? null : List.of(values.split(","));
+    }
+    
+    public record Report(Sampling sampling, int capacity, long recorded, List<DiagnosticSnapshot> snapshots) {
+    }
+}
@@ -0,0 +1,234 @@
+package br.gov.sp.tce.icp_brasil_authenticator.diagnostics;
+
+import java.security.cert.X509Certificate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.springframework.security.web.util.matcher.IpAddressMatcher;
+import org.springframework.stereotype.Component;
+
+import br.gov.sp.tce.icp_brasil_authenticator.configuration.DiagnosticsProperties;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.certificate.ParsedCertificate;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// Diagnóstico amostrado das requisições, no lugar do log de atributos e certificado a cada
+// requisição. A decisão de capturar é uma leitura volátil quando a amostragem está desligada;
+// as capturas vão para um buffer circular dos últimos N retratos, sobrescrevendo os mais antigos.
+// Amostragem e seletores mudam em tempo de execução pelo endpoint /actuator/diagnostics.
+@Component
+public class DiagnosticsRecorder {
+    
+    public static final String REASON_SAMPLE = "sample";
+    public static final String REASON_FINGERPRINT = "fingerprint";
+    public static final String REASON_ADDRESS = "address";
+    
+    private static final String CIPHER_SUITE = "jakarta.servlet.request.cipher_suite";
+    private static final String KEY_SIZE = "jakarta.servlet.request.key_size";
+    private static final String SSL_SESSION_ID = "jakarta.servlet.request.ssl_session_id";
+    private static final String X509_CERTIFICATE = "jakarta.servlet.request.X509Certificate";
+    private static final String PROTOCOL_VERSION = "org.apache.tomcat.util.net.secure_protocol_version";
+    private static final int MAX_ATTRIBUTE_LENGTH = 200;
+    
+    private final AtomicReferenceArray<DiagnosticSnapshot> snapshots;
+    private final AtomicLong recorded = new AtomicLong();
+    private final DiagnosticsProperties properties;
+    private volatile Selector selector;
+    
+    public DiagnosticsRecorder(DiagnosticsProperties properties) {
+        this.snapshots = new AtomicReferenceArray<>(Math.max(1, properties.getCapacity()));
+        this.properties = properties;
+        this.selector = new Selector(new Sampling(properties.getSampleRate(), properties.getFingerprints(),
+            properties.getAddresses()));
+    }
+    
+    // Motivo da captura ou null quando a requisição não é amostrada
+    public String select(String fingerprint, String clientAddress) {
+        Selector current = selector;
+        if (current.idle) {
+            return null;
+        }
+        if (fingerprint != null && current.fingerprints.contains(fingerprint)) {
+            return REASON_FINGERPRINT;
+        }
+        if (clientAddress != null) {
+            for (IpAddressMatcher address : current.addresses) {
+                if (address.matches(clientAddress)) {
+                    return REASON_ADDRESS;
+                }
+            }
+        }
+        double sampleRate = current.sampling.sampleRate();
+        return sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate ? REASON_SAMPLE : null;
+    }
+    
+    // Captura a requisição já respondida; chamado apenas para requisições selecionadas
+    public void record(HttpServletRequest request, HttpServletResponse response, String reason, String clientAddress,
+                       long startNanos) {
+        DiagnosticSnapshot snapshot = new DiagnosticSnapshot(
+            LocalDateTime.now(),
+            reason,
+            request.getMethod(),
+            request.getRequestURI(),
+            response.getStatus(),
+            TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos),
+            request.getRemoteAddr(),
+            clientAddress,
+            request.getHeader("User-Agent"),
+            request.isSecure(),
+            tls(request),
+            certificates(request),
+            attributes(request));
+        long position = recorded.getAndIncrement();
+        snapshots.set((int) (position % snapshots.length()), snapshot);
+    }
+    
+    // Do mais recente para o mais antigo
+    public List<DiagnosticSnapshot> snapshots() {
+        long end = recorded.get();
+        long start = Math.max(0, end - snapshots.length());
+        List<DiagnosticSnapshot> result = new ArrayList<>((int) (end - start));
+        for (long position = end - 1; position >= start; position--) {
+            DiagnosticSnapshot snapshot = snapshots.get((int) (position % snapshots.length()));
+            if (snapshot != null) {
+                result.add(snapshot);
+            }
+        }
+        return result;
+    }
+    
+    public long recorded() {
+        return recorded.get();
+    }
+    
+    public int capacity() {
+        return snapshots.length();
+    }
+    
+    public void clear() {
+        for (int i = 0; i < snapshots.length(); i++) {
+            snapshots.set(i, null);
+        }
+    }
+    
+    public Sampling sampling() {
+        return selector.sampling;
+    }
+    
+    // Valores nulos mantêm a configuração atual
+    public Sampling update(Double sampleRate, List<String> fingerprints, List<String> addresses) {
+        Sampling current = selector.sampling;
+        Sampling updated = new Sampling(
+            sampleRate != null ? sampleRate : current.sampleRate(),
+            fingerprints != null ? fingerprints : current.fingerprints(),
+            addresses != null ? addresses : current.addresses());
+        selector = new Selector(updated);
+        return updated;
+    }
+    
+    // CPF autorizado a operar o endpoint de diagnóstico; recebe o CPF de um certificado já
+    // conferido (CertificateValidationService.authorizedCpf), ou null quando não há
+    public boolean isOperator(String cpf) {
+        return cpf != null && properties.getOperatorCpfs().contains(cpf);
+    }
+    
+    private static DiagnosticSnapshot.Tls tls(HttpServletRequest request) {
+        if (!request.isSecure()) {
+            return null;
+        }
+        return new DiagnosticSnapshot.Tls(
+            string(request.getAttribute(PROTOCOL_VERSION)),
+            string(request.getAttribute(CIPHER_SUITE)),
+            request.getAttribute(KEY_SIZE) instanceof Integer keySize ? keySize : null,
+            string(request.getAttribute(SSL_SESSION_ID)));
+    }
+    
+    private static List<DiagnosticSnapshot.Certificate> certificates(HttpServletRequest request) {
+        ParsedCertificate parsedCertificate = ParsedCertificate.from(request);
+        X509Certificate[] chain = parsedCertificate != null ? parsedCertificate.getCertificateChain()
+            : request.getAttribute(X509_CERTIFICATE) instanceof X509Certificate[] certificates ? certificates : null;
+        if (chain == null) {
+            return List.of();
+        }
+        List<DiagnosticSnapshot.Certificate> certificates = new ArrayList<>(chain.length);
+        for (int i = 0; i < chain.length; i++) {
+            X509Certificate certificate = chain[i];
+            certificates.add(new DiagnosticSnapshot.Certificate(
+                certificate.getSubjectX500Principal().getName(),
+                certificate.getIssuerX500Principal().getName(),
+                certificate.getSerialNumber().toString(16).toUpperCase(Locale.ROOT),
+                LocalDateTime.ofInstant(certificate.getNotBefore().toInstant(), ZoneId.systemDefault()),
+                LocalDateTime.ofInstant(certificate.getNotAfter().toInstant(), ZoneId.systemDefault()),
+                i == 0 && parsedCertificate != null ? parsedCertificate.getFingerprint() : null));
+        }
+        return certificates;
+    }
+    
+    // Atributos da requisição, sem os internos do Spring e as marcas dos filtros; objetos aparecem pelo tipo
+    private static Map<String, String> attributes(HttpServletRequest request) {
+        Map<String, String> attributes = new LinkedHashMap<>();
+        for (String name : Collections.list(request.getAttributeNames())) {
+            if (name.startsWith("org.springframework.") || name.startsWith("class org.springframework.")
+                || name.startsWith("__spring") || name.endsWith(".FILTERED")) {
+                continue;
+            }
+            Object value = request.getAttribute(name);
+            String text;
+            if (value instanceof X509Certificate[] certificates) {
+                text = "X509Certificate[" + certificates.length + "]";
+            } else if (value instanceof CharSequence || value instanceof Number || value instanceof Boolean) {
+                text = value.toString();
+                if (text.length() > MAX_ATTRIBUTE_LENGTH) {
+                    text = text.substring(0, MAX_ATTRIBUTE_LENGTH) + "...";
+                }
+            } else {
+                text = value == null ? null : value.getClass().getSimpleName();
+            }
+            attributes.put(name, text);
+        }
+        return attributes;
+    }
+    
+    private static String string(Object value) {
+        return value == null ? null : value.toString();
+    }
+    
+    public record Sampling(double sampleRate, List<String> fingerprints, List<String> addresses) {
+        
+        public Sampling {
+            if (sampleRate < 0 || sampleRate > 1) {
+                throw new IllegalArgumentException("sampleRate deve estar entre 0 e 1");
+            }
+            fingerprints = fingerprints.stream().map(String::trim).filter(value -> !value.isEmpty())
+                .map(value -> value.toUpperCase(Locale.ROOT)).toList();
+            addresses = addresses.stream().map(String::trim).filter(value -> !value.isEmpty()).toList();
+        }
+    }
+    
+    // Sampling pré-processado para a decisão por requisição
+    private static final class Selector {
+        
+        private final Sampling sampling;
+        private final Set<String> fingerprints;
+        private final List<IpAddressMatcher> addresses;
+        private final boolean idle;
+        
+        private Selector(Sampling sampling) {
+            this.sampling = sampling;
+            this.fingerprints = Set.copyOf(sampling.fingerprints());
+            this.addresses = sampling.addresses().stream().map(IpAddressMatcher::new).toList();
+            this.idle = sampling.sampleRate() == 0 && fingerprints.isEmpty() && addresses.isEmpty();
+        }
+    }
+}
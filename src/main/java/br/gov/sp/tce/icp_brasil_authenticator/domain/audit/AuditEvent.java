@@ -0,0 +1,50 @@
+package br.gov.sp.tce.icp_brasil_authenticator.domain.audit;
+
+import java.time.LocalDateTime;
+
+import br.gov.sp.tce.icp_brasil_authenticator.domain.dto.CertificateDTO;
+
+// Evento de auditoria LOGIN_CERTIFICADO: cópia compacta dos campos auditados do CertificateDTO
+public record AuditEvent(
+    LocalDateTime timestamp,
+    String remoteAddress,
+    String cpf,
+    String serialNumber,
+    String fingerprint,
+    String issuerDN,
+    String subjectDN,
+    LocalDateTime validUntil,
+    String signatureAlgorithm,
+    String sessionId,
+    String userAgent) {
+    
+    public static AuditEvent from(CertificateDTO certificate) {
+        return new AuditEvent(
+            certificate.getValidationTimestamp(),
+            certificate.getRemoteAddress(),
+            certificate.getCpf(),
+            certificate.getSerialNumber(),
+            certificate.getFingerprint(),
+            certificate.getIssuerDN(),
+            certificate.getSubjectDN(),
+            certificate.getNotAfter(),
+            certificate.getSignatureAlgorithm(),
+            certificate.getSessionId(),
+            certificate.getUserAgent());
+    }
+    
+    // Mesmo formato da linha de auditoria gravada historicamente no log de transações
+    public String toLogLine() {
+        return "LOGIN_CERTIFICADO|timestamp=" + timestamp
+            + "|ip=" + remoteAddress
+            + "|cpf=" + cpf
+            + "|serialNumber=" + serialNumber
+            + "|fingerprint=" + fingerprint
+            + "|issuer=" + issuerDN
+            + "|subject=" + subjectDN
+            + "|validUntil=" + validUntil
+            + "|algorithm=" + signatureAlgorithm
+            + "|sessionId=" + sessionId
+            + "|userAgent=" + userAgent;
+    }
+}
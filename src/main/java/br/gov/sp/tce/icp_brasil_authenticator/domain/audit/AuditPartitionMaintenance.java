@@ -0,0 +1,62 @@
+package br.gov.sp.tce.icp_brasil_authenticator.domain.audit;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import br.gov.sp.tce.icp_brasil_authenticator.configuration.AuditProperties;
+import br.gov.sp.tce.icp_brasil_authenticator.configuration.LoggingConfiguration;
+import lombok.RequiredArgsConstructor;
+
+// Cria antecipadamente as partições mensais da tabela de auditoria no Postgres,
+// para que os inserts não caiam na partição DEFAULT
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "icp-brasil.audit.store.enabled", havingValue = "true")
+public class AuditPartitionMaintenance {
+    
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final AuditProperties properties;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "0 0 3 * * *")
+    public void createUpcomingPartitions() {
+        try {
+            if (!isPostgres()) {
+                return;
+            }
+            YearMonth month = YearMonth.now();
+            for (int i = 0; i <= properties.getStore().getPartitionMonthsAhead(); i++) {
+                createPartition(month.plusMonths(i));
+            }
+        } catch (Exception e) {
+            LoggingConfiguration.TRANSACAO_LOG.error("Erro ao criar partições de auditoria: {}", e.getMessage());
+        }
+    }
+    
+    private void createPartition(YearMonth month) {
+        LocalDate start = month.atDay(1);
+        LocalDate end = month.plusMonths(1).atDay(1);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS audit_login_certificado_" + SUFFIX.format(month)
+            + " PARTITION OF audit_login_certificado FOR VALUES FROM ('" + start + "') TO ('" + end + "')");
+    }
+    
+    private boolean isPostgres() {
+        String product = jdbcTemplate.execute((Connection connection) -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            return metaData.getDatabaseProductName();
+        });
+        return "PostgreSQL".equalsIgnoreCase(product);
+    }
+}
@@ -0,0 +1,176 @@
+package br.gov.sp.tce.icp_brasil_authenticator.domain.audit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.springframework.context.SmartLifecycle;
+
+import br.gov.sp.tce.icp_brasil_authenticator.configuration.AuditProperties;
+import br.gov.sp.tce.icp_brasil_authenticator.configuration.LoggingConfiguration;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+// Pipeline assíncrono de auditoria: a thread da requisição apenas enfileira o evento na
+// AuditRingBuffer; threads consumidoras agrupam em lotes e entregam ao AuditSink configurado.
+public class AuditPipeline implements SmartLifecycle {
+    
+    private final AuditProperties properties;
+    private final AuditSink sink;
+    private final AuditSink spillSink;
+    private final AuditRingBuffer buffer;
+    private final long pollIntervalNanos;
+    
+    private final Counter droppedEvents;
+    private final Counter spilledEvents;
+    private final Counter sinkFailures;
+    private final DistributionSummary batchSize;
+    private final Timer sinkLatency;
+    
+    private final List<Thread> consumers = new ArrayList<>();
+    private volatile boolean running;
+    
+    public AuditPipeline(AuditProperties properties, AuditSink sink, AuditSink spillSink, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.sink = sink;
+        this.spillSink = spillSink;
+        this.buffer = new AuditRingBuffer(properties.getCapacity());
+        this.pollIntervalNanos = properties.getPollInterval().toNanos();
+        
+        Gauge.builder("audit.queue.depth", buffer, AuditRingBuffer::size)
+            .description("Eventos de auditoria aguardando gravação")
+            .register(meterRegistry);
+        Gauge.builder("audit.queue.capacity", buffer, AuditRingBuffer::capacity)
+            .register(meterRegistry);
+        this.droppedEvents = Counter.builder("audit.events.dropped")
+            .description("Eventos descartados com a fila cheia (política DROP)")
+            .register(meterRegistry);
+        this.spilledEvents = Counter.builder("audit.events.spilled")
+            .description("Eventos gravados em disco com a fila cheia (política SPILL)")
+            .register(meterRegistry);
+        this.sinkFailures = Counter.builder("audit.sink.failures")
+            .tag("sink", sink.name())
+            .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("audit.batch.size")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+        this.sinkLatency = Timer.builder("audit.sink.latency")
+            .tag("sink", sink.name())
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+    }
+    
+    // Chamado na thread da requisição: nunca faz I/O, exceto com a política SPILL e a fila cheia
+    public void publish(AuditEvent event) {
+        if (buffer.offer(event)) {
+            return;
+        }
+        
+        switch (properties.getOverflowPolicy()) {
+            case DROP -> droppedEvents.increment();
+            case SPILL -> spill(event);
+            case BLOCK -> {
+                while (!buffer.offer(event)) {
+                    if (!running) {
+                        writeBatch(List.of(event));
+                        return;
+                    }
+                    LockSupport.parkNanos(pollIntervalNanos);
+                }
+            }
+        }
+    }
+    
+    private void spill(AuditEvent event) {
+        try {
+            spillSink.write(List.of(event));
+            spilledEvents.increment();
+        } catch (Exception e) {
+            droppedEvents.increment();
+            LoggingConfiguration.TRANSACAO_LOG.error("Falha ao gravar evento de auditoria excedente: {}", e.getMessage());
+        }
+    }
+    
+    private void consume() {
+        List<AuditEvent> batch = new ArrayList<>(properties.getBatchSize());
+        while (running || buffer.size() > 0) {
+            if (buffer.drainTo(batch, properties.getBatchSize()) == 0) {
+                LockSupport.parkNanos(pollIntervalNanos);
+                continue;
+            }
+            writeBatch(batch);
+            batch.clear();
+        }
+    }
+    
+    private void writeBatch(List<AuditEvent> batch) {
+        batchSize.record(batch.size());
+        long start = System.nanoTime();
+        try {
+            sink.write(batch);
+        } catch (Exception e) {
+            // Sem perda silenciosa: o lote segue para o log de transações
+            sinkFailures.increment();
+            LoggingConfiguration.TRANSACAO_LOG.error("Falha no sink de auditoria {}: {}", sink.name(), e.getMessage());
+            for (AuditEvent event : batch) {
+                LoggingConfiguration.TRANSACAO_LOG.info(event.toLogLine());
+            }
+        } finally {
+            sinkLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+    
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        for (int i = 0; i < properties.getConsumers(); i++) {
+            Thread consumer = new Thread(this::consume, "audit-consumer-" + i);
+            consumer.setDaemon(true);
+            consumer.start();
+            consumers.add(consumer);
+        }
+    }
+    
+    // Encerramento: consumidores esvaziam a fila antes de fechar o sink
+    @Override
+    public synchronized void stop() {
+        running = false;
+        for (Thread consumer : consumers) {
+            try {
+                consumer.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        consumers.clear();
+        close(sink);
+        close(spillSink);
+    }
+    
+    private static void close(AuditSink auditSink) {
+        if (auditSink == null) {
+            return;
+        }
+        try {
+            auditSink.close();
+        } catch (Exception e) {
+            LoggingConfiguration.TRANSACAO_LOG.error("Erro ao fechar sink de auditoria {}: {}", auditSink.name(), e.getMessage());
+        }
+    }
+    
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+    
+    int queueDepth() {
+        return buffer.size();
+    }
+}
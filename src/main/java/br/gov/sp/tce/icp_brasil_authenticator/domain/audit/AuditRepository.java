@@ -0,0 +1,113 @@
+package br.gov.sp.tce.icp_brasil_authenticator.domain.audit;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import br.gov.sp.tce.icp_brasil_authenticator.domain.dto.AuditLoginDTO;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.dto.AuditPageDTO;
+import lombok.RequiredArgsConstructor;
+
+// Consulta paginada por chave (event_timestamp, id) decrescente: o custo de cada página
+// independe da posição, ao contrário de OFFSET, e usa os índices (filtro, event_timestamp, id)
+@Repository
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "icp-brasil.audit.store.enabled", havingValue = "true")
+public class AuditRepository {
+    
+    private static final String SELECT = "SELECT id, event_timestamp, remote_address, cpf, serial_number, fingerprint, "
+        + "issuer_dn, subject_dn, valid_until, signature_algorithm, session_id, user_agent FROM audit_login_certificado";
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    public AuditPageDTO findLogins(String cpf, String fingerprint, String issuerDN,
+                                   LocalDateTime from, LocalDateTime to, String cursor, int limit) {
+        if (cpf == null && fingerprint == null && issuerDN == null) {
+            throw new IllegalArgumentException("Informe ao menos um filtro: cpf, fingerprint ou issuer");
+        }
+        
+        StringBuilder sql = new StringBuilder(SELECT).append(" WHERE 1 = 1");
+        List<Object> args = new ArrayList<>();
+        appendFilter(sql, args, "cpf = ?", cpf);
+        appendFilter(sql, args, "fingerprint = ?", fingerprint);
+        appendFilter(sql, args, "issuer_dn = ?", issuerDN);
+        appendFilter(sql, args, "event_timestamp >= ?", from != null ? Timestamp.valueOf(from) : null);
+        appendFilter(sql, args, "event_timestamp < ?", to != null ? Timestamp.valueOf(to) : null);
+        
+        if (cursor != null && !cursor.isBlank()) {
+            Cursor position = Cursor.decode(cursor);
+            // Comparação de tupla: no Postgres vira condição de intervalo no índice
+            sql.append(" AND (event_timestamp, id) < (?, ?)");
+            args.add(Timestamp.valueOf(position.timestamp()));
+            args.add(position.id());
+        }
+        
+        // Uma linha a mais indica que existe próxima página
+        sql.append(" ORDER BY event_timestamp DESC, id DESC LIMIT ?");
+        args.add(limit + 1);
+        
+        List<AuditLoginDTO> rows = jdbcTemplate.query(sql.toString(), AuditRepository::mapRow, args.toArray());
+        
+        String nextCursor = null;
+        if (rows.size() > limit) {
+            rows = rows.subList(0, limit);
+            AuditLoginDTO last = rows.get(limit - 1);
+            nextCursor = new Cursor(last.getTimestamp(), last.getId()).encode();
+        }
+        return new AuditPageDTO(rows, nextCursor);
+    }
+    
+    private static void appendFilter(StringBuilder sql, List<Object> args, String condition, Object value) {
+        if (value != null) {
+            sql.append(" AND ").append(condition);
+            args.add(value);
+        }
+    }
+    
+    private static AuditLoginDTO mapRow(ResultSet rs, int rowNum) throws SQLException {
+        Timestamp validUntil = rs.getTimestamp("valid_until");
+        return new AuditLoginDTO(
+            rs.getLong("id"),
+            rs.getTimestamp("event_timestamp").toLocalDateTime(),
+            rs.getString("remote_address"),
+            rs.getString("cpf"),
+            rs.getString("serial_number"),
+            rs.getString("fingerprint"),
+            rs.getString("issuer_dn"),
+            rs.getString("subject_dn"),
+            validUntil != null ? validUntil.toLocalDateTime() : null,
+            rs.getString("signature_algorithm"),
+            rs.getString("session_id"),
+            rs.getString("user_agent"));
+    }
+    
+    // Cursor opaco: "timestamp|id" em Base64 URL-safe
+    private record Cursor(LocalDateTime timestamp, long id) {
+        
+        String encode() {
+            return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((timestamp + "|" + id).getBytes(StandardCharsets.UTF_8));
+        }
+        
+        static Cursor decode(String value) {
+            try {
+                String decoded = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+                int separator = decoded.indexOf('|');
+                return new Cursor(LocalDateTime.parse(decoded.substring(0, separator)),
+                    Long.parseLong(decoded.substring(separator + 1)));
+            } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+                throw new IllegalArgumentException("Cursor de paginação inválido");
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package br.gov.sp.tce.icp_brasil_authenticator.domain.audit;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Fila circular limitada, sem locks, para múltiplos produtores e consumidores.
+// Cada posição tem um número de sequência que indica se está livre para o produtor
+// (seq == posição) ou pronta para o consumidor (seq == posição + 1).
+final class AuditRingBuffer {
+    
+    private final AtomicReferenceArray<AuditEvent> events;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong producerPosition = new AtomicLong();
+    private final AtomicLong consumerPosition = new AtomicLong();
+    
+    AuditRingBuffer(int requestedCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(2, requestedCapacity - 1) << 1);
+        this.events = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        this.mask = capacity - 1;
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+    
+    int capacity() {
+        return mask + 1;
+    }
+    
+    // Não bloqueia: devolve false quando a fila está cheia
+    boolean offer(AuditEvent event) {
+        long position = producerPosition.get();
+        while (true) {
+            int index = (int) (position & mask);
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (producerPosition.compareAndSet(position, position + 1)) {
+                    events.lazySet(index, event);
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+                position = producerPosition.get();
+            } else if (difference < 0) {
+                return false;
+            } else {
+                position = producerPosition.get();
+            }
+        }
+    }
+    
+    AuditEvent poll() {
+        long position = consumerPosition.get();
+        while (true) {
+            int index = (int) (position & mask);
+            long difference = sequences.get(index) - (position + 1);
+            if (difference == 0) {
+                if (consumerPosition.compareAndSet(position, position + 1)) {
+                    AuditEvent event = events.get(index);
+                    events.lazySet(index, null);
+                    sequences.set(index, position + mask + 1);
+                    return event;
+                }
+                position = consumerPosition.get();
+            } else if (difference < 0) {
+                return null;
+            } else {
+                position = consumerPosition.get();
+            }
+        }
+    }
+    
+    int drainTo(List<AuditEvent> batch, int maxEvents) {
+        int drained = 0;
+        AuditEvent event;
+        while (drained < maxEvents && (event = poll()) != null) {
+            batch.add(event);
+            drained++;
+        }
+        return drained;
+    }
+    
+    int size() {
+        return (int) Math.max(0, producerPosition.get() - consumerPosition.get());
+    }
+}
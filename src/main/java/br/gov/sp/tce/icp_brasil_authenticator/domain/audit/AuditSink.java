@@ -0,0 +1,15 @@
+package br.gov.sp.tce.icp_brasil_authenticator.domain.audit;
+
+import java.util.List;
+
+// Destino dos eventos de auditoria. Chamado apenas pelas threads consumidoras do AuditPipeline,
+// sempre com lotes não vazios.
+public interface AuditSink {
+    
+    String name();
+    
+    void write(List<AuditEvent> batch) throws Exception;
+    
+    default void close() throws Exception {
+    }
+}
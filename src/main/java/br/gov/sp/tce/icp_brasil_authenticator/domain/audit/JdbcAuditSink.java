@@ -0,0 +1,83 @@
+package br.gov.sp.tce.icp_brasil_authenticator.domain.audit;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+// Grava cada lote do pipeline em um único INSERT multi-linhas (VALUES (...), (...), ...)
+public class JdbcAuditSink implements AuditSink {
+    
+    private static final String INSERT_PREFIX = "INSERT INTO audit_login_certificado "
+        + "(event_timestamp, remote_address, cpf, serial_number, fingerprint, issuer_dn, subject_dn, "
+        + "valid_until, signature_algorithm, session_id, user_agent) VALUES ";
+    private static final String ROW_PLACEHOLDERS = "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final int COLUMNS = 11;
+    
+    // Postgres aceita no máximo 65535 parâmetros por comando
+    private static final int MAX_ROWS_PER_STATEMENT = 65535 / COLUMNS;
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    // SQL por quantidade de linhas, montado uma única vez
+    private final AtomicReferenceArray<String> statements = new AtomicReferenceArray<>(MAX_ROWS_PER_STATEMENT + 1);
+    
+    public JdbcAuditSink(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+    
+    @Override
+    public String name() {
+        return "jdbc";
+    }
+    
+    @Override
+    public void write(List<AuditEvent> batch) {
+        for (int from = 0; from < batch.size(); from += MAX_ROWS_PER_STATEMENT) {
+            List<AuditEvent> rows = batch.subList(from, Math.min(batch.size(), from + MAX_ROWS_PER_STATEMENT));
+            jdbcTemplate.update(insertStatement(rows.size()), ps -> bind(ps, rows));
+        }
+    }
+    
+    private String insertStatement(int rows) {
+        String sql = statements.get(rows);
+        if (sql == null) {
+            StringBuilder sb = new StringBuilder(INSERT_PREFIX.length() + rows * (ROW_PLACEHOLDERS.length() + 2));
+            sb.append(INSERT_PREFIX);
+            for (int i = 0; i < rows; i++) {
+                if (i > 0) {
+                    sb.append(", ");
+                }
+                sb.append(ROW_PLACEHOLDERS);
+            }
+            sql = sb.toString();
+            statements.set(rows, sql);
+        }
+        return sql;
+    }
+    
+    private static void bind(PreparedStatement ps, List<AuditEvent> rows) throws SQLException {
+        int index = 1;
+        for (AuditEvent event : rows) {
+            ps.setTimestamp(index++, toTimestamp(event.timestamp()));
+            ps.setString(index++, event.remoteAddress());
+            ps.setString(index++, event.cpf());
+            ps.setString(index++, event.serialNumber());
+            ps.setString(index++, event.fingerprint());
+            ps.setString(index++, event.issuerDN());
+            ps.setString(index++, event.subjectDN());
+            ps.setTimestamp(index++, toTimestamp(event.validUntil()));
+            ps.setString(index++, event.signatureAlgorithm());
+            ps.setString(index++, event.sessionId());
+            ps.setString(index++, event.userAgent());
+        }
+    }
+    
+    private static Timestamp toTimestamp(LocalDateTime value) {
+        return value != null ? Timestamp.valueOf(value) : null;
+    }
+}
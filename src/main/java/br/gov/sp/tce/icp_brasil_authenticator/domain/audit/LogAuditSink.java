@@ -0,0 +1,21 @@
+package br.gov.sp.tce.icp_brasil_authenticator.domain.audit;
+
+import java.util.List;
+
+import br.gov.sp.tce.icp_brasil_authenticator.configuration.LoggingConfiguration;
+
+// Grava os eventos no logger de transações (comportamento original), fora da thread da requisição
+public class LogAuditSink implements AuditSink {
+    
+    @Override
+    public String name() {
+        return "log";
+    }
+    
+    @Override
+    public void write(List<AuditEvent> batch) {
+        for (AuditEvent event : batch) {
+            LoggingConfiguration.TRANSACAO_LOG.info(event.toLogLine());
+        }
+    }
+}
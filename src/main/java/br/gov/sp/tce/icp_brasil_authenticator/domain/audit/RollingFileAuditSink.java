@@ -0,0 +1,95 @@
+package br.gov.sp.tce.icp_brasil_authenticator.domain.audit;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Arquivo de auditoria com rotação por tamanho: audit.log -> audit.log.1 -> ... -> audit.log.N
+public class RollingFileAuditSink implements AuditSink {
+    
+    private final Path file;
+    private final long maxFileSize;
+    private final int maxHistory;
+    
+    // ReentrantLock em vez de synchronized: o spill grava na thread da requisição e, com virtual
+    // threads, um monitor mantido durante a escrita em disco prenderia a carrier thread
+    private final ReentrantLock lock = new ReentrantLock();
+    
+    private BufferedWriter writer;
+    private long currentSize;
+    
+    public RollingFileAuditSink(Path file, long maxFileSize, int maxHistory) throws IOException {
+        this.file = file;
+        this.maxFileSize = maxFileSize;
+        this.maxHistory = maxHistory;
+        open();
+    }
+    
+    @Override
+    public String name() {
+        return "file";
+    }
+    
+    // Pode ser chamado por mais de um consumidor (ou pelo spill na thread da requisição)
+    @Override
+    public void write(List<AuditEvent> batch) throws IOException {
+        lock.lock();
+        try {
+            for (AuditEvent event : batch) {
+                String line = event.toLogLine();
+                writer.write(line);
+                writer.newLine();
+                currentSize += line.length() + 1;
+            }
+            writer.flush();
+            
+            if (currentSize >= maxFileSize) {
+                roll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            writer.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    private void open() throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+            StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        currentSize = Files.size(file);
+    }
+    
+    private void roll() throws IOException {
+        writer.close();
+        Files.deleteIfExists(archive(maxHistory));
+        for (int i = maxHistory - 1; i >= 1; i--) {
+            Path source = archive(i);
+            if (Files.exists(source)) {
+                Files.move(source, archive(i + 1), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        Files.move(file, archive(1), StandardCopyOption.REPLACE_EXISTING);
+        open();
+    }
+    
+    private Path archive(int index) {
+        return file.resolveSibling(file.getFileName() + "." + index);
+    }
+}
@@ -0,0 +1,52 @@
+package br.gov.sp.tce.icp_brasil_authenticator.domain.batch;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.cert.Certificate;
+import java.security.cert.CertificateException;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509Certificate;
+import java.util.Base64;
+import java.util.Collection;
+
+// Certificado de um lote: origem (linha da entrada e/ou identificador), a forma de obtê-lo,
+// executada na thread de validação para que a decodificação também rode em paralelo, ou o
+// erro de leitura
+public record BatchItem(long line, String id, Loader loader, String error) {
+    
+    @FunctionalInterface
+    public interface Loader {
+        
+        // Certificado seguido da cadeia, quando houver
+        X509Certificate[] load() throws CertificateException;
+    }
+    
+    public static BatchItem of(long line, String id, String certificate) {
+        return new BatchItem(line, id, () -> decode(certificate), null);
+    }
+    
+    public static BatchItem failed(long line, String id, String error) {
+        return new BatchItem(line, id, null, error);
+    }
+    
+    public BatchItem withId(String id) {
+        return new BatchItem(line, id, loader, error);
+    }
+    
+    // PEM (um ou mais blocos: certificado seguido da cadeia) ou DER em base64
+    static X509Certificate[] decode(String certificate) throws CertificateException {
+        return decode(certificate.contains("-----BEGIN")
+            ? certificate.getBytes(StandardCharsets.US_ASCII)
+            : Base64.getMimeDecoder().decode(certificate));
+    }
+    
+    // DER ou PEM
+    static X509Certificate[] decode(byte[] encoded) throws CertificateException {
+        Collection<? extends Certificate> certificates = CertificateFactory.getInstance("X.509")
+            .generateCertificates(new ByteArrayInputStream(encoded));
+        if (certificates.isEmpty()) {
+            throw new CertificateException("Nenhum certificado encontrado");
+        }
+        return certificates.toArray(X509Certificate[]::new);
+    }
+}
@@ -0,0 +1,83 @@
+package br.gov.sp.tce.icp_brasil_authenticator.domain.batch;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.gov.sp.tce.icp_brasil_authenticator.domain.dto.CertificateBatchResultDTO;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.dto.CertificateDTO;
+
+// Relatório da validação offline: NDJSON (mesmo formato do /validate/batch) ou CSV com os
+// campos principais, uma linha por certificado
+public class BatchReportWriter implements CertificateBatchValidator.ResultWriter, Closeable {
+    
+    public enum Format { CSV, NDJSON }
+    
+    private static final String CSV_HEADER = "id,line,valid,chainStatus,trustAnchor,revocationStatus,cpf,cnpj,"
+        + "subjectName,issuerName,serialNumber,notBefore,notAfter,fingerprint,error";
+    
+    private final Format format;
+    private final ObjectMapper objectMapper;
+    private final Writer writer;
+    
+    public BatchReportWriter(OutputStream out, Format format, ObjectMapper objectMapper) throws IOException {
+        this.format = format;
+        this.objectMapper = objectMapper;
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        if (format == Format.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+    }
+    
+    @Override
+    public void write(CertificateBatchResultDTO result) throws IOException {
+        if (format == Format.NDJSON) {
+            writer.write(objectMapper.writeValueAsString(result));
+            writer.write('\n');
+            return;
+        }
+        CertificateDTO certificate = result.getCertificate() != null ? result.getCertificate() : new CertificateDTO();
+        Object[] columns = {
+            result.getId(), result.getLine(), certificate.getValid(), certificate.getChainStatus(),
+            certificate.getTrustAnchor(), certificate.getRevocationStatus(), certificate.getCpf(), certificate.getCnpj(),
+            certificate.getSubjectName(), certificate.getIssuerName(), certificate.getSerialNumber(),
+            certificate.getNotBefore(), certificate.getNotAfter(), certificate.getFingerprint(), result.getError()
+        };
+        for (int i = 0; i < columns.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(csv(columns[i]));
+        }
+        writer.write('\n');
+    }
+    
+    // RFC 4180: campos com vírgula, aspas ou quebra de linha vão entre aspas, com aspas duplicadas
+    static String csv(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+    
+    @Override
+    public void flush() throws IOException {
+        writer.flush();
+    }
+    
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
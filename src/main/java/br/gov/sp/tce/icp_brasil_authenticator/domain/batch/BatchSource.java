@@ -0,0 +1,11 @@
+package br.gov.sp.tce.icp_brasil_authenticator.domain.batch;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+// Entrada de um lote, lida um item por vez pelo CertificateBatchValidator
+public interface BatchSource extends Closeable {
+    
+    // Próximo item ou null no fim da entrada
+    BatchItem next() throws IOException;
+}
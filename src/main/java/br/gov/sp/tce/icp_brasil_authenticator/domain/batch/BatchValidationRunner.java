@@ -0,0 +1,91 @@
+package br.gov.sp.tce.icp_brasil_authenticator.domain.batch;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.gov.sp.tce.icp_brasil_authenticator.configuration.BatchProperties;
+import br.gov.sp.tce.icp_brasil_authenticator.configuration.LoggingConfiguration;
+import lombok.RequiredArgsConstructor;
+
+// Validação offline (perfil cli, iniciado por IcpBrasilBatchApplication): lê --input (diretórios,
+// .zip, keystores ou arquivos de certificados; pode ser repetido), valida com o mesmo motor da
+// API e grava o relatório em --output (--format csv ou ndjson; padrão pela extensão)
+@Component
+@Profile("cli")
+@RequiredArgsConstructor
+public class BatchValidationRunner implements ApplicationRunner {
+    
+    private final CertificateBatchValidator certificateBatchValidator;
+    private final BatchProperties batchProperties;
+    private final ObjectMapper objectMapper;
+    
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        List<String> inputs = args.getOptionValues("input");
+        if (inputs == null || inputs.isEmpty()) {
+            throw new IllegalArgumentException("Informe ao menos um --input=<diretório, .zip, keystore ou arquivo>");
+        }
+        Path output = Path.of(option(args, "output", "validacao.csv"));
+        BatchReportWriter.Format format = BatchReportWriter.Format.valueOf(option(args, "format",
+            output.toString().toLowerCase(Locale.ROOT).endsWith(".ndjson") ? "ndjson" : "csv").toUpperCase(Locale.ROOT));
+        String password = option(args, "password", "");
+        
+        long start = System.nanoTime();
+        CertificateBatchValidator.Summary summary;
+        long files;
+        try (CertificateFileSource source = new CertificateFileSource(inputs.stream().map(Path::of).toList(),
+                 password.toCharArray(), batchProperties.getMappedFileThreshold().toBytes(),
+                 (int) batchProperties.getMaxItemSize().toBytes());
+             OutputStream out = Files.newOutputStream(output);
+             BatchReportWriter report = new BatchReportWriter(out, format, objectMapper)) {
+            summary = certificateBatchValidator.validate(source, report);
+            files = source.filesRead();
+        }
+        
+        double seconds = Math.max((System.nanoTime() - start) / 1e9, 1e-3);
+        LoggingConfiguration.TRANSACAO_LOG.info(String.format(Locale.ROOT,
+            "Validação offline concluída em %.1f s: %d arquivos (%.0f/s), %d certificados (%.0f/s): %d válidos, "
+                + "%d inválidos, %d com erro; pico de memória residente %d MB; relatório em %s",
+            seconds, files, files / seconds, summary.total(), summary.total() / seconds, summary.valid(),
+            summary.invalid(), summary.failed(), peakResidentMemory() >> 20, output.toAbsolutePath()));
+    }
+    
+    private static String option(ApplicationArguments args, String name, String defaultValue) {
+        List<String> values = args.getOptionValues(name);
+        return values == null || values.isEmpty() ? defaultValue : values.get(values.size() - 1);
+    }
+    
+    // VmHWM do Linux (pico do RSS do processo); fora do Linux, o pico de uso do heap
+    static long peakResidentMemory() {
+        try {
+            for (String line : Files.readAllLines(Path.of("/proc/self/status"))) {
+                if (line.startsWith("VmHWM:")) {
+                    return Long.parseLong(line.replaceAll("\\D", "")) * 1024;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // segue com o heap
+        }
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+}
@@ -0,0 +1,140 @@
+package br.gov.sp.tce.icp_brasil_authenticator.domain.batch;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// Lê certificados de um fluxo, um item por vez e sem carregar a entrada em memória. Aceita,
+// misturados: linhas NDJSON ({"id": "...", "certificate": "<PEM ou base64 DER>"} ou apenas a
+// string), linhas com o DER em base64 e blocos PEM (BEGIN/END CERTIFICATE) de um arquivo .pem.
+// Linhas e blocos maiores que maxItemSize são descartados e viram um item com erro.
+public class CertificateBatchReader implements BatchSource {
+    
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final String PEM_BEGIN = "-----BEGIN CERTIFICATE-----";
+    private static final String PEM_END = "-----END CERTIFICATE-----";
+    
+    private final InputStream in;
+    private final byte[] buffer;
+    
+    // Bloco lido da entrada e posição de leitura dentro dele
+    private final byte[] chunk = new byte[64 * 1024];
+    private int chunkPosition;
+    private int chunkLimit;
+    
+    private long lineNumber;
+    private boolean overflow;
+    
+    public CertificateBatchReader(InputStream in, int maxItemSize) {
+        this.in = in;
+        this.buffer = new byte[maxItemSize];
+    }
+    
+    @Override
+    public BatchItem next() throws IOException {
+        String line;
+        while ((line = readLine()) != null) {
+            long start = lineNumber;
+            if (overflow) {
+                return BatchItem.failed(start, null, "Linha maior que o tamanho máximo do item");
+            }
+            line = line.strip();
+            if (line.isEmpty()) {
+                continue;
+            }
+            if (line.startsWith(PEM_BEGIN)) {
+                return pem(start, line);
+            }
+            if (line.startsWith("{") || line.startsWith("\"")) {
+                return json(start, line);
+            }
+            return BatchItem.of(start, null, line);
+        }
+        return null;
+    }
+    
+    private BatchItem pem(long start, String firstLine) throws IOException {
+        StringBuilder pem = new StringBuilder(4096).append(firstLine).append('\n');
+        String line;
+        while ((line = readLine()) != null) {
+            if (overflow || pem.length() + line.length() > buffer.length) {
+                skipPast(PEM_END);
+                return BatchItem.failed(start, null, "Bloco PEM maior que o tamanho máximo do item");
+            }
+            pem.append(line).append('\n');
+            if (line.startsWith(PEM_END)) {
+                return BatchItem.of(start, null, pem.toString());
+            }
+        }
+        return BatchItem.failed(start, null, "Bloco PEM sem " + PEM_END);
+    }
+    
+    private void skipPast(String marker) throws IOException {
+        String line;
+        while ((line = readLine()) != null && !line.startsWith(marker)) {
+            // descarta o restante do bloco
+        }
+    }
+    
+    private static BatchItem json(long start, String line) {
+        try {
+            JsonNode node = JSON.readTree(line);
+            if (node.isTextual()) {
+                return BatchItem.of(start, null, node.asText());
+            }
+            JsonNode id = node.get("id");
+            JsonNode certificate = node.get("certificate");
+            String itemId = id != null && !id.isNull() ? id.asText() : null;
+            if (certificate == null || !certificate.isTextual()) {
+                return BatchItem.failed(start, itemId, "Linha JSON sem o campo certificate");
+            }
+            return BatchItem.of(start, itemId, certificate.asText());
+        } catch (JsonProcessingException e) {
+            return BatchItem.failed(start, null, "JSON inválido: " + e.getOriginalMessage());
+        }
+    }
+    
+    // Linha sem o terminador (\n ou \r\n); além de buffer.length bytes, o restante é descartado
+    private String readLine() throws IOException {
+        int length = 0;
+        boolean terminated = false;
+        overflow = false;
+        while (!terminated) {
+            if (chunkPosition == chunkLimit) {
+                chunkLimit = in.read(chunk);
+                chunkPosition = 0;
+                if (chunkLimit <= 0) {
+                    chunkLimit = 0;
+                    break;
+                }
+            }
+            int end = chunkPosition;
+            while (end < chunkLimit && chunk[end] != '\n') {
+                end++;
+            }
+            terminated = end < chunkLimit;
+            int copy = Math.min(end - chunkPosition, buffer.length - length);
+            System.arraycopy(chunk, chunkPosition, buffer, length, copy);
+            length += copy;
+            overflow |= copy < end - chunkPosition;
+            chunkPosition = terminated ? end + 1 : end;
+        }
+        if (!terminated && length == 0 && !overflow) {
+            return null;
+        }
+        lineNumber++;
+        if (length > 0 && buffer[length - 1] == '\r') {
+            length--;
+        }
+        return new String(buffer, 0, length, StandardCharsets.UTF_8);
+    }
+    
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
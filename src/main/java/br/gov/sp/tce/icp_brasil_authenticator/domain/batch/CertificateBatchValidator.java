@@ -0,0 +1,190 @@
+package br.gov.sp.tce.icp_brasil_authenticator.domain.batch;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.stereotype.Component;
+
+import br.gov.sp.tce.icp_brasil_authenticator.configuration.BatchProperties;
+import br.gov.sp.tce.icp_brasil_authenticator.configuration.LoggingConfiguration;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.dto.CertificateBatchResultDTO;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.dto.CertificateDTO;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.service.CertificateValidationService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Valida em paralelo os certificados lidos de um BatchSource e entrega os resultados
+// na ordem em que terminam. Cada lote mantém no máximo maxInFlight certificados entre a leitura
+// e a escrita: com o limite atingido, a leitura espera a escrita do próximo resultado, de modo
+// que a memória não depende do tamanho da entrada e um cliente lento desacelera a leitura.
+@Component
+public class CertificateBatchValidator implements AutoCloseable {
+    
+    private final CertificateValidationService certificateValidationService;
+    private final int maxInFlight;
+    private final ForkJoinPool pool;
+    
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Counter validCertificates;
+    private final Counter invalidCertificates;
+    private final Counter failedCertificates;
+    
+    public CertificateBatchValidator(CertificateValidationService certificateValidationService,
+                                     BatchProperties properties, MeterRegistry meterRegistry) {
+        this.certificateValidationService = certificateValidationService;
+        this.maxInFlight = Math.max(1, properties.getMaxInFlight());
+        int parallelism = properties.getParallelism() > 0
+            ? properties.getParallelism() : Runtime.getRuntime().availableProcessors();
+        // Modo assíncrono (FIFO): as tarefas são independentes e submetidas de fora do pool
+        this.pool = new ForkJoinPool(parallelism, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("batch-validation-" + thread.getPoolIndex());
+            return thread;
+        }, null, true);
+        
+        Gauge.builder("batch.certificates.in.flight", inFlight, AtomicInteger::get)
+            .description("Certificados de lotes lidos e ainda não escritos na resposta")
+            .register(meterRegistry);
+        this.validCertificates = counter(meterRegistry, "valid");
+        this.invalidCertificates = counter(meterRegistry, "invalid");
+        this.failedCertificates = counter(meterRegistry, "error");
+    }
+    
+    private static Counter counter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("batch.certificates")
+            .description("Certificados processados em lote")
+            .tag("result", result)
+            .register(meterRegistry);
+    }
+    
+    public Summary validate(BatchSource source, ResultWriter writer) throws IOException {
+        BlockingQueue<CertificateBatchResultDTO> completed = new LinkedBlockingQueue<>();
+        Summary summary = new Summary();
+        int pending = 0;
+        
+        try {
+            BatchItem item;
+            while ((item = source.next()) != null) {
+                if (item.error() != null) {
+                    write(writer, summary, new CertificateBatchResultDTO(item.line(), item.id(), item.error(), null));
+                    continue;
+                }
+                if (pending == maxInFlight) {
+                    writeCompleted(writer, summary, take(completed, writer));
+                    pending--;
+                }
+                BatchItem submitted = item;
+                inFlight.incrementAndGet();
+                pool.execute(() -> completed.add(validate(submitted)));
+                pending++;
+                
+                for (CertificateBatchResultDTO result; (result = completed.poll()) != null; pending--) {
+                    writeCompleted(writer, summary, result);
+                }
+            }
+            for (; pending > 0; pending--) {
+                writeCompleted(writer, summary, take(completed, writer));
+            }
+            writer.flush();
+            return summary;
+        } finally {
+            // Resultados de um lote interrompido são descartados pelas tarefas ainda em execução
+            inFlight.addAndGet(-pending);
+        }
+    }
+    
+    // Espera o próximo resultado, enviando antes ao cliente o que já foi escrito
+    private static CertificateBatchResultDTO take(BlockingQueue<CertificateBatchResultDTO> completed,
+                                                  ResultWriter writer) throws IOException {
+        CertificateBatchResultDTO result = completed.poll();
+        if (result != null) {
+            return result;
+        }
+        writer.flush();
+        try {
+            return completed.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Validação em lote interrompida");
+        }
+    }
+    
+    private void writeCompleted(ResultWriter writer, Summary summary, CertificateBatchResultDTO result) throws IOException {
+        inFlight.decrementAndGet();
+        write(writer, summary, result);
+    }
+    
+    private void write(ResultWriter writer, Summary summary, CertificateBatchResultDTO result) throws IOException {
+        if (result.getError() != null) {
+            summary.failed++;
+            failedCertificates.increment();
+        } else if (Boolean.TRUE.equals(result.getCertificate().getValid())) {
+            summary.valid++;
+            validCertificates.increment();
+        } else {
+            summary.invalid++;
+            invalidCertificates.increment();
+        }
+        writer.write(result);
+    }
+    
+    private CertificateBatchResultDTO validate(BatchItem item) {
+        try {
+            CertificateDTO certificate = certificateValidationService.revalidate(item.loader().load());
+            return new CertificateBatchResultDTO(item.line(), item.id(), null, certificate);
+        } catch (Exception e) {
+            // Sem CertificateDTO: o resultado é apenas a linha, o id e o erro
+            return new CertificateBatchResultDTO(item.line(), item.id(),
+                e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName(), null);
+        }
+    }
+    
+    @Override
+    public void close() {
+        pool.shutdown();
+        try {
+            pool.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    @FunctionalInterface
+    public interface ResultWriter {
+        
+        void write(CertificateBatchResultDTO result) throws IOException;
+        
+        default void flush() throws IOException {
+        }
+    }
+    
+    public static class Summary {
+        
+        private long valid;
+        private long invalid;
+        private long failed;
+        
+        public long valid() {
+            return valid;
+        }
+        
+        public long invalid() {
+            return invalid;
+        }
+        
+        public long failed() {
+            return failed;
+        }
+        
+        public long total() {
+            return valid + invalid + failed;
+        }
+    }
+}
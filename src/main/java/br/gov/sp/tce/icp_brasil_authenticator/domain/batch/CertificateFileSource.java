@@ -0,0 +1,263 @@
+package br.gov.sp.tce.icp_brasil_authenticator.domain.batch;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.KeyStore;
+import java.security.cert.Certificate;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Stream;
+
+// Certificados lidos de arquivos: diretórios (recursivamente), .zip (ex.: pacote de ACs do ITI,
+// aberto pelo zipfs do NIO, sem extrair), keystores .p12/.pfx/.jks e arquivos .cer/.crt/.der/.pem
+// ou .ndjson. Arquivos acima de mappedFileThreshold são mapeados em memória e percorridos bloco
+// a bloco pelo CertificateBatchReader, sem cópia para o heap.
+public class CertificateFileSource implements BatchSource {
+    
+    private static final Set<String> CERTIFICATE_EXTENSIONS = Set.of("cer", "crt", "der", "pem", "ndjson");
+    private static final Set<String> KEYSTORE_EXTENSIONS = Set.of("p12", "pfx", "jks");
+    private static final int DER_SEQUENCE = 0x30;
+    
+    private final List<Path> inputs;
+    private final String prefix;
+    private final char[] password;
+    private final long mappedFileThreshold;
+    private final int maxItemSize;
+    private final FileSystem fileSystem;
+    
+    private int nextInput;
+    private Stream<Path> walk;
+    private Iterator<Path> files;
+    
+    // Itens do arquivo atual (bundle PEM, .zip ou keystore)
+    private BatchSource current;
+    private long filesRead;
+    
+    public CertificateFileSource(List<Path> inputs, char[] password, long mappedFileThreshold, int maxItemSize) {
+        this(inputs, "", password, mappedFileThreshold, maxItemSize, null);
+    }
+    
+    private CertificateFileSource(List<Path> inputs, String prefix, char[] password, long mappedFileThreshold,
+                                  int maxItemSize, FileSystem fileSystem) {
+        this.inputs = inputs;
+        this.prefix = prefix;
+        this.password = password;
+        this.mappedFileThreshold = mappedFileThreshold;
+        this.maxItemSize = maxItemSize;
+        this.fileSystem = fileSystem;
+    }
+    
+    @Override
+    public BatchItem next() throws IOException {
+        while (true) {
+            if (current != null) {
+                BatchItem item = current.next();
+                if (item != null) {
+                    return item;
+                }
+                if (current instanceof CertificateFileSource nested) {
+                    filesRead += nested.filesRead();
+                }
+                current.close();
+                current = null;
+            }
+            Path file = nextFile();
+            if (file == null) {
+                return null;
+            }
+            try {
+                current = open(file);
+            } catch (Exception e) {
+                return BatchItem.failed(0, prefix + file, "Arquivo ilegível: " + e.getMessage());
+            }
+        }
+    }
+    
+    // Arquivos lidos até agora, incluindo os de dentro dos .zip
+    public long filesRead() {
+        return filesRead + (current instanceof CertificateFileSource nested ? nested.filesRead() : 0);
+    }
+    
+    private Path nextFile() throws IOException {
+        try {
+            while (files == null || !files.hasNext()) {
+                closeWalk();
+                if (nextInput == inputs.size()) {
+                    return null;
+                }
+                walk = Files.walk(inputs.get(nextInput++));
+                files = walk.filter(Files::isRegularFile).filter(CertificateFileSource::supported).iterator();
+            }
+            return files.next();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+    
+    private static boolean supported(Path file) {
+        String extension = extension(file);
+        return CERTIFICATE_EXTENSIONS.contains(extension) || KEYSTORE_EXTENSIONS.contains(extension)
+            || "zip".equals(extension);
+    }
+    
+    private BatchSource open(Path file) throws Exception {
+        String extension = extension(file);
+        String id = prefix + file;
+        
+        if ("zip".equals(extension)) {
+            FileSystem zip = FileSystems.newFileSystem(file);
+            List<Path> roots = new ArrayList<>();
+            zip.getRootDirectories().forEach(roots::add);
+            // Os arquivos do .zip são contados pelo próprio source aninhado
+            return new CertificateFileSource(roots, id + "!", password, mappedFileThreshold, maxItemSize, zip);
+        }
+        filesRead++;
+        if (KEYSTORE_EXTENSIONS.contains(extension)) {
+            return keyStore(file, id);
+        }
+        
+        long size = Files.size(file);
+        if (size > mappedFileThreshold && file.getFileSystem() == FileSystems.getDefault() && !isDer(file)) {
+            ByteBuffer mapped;
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            }
+            return text(new ByteBufferInputStream(mapped), id);
+        }
+        byte[] content = Files.readAllBytes(file);
+        if (content.length > 0 && content[0] == DER_SEQUENCE) {
+            return new ListSource(List.of(new BatchItem(0, id, () -> BatchItem.decode(content), null)));
+        }
+        return text(new ByteArrayInputStream(content), id);
+    }
+    
+    // Certificado DER (binário, um por arquivo) começa pela SEQUENCE; PEM e NDJSON são texto
+    private static boolean isDer(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return in.read() == DER_SEQUENCE;
+        }
+    }
+    
+    // PEM, base64 ou NDJSON; o id do item é o arquivo (e o id da linha NDJSON, se houver)
+    private BatchSource text(InputStream in, String id) {
+        CertificateBatchReader reader = new CertificateBatchReader(in, maxItemSize);
+        return new BatchSource() {
+            
+            @Override
+            public BatchItem next() throws IOException {
+                BatchItem item = reader.next();
+                return item == null ? null : item.withId(item.id() != null ? id + "#" + item.id() : id);
+            }
+            
+            @Override
+            public void close() throws IOException {
+                reader.close();
+            }
+        };
+    }
+    
+    private BatchSource keyStore(Path file, String id) throws Exception {
+        KeyStore keyStore = KeyStore.getInstance("jks".equals(extension(file)) ? "JKS" : "PKCS12");
+        try (InputStream in = Files.newInputStream(file)) {
+            keyStore.load(in, password);
+        }
+        List<BatchItem> items = new ArrayList<>(keyStore.size());
+        Enumeration<String> aliases = keyStore.aliases();
+        while (aliases.hasMoreElements()) {
+            String alias = aliases.nextElement();
+            Certificate[] chain = keyStore.isKeyEntry(alias) ? keyStore.getCertificateChain(alias) : null;
+            if (chain == null) {
+                Certificate certificate = keyStore.getCertificate(alias);
+                chain = certificate != null ? new Certificate[] { certificate } : new Certificate[0];
+            }
+            if (chain.length > 0 && chain[0] instanceof X509Certificate) {
+                X509Certificate[] certificates = Arrays.copyOf(chain, chain.length, X509Certificate[].class);
+                items.add(new BatchItem(0, id + "#" + alias, () -> certificates, null));
+            }
+        }
+        return new ListSource(items);
+    }
+    
+    private static String extension(Path file) {
+        String name = file.getFileName() == null ? "" : file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dot < 0 ? "" : name.substring(dot + 1).toLowerCase(Locale.ROOT);
+    }
+    
+    private void closeWalk() {
+        if (walk != null) {
+            walk.close();
+            walk = null;
+            files = null;
+        }
+    }
+    
+    @Override
+    public void close() throws IOException {
+        if (current != null) {
+            current.close();
+            current = null;
+        }
+        closeWalk();
+        if (fileSystem != null) {
+            fileSystem.close();
+        }
+    }
+    
+    private static class ListSource implements BatchSource {
+        
+        private final Iterator<BatchItem> items;
+        
+        ListSource(List<BatchItem> items) {
+            this.items = items.iterator();
+        }
+        
+        @Override
+        public BatchItem next() {
+            return items.hasNext() ? items.next() : null;
+        }
+        
+        @Override
+        public void close() {
+        }
+    }
+    
+    private static class ByteBufferInputStream extends InputStream {
+        
+        private final ByteBuffer buffer;
+        
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+        
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+        
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+    }
+}
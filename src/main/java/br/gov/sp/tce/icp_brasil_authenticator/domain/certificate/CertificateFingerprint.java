@@ -0,0 +1,28 @@
+package br.gov.sp.tce.icp_brasil_authenticator.domain.certificate;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.cert.CertificateEncodingException;
+import java.security.cert.X509Certificate;
+import java.util.HexFormat;
+
+// Fingerprint SHA-256 do DER do certificado, em hexadecimal maiúsculo (chave dos caches e da auditoria)
+public final class CertificateFingerprint {
+    
+    private static final HexFormat HEX_FORMAT = HexFormat.of().withUpperCase();
+    
+    private CertificateFingerprint() {
+    }
+    
+    public static String sha256(X509Certificate certificate) throws CertificateEncodingException {
+        return sha256(certificate.getEncoded());
+    }
+    
+    public static String sha256(byte[] encoded) {
+        try {
+            return HEX_FORMAT.formatHex(MessageDigest.getInstance("SHA-256").digest(encoded));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
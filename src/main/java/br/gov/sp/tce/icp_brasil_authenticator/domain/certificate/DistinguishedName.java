@@ -0,0 +1,343 @@
+package br.gov.sp.tce.icp_brasil_authenticator.domain.certificate;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+// Leitura de um DN no formato RFC 2253 (X500Principal.getName()) em uma única passada.
+// Guarda apenas as posições dos atributos de interesse no texto original; o valor só é
+// materializado (e desescapado) quando o getter é chamado.
+public final class DistinguishedName {
+    
+    private static final int CN = 0;
+    private static final int O = 1;
+    private static final int OU = 2;
+    private static final int EMAIL = 3;
+    private static final int OTHER = -1;
+    
+    // Formas de codificação de um valor
+    private static final int PLAIN = 0;
+    private static final int ESCAPED = 1;
+    private static final int QUOTED = 2;
+    private static final int HEX = 3;
+    
+    private static final int CPF_LENGTH = 11;
+    
+    private final String dn;
+    
+    // Posições [início, fim) do primeiro valor de cada atributo; -1 quando ausente
+    private int cnStart = -1;
+    private int cnEnd;
+    private int cnEncoding;
+    private int oStart = -1;
+    private int oEnd;
+    private int oEncoding;
+    private int ouStart = -1;
+    private int ouEnd;
+    private int ouEncoding;
+    private int emailStart = -1;
+    private int emailEnd;
+    private int emailEncoding;
+    
+    private String commonName;
+    private String organization;
+    private String organizationalUnit;
+    private String email;
+    
+    private DistinguishedName(String dn) {
+        this.dn = dn;
+    }
+    
+    public static DistinguishedName parse(String dn) {
+        DistinguishedName parsed = new DistinguishedName(dn == null ? "" : dn);
+        parsed.scan();
+        return parsed;
+    }
+    
+    public String getName() {
+        return dn;
+    }
+    
+    public boolean hasCommonName() {
+        return cnStart >= 0;
+    }
+    
+    public String getCommonName() {
+        if (commonName == null && cnStart >= 0) {
+            commonName = decode(cnStart, cnEnd, cnEncoding);
+        }
+        return commonName;
+    }
+    
+    // CN quando presente, senão o DN completo (mesmo comportamento do antigo extractCommonName)
+    public String getCommonNameOrName() {
+        return hasCommonName() ? getCommonName() : dn;
+    }
+    
+    public String getOrganization() {
+        if (organization == null && oStart >= 0) {
+            organization = decode(oStart, oEnd, oEncoding);
+        }
+        return organization;
+    }
+    
+    public String getOrganizationalUnit() {
+        if (organizationalUnit == null && ouStart >= 0) {
+            organizationalUnit = decode(ouStart, ouEnd, ouEncoding);
+        }
+        return organizationalUnit;
+    }
+    
+    public String getEmail() {
+        if (email == null && emailStart >= 0) {
+            email = decode(emailStart, emailEnd, emailEncoding);
+        }
+        return email;
+    }
+    
+    // Padrão ICP-Brasil: "NOME DO TITULAR:12345678901" no CN de certificados e-CPF
+    public String getCpf() {
+        if (cnStart < 0) {
+            return null;
+        }
+        if (cnEncoding == PLAIN) {
+            return hasCpfSuffix(dn, cnStart, cnEnd) ? dn.substring(cnEnd - CPF_LENGTH, cnEnd) : null;
+        }
+        String cn = getCommonName();
+        return cn != null && hasCpfSuffix(cn, 0, cn.length()) ? cn.substring(cn.length() - CPF_LENGTH) : null;
+    }
+    
+    private static boolean hasCpfSuffix(String value, int start, int end) {
+        int colon = end - CPF_LENGTH - 1;
+        if (colon < start || value.charAt(colon) != ':') {
+            return false;
+        }
+        for (int i = colon + 1; i < end; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private void scan() {
+        int n = dn.length();
+        int i = 0;
+        while (i < n) {
+            // Tipo do atributo (palavra-chave ou OID)
+            i = skipSpaces(i);
+            int typeStart = i;
+            while (i < n && dn.charAt(i) != '=') {
+                i++;
+            }
+            if (i >= n) {
+                return;
+            }
+            int typeEnd = trimEnd(typeStart, i);
+            i = skipSpaces(i + 1);
+            
+            int valueStart = i;
+            int valueEnd;
+            int encoding = PLAIN;
+            
+            if (i < n && dn.charAt(i) == '#') {
+                encoding = HEX;
+                valueStart = ++i;
+                while (i < n && !isSeparator(dn.charAt(i))) {
+                    i++;
+                }
+                valueEnd = trimEnd(valueStart, i);
+            } else if (i < n && dn.charAt(i) == '"') {
+                encoding = QUOTED;
+                valueStart = ++i;
+                while (i < n && dn.charAt(i) != '"') {
+                    i += dn.charAt(i) == '\\' ? 2 : 1;
+                }
+                valueEnd = Math.min(i, n);
+                while (i < n && !isSeparator(dn.charAt(i))) {
+                    i++;
+                }
+            } else {
+                // Espaços finais só são removidos se não estiverem escapados
+                int lastSignificant = i;
+                while (i < n) {
+                    char c = dn.charAt(i);
+                    if (c == '\\') {
+                        encoding = ESCAPED;
+                        i = Math.min(i + 2, n);
+                        lastSignificant = i;
+                    } else if (isSeparator(c)) {
+                        break;
+                    } else {
+                        i++;
+                        if (c != ' ') {
+                            lastSignificant = i;
+                        }
+                    }
+                }
+                valueEnd = lastSignificant;
+            }
+            
+            record(attributeOf(typeStart, typeEnd), valueStart, valueEnd, encoding);
+            
+            // Pula o separador de RDN (',' ou ';') ou de RDN multivalorado ('+')
+            i++;
+        }
+    }
+    
+    private void record(int attribute, int start, int end, int encoding) {
+        switch (attribute) {
+            case CN -> {
+                if (cnStart < 0) {
+                    cnStart = start;
+                    cnEnd = end;
+                    cnEncoding = encoding;
+                }
+            }
+            case O -> {
+                if (oStart < 0) {
+                    oStart = start;
+                    oEnd = end;
+                    oEncoding = encoding;
+                }
+            }
+            case OU -> {
+                if (ouStart < 0) {
+                    ouStart = start;
+                    ouEnd = end;
+                    ouEncoding = encoding;
+                }
+            }
+            case EMAIL -> {
+                if (emailStart < 0) {
+                    emailStart = start;
+                    emailEnd = end;
+                    emailEncoding = encoding;
+                }
+            }
+            default -> {
+                // Atributo não utilizado
+            }
+        }
+    }
+    
+    private int attributeOf(int start, int end) {
+        int length = end - start;
+        if (regionEquals(start, length, "CN") || regionEquals(start, length, "2.5.4.3")) {
+            return CN;
+        }
+        if (regionEquals(start, length, "O") || regionEquals(start, length, "2.5.4.10")) {
+            return O;
+        }
+        if (regionEquals(start, length, "OU") || regionEquals(start, length, "2.5.4.11")) {
+            return OU;
+        }
+        if (regionEquals(start, length, "EMAILADDRESS") || regionEquals(start, length, "E")
+                || regionEquals(start, length, "1.2.840.113549.1.9.1")) {
+            return EMAIL;
+        }
+        return OTHER;
+    }
+    
+    private boolean regionEquals(int start, int length, String keyword) {
+        return length == keyword.length() && dn.regionMatches(true, start, keyword, 0, length);
+    }
+    
+    private static boolean isSeparator(char c) {
+        return c == ',' || c == '+' || c == ';';
+    }
+    
+    private int skipSpaces(int i) {
+        while (i < dn.length() && dn.charAt(i) == ' ') {
+            i++;
+        }
+        return i;
+    }
+    
+    private int trimEnd(int start, int end) {
+        while (end > start && dn.charAt(end - 1) == ' ') {
+            end--;
+        }
+        return end;
+    }
+    
+    private String decode(int start, int end, int encoding) {
+        return switch (encoding) {
+            case PLAIN -> dn.substring(start, end);
+            case HEX -> decodeHexString(start, end);
+            default -> unescape(start, end);
+        };
+    }
+    
+    // Remove escapes "\," e sequências "\XX" (bytes UTF-8 em hexadecimal)
+    private String unescape(int start, int end) {
+        StringBuilder sb = new StringBuilder(end - start);
+        ByteArrayOutputStream pending = null;
+        int i = start;
+        while (i < end) {
+            char c = dn.charAt(i);
+            if (c == '\\' && i + 1 < end) {
+                int high = Character.digit(dn.charAt(i + 1), 16);
+                int low = i + 2 < end ? Character.digit(dn.charAt(i + 2), 16) : -1;
+                if (high >= 0 && low >= 0) {
+                    if (pending == null) {
+                        pending = new ByteArrayOutputStream();
+                    }
+                    pending.write((high << 4) | low);
+                    i += 3;
+                    continue;
+                }
+                flush(sb, pending);
+                sb.append(dn.charAt(i + 1));
+                i += 2;
+            } else {
+                flush(sb, pending);
+                sb.append(c);
+                i++;
+            }
+        }
+        flush(sb, pending);
+        return sb.toString();
+    }
+    
+    private static void flush(StringBuilder sb, ByteArrayOutputStream pending) {
+        if (pending != null && pending.size() > 0) {
+            sb.append(pending.toString(StandardCharsets.UTF_8));
+            pending.reset();
+        }
+    }
+    
+    // Valor "#..." é a codificação BER da string (ex.: EMAILADDRESS como IA5String)
+    private String decodeHexString(int start, int end) {
+        if ((end - start) < 4 || ((end - start) & 1) != 0) {
+            return null;
+        }
+        int tag = hexByte(start);
+        int offset = start + 2;
+        int length = hexByte(offset);
+        offset += 2;
+        if ((length & 0x80) != 0) {
+            int lengthBytes = length & 0x7F;
+            length = 0;
+            for (int k = 0; k < lengthBytes && offset < end; k++, offset += 2) {
+                length = (length << 8) | hexByte(offset);
+            }
+        }
+        if (length < 0 || offset + length * 2 > end) {
+            return null;
+        }
+        byte[] content = new byte[length];
+        for (int k = 0; k < length; k++) {
+            content[k] = (byte) hexByte(offset + k * 2);
+        }
+        return switch (tag) {
+            case 0x0C -> new String(content, StandardCharsets.UTF_8);
+            case 0x1E -> new String(content, StandardCharsets.UTF_16BE);
+            default -> new String(content, StandardCharsets.ISO_8859_1);
+        };
+    }
+    
+    private int hexByte(int index) {
+        return (Character.digit(dn.charAt(index), 16) << 4) | Character.digit(dn.charAt(index + 1), 16);
+    }
+}
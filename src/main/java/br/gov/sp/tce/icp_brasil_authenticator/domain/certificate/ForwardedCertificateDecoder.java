@@ -0,0 +1,161 @@
+package br.gov.sp.tce.icp_brasil_authenticator.domain.certificate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.cert.Certificate;
+import java.security.cert.CertificateException;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509Certificate;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Supplier;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+// Certificados repassados pelo proxy que termina o TLS: PEM com URL-encoding (nginx, Envoy XFCC),
+// PEM puro ou DER em base64 (HAProxy). O resultado fica em cache pelo SHA-256 do valor dos
+// cabeçalhos, de modo que os logins seguintes do mesmo certificado não repetem a decodificação
+// nem o parse do CertificateFactory.
+public class ForwardedCertificateDecoder {
+    
+    static final String CACHE_NAME = "certificate.decode";
+    
+    private final Cache<String, X509Certificate[]> cache;
+    
+    public ForwardedCertificateDecoder(long maximumSize, Duration ttl, MeterRegistry meterRegistry) {
+        if (maximumSize <= 0) {
+            this.cache = null;
+            return;
+        }
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterAccess(ttl)
+            .recordStats()
+            .build();
+        if (meterRegistry != null) {
+            CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        }
+    }
+    
+    // Certificado e, opcionalmente, a cadeia em cabeçalhos separados (X-SSL-Client-Cert)
+    public X509Certificate[] decode(String certificate, String chain) {
+        String key = chain == null || chain.isEmpty() ? certificate : certificate + '\n' + chain;
+        return cached(key, () -> parse(certificate, chain));
+    }
+    
+    // X-Forwarded-Client-Cert do Envoy: Chain (que inclui o certificado do cliente) ou Cert
+    public X509Certificate[] decodeXfcc(String xfcc) {
+        return cached(xfcc, () -> {
+            String element = lastElement(xfcc);
+            String chain = field(element, "Chain");
+            return chain != null ? parse(chain, null) : parse(field(element, "Cert"), null);
+        });
+    }
+    
+    private X509Certificate[] cached(String key, Supplier<X509Certificate[]> decoder) {
+        if (cache == null) {
+            return decoder.get();
+        }
+        // Exceções do decoder não entram no cache
+        String digest = CertificateFingerprint.sha256(key.getBytes(StandardCharsets.ISO_8859_1));
+        return cache.get(digest, k -> decoder.get()).clone();
+    }
+    
+    private static X509Certificate[] parse(String certificate, String chain) {
+        if (certificate == null || certificate.isBlank()) {
+            throw new IllegalArgumentException("Certificado ausente no cabeçalho");
+        }
+        try {
+            CertificateFactory factory = CertificateFactory.getInstance("X.509");
+            List<X509Certificate> certificates = new ArrayList<>(4);
+            for (String value : new String[] { certificate, chain }) {
+                if (value == null || value.isBlank()) {
+                    continue;
+                }
+                for (Certificate parsed : factory.generateCertificates(new ByteArrayInputStream(bytes(value)))) {
+                    // A cadeia pode repetir o certificado do cliente
+                    if (parsed instanceof X509Certificate x509 && !certificates.contains(x509)) {
+                        certificates.add(x509);
+                    }
+                }
+            }
+            if (certificates.isEmpty()) {
+                throw new IllegalArgumentException("Nenhum certificado encontrado no cabeçalho");
+            }
+            return certificates.toArray(X509Certificate[]::new);
+        } catch (CertificateException e) {
+            throw new IllegalArgumentException("Certificado inválido no cabeçalho: " + e.getMessage(), e);
+        }
+    }
+    
+    private static byte[] bytes(String value) {
+        String decoded = value.indexOf('%') >= 0 ? percentDecode(value) : value;
+        return decoded.contains("-----BEGIN")
+            ? decoded.getBytes(StandardCharsets.US_ASCII)
+            : Base64.getMimeDecoder().decode(decoded);
+    }
+    
+    // Apenas %XX: diferente do URLDecoder, mantém o '+' do base64
+    static String percentDecode(String value) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '%' && i + 2 < value.length()) {
+                out.write(Integer.parseInt(value, i + 1, i + 3, 16));
+                i += 2;
+            } else {
+                out.write(c);
+            }
+        }
+        return out.toString(StandardCharsets.US_ASCII);
+    }
+    
+    // Elementos separados por vírgula fora de aspas; o último foi incluído pelo proxy mais próximo
+    static String lastElement(String xfcc) {
+        boolean quoted = false;
+        int start = 0;
+        for (int i = 0; i < xfcc.length(); i++) {
+            char c = xfcc.charAt(i);
+            if (c == '\\' && quoted) {
+                i++;
+            } else if (c == '"') {
+                quoted = !quoted;
+            } else if (c == ',' && !quoted) {
+                start = i + 1;
+            }
+        }
+        return xfcc.substring(start);
+    }
+    
+    // Valor de um par chave=valor (separados por ';' fora de aspas) de um elemento do XFCC
+    static String field(String element, String name) {
+        boolean quoted = false;
+        int start = 0;
+        for (int i = 0; i <= element.length(); i++) {
+            char c = i < element.length() ? element.charAt(i) : ';';
+            if (c == '\\' && quoted) {
+                i++;
+            } else if (c == '"') {
+                quoted = !quoted;
+            } else if (c == ';' && !quoted) {
+                String pair = element.substring(start, i).trim();
+                int equals = pair.indexOf('=');
+                if (equals > 0 && pair.substring(0, equals).trim().equalsIgnoreCase(name)) {
+                    String value = pair.substring(equals + 1).trim();
+                    return value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")
+                        ? value.substring(1, value.length() - 1)
+                        : value;
+                }
+                start = i + 1;
+            }
+        }
+        return null;
+    }
+}
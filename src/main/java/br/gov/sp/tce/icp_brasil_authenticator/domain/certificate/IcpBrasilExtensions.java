@@ -0,0 +1,332 @@
+package br.gov.sp.tce.icp_brasil_authenticator.domain.certificate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.cert.X509Certificate;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+
+import lombok.Getter;
+
+// Campos ICP-Brasil lidos diretamente do DER das extensões SubjectAltName (2.5.29.17)
+// e CertificatePolicies (2.5.29.32), em uma passada e sem getSubjectAlternativeNames().
+// Leiaute dos otherName conforme DOC-ICP-04 (OIDs 2.16.76.1.3.x).
+@Getter
+public final class IcpBrasilExtensions {
+    
+    public enum PersonType { PF, PJ }
+    
+    private static final String SUBJECT_ALT_NAME_OID = "2.5.29.17";
+    private static final String CERTIFICATE_POLICIES_OID = "2.5.29.32";
+    
+    private static final int TAG_OCTET_STRING = 0x04;
+    private static final int TAG_OID = 0x06;
+    private static final int TAG_UTF8_STRING = 0x0C;
+    private static final int TAG_SEQUENCE = 0x30;
+    private static final int TAG_OTHER_NAME = 0xA0;
+    private static final int TAG_RFC822_NAME = 0x81;
+    private static final int TAG_EXPLICIT_0 = 0xA0;
+    
+    // Prefixos codificados: 2.16.76.1.3 (dados do titular) e 2.16.76.1.2 (políticas)
+    private static final byte[] ICP_BRASIL_OTHER_NAME = {0x60, 0x4C, 0x01, 0x03};
+    private static final byte[] ICP_BRASIL_POLICY = {0x60, 0x4C, 0x01, 0x02};
+    
+    private static final int OTHER_NAME_PF = 1;
+    private static final int OTHER_NAME_RESPONSIBLE_NAME = 2;
+    private static final int OTHER_NAME_CNPJ = 3;
+    private static final int OTHER_NAME_RESPONSIBLE = 4;
+    private static final int OTHER_NAME_VOTER_ID = 5;
+    private static final int OTHER_NAME_COMPANY_NAME = 8;
+    
+    private PersonType personType;
+    private String certificateType;
+    private LocalDate birthDate;
+    private String cpf;
+    private String nis;
+    private String rg;
+    private String rgIssuer;
+    private String voterId;
+    private String cnpj;
+    private String responsibleName;
+    private String companyName;
+    private String email;
+    
+    private IcpBrasilExtensions() {
+    }
+    
+    public static IcpBrasilExtensions decode(X509Certificate certificate) {
+        IcpBrasilExtensions result = new IcpBrasilExtensions();
+        // Extensões malformadas não impedem o processamento: os campos ficam nulos
+        try {
+            result.decodeSubjectAltName(certificate.getExtensionValue(SUBJECT_ALT_NAME_OID));
+        } catch (IndexOutOfBoundsException e) {
+            result.clearSubjectAltName();
+        }
+        try {
+            result.decodeCertificatePolicies(certificate.getExtensionValue(CERTIFICATE_POLICIES_OID));
+        } catch (IndexOutOfBoundsException e) {
+            result.certificateType = null;
+        }
+        return result;
+    }
+    
+    private void decodeSubjectAltName(byte[] extensionValue) {
+        if (extensionValue == null) {
+            return;
+        }
+        // OCTET STRING { SEQUENCE OF GeneralName }
+        Der der = new Der(extensionValue);
+        int end = der.enter(TAG_OCTET_STRING);
+        end = der.enter(TAG_SEQUENCE, end);
+        
+        while (der.pos < end) {
+            int tag = der.tag();
+            int length = der.length();
+            int next = der.pos + length;
+            
+            if (tag == TAG_OTHER_NAME) {
+                decodeOtherName(der, next);
+            } else if (tag == TAG_RFC822_NAME && email == null) {
+                email = new String(der.data, der.pos, length, StandardCharsets.US_ASCII);
+            }
+            der.pos = next;
+        }
+        
+        if (cnpj != null) {
+            personType = PersonType.PJ;
+        } else if (cpf != null) {
+            personType = PersonType.PF;
+        }
+    }
+    
+    // otherName ::= SEQUENCE { type-id OID, value [0] EXPLICIT ANY }
+    private void decodeOtherName(Der der, int end) {
+        if (der.tag() != TAG_OID) {
+            return;
+        }
+        int oidLength = der.length();
+        int oidStart = der.pos;
+        der.pos += oidLength;
+        
+        if (oidLength != ICP_BRASIL_OTHER_NAME.length + 1 || !der.startsWith(oidStart, ICP_BRASIL_OTHER_NAME)
+                || der.pos >= end || der.tag() != TAG_EXPLICIT_0) {
+            return;
+        }
+        int type = der.data[oidStart + ICP_BRASIL_OTHER_NAME.length];
+        der.length();
+        
+        // Valor normalmente em OCTET STRING; algumas ACs usam PrintableString/UTF8String
+        int valueTag = der.tag();
+        int valueLength = der.length();
+        int start = der.pos;
+        int valueEnd = Math.min(start + valueLength, end);
+        boolean utf8 = valueTag == TAG_UTF8_STRING;
+        
+        switch (type) {
+            case OTHER_NAME_PF -> decodePersonData(der.data, start, valueEnd);
+            case OTHER_NAME_RESPONSIBLE -> {
+                // Em e-CNPJ, os dados de pessoa física são do responsável
+                if (cpf == null) {
+                    decodePersonData(der.data, start, valueEnd);
+                }
+            }
+            case OTHER_NAME_RESPONSIBLE_NAME -> responsibleName = text(der.data, start, valueEnd, utf8);
+            case OTHER_NAME_CNPJ -> cnpj = digits(der.data, start, valueEnd, 14);
+            case OTHER_NAME_VOTER_ID -> voterId = digits(der.data, start, valueEnd, 12);
+            case OTHER_NAME_COMPANY_NAME -> companyName = text(der.data, start, valueEnd, utf8);
+            default -> {
+                // CEI e demais OIDs não são utilizados
+            }
+        }
+    }
+    
+    // ddmmaaaa(8) + CPF(11) + NIS(11) + RG(15) + órgão expedidor/UF(10)
+    private void decodePersonData(byte[] data, int start, int end) {
+        birthDate = date(data, start, end);
+        cpf = digits(data, start + 8, end, 11);
+        nis = digits(data, start + 19, end, 11);
+        rg = field(data, start + 30, end, 15);
+        rgIssuer = field(data, start + 45, end, 10);
+    }
+    
+    private void decodeCertificatePolicies(byte[] extensionValue) {
+        if (extensionValue == null) {
+            return;
+        }
+        // OCTET STRING { SEQUENCE OF PolicyInformation { OID, qualifiers OPTIONAL } }
+        Der der = new Der(extensionValue);
+        int end = der.enter(TAG_OCTET_STRING);
+        end = der.enter(TAG_SEQUENCE, end);
+        
+        while (der.pos < end && certificateType == null) {
+            int policyEnd = der.enter(TAG_SEQUENCE, end);
+            if (der.tag() == TAG_OID) {
+                int oidLength = der.length();
+                if (oidLength > ICP_BRASIL_POLICY.length && der.startsWith(der.pos, ICP_BRASIL_POLICY)) {
+                    certificateType = policyType(der.arc(der.pos + ICP_BRASIL_POLICY.length, der.pos + oidLength));
+                }
+            }
+            der.pos = policyEnd;
+        }
+    }
+    
+    // 2.16.76.1.2.{1..4} = A1..A4, {101..104} = S1..S4, {303,304} = T3/T4
+    private static String policyType(int arc) {
+        if (arc >= 1 && arc <= 4) {
+            return "A" + arc;
+        }
+        if (arc >= 101 && arc <= 104) {
+            return "S" + (arc - 100);
+        }
+        if (arc == 303 || arc == 304) {
+            return "T" + (arc - 300);
+        }
+        return null;
+    }
+    
+    private void clearSubjectAltName() {
+        personType = null;
+        birthDate = null;
+        cpf = null;
+        nis = null;
+        rg = null;
+        rgIssuer = null;
+        voterId = null;
+        cnpj = null;
+        responsibleName = null;
+        companyName = null;
+        email = null;
+    }
+    
+    // Campo numérico de tamanho fixo; zeros indicam campo não informado
+    private static String digits(byte[] data, int start, int end, int length) {
+        if (start + length > end) {
+            return null;
+        }
+        boolean allZeros = true;
+        for (int i = start; i < start + length; i++) {
+            if (data[i] < '0' || data[i] > '9') {
+                return null;
+            }
+            allZeros &= data[i] == '0';
+        }
+        return allZeros ? null : new String(data, start, length, StandardCharsets.US_ASCII);
+    }
+    
+    private static String field(byte[] data, int start, int end, int length) {
+        if (start >= end) {
+            return null;
+        }
+        int stop = Math.min(start + length, end);
+        int first = start;
+        while (first < stop && (data[first] == ' ' || data[first] == '0')) {
+            first++;
+        }
+        int last = stop;
+        while (last > first && data[last - 1] == ' ') {
+            last--;
+        }
+        return first == last ? null : new String(data, first, last - first, StandardCharsets.ISO_8859_1);
+    }
+    
+    private static String text(byte[] data, int start, int end, boolean utf8) {
+        return start >= end ? null : new String(data, start, end - start,
+            utf8 ? StandardCharsets.UTF_8 : StandardCharsets.ISO_8859_1);
+    }
+    
+    private static LocalDate date(byte[] data, int start, int end) {
+        if (start + 8 > end) {
+            return null;
+        }
+        int day = number(data, start, 2);
+        int month = number(data, start + 2, 2);
+        int year = number(data, start + 4, 4);
+        if (day <= 0 || month <= 0 || year <= 0) {
+            return null;
+        }
+        try {
+            return LocalDate.of(year, month, day);
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+    
+    private static int number(byte[] data, int start, int length) {
+        int value = 0;
+        for (int i = start; i < start + length; i++) {
+            int digit = data[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+    
+    // Leitor DER mínimo sobre o array da extensão (sem cópias intermediárias)
+    private static final class Der {
+        
+        private final byte[] data;
+        private int pos;
+        
+        private Der(byte[] data) {
+            this.data = data;
+        }
+        
+        private int tag() {
+            return data[pos++] & 0xFF;
+        }
+        
+        private int length() {
+            int first = data[pos++] & 0xFF;
+            if (first < 0x80) {
+                return first;
+            }
+            int count = first & 0x7F;
+            if (count == 0 || count > 3) {
+                throw new IndexOutOfBoundsException("Comprimento DER não suportado");
+            }
+            int length = 0;
+            for (int i = 0; i < count; i++) {
+                length = (length << 8) | (data[pos++] & 0xFF);
+            }
+            return length;
+        }
+        
+        // Entra em um TLV construído e devolve a posição final do conteúdo
+        private int enter(int expectedTag) {
+            return enter(expectedTag, data.length);
+        }
+        
+        private int enter(int expectedTag, int limit) {
+            if (tag() != expectedTag) {
+                throw new IndexOutOfBoundsException("Tag DER inesperada");
+            }
+            int length = length();
+            return Math.min(pos + length, limit);
+        }
+        
+        private boolean startsWith(int offset, byte[] prefix) {
+            if (offset + prefix.length > data.length) {
+                return false;
+            }
+            for (int i = 0; i < prefix.length; i++) {
+                if (data[offset + i] != prefix[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        
+        // Decodifica um arco de OID em base 128
+        private int arc(int start, int end) {
+            int value = 0;
+            for (int i = start; i < end; i++) {
+                value = (value << 7) | (data[i] & 0x7F);
+                if ((data[i] & 0x80) == 0) {
+                    break;
+                }
+            }
+            return value;
+        }
+    }
+}
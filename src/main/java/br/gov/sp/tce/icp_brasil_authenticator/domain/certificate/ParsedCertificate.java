@@ -0,0 +1,35 @@
+package br.gov.sp.tce.icp_brasil_authenticator.domain.certificate;
+
+import java.security.cert.X509Certificate;
+
+import br.gov.sp.tce.icp_brasil_authenticator.domain.dto.CertificateDTO;
+import jakarta.servlet.ServletRequest;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+// Certificado do cliente já processado, criado uma vez por requisição (no filtro de segurança)
+// e compartilhado com controller e serviço através de um atributo da requisição.
+// certificateData é o modelo imutável vindo do cache e não deve ser alterado.
+@Getter
+@RequiredArgsConstructor
+public final class ParsedCertificate {
+    
+    public static final String REQUEST_ATTRIBUTE = ParsedCertificate.class.getName();
+    
+    private final X509Certificate[] certificateChain;
+    private final String fingerprint;
+    private final CertificateDTO certificateData;
+    
+    public X509Certificate getClientCertificate() {
+        return certificateChain[0];
+    }
+    
+    public static ParsedCertificate from(ServletRequest request) {
+        Object attribute = request.getAttribute(REQUEST_ATTRIBUTE);
+        return attribute instanceof ParsedCertificate parsed ? parsed : null;
+    }
+    
+    public void bindTo(ServletRequest request) {
+        request.setAttribute(REQUEST_ATTRIBUTE, this);
+    }
+}
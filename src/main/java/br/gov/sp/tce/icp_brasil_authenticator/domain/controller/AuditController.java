@@ -0,0 +1,89 @@
+package br.gov.sp.tce.icp_brasil_authenticator.domain.controller;
+
+import java.security.cert.X509Certificate;
+import java.time.LocalDateTime;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import br.gov.sp.tce.icp_brasil_authenticator.configuration.AuditProperties;
+import br.gov.sp.tce.icp_brasil_authenticator.configuration.LoggingConfiguration;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.audit.AuditRepository;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.certificate.ParsedCertificate;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.dto.AuditPageDTO;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.service.CertificateValidationService;
+import br.gov.sp.tce.icp_brasil_authenticator.security.ClientCertificateResolver;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/api/audit")
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "icp-brasil.audit.store.enabled", havingValue = "true")
+@Tag(name = "Audit", description = "Consulta dos registros de auditoria de login por certificado")
+public class AuditController {
+    
+    private final AuditRepository auditRepository;
+    private final AuditProperties auditProperties;
+    private final CertificateValidationService certificateValidationService;
+    private final ClientCertificateResolver clientCertificateResolver;
+    
+    @GetMapping(value = "/logins", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Consultar logins auditados",
+               description = "Lista logins por CPF, fingerprint e/ou emissor, do mais recente para o mais antigo, "
+                   + "com paginação por cursor")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Página de registros"),
+        @ApiResponse(responseCode = "400", description = "Filtro ou cursor inválido"),
+        @ApiResponse(responseCode = "403", description = "Certificado sem permissão de auditor")
+    })
+    public ResponseEntity<AuditPageDTO> findLogins(
+            HttpServletRequest request,
+            @RequestParam(required = false) String cpf,
+            @RequestParam(required = false) String fingerprint,
+            @RequestParam(required = false) String issuer,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        
+        String auditorCpf = auditorCpf(request);
+        if (auditorCpf == null || !auditProperties.getStore().getAuditorCpfs().contains(auditorCpf)) {
+            LoggingConfiguration.ACESSO_LOG.warn("Consulta de auditoria negada para: {} - CPF: {}",
+                request.getRemoteAddr(), auditorCpf);
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        
+        AuditProperties.Store store = auditProperties.getStore();
+        int pageSize = limit == null ? store.getDefaultPageSize() : Math.max(1, Math.min(limit, store.getMaxPageSize()));
+        
+        LoggingConfiguration.ACESSO_LOG.info("Consulta de auditoria por: {} - cpf={} fingerprint={} issuer={}",
+            auditorCpf, cpf, fingerprint, issuer);
+        
+        return ResponseEntity.ok(auditRepository.findLogins(cpf, fingerprint, issuer, from, to, cursor, pageSize));
+    }
+    
+    private String auditorCpf(HttpServletRequest request) {
+        ParsedCertificate parsedCertificate = ParsedCertificate.from(request);
+        if (parsedCertificate == null) {
+            X509Certificate[] certificates = clientCertificateResolver.resolve(request);
+            if (certificates == null || certificates.length == 0) {
+                return null;
+            }
+            parsedCertificate = certificateValidationService.parseCertificate(certificates);
+        }
+        // Só o CPF de um certificado com cadeia confiável autoriza a consulta
+        return certificateValidationService.authorizedCpf(parsedCertificate);
+    }
+}
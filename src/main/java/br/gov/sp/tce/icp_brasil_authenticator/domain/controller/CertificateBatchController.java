@@ -0,0 +1,105 @@
+package br.gov.sp.tce.icp_brasil_authenticator.domain.controller;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.gov.sp.tce.icp_brasil_authenticator.configuration.BatchProperties;
+import br.gov.sp.tce.icp_brasil_authenticator.configuration.LoggingConfiguration;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.batch.CertificateBatchReader;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.batch.CertificateBatchValidator;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.dto.CertificateBatchResultDTO;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.Part;
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/api/certificate")
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "icp-brasil.batch.enabled", havingValue = "true")
+@Tag(name = "Certificate Validation", description = "API para validação de certificados digitais ICP-Brasil")
+public class CertificateBatchController {
+    
+    public static final String APPLICATION_NDJSON = "application/x-ndjson";
+    
+    private final CertificateBatchValidator certificateBatchValidator;
+    private final BatchProperties batchProperties;
+    private final ObjectMapper objectMapper;
+    
+    @PostMapping(value = "/validate/batch", produces = APPLICATION_NDJSON)
+    @Operation(summary = "Validar certificados em lote",
+               description = "Recebe certificados em NDJSON, base64 DER ou PEM (no corpo ou em arquivos multipart) "
+                   + "e devolve um resultado NDJSON por certificado, na ordem em que a validação termina")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Resultados em NDJSON, com a linha de origem de cada certificado",
+                    content = @Content(mediaType = APPLICATION_NDJSON,
+                                     schema = @Schema(implementation = CertificateBatchResultDTO.class)))
+    })
+    public void validateBatch(HttpServletRequest request, HttpServletResponse response) throws IOException, ServletException {
+        LoggingConfiguration.ACESSO_LOG.info("Validação em lote recebida de: {}", request.getRemoteAddr());
+        long start = System.nanoTime();
+        
+        response.setContentType(APPLICATION_NDJSON);
+        response.setCharacterEncoding("UTF-8");
+        OutputStream out = new BufferedOutputStream(response.getOutputStream(), 64 * 1024);
+        
+        try (CertificateBatchReader reader = new CertificateBatchReader(input(request),
+                (int) batchProperties.getMaxItemSize().toBytes())) {
+            CertificateBatchValidator.Summary summary = certificateBatchValidator.validate(reader,
+                new CertificateBatchValidator.ResultWriter() {
+                    
+                    @Override
+                    public void write(CertificateBatchResultDTO result) throws IOException {
+                        out.write(objectMapper.writeValueAsBytes(result));
+                        out.write('\n');
+                    }
+                    
+                    @Override
+                    public void flush() throws IOException {
+                        out.flush();
+                    }
+                });
+            
+            LoggingConfiguration.ACESSO_LOG.info("Lote de {} validado em {} ms: {} válidos, {} inválidos, {} com erro",
+                request.getRemoteAddr(), (System.nanoTime() - start) / 1_000_000,
+                summary.valid(), summary.invalid(), summary.failed());
+        }
+    }
+    
+    // Corpo da requisição ou, em multipart, os arquivos enviados em sequência
+    private static InputStream input(HttpServletRequest request) throws IOException, ServletException {
+        String contentType = request.getContentType();
+        if (contentType == null || !contentType.startsWith(MediaType.MULTIPART_FORM_DATA_VALUE)) {
+            return request.getInputStream();
+        }
+        List<InputStream> parts = new ArrayList<>();
+        for (Part part : request.getParts()) {
+            parts.add(part.getInputStream());
+            // Um arquivo sem quebra de linha no fim não se junta à primeira linha do seguinte
+            parts.add(new ByteArrayInputStream(new byte[] { '\n' }));
+        }
+        return new SequenceInputStream(Collections.enumeration(parts));
+    }
+}
@@ -1,9 +1,12 @@
 package br.gov.sp.tce.icp_brasil_authenticator.domain.controller;
 
 import java.security.cert.X509Certificate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -11,8 +14,14 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import br.gov.sp.tce.icp_brasil_authenticator.configuration.LoggingConfiguration;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.certificate.ParsedCertificate;
 import br.gov.sp.tce.icp_brasil_authenticator.domain.dto.CertificateDTO;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.serialization.CertificateResponseConverter;
 import br.gov.sp.tce.icp_brasil_authenticator.domain.service.CertificateValidationService;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.token.TokenService;
+import br.gov.sp.tce.icp_brasil_authenticator.metrics.ValidationMetrics;
+import br.gov.sp.tce.icp_brasil_authenticator.metrics.ValidationMetrics.Stage;
+import br.gov.sp.tce.icp_brasil_authenticator.security.ClientCertificateResolver;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -29,10 +38,15 @@ import lombok.RequiredArgsConstructor;
 public class CertificateController {
     
     private final CertificateValidationService certificateValidationService;
+    private final ObjectProvider<TokenService> tokenService;
+    private final ValidationMetrics validationMetrics;
+    private final ClientCertificateResolver clientCertificateResolver;
     
-    @GetMapping(value = "/validate", produces = MediaType.APPLICATION_JSON_VALUE)
+    @GetMapping(value = "/validate", produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE,
+                                                  CertificateResponseConverter.APPLICATION_SMILE_VALUE })
     @Operation(summary = "Processar certificado digital", 
-               description = "Recebe uma requisição HTTPS com certificado digital e retorna os dados extraídos do certificado")
+               description = "Recebe uma requisição HTTPS com certificado digital e retorna os dados extraídos do certificado "
+                   + "em JSON ou, conforme o Accept, em CBOR ou Smile")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Certificado processado com sucesso",
                     content = @Content(mediaType = "application/json", 
@@ -41,27 +55,42 @@ public class CertificateController {
         @ApiResponse(responseCode = "500", description = "Erro interno do servidor")
     })
     public ResponseEntity<CertificateDTO> validateCertificate(HttpServletRequest request) {
-        LoggingConfiguration.ACESSO_LOG.info("Requisição de processamento de certificado recebida de: {}", 
+        LoggingConfiguration.ACESSO_LOG.debug("Requisição de processamento de certificado recebida de: {}", 
             request.getRemoteAddr());
         
         try {
-            // Obter certificados da requisição HTTPS
-            X509Certificate[] certificates = (X509Certificate[]) request.getAttribute("jakarta.servlet.request.X509Certificate");
+            // Certificado já processado pelo filtro de segurança; senão, obtido do handshake ou do proxy
+            ParsedCertificate parsedCertificate = ParsedCertificate.from(request);
             
-            if (certificates == null || certificates.length == 0) {
-                LoggingConfiguration.ACESSO_LOG.warn("Nenhum certificado fornecido na requisição de: {}", 
-                    request.getRemoteAddr());
-                return ResponseEntity.badRequest().build();
+            if (parsedCertificate == null) {
+                X509Certificate[] certificates = clientCertificateResolver.resolve(request);
+                
+                if (certificates == null || certificates.length == 0) {
+                    LoggingConfiguration.ACESSO_LOG.warn("Nenhum certificado fornecido na requisição de: {}", 
+                        request.getRemoteAddr());
+                    return ResponseEntity.badRequest().build();
+                }
+                parsedCertificate = certificateValidationService.parseCertificate(certificates);
             }
             
             // Processar certificado com dados da requisição
-            String remoteAddress = request.getRemoteAddr();
+            String remoteAddress = clientCertificateResolver.remoteAddress(request);
             String userAgent = request.getHeader("User-Agent");
             
-            CertificateDTO certificateData = certificateValidationService.validateCertificate(
-                certificates, remoteAddress, userAgent);
+            CertificateDTO certificateData = certificateValidationService.validate(
+                parsedCertificate, remoteAddress, userAgent);
             
-            LoggingConfiguration.ACESSO_LOG.info("Certificado processado com sucesso para: {} - Subject: {}", 
+            // Token de curta duração para os sistemas seguintes não repetirem o mTLS
+            TokenService tokens = tokenService.getIfAvailable();
+            if (tokens != null && Boolean.TRUE.equals(certificateData.getValid())) {
+                long start = System.nanoTime();
+                TokenService.IssuedToken token = tokens.issue(certificateData);
+                certificateData.setToken(token.value());
+                certificateData.setTokenExpiresAt(LocalDateTime.ofInstant(token.expiresAt(), ZoneId.systemDefault()));
+                validationMetrics.record(Stage.TOKEN, start);
+            }
+            
+            LoggingConfiguration.ACESSO_LOG.debug("Certificado processado com sucesso para: {} - Subject: {}", 
                 request.getRemoteAddr(), certificateData.getSubjectName());
             
             return ResponseEntity.ok(certificateData);
@@ -75,20 +104,18 @@ public class CertificateController {
     
     @GetMapping(value = "/debug", produces = MediaType.APPLICATION_JSON_VALUE)
     @Operation(summary = "Debug de certificados", 
-               description = "Endpoint para verificar se certificados estão sendo enviados")
+               description = "Endpoint para verificar se certificados estão sendo enviados. Detalhes da sessão TLS "
+                   + "e dos atributos da requisição ficam em /actuator/diagnostics")
     public ResponseEntity<Map<String, Object>> debugCertificate(HttpServletRequest request) {
-        LoggingConfiguration.ACESSO_LOG.info("Debug de certificados solicitado de: {}", request.getRemoteAddr());
+        LoggingConfiguration.ACESSO_LOG.debug("Debug de certificados solicitado de: {}", request.getRemoteAddr());
         
         Map<String, Object> debugInfo = new HashMap<>();
         
         // Verificar certificados
-        X509Certificate[] certificates = (X509Certificate[]) request.getAttribute("jakarta.servlet.request.X509Certificate");
+        X509Certificate[] certificates = clientCertificateResolver.resolve(request);
         debugInfo.put("certificatesFound", certificates != null);
         debugInfo.put("certificateCount", certificates != null ? certificates.length : 0);
         
-        // Log todos os atributos da requisição
-        logRequestAttributes(request);
-        
         // Informações da requisição
         debugInfo.put("remoteAddr", request.getRemoteAddr());
         debugInfo.put("scheme", request.getScheme());
@@ -97,30 +124,4 @@ public class CertificateController {
         
         return ResponseEntity.ok(debugInfo);
     }
-    
-    private void logRequestAttributes(HttpServletRequest request) {
-        LoggingConfiguration.ACESSO_LOG.info("=== Debug de Atributos da Requisição ===");
-        LoggingConfiguration.ACESSO_LOG.info("Scheme: {}", request.getScheme());
-        LoggingConfiguration.ACESSO_LOG.info("Server Port: {}", request.getServerPort());
-        LoggingConfiguration.ACESSO_LOG.info("Is Secure: {}", request.isSecure());
-        LoggingConfiguration.ACESSO_LOG.info("Remote Addr: {}", request.getRemoteAddr());
-        
-        // Verificar atributos relacionados a certificados
-        String[] certAttributes = {
-            "jakarta.servlet.request.X509Certificate",
-            "javax.servlet.request.X509Certificate",
-            "jakarta.servlet.request.ssl_session_id",
-            "javax.servlet.request.ssl_session_id"
-        };
-        
-        for (String attr : certAttributes) {
-            Object value = request.getAttribute(attr);
-            LoggingConfiguration.ACESSO_LOG.info("Atributo {}: {}", attr, value != null ? "PRESENTE" : "AUSENTE");
-            if (value instanceof X509Certificate[]) {
-                X509Certificate[] certs = (X509Certificate[]) value;
-                LoggingConfiguration.ACESSO_LOG.info("Número de certificados encontrados: {}", certs.length);
-            }
-        }
-        LoggingConfiguration.ACESSO_LOG.info("=== Fim Debug ===");
-    }
 }
@@ -0,0 +1,41 @@
+package br.gov.sp.tce.icp_brasil_authenticator.domain.controller;
+
+import java.util.Map;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import br.gov.sp.tce.icp_brasil_authenticator.configuration.TokenProperties;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.token.TokenService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "icp-brasil.token.enabled", havingValue = "true")
+@Tag(name = "Token", description = "Chaves públicas para verificação dos tokens emitidos na validação")
+public class TokenController {
+    
+    private final TokenService tokenService;
+    private final TokenProperties tokenProperties;
+    
+    @GetMapping(value = "/.well-known/jwks.json", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Obter JWKS",
+               description = "Chaves públicas (RFC 7517) que verificam os tokens emitidos em /api/certificate/validate")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Conjunto de chaves públicas")
+    })
+    public ResponseEntity<Map<String, Object>> jwks() {
+        // Após uma troca de chave, um kid desconhecido faz o verificador buscar a JWKS de novo
+        return ResponseEntity.ok()
+            .cacheControl(CacheControl.maxAge(tokenProperties.getTtl()).cachePublic())
+            .body(tokenService.jwks());
+    }
+}
@@ -0,0 +1,51 @@
+package br.gov.sp.tce.icp_brasil_authenticator.domain.dto;
+
+import java.time.LocalDateTime;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Registro de auditoria de um login por certificado")
+public class AuditLoginDTO {
+    
+    @Schema(description = "Identificador do registro")
+    private Long id;
+    
+    @Schema(description = "Timestamp da validação")
+    private LocalDateTime timestamp;
+    
+    @Schema(description = "Endereço IP de origem da requisição")
+    private String remoteAddress;
+    
+    @Schema(description = "CPF do titular", example = "12345678901")
+    private String cpf;
+    
+    @Schema(description = "Número de série do certificado")
+    private String serialNumber;
+    
+    @Schema(description = "Fingerprint SHA-256 do certificado")
+    private String fingerprint;
+    
+    @Schema(description = "Issuer DN completo do certificado")
+    private String issuerDN;
+    
+    @Schema(description = "Subject DN completo do certificado")
+    private String subjectDN;
+    
+    @Schema(description = "Data de fim da validade do certificado")
+    private LocalDateTime validUntil;
+    
+    @Schema(description = "Algoritmo de assinatura")
+    private String signatureAlgorithm;
+    
+    @Schema(description = "ID da sessão gerado na validação")
+    private String sessionId;
+    
+    @Schema(description = "User-Agent do navegador")
+    private String userAgent;
+}
@@ -0,0 +1,21 @@
+package br.gov.sp.tce.icp_brasil_authenticator.domain.dto;
+
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Página de registros de auditoria, do mais recente para o mais antigo")
+public class AuditPageDTO {
+    
+    @Schema(description = "Registros da página")
+    private List<AuditLoginDTO> items;
+    
+    @Schema(description = "Cursor para a próxima página (ausente na última página)")
+    private String nextCursor;
+}
@@ -0,0 +1,30 @@
+package br.gov.sp.tce.icp_brasil_authenticator.domain.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Resultado da validação de um certificado do lote (uma linha NDJSON)")
+public class CertificateBatchResultDTO {
+    
+    @Schema(description = "Linha da entrada onde o certificado começa", example = "42")
+    private long line;
+    
+    @Schema(description = "Identificador informado na entrada (campo id da linha NDJSON)")
+    private String id;
+    
+    @Schema(description = "Motivo da falha ao ler ou validar o certificado")
+    private String error;
+    
+    // Campos do CertificateDTO no mesmo nível, como na resposta do /validate
+    @JsonUnwrapped
+    private CertificateDTO certificate;
+}
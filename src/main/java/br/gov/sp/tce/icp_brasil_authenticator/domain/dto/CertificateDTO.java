@@ -1,16 +1,19 @@
 package br.gov.sp.tce.icp_brasil_authenticator.domain.dto;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.AllArgsConstructor;
+import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
+@Builder(toBuilder = true)
 @Schema(description = "Dados do certificado digital ICP-Brasil")
 public class CertificateDTO {
     
@@ -38,6 +41,18 @@ public class CertificateDTO {
     @Schema(description = "Indica se o certificado é válido")
     private Boolean valid;
     
+    @Schema(description = "Situação de revogação (GOOD, REVOKED, UNKNOWN ou NOT_CHECKED)", example = "GOOD")
+    private String revocationStatus;
+    
+    @Schema(description = "Método usado na verificação de revogação (CRL ou OCSP)", example = "OCSP")
+    private String revocationMethod;
+    
+    @Schema(description = "Resultado da validação da cadeia (TRUSTED, UNTRUSTED ou INCOMPLETE)", example = "TRUSTED")
+    private String chainStatus;
+    
+    @Schema(description = "AC do truststore que fechou o caminho de certificação", example = "AC SOLUTI Multipla v5")
+    private String trustAnchor;
+    
     @Schema(description = "Cadeia de certificados")
     private List<CertificateChainDTO> certificateChain;
     
@@ -47,6 +62,31 @@ public class CertificateDTO {
     @Schema(description = "Versão do certificado")
     private Integer version;
     
+    // Campos ICP-Brasil (otherName do SubjectAltName e política do certificado)
+    @Schema(description = "Tipo de pessoa do titular (PF ou PJ)", example = "PF")
+    private String personType;
+    
+    @Schema(description = "Tipo do certificado conforme a política ICP-Brasil", example = "A3")
+    private String certificateType;
+    
+    @Schema(description = "Data de nascimento do titular (ou do responsável, em e-CNPJ)")
+    private LocalDate birthDate;
+    
+    @Schema(description = "NIS (PIS/PASEP/CI) do titular", example = "12345678901")
+    private String nis;
+    
+    @Schema(description = "Número do RG do titular")
+    private String rg;
+    
+    @Schema(description = "Órgão expedidor e UF do RG", example = "SSPSP")
+    private String rgIssuer;
+    
+    @Schema(description = "CNPJ da pessoa jurídica titular", example = "12345678000199")
+    private String cnpj;
+    
+    @Schema(description = "Nome do responsável pelo certificado de pessoa jurídica")
+    private String responsibleName;
+    
     // Campos para auditoria
     @Schema(description = "Fingerprint SHA-256 do certificado (hash único)")
     private String fingerprint;
@@ -69,6 +109,13 @@ public class CertificateDTO {
     @Schema(description = "ID da sessão gerado")
     private String sessionId;
     
+    // Token para os sistemas seguintes (icp-brasil.token.enabled), apenas para certificados válidos
+    @Schema(description = "JWS assinado com CPF, fingerprint, emissor e ID da sessão; verificável pela JWKS")
+    private String token;
+    
+    @Schema(description = "Data de expiração do token")
+    private LocalDateTime tokenExpiresAt;
+    
     @Data
     @NoArgsConstructor
     @AllArgsConstructor
@@ -0,0 +1,49 @@
+package br.gov.sp.tce.icp_brasil_authenticator.domain.revocation;
+
+// Filtro de Bloom sobre um hash de 64 bits (hashing duplo: h1 + i * h2).
+// Responde "certamente ausente" sem consultar o índice ordenado.
+final class BloomFilter {
+    
+    private final long[] bits;
+    private final long numBits;
+    private final int numHashes;
+    
+    private BloomFilter(long numBits, int numHashes) {
+        this.bits = new long[(int) ((numBits + 63) >>> 6)];
+        this.numBits = (long) bits.length << 6;
+        this.numHashes = numHashes;
+    }
+    
+    static BloomFilter create(int expectedEntries, double falsePositiveRate) {
+        int n = Math.max(1, expectedEntries);
+        double ln2 = Math.log(2);
+        long m = Math.max(64, (long) Math.ceil(-n * Math.log(falsePositiveRate) / (ln2 * ln2)));
+        int k = Math.max(1, (int) Math.round((double) m / n * ln2));
+        return new BloomFilter(m, k);
+    }
+    
+    void put(long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= numHashes; i++) {
+            long bit = Integer.toUnsignedLong(h1 + i * h2) % numBits;
+            bits[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+    
+    boolean mightContain(long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= numHashes; i++) {
+            long bit = Integer.toUnsignedLong(h1 + i * h2) % numBits;
+            if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    long sizeInBytes() {
+        return (long) bits.length * Long.BYTES;
+    }
+}
@@ -0,0 +1,53 @@
+package br.gov.sp.tce.icp_brasil_authenticator.domain.revocation;
+
+import java.math.BigInteger;
+import java.security.cert.X509CRL;
+import java.security.cert.X509CRLEntry;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import javax.security.auth.x500.X500Principal;
+
+// Índice imutável de uma LCR: filtro de Bloom na frente dos seriais revogados ordenados.
+// A X509CRL original (e suas entradas) é descartada após a construção.
+record CrlIndex(X500Principal issuer, String source, Instant thisUpdate, Instant nextUpdate,
+                BloomFilter bloomFilter, RevokedSerialIndex revokedSerials) {
+    
+    static CrlIndex build(X509CRL crl, String source, double falsePositiveRate) {
+        Set<? extends X509CRLEntry> entries = crl.getRevokedCertificates();
+        List<BigInteger> serials = new ArrayList<>(entries == null ? 0 : entries.size());
+        if (entries != null) {
+            for (X509CRLEntry entry : entries) {
+                serials.add(entry.getSerialNumber());
+            }
+        }
+        
+        BloomFilter bloomFilter = BloomFilter.create(serials.size(), falsePositiveRate);
+        for (BigInteger serial : serials) {
+            bloomFilter.put(RevokedSerialIndex.hash(serial));
+        }
+        
+        return new CrlIndex(
+            crl.getIssuerX500Principal(),
+            source,
+            crl.getThisUpdate().toInstant(),
+            crl.getNextUpdate() != null ? crl.getNextUpdate().toInstant() : null,
+            bloomFilter,
+            RevokedSerialIndex.of(serials));
+    }
+    
+    boolean isRevoked(BigInteger serial) {
+        // A maioria das consultas termina no filtro, sem busca binária
+        return bloomFilter.mightContain(RevokedSerialIndex.hash(serial)) && revokedSerials.contains(serial);
+    }
+    
+    boolean isExpired(Instant now) {
+        return nextUpdate != null && now.isAfter(nextUpdate);
+    }
+    
+    int size() {
+        return revokedSerials.size();
+    }
+}
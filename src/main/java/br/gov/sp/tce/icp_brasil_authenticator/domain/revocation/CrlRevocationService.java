@@ -0,0 +1,274 @@
+package br.gov.sp.tce.icp_brasil_authenticator.domain.revocation;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509CRL;
+import java.security.cert.X509Certificate;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.security.auth.x500.X500Principal;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import br.gov.sp.tce.icp_brasil_authenticator.configuration.LoggingConfiguration;
+import br.gov.sp.tce.icp_brasil_authenticator.configuration.RevocationProperties;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.certificate.DistinguishedName;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.trust.TrustedCertificates;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+// Verificação de revogação por LCR local. As LCRs são baixadas/lidas em segundo plano e
+// convertidas em CrlIndex; a consulta na requisição é apenas um lookup em memória.
+// Cada índice é substituído atomicamente (put no mapa) quando a nova LCR é carregada.
+@Service
+public class CrlRevocationService {
+    
+    private final RevocationProperties.Crl properties;
+    private final TrustedCertificates trustedCertificates;
+    private final MeterRegistry meterRegistry;
+    private final HttpClient httpClient;
+    
+    private final Map<X500Principal, CrlIndex> indexes = new ConcurrentHashMap<>();
+    private final Map<String, Instant> dueAt = new ConcurrentHashMap<>();
+    private final Map<String, FileTime> lastModified = new ConcurrentHashMap<>();
+    
+    private final Timer refreshSuccess;
+    private final Timer refreshFailure;
+    private final Counter goodChecks;
+    private final Counter revokedChecks;
+    private final Counter unknownChecks;
+    
+    public CrlRevocationService(RevocationProperties properties, TrustedCertificates trustedCertificates, MeterRegistry meterRegistry) {
+        this.properties = properties.getCrl();
+        this.trustedCertificates = trustedCertificates;
+        this.meterRegistry = meterRegistry;
+        this.httpClient = HttpClient.newBuilder()
+            .connectTimeout(this.properties.getHttpTimeout())
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .build();
+        
+        this.refreshSuccess = refreshTimer("success");
+        this.refreshFailure = refreshTimer("failure");
+        this.goodChecks = checkCounter(RevocationStatus.GOOD);
+        this.revokedChecks = checkCounter(RevocationStatus.REVOKED);
+        this.unknownChecks = checkCounter(RevocationStatus.UNKNOWN);
+    }
+    
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+    
+    public boolean isHardFail() {
+        return properties.getFailurePolicy() == RevocationProperties.FailurePolicy.HARD;
+    }
+    
+    // Chamado na thread da requisição: sem I/O
+    public RevocationStatus check(X509Certificate certificate) {
+        if (!properties.isEnabled()) {
+            return RevocationStatus.NOT_CHECKED;
+        }
+        
+        CrlIndex index = indexes.get(certificate.getIssuerX500Principal());
+        if (index == null) {
+            unknownChecks.increment();
+            return RevocationStatus.UNKNOWN;
+        }
+        
+        if (index.isRevoked(certificate.getSerialNumber())) {
+            revokedChecks.increment();
+            return RevocationStatus.REVOKED;
+        }
+        
+        // LCR vencida não garante que o certificado continue válido
+        if (index.isExpired(Instant.now())) {
+            unknownChecks.increment();
+            return RevocationStatus.UNKNOWN;
+        }
+        
+        goodChecks.increment();
+        return RevocationStatus.GOOD;
+    }
+    
+    @Scheduled(fixedDelayString = "${icp-brasil.revocation.crl.check-interval:1m}")
+    public void refresh() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        for (String source : sources()) {
+            if (isDue(source)) {
+                load(source);
+            }
+        }
+    }
+    
+    int indexedIssuers() {
+        return indexes.size();
+    }
+    
+    private List<String> sources() {
+        List<String> sources = new ArrayList<>();
+        Path directory = properties.getDirectory();
+        if (directory != null && Files.isDirectory(directory)) {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*.{crl,CRL,pem}")) {
+                for (Path file : files) {
+                    sources.add(file.toUri().toString());
+                }
+            } catch (IOException e) {
+                LoggingConfiguration.TRANSACAO_LOG.error("Erro ao listar diretório de LCRs {}: {}", directory, e.getMessage());
+            }
+        }
+        for (URI url : properties.getUrls()) {
+            sources.add(url.toString());
+        }
+        return sources;
+    }
+    
+    private boolean isDue(String source) {
+        Instant due = dueAt.get(source);
+        if (due == null || !Instant.now().isBefore(due)) {
+            return true;
+        }
+        // Arquivo local substituído antes do nextUpdate
+        if (source.startsWith("file:")) {
+            FileTime modified = modifiedTime(source);
+            return modified != null && !modified.equals(lastModified.get(source));
+        }
+        return false;
+    }
+    
+    private void load(String source) {
+        long start = System.nanoTime();
+        try {
+            byte[] encoded = fetch(source);
+            X509CRL crl = (X509CRL) CertificateFactory.getInstance("X.509")
+                .generateCRL(new ByteArrayInputStream(encoded));
+            
+            if (!verifySignature(crl)) {
+                if (properties.isRequireSignature()) {
+                    throw new IllegalStateException("Assinatura da LCR não verificada pelo truststore: " + crl.getIssuerX500Principal().getName());
+                }
+                LoggingConfiguration.TRANSACAO_LOG.warn("LCR aceita sem verificação de assinatura: {}", source);
+            }
+            
+            CrlIndex index = CrlIndex.build(crl, source, properties.getBloomFalsePositiveRate());
+            swap(index);
+            scheduleNext(source, index.nextUpdate());
+            
+            refreshSuccess.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            LoggingConfiguration.TRANSACAO_LOG.info("LCR carregada|issuer={}|entries={}|thisUpdate={}|nextUpdate={}|source={}",
+                index.issuer().getName(), index.size(), index.thisUpdate(), index.nextUpdate(), source);
+            
+        } catch (Exception e) {
+            refreshFailure.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            // Mantém o índice anterior e tenta novamente no próximo ciclo
+            dueAt.put(source, Instant.now().plus(properties.getCheckInterval()));
+            LoggingConfiguration.TRANSACAO_LOG.error("Erro ao carregar LCR {}: {}", source, e.getMessage());
+        }
+    }
+    
+    private byte[] fetch(String source) throws IOException, InterruptedException {
+        URI uri = URI.create(source);
+        if ("file".equals(uri.getScheme())) {
+            Path file = Path.of(uri);
+            lastModified.put(source, Files.getLastModifiedTime(file));
+            return Files.readAllBytes(file);
+        }
+        
+        HttpRequest request = HttpRequest.newBuilder(uri)
+            .timeout(properties.getHttpTimeout())
+            .GET()
+            .build();
+        HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IOException("HTTP " + response.statusCode());
+        }
+        return response.body();
+    }
+    
+    private boolean verifySignature(X509CRL crl) {
+        for (X509Certificate issuer : trustedCertificates.findBySubject(crl.getIssuerX500Principal())) {
+            try {
+                crl.verify(issuer.getPublicKey());
+                return true;
+            } catch (Exception e) {
+                // Tenta o próximo certificado com o mesmo subject (renovação de chave da AC)
+            }
+        }
+        return false;
+    }
+    
+    private void swap(CrlIndex index) {
+        CrlIndex previous = indexes.get(index.issuer());
+        if (previous != null && previous.thisUpdate().isAfter(index.thisUpdate())) {
+            LoggingConfiguration.TRANSACAO_LOG.warn("LCR ignorada por ser anterior à carregada: {}", index.source());
+            return;
+        }
+        if (indexes.put(index.issuer(), index) == null) {
+            registerIssuerGauges(index.issuer());
+        }
+    }
+    
+    private void scheduleNext(String source, Instant nextUpdate) {
+        Instant due = nextUpdate != null
+            ? nextUpdate.minus(properties.getRefreshMargin())
+            : Instant.now().plus(properties.getRefreshInterval());
+        Instant earliest = Instant.now().plus(properties.getCheckInterval());
+        dueAt.put(source, due.isBefore(earliest) ? earliest : due);
+    }
+    
+    private FileTime modifiedTime(String source) {
+        try {
+            return Files.getLastModifiedTime(Path.of(URI.create(source)));
+        } catch (Exception e) {
+            return null;
+        }
+    }
+    
+    private void registerIssuerGauges(X500Principal issuer) {
+        String issuerName = DistinguishedName.parse(issuer.getName()).getCommonNameOrName();
+        Gauge.builder("revocation.crl.age", indexes, map -> ageSeconds(map.get(issuer)))
+            .description("Segundos desde o thisUpdate da LCR carregada")
+            .baseUnit("seconds")
+            .tag("issuer", issuerName)
+            .register(meterRegistry);
+        Gauge.builder("revocation.crl.entries", indexes, map -> map.containsKey(issuer) ? map.get(issuer).size() : 0)
+            .tag("issuer", issuerName)
+            .register(meterRegistry);
+    }
+    
+    private static double ageSeconds(CrlIndex index) {
+        return index == null ? Double.NaN : Duration.between(index.thisUpdate(), Instant.now()).toSeconds();
+    }
+    
+    private Timer refreshTimer(String result) {
+        return Timer.builder("revocation.crl.refresh")
+            .description("Tempo de download e indexação de uma LCR")
+            .tag("result", result)
+            .register(meterRegistry);
+    }
+    
+    private Counter checkCounter(RevocationStatus status) {
+        return Counter.builder("revocation.checks")
+            .tag("method", "crl")
+            .tag("status", status.name())
+            .register(meterRegistry);
+    }
+}
@@ -0,0 +1,15 @@
+package br.gov.sp.tce.icp_brasil_authenticator.domain.revocation;
+
+import java.time.Instant;
+
+// Resposta OCSP já validada (ou falha do responder), guardada no cache até o nextUpdate
+record OcspResult(RevocationStatus status, Instant thisUpdate, Instant nextUpdate, String failure) {
+    
+    static OcspResult failed(String failure) {
+        return new OcspResult(RevocationStatus.UNKNOWN, Instant.now(), null, failure);
+    }
+    
+    boolean isFailed() {
+        return failure != null;
+    }
+}
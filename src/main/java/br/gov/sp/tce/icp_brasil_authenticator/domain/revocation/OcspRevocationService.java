@@ -0,0 +1,364 @@
+package br.gov.sp.tce.icp_brasil_authenticator.domain.revocation;
+
+import java.math.BigInteger;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.security.cert.X509Certificate;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.bouncycastle.asn1.ASN1ObjectIdentifier;
+import org.bouncycastle.asn1.x509.AccessDescription;
+import org.bouncycastle.asn1.x509.AuthorityInformationAccess;
+import org.bouncycastle.asn1.x509.ExtendedKeyUsage;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.GeneralName;
+import org.bouncycastle.asn1.x509.KeyPurposeId;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateHolder;
+import org.bouncycastle.cert.jcajce.JcaX509ExtensionUtils;
+import org.bouncycastle.cert.ocsp.BasicOCSPResp;
+import org.bouncycastle.cert.ocsp.CertificateID;
+import org.bouncycastle.cert.ocsp.CertificateStatus;
+import org.bouncycastle.cert.ocsp.OCSPReqBuilder;
+import org.bouncycastle.cert.ocsp.OCSPResp;
+import org.bouncycastle.cert.ocsp.RevokedStatus;
+import org.bouncycastle.cert.ocsp.SingleResp;
+import org.bouncycastle.operator.ContentVerifierProvider;
+import org.bouncycastle.operator.DigestCalculator;
+import org.bouncycastle.operator.jcajce.JcaContentVerifierProviderBuilder;
+import org.bouncycastle.operator.jcajce.JcaDigestCalculatorProviderBuilder;
+import org.springframework.stereotype.Service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import br.gov.sp.tce.icp_brasil_authenticator.configuration.LoggingConfiguration;
+import br.gov.sp.tce.icp_brasil_authenticator.configuration.RevocationProperties;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.certificate.DistinguishedName;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+// Cliente OCSP (RFC 6960). As respostas ficam em cache por (hash da chave do emissor, serial)
+// até o nextUpdate; consultas simultâneas à mesma chave compartilham a mesma requisição
+// (o AsyncCache guarda o CompletableFuture em andamento) e entradas consultadas perto de
+// expirar são renovadas em segundo plano, sem bloquear o login.
+@Service
+public class OcspRevocationService {
+    
+    static final String CACHE_NAME = "revocation.ocsp";
+    
+    private static final HexFormat HEX_FORMAT = HexFormat.of();
+    private static final ASN1ObjectIdentifier ID_AD_OCSP = AccessDescription.id_ad_ocsp;
+    
+    private final RevocationProperties.Ocsp properties;
+    private final HttpClient httpClient;
+    private final AsyncCache<Key, OcspResult> cache;
+    private final Set<Key> prefetching = ConcurrentHashMap.newKeySet();
+    private final Set<String> issuers;
+    
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter coalescedWaits;
+    private final Counter prefetches;
+    private final Timer responderSuccess;
+    private final Timer responderFailure;
+    
+    public OcspRevocationService(RevocationProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties.getOcsp();
+        this.issuers = Set.copyOf(this.properties.getIssuers());
+        this.httpClient = HttpClient.newBuilder()
+            .connectTimeout(this.properties.getConnectTimeout())
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .build();
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(this.properties.getMaximumSize())
+            .expireAfter(new NextUpdateExpiry(this.properties))
+            .recordStats()
+            .buildAsync();
+        
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        this.hits = lookupCounter(meterRegistry, "hit");
+        this.misses = lookupCounter(meterRegistry, "miss");
+        this.coalescedWaits = lookupCounter(meterRegistry, "coalesced");
+        this.prefetches = Counter.builder("revocation.ocsp.prefetch")
+            .description("Renovações antecipadas de respostas OCSP em cache")
+            .register(meterRegistry);
+        this.responderSuccess = responderTimer(meterRegistry, "success");
+        this.responderFailure = responderTimer(meterRegistry, "failure");
+    }
+    
+    // Indica se o certificado deve ser verificado por OCSP (AC configurada e responder conhecido)
+    public boolean supports(X509Certificate certificate) {
+        if (!properties.isEnabled()) {
+            return false;
+        }
+        if (!issuers.isEmpty()) {
+            String issuerName = DistinguishedName.parse(certificate.getIssuerX500Principal().getName()).getCommonNameOrName();
+            if (!issuers.contains(issuerName)) {
+                return false;
+            }
+        }
+        return responderUrl(certificate) != null;
+    }
+    
+    public boolean isHardFail() {
+        return properties.getFailurePolicy() == RevocationProperties.FailurePolicy.HARD;
+    }
+    
+    OcspResult check(X509Certificate certificate, X509Certificate issuer) {
+        CertificateID certificateId;
+        try {
+            certificateId = certificateId(certificate, issuer);
+        } catch (Exception e) {
+            return OcspResult.failed("CertID: " + e.getMessage());
+        }
+        
+        Key key = new Key(HEX_FORMAT.formatHex(certificateId.getIssuerKeyHash()), certificate.getSerialNumber());
+        URI responder = responderUrl(certificate);
+        
+        boolean[] loaded = {false};
+        CompletableFuture<OcspResult> future = cache.get(key, (k, executor) -> {
+            loaded[0] = true;
+            return query(responder, certificateId, issuer);
+        });
+        
+        if (loaded[0]) {
+            misses.increment();
+        } else if (future.isDone()) {
+            hits.increment();
+        } else {
+            // Outra requisição já consulta o responder para este certificado
+            coalescedWaits.increment();
+        }
+        
+        OcspResult result = await(future);
+        if (!loaded[0]) {
+            prefetchIfExpiring(key, result, responder, certificateId, issuer);
+        }
+        return result;
+    }
+    
+    private OcspResult await(CompletableFuture<OcspResult> future) {
+        try {
+            return future.get(properties.getRequestTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            return OcspResult.failed("timeout");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return OcspResult.failed("interrompido");
+        } catch (Exception e) {
+            return OcspResult.failed(e.getMessage());
+        }
+    }
+    
+    private void prefetchIfExpiring(Key key, OcspResult result, URI responder, CertificateID certificateId, X509Certificate issuer) {
+        if (result.isFailed() || result.nextUpdate() == null) {
+            return;
+        }
+        Instant prefetchAt = result.nextUpdate().minus(properties.getPrefetchBefore());
+        if (Instant.now().isBefore(prefetchAt) || !prefetching.add(key)) {
+            return;
+        }
+        
+        prefetches.increment();
+        query(responder, certificateId, issuer).whenComplete((fresh, error) -> {
+            // Falha na renovação mantém a resposta anterior até expirar
+            if (fresh != null && !fresh.isFailed()) {
+                cache.put(key, CompletableFuture.completedFuture(fresh));
+            }
+            prefetching.remove(key);
+        });
+    }
+    
+    private CompletableFuture<OcspResult> query(URI responder, CertificateID certificateId, X509Certificate issuer) {
+        long start = System.nanoTime();
+        try {
+            byte[] request = new OCSPReqBuilder().addRequest(certificateId).build().getEncoded();
+            HttpRequest httpRequest = HttpRequest.newBuilder(responder)
+                .timeout(properties.getRequestTimeout())
+                .header("Content-Type", "application/ocsp-request")
+                .header("Accept", "application/ocsp-response")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(request))
+                .build();
+            
+            return httpClient.sendAsync(httpRequest, HttpResponse.BodyHandlers.ofByteArray())
+                .thenApply(response -> {
+                    if (response.statusCode() != 200) {
+                        return OcspResult.failed("HTTP " + response.statusCode());
+                    }
+                    return parse(response.body(), certificateId, issuer);
+                })
+                .exceptionally(e -> OcspResult.failed(e.getClass().getSimpleName() + ": " + e.getMessage()))
+                .whenComplete((result, e) -> {
+                    (result.isFailed() ? responderFailure : responderSuccess).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    if (result.isFailed()) {
+                        LoggingConfiguration.TRANSACAO_LOG.warn("Falha na consulta OCSP|responder={}|erro={}", responder, result.failure());
+                    }
+                });
+            
+        } catch (Exception e) {
+            responderFailure.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return CompletableFuture.completedFuture(OcspResult.failed(e.getMessage()));
+        }
+    }
+    
+    private OcspResult parse(byte[] encoded, CertificateID certificateId, X509Certificate issuer) {
+        try {
+            OCSPResp response = new OCSPResp(encoded);
+            if (response.getStatus() != OCSPResp.SUCCESSFUL) {
+                return OcspResult.failed("status OCSP " + response.getStatus());
+            }
+            
+            BasicOCSPResp basic = (BasicOCSPResp) response.getResponseObject();
+            if (!basic.isSignatureValid(responderVerifier(basic, issuer))) {
+                return OcspResult.failed("assinatura da resposta inválida");
+            }
+            
+            for (SingleResp single : basic.getResponses()) {
+                if (!single.getCertID().equals(certificateId)) {
+                    continue;
+                }
+                Instant now = Instant.now();
+                Instant thisUpdate = single.getThisUpdate().toInstant();
+                Instant nextUpdate = single.getNextUpdate() != null ? single.getNextUpdate().toInstant() : null;
+                if (thisUpdate.isAfter(now.plus(properties.getClockSkew()))) {
+                    return OcspResult.failed("thisUpdate no futuro");
+                }
+                if (nextUpdate != null && now.isAfter(nextUpdate)) {
+                    return OcspResult.failed("resposta expirada");
+                }
+                // Sem nextUpdate, a resposta só vale enquanto o thisUpdate for recente (sem nonce, é o que limita o replay)
+                if (nextUpdate == null && now.isAfter(thisUpdate.plus(properties.getMaximumAge()))) {
+                    return OcspResult.failed("resposta sem nextUpdate antiga demais");
+                }
+                return new OcspResult(status(single.getCertStatus()), thisUpdate, nextUpdate, null);
+            }
+            return OcspResult.failed("resposta sem o certificado consultado");
+            
+        } catch (Exception e) {
+            return OcspResult.failed(e.getMessage());
+        }
+    }
+    
+    private static RevocationStatus status(CertificateStatus certificateStatus) {
+        if (certificateStatus == CertificateStatus.GOOD) {
+            return RevocationStatus.GOOD;
+        }
+        return certificateStatus instanceof RevokedStatus ? RevocationStatus.REVOKED : RevocationStatus.UNKNOWN;
+    }
+    
+    // A resposta é assinada pela própria AC ou por um responder delegado emitido por ela (id-kp-OCSPSigning)
+    private static ContentVerifierProvider responderVerifier(BasicOCSPResp basic, X509Certificate issuer) throws Exception {
+        JcaContentVerifierProviderBuilder builder = new JcaContentVerifierProviderBuilder();
+        ContentVerifierProvider issuerVerifier = builder.build(issuer.getPublicKey());
+        X509CertificateHolder issuerHolder = new JcaX509CertificateHolder(issuer);
+        
+        for (X509CertificateHolder responder : basic.getCerts()) {
+            if (responder.getSubject().equals(issuerHolder.getSubject())
+                || !responder.getIssuer().equals(issuerHolder.getSubject())
+                || !responder.isValidOn(new Date())
+                || !responder.isSignatureValid(issuerVerifier)) {
+                continue;
+            }
+            ExtendedKeyUsage usage = ExtendedKeyUsage.fromExtensions(responder.getExtensions());
+            if (usage != null && usage.hasKeyPurposeId(KeyPurposeId.id_kp_OCSPSigning)) {
+                return builder.build(responder);
+            }
+        }
+        return issuerVerifier;
+    }
+    
+    private static CertificateID certificateId(X509Certificate certificate, X509Certificate issuer) throws Exception {
+        DigestCalculator sha1 = new JcaDigestCalculatorProviderBuilder().build().get(CertificateID.HASH_SHA1);
+        return new CertificateID(sha1, new JcaX509CertificateHolder(issuer), certificate.getSerialNumber());
+    }
+    
+    private URI responderUrl(X509Certificate certificate) {
+        if (properties.getResponderUrl() != null) {
+            return properties.getResponderUrl();
+        }
+        byte[] extension = certificate.getExtensionValue(Extension.authorityInfoAccess.getId());
+        if (extension == null) {
+            return null;
+        }
+        try {
+            AuthorityInformationAccess access = AuthorityInformationAccess.getInstance(
+                JcaX509ExtensionUtils.parseExtensionValue(extension));
+            for (AccessDescription description : access.getAccessDescriptions()) {
+                GeneralName location = description.getAccessLocation();
+                if (ID_AD_OCSP.equals(description.getAccessMethod())
+                    && location.getTagNo() == GeneralName.uniformResourceIdentifier) {
+                    return URI.create(location.getName().toString());
+                }
+            }
+        } catch (Exception e) {
+            LoggingConfiguration.TRANSACAO_LOG.warn("AuthorityInfoAccess inválido: {}", e.getMessage());
+        }
+        return null;
+    }
+    
+    private static Counter lookupCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("revocation.ocsp.lookups")
+            .description("Consultas ao cache OCSP: hit, miss ou espera por requisição em andamento")
+            .tag("result", result)
+            .register(meterRegistry);
+    }
+    
+    private static Timer responderTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("revocation.ocsp.responder.latency")
+            .tag("outcome", outcome)
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+    }
+    
+    record Key(String issuerKeyHash, BigInteger serialNumber) {
+    }
+    
+    // Expira no nextUpdate da resposta (ou em thisUpdate + maximum-age, sem nextUpdate), limitado
+    // a maximum-ttl; falhas ficam failure-ttl
+    private static final class NextUpdateExpiry implements Expiry<Key, OcspResult> {
+        
+        private final long maximumTtlNanos;
+        private final long failureTtlNanos;
+        private final Duration maximumAge;
+        
+        private NextUpdateExpiry(RevocationProperties.Ocsp properties) {
+            this.maximumTtlNanos = properties.getMaximumTtl().toNanos();
+            this.failureTtlNanos = properties.getFailureTtl().toNanos();
+            this.maximumAge = properties.getMaximumAge();
+        }
+        
+        @Override
+        public long expireAfterCreate(Key key, OcspResult value, long currentTime) {
+            if (value.isFailed()) {
+                return failureTtlNanos;
+            }
+            Instant expiresAt = value.nextUpdate() != null ? value.nextUpdate() : value.thisUpdate().plus(maximumAge);
+            long untilExpiry = Duration.between(Instant.now(), expiresAt).toNanos();
+            return Math.max(0, Math.min(maximumTtlNanos, untilExpiry));
+        }
+        
+        @Override
+        public long expireAfterUpdate(Key key, OcspResult value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+        
+        @Override
+        public long expireAfterRead(Key key, OcspResult value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package br.gov.sp.tce.icp_brasil_authenticator.domain.revocation;
+
+// Situação de revogação, método que a determinou (CRL/OCSP) e se o certificado pode ser aceito
+public record RevocationResult(RevocationStatus status, String method, boolean accepted) {
+    
+    static final String CRL = "CRL";
+    static final String OCSP = "OCSP";
+}
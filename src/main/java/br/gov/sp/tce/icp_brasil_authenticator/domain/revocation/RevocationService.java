@@ -0,0 +1,75 @@
+package br.gov.sp.tce.icp_brasil_authenticator.domain.revocation;
+
+import java.security.cert.X509Certificate;
+
+import org.springframework.stereotype.Service;
+
+import br.gov.sp.tce.icp_brasil_authenticator.domain.trust.CertificateChainValidator;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.trust.TrustedCertificates;
+import lombok.RequiredArgsConstructor;
+
+// Escolhe o método de verificação de revogação: OCSP para as ACs configuradas (com a LCR
+// local como alternativa quando o responder falha) e LCR para as demais.
+@Service
+@RequiredArgsConstructor
+public class RevocationService {
+    
+    private final CrlRevocationService crlRevocationService;
+    private final OcspRevocationService ocspRevocationService;
+    private final TrustedCertificates trustedCertificates;
+    private final CertificateChainValidator certificateChainValidator;
+    
+    public RevocationResult check(X509Certificate[] certificateChain) {
+        X509Certificate certificate = certificateChain[0];
+        
+        X509Certificate issuer = ocspRevocationService.supports(certificate) ? findIssuer(certificateChain) : null;
+        if (issuer == null) {
+            RevocationStatus status = crlRevocationService.check(certificate);
+            String method = status == RevocationStatus.NOT_CHECKED ? null : RevocationResult.CRL;
+            boolean accepted = switch (status) {
+                case REVOKED -> false;
+                case UNKNOWN -> !crlRevocationService.isHardFail();
+                default -> true;
+            };
+            return new RevocationResult(status, method, accepted);
+        }
+        
+        OcspResult ocsp = ocspRevocationService.check(certificate, issuer);
+        if (!ocsp.isFailed()) {
+            return new RevocationResult(ocsp.status(), RevocationResult.OCSP, isAccepted(ocsp.status()));
+        }
+        
+        // Responder indisponível: a LCR local, se vigente, ainda responde
+        RevocationStatus crlStatus = crlRevocationService.check(certificate);
+        if (crlStatus == RevocationStatus.GOOD || crlStatus == RevocationStatus.REVOKED) {
+            return new RevocationResult(crlStatus, RevocationResult.CRL, crlStatus == RevocationStatus.GOOD);
+        }
+        return new RevocationResult(RevocationStatus.UNKNOWN, RevocationResult.OCSP, !ocspRevocationService.isHardFail());
+    }
+    
+    private boolean isAccepted(RevocationStatus status) {
+        return switch (status) {
+            case REVOKED -> false;
+            case UNKNOWN -> !ocspRevocationService.isHardFail();
+            default -> true;
+        };
+    }
+    
+    // Certificado da AC emissora: o do truststore ou, na falta dele, o próximo da cadeia apresentada,
+    // sempre com a assinatura do certificado conferida (do cache do validador de cadeia). Só o DN não
+    // basta: uma intermediária forjada com o DN da AC levaria a consulta OCSP, e a conferência da
+    // resposta, para a chave de quem a forjou.
+    private X509Certificate findIssuer(X509Certificate[] certificateChain) {
+        X509Certificate certificate = certificateChain[0];
+        for (X509Certificate candidate : trustedCertificates.findBySubject(certificate.getIssuerX500Principal())) {
+            // Pode haver mais de uma chave da mesma AC (renovação)
+            if (certificateChainValidator.isSignedBy(certificate, candidate)) {
+                return candidate;
+            }
+        }
+        if (certificateChain.length > 1 && certificateChainValidator.isSignedBy(certificate, certificateChain[1])) {
+            return certificateChain[1];
+        }
+        return null;
+    }
+}
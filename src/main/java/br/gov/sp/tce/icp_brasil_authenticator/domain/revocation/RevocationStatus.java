@@ -0,0 +1,15 @@
+package br.gov.sp.tce.icp_brasil_authenticator.domain.revocation;
+
+public enum RevocationStatus {
+    
+    // Certificado não consta como revogado em uma LCR vigente
+    GOOD,
+    
+    REVOKED,
+    
+    // Sem LCR vigente para o emissor
+    UNKNOWN,
+    
+    // Verificação de revogação desabilitada
+    NOT_CHECKED
+}
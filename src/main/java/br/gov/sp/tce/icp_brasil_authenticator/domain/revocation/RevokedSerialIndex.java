@@ -0,0 +1,105 @@
+package br.gov.sp.tce.icp_brasil_authenticator.domain.revocation;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// Seriais revogados de um emissor em arrays primitivos ordenados (128 bits em dois longs),
+// com busca binária. Seriais negativos ou maiores que 128 bits (raros) ficam em um conjunto à parte.
+final class RevokedSerialIndex {
+    
+    private final long[] high;
+    private final long[] low;
+    private final Set<BigInteger> oversized;
+    
+    private RevokedSerialIndex(long[] high, long[] low, Set<BigInteger> oversized) {
+        this.high = high;
+        this.low = low;
+        this.oversized = oversized;
+    }
+    
+    static RevokedSerialIndex of(Collection<BigInteger> serials) {
+        List<BigInteger> fitting = new ArrayList<>(serials.size());
+        Set<BigInteger> oversized = new HashSet<>();
+        for (BigInteger serial : serials) {
+            if (fits(serial)) {
+                fitting.add(serial);
+            } else {
+                oversized.add(serial);
+            }
+        }
+        // Para valores não negativos a ordem natural coincide com a ordem sem sinal dos longs
+        fitting.sort(null);
+        
+        long[] high = new long[fitting.size()];
+        long[] low = new long[fitting.size()];
+        int size = 0;
+        for (BigInteger serial : fitting) {
+            long h = serial.shiftRight(64).longValue();
+            long l = serial.longValue();
+            if (size > 0 && high[size - 1] == h && low[size - 1] == l) {
+                continue;
+            }
+            high[size] = h;
+            low[size] = l;
+            size++;
+        }
+        if (size < high.length) {
+            high = Arrays.copyOf(high, size);
+            low = Arrays.copyOf(low, size);
+        }
+        return new RevokedSerialIndex(high, low, oversized.isEmpty() ? Set.of() : oversized);
+    }
+    
+    boolean contains(BigInteger serial) {
+        if (!fits(serial)) {
+            return oversized.contains(serial);
+        }
+        long h = serial.shiftRight(64).longValue();
+        long l = serial.longValue();
+        int from = 0;
+        int to = high.length - 1;
+        while (from <= to) {
+            int mid = (from + to) >>> 1;
+            int cmp = Long.compareUnsigned(high[mid], h);
+            if (cmp == 0) {
+                cmp = Long.compareUnsigned(low[mid], l);
+            }
+            if (cmp < 0) {
+                from = mid + 1;
+            } else if (cmp > 0) {
+                to = mid - 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    int size() {
+        return high.length + oversized.size();
+    }
+    
+    // Hash de 64 bits do serial usado pelo filtro de Bloom
+    static long hash(BigInteger serial) {
+        return mix(serial.longValue() ^ mix(serial.shiftRight(64).longValue() + serial.bitLength()));
+    }
+    
+    private static boolean fits(BigInteger serial) {
+        return serial.signum() >= 0 && serial.bitLength() <= 128;
+    }
+    
+    // Finalizador do MurmurHash3 (fmix64)
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
@@ -0,0 +1,194 @@
+package br.gov.sp.tce.icp_brasil_authenticator.domain.serialization;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonIncludeProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import br.gov.sp.tce.icp_brasil_authenticator.configuration.CertificateCacheProperties;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.dto.CertificateDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+// Escreve o CertificateDTO da resposta em JSON, CBOR ou Smile (Accept). A parte derivada do
+// certificado (titular, emissor, datas e campos ICP-Brasil) é serializada uma vez por
+// fingerprint e guardada em bytes; a cada requisição só a cadeia apresentada, o resultado da
+// validação e os dados da requisição são serializados e emendados ao final do mesmo objeto. Como bean, o Spring Boot
+// o coloca à frente do conversor Jackson padrão.
+@Component
+public class CertificateResponseConverter extends AbstractHttpMessageConverter<CertificateDTO> {
+    
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+    public static final MediaType APPLICATION_SMILE = MediaType.parseMediaType(APPLICATION_SMILE_VALUE);
+    
+    static final String CACHE_NAME = "certificate.response";
+    
+    private final Format json;
+    private final Format cbor;
+    private final Format smile;
+    
+    // Parte do certificado por fingerprint: [0] JSON, [1] CBOR, [2] Smile, preenchidas sob demanda
+    // por requisições concorrentes (AtomicReferenceArray publica os bytes com segurança)
+    private final Cache<String, AtomicReferenceArray<byte[]>> cache;
+    
+    public CertificateResponseConverter(Jackson2ObjectMapperBuilder objectMapperBuilder,
+                                        CertificateCacheProperties properties, MeterRegistry meterRegistry) {
+        super(MediaType.APPLICATION_JSON, MediaType.APPLICATION_CBOR, APPLICATION_SMILE);
+        
+        // Mesma configuração do ObjectMapper da aplicação (spring.jackson.*) nos três formatos
+        this.json = new Format(0, objectMapperBuilder.build(), null, (byte) '{', (byte) '}');
+        this.cbor = new Format(1, objectMapperBuilder.factory(new CBORFactory()).build(), null, (byte) 0xBF, (byte) 0xFF);
+        // Sem referências a nomes já escritos (shared names): as duas partes são geradas separadamente;
+        // a parte da requisição vai sem o cabeçalho ":)\n"
+        this.smile = new Format(2,
+            objectMapperBuilder.factory(SmileFactory.builder().disable(SmileGenerator.Feature.CHECK_SHARED_NAMES).build()).build(),
+            objectMapperBuilder.factory(SmileFactory.builder().disable(SmileGenerator.Feature.CHECK_SHARED_NAMES)
+                .disable(SmileGenerator.Feature.WRITE_HEADER).build()).build(),
+            (byte) 0xFA, (byte) 0xFB);
+        
+        if (!properties.isEnabled()) {
+            this.cache = null;
+            return;
+        }
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(properties.getMaximumSize())
+            .expireAfterAccess(properties.getTtl())
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+    
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return CertificateDTO.class.isAssignableFrom(clazz);
+    }
+    
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+    
+    @Override
+    protected CertificateDTO readInternal(Class<? extends CertificateDTO> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("CertificateDTO não é aceito como corpo de requisição", inputMessage);
+    }
+    
+    @Override
+    protected void writeInternal(CertificateDTO certificate, HttpOutputMessage outputMessage) throws IOException {
+        MediaType contentType = outputMessage.getHeaders().getContentType();
+        outputMessage.getBody().write(write(certificate, format(contentType)));
+    }
+    
+    // Corpo da resposta no formato do media type (JSON quando não for CBOR nem Smile)
+    public byte[] write(CertificateDTO certificate, MediaType mediaType) throws IOException {
+        return write(certificate, format(mediaType));
+    }
+    
+    private byte[] write(CertificateDTO certificate, Format format) throws IOException {
+        String fingerprint = certificate.getFingerprint();
+        if (cache == null || fingerprint == null || fingerprint.length() != 64) {
+            // Sem cache ou sem fingerprint (erro no cálculo): serialização completa
+            return format.full.writeValueAsBytes(certificate);
+        }
+        
+        AtomicReferenceArray<byte[]> parts = cache.get(fingerprint, key -> new AtomicReferenceArray<>(3));
+        byte[] certificatePart = parts.get(format.index);
+        if (certificatePart == null) {
+            // Corrida entre requisições do mesmo certificado é inofensiva: os bytes são iguais
+            certificatePart = format.certificatePart.writeValueAsBytes(certificate);
+            parts.set(format.index, certificatePart);
+        }
+        return format.splice(certificatePart, format.requestPart.writeValueAsBytes(certificate));
+    }
+    
+    private Format format(MediaType mediaType) {
+        if (mediaType != null && MediaType.APPLICATION_CBOR.isCompatibleWith(mediaType)) {
+            return cbor;
+        }
+        if (mediaType != null && APPLICATION_SMILE.isCompatibleWith(mediaType)) {
+            return smile;
+        }
+        return json;
+    }
+    
+    // Writers de um formato e os bytes de início e fim de objeto usados na emenda
+    private static final class Format {
+        
+        private final int index;
+        private final ObjectWriter full;
+        private final ObjectWriter certificatePart;
+        private final ObjectWriter requestPart;
+        private final byte startObject;
+        private final byte endObject;
+        
+        private Format(int index, ObjectMapper mapper, ObjectMapper requestMapper, byte startObject, byte endObject) {
+            this.index = index;
+            this.full = mapper.writerFor(CertificateDTO.class);
+            this.certificatePart = mapper.copy().addMixIn(CertificateDTO.class, CertificatePart.class)
+                .writerFor(CertificateDTO.class);
+            this.requestPart = (requestMapper != null ? requestMapper : mapper).copy()
+                .addMixIn(CertificateDTO.class, RequestPart.class)
+                .writerFor(CertificateDTO.class);
+            this.startObject = startObject;
+            this.endObject = endObject;
+        }
+        
+        // {certificado} + {requisição} -> {certificado, requisição}: remove o fim do primeiro objeto e
+        // o início do segundo (em JSON, com vírgula entre os dois quando ambos têm campos)
+        byte[] splice(byte[] certificatePart, byte[] requestPart) {
+            int end = lastIndexOf(certificatePart, endObject);
+            int start = requestPart[0] == startObject ? 1 : -1;
+            if (end < 0 || start < 0) {
+                throw new IllegalStateException("Formato inesperado na emenda da resposta");
+            }
+            boolean comma = startObject == '{'
+                && certificatePart[end - 1] != '{' && requestPart[start] != '}';
+            
+            byte[] response = new byte[end + (comma ? 1 : 0) + requestPart.length - start];
+            System.arraycopy(certificatePart, 0, response, 0, end);
+            int offset = end;
+            if (comma) {
+                response[offset++] = ',';
+            }
+            System.arraycopy(requestPart, start, response, offset, requestPart.length - start);
+            return response;
+        }
+        
+        private static int lastIndexOf(byte[] bytes, byte value) {
+            for (int i = bytes.length - 1; i >= 0; i--) {
+                if (bytes[i] == value) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+    
+    // Cadeia apresentada (o mesmo fingerprint pode chegar com outra intermediária), resultado da
+    // validação (depende de truststore e revogação) e dados da requisição
+    @JsonIgnoreProperties({ "certificateChain", "valid", "revocationStatus", "revocationMethod", "chainStatus",
+        "trustAnchor", "validationTimestamp", "remoteAddress", "userAgent", "sessionId", "token", "tokenExpiresAt" })
+    private abstract static class CertificatePart {
+    }
+    
+    @JsonIncludeProperties({ "certificateChain", "valid", "revocationStatus", "revocationMethod", "chainStatus",
+        "trustAnchor", "validationTimestamp", "remoteAddress", "userAgent", "sessionId", "token", "tokenExpiresAt" })
+    private abstract static class RequestPart {
+    }
+}
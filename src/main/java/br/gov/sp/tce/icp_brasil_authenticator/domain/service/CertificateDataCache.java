@@ -0,0 +1,85 @@
+package br.gov.sp.tce.icp_brasil_authenticator.domain.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.function.Function;
+
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import br.gov.sp.tce.icp_brasil_authenticator.configuration.CertificateCacheProperties;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.dto.CertificateDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+// Cache dos dados imutáveis extraídos do certificado, indexado pelo fingerprint SHA-256 do DER.
+// As entradas nunca são alteradas: quem consome copia (toBuilder) antes de preencher
+// os campos da requisição (IP, User-Agent, sessão e timestamp).
+@Component
+public class CertificateDataCache {
+    
+    static final String CACHE_NAME = "certificate.data";
+    
+    private final Cache<String, CertificateDTO> cache;
+    
+    public CertificateDataCache(CertificateCacheProperties properties, MeterRegistry meterRegistry) {
+        if (!properties.isEnabled()) {
+            this.cache = null;
+            return;
+        }
+        
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(properties.getMaximumSize())
+            .expireAfter(new NotAfterCappedExpiry(properties.getTtl()))
+            .recordStats()
+            .build();
+        
+        // Expõe hits, misses, evictions e tamanho no registry Prometheus
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+    
+    public CertificateDTO get(String fingerprint, Function<String, CertificateDTO> loader) {
+        if (cache == null) {
+            return loader.apply(fingerprint);
+        }
+        return cache.get(fingerprint, loader);
+    }
+    
+    public void invalidateAll() {
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+    }
+    
+    // Expira no menor valor entre o TTL configurado e o fim da validade do certificado
+    private static final class NotAfterCappedExpiry implements Expiry<String, CertificateDTO> {
+        
+        private final long ttlNanos;
+        
+        private NotAfterCappedExpiry(Duration ttl) {
+            this.ttlNanos = ttl.toNanos();
+        }
+        
+        @Override
+        public long expireAfterCreate(String key, CertificateDTO value, long currentTime) {
+            if (value.getNotAfter() == null) {
+                return ttlNanos;
+            }
+            long untilNotAfter = Duration.between(LocalDateTime.now(), value.getNotAfter()).toNanos();
+            return Math.max(0, Math.min(ttlNanos, untilNotAfter));
+        }
+        
+        @Override
+        public long expireAfterUpdate(String key, CertificateDTO value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+        
+        @Override
+        public long expireAfterRead(String key, CertificateDTO value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
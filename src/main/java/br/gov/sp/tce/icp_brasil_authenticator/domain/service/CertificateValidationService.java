@@ -1,82 +1,105 @@
 package br.gov.sp.tce.icp_brasil_authenticator.domain.service;
 
-import java.security.MessageDigest;
 import java.security.cert.CertificateExpiredException;
 import java.security.cert.CertificateNotYetValidException;
 import java.security.cert.X509Certificate;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.UUID;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import javax.security.auth.x500.X500Principal;
 
 import org.springframework.stereotype.Service;
 
 import br.gov.sp.tce.icp_brasil_authenticator.configuration.LoggingConfiguration;
+import br.gov.sp.tce.icp_brasil_authenticator.configuration.TrustProperties;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.audit.AuditEvent;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.audit.AuditPipeline;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.certificate.CertificateFingerprint;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.certificate.DistinguishedName;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.certificate.IcpBrasilExtensions;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.certificate.ParsedCertificate;
 import br.gov.sp.tce.icp_brasil_authenticator.domain.dto.CertificateDTO;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.revocation.RevocationResult;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.revocation.RevocationService;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.trust.CertificateChainValidator;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.trust.ChainStatus;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.trust.ChainValidationResult;
+import br.gov.sp.tce.icp_brasil_authenticator.metrics.ValidationMetrics;
+import br.gov.sp.tce.icp_brasil_authenticator.metrics.ValidationMetrics.Outcome;
+import br.gov.sp.tce.icp_brasil_authenticator.metrics.ValidationMetrics.Stage;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 @Service
 @Slf4j
+@RequiredArgsConstructor
 public class CertificateValidationService {
     
-    private static final Pattern CPF_PATTERN = Pattern.compile("(\\d{11})");
-    private static final Pattern EMAIL_PATTERN = Pattern.compile("([a-zA-Z0-9._%+-]+@[a-zA-Z0-9.-]+\\.[a-zA-Z]{2,})");
+    private static final String FINGERPRINT_ERROR = "ERRO_FINGERPRINT";
+    
+    private final CertificateDataCache certificateDataCache;
+    private final AuditPipeline auditPipeline;
+    private final RevocationService revocationService;
+    private final CertificateChainValidator certificateChainValidator;
+    private final TrustProperties trustProperties;
+    private final ValidationMetrics validationMetrics;
     
     public CertificateDTO validateCertificate(X509Certificate[] certificateChain, String remoteAddress, String userAgent) {
-        LoggingConfiguration.TRANSACAO_LOG.info("Iniciando processamento de certificado digital");
-        
+        return validate(parseCertificate(certificateChain), remoteAddress, userAgent);
+    }
+    
+    // Extrai (ou obtém do cache) os dados do certificado; chamado uma vez por requisição
+    public ParsedCertificate parseCertificate(X509Certificate[] certificateChain) {
         if (certificateChain == null || certificateChain.length == 0) {
             throw new IllegalArgumentException("Cadeia de certificados não fornecida");
         }
         
-        X509Certificate clientCertificate = certificateChain[0];
-        
         try {
-            CertificateDTO certificateDTO = new CertificateDTO();
-            
-            // Extrair informações do certificado principal
-            extractCertificateInfo(clientCertificate, certificateDTO);
+            // Dados derivados do certificado são reaproveitados entre logins do mesmo titular
+            long start = System.nanoTime();
+            String fingerprint = generateSHA256Fingerprint(certificateChain[0]);
+            start = validationMetrics.record(Stage.FINGERPRINT, start);
+            CertificateDTO cachedData = FINGERPRINT_ERROR.equals(fingerprint)
+                ? createCertificateData(certificateChain[0], fingerprint)
+                : certificateDataCache.get(fingerprint, key -> createCertificateData(certificateChain[0], key));
+            // A cadeia apresentada pode mudar entre logins com o mesmo certificado (outra
+            // intermediária, raiz incluída ou não), então é montada a cada requisição
+            CertificateDTO certificateData = cachedData.toBuilder()
+                .certificateChain(createCertificateChain(certificateChain))
+                .build();
+            validationMetrics.record(Stage.PARSE, start);
             
-            // Dados para auditoria
-            certificateDTO.setFingerprint(generateSHA256Fingerprint(clientCertificate));
-            certificateDTO.setSubjectDN(clientCertificate.getSubjectX500Principal().getName());
-            certificateDTO.setIssuerDN(clientCertificate.getIssuerX500Principal().getName());
-            certificateDTO.setValidationTimestamp(LocalDateTime.now());
-            certificateDTO.setRemoteAddress(remoteAddress);
-            certificateDTO.setUserAgent(userAgent);
-            certificateDTO.setSessionId(UUID.randomUUID().toString());
+            return new ParsedCertificate(certificateChain, fingerprint, certificateData);
             
-            // Processar cadeia de certificados
-            List<CertificateDTO.CertificateChainDTO> chain = new ArrayList<>();
-            for (X509Certificate cert : certificateChain) {
-                chain.add(createCertificateChainInfo(cert));
-            }
-            certificateDTO.setCertificateChain(chain);
+        } catch (Exception e) {
+            LoggingConfiguration.TRANSACAO_LOG.error("Erro na extração dos dados do certificado: {}", e.getMessage());
+            throw new RuntimeException("Erro ao processar certificado", e);
+        }
+    }
+    
+    public CertificateDTO validate(ParsedCertificate parsedCertificate, String remoteAddress, String userAgent) {
+        LoggingConfiguration.TRANSACAO_LOG.debug("Iniciando processamento de certificado digital");
+        
+        try {
+            // Dados da requisição, nunca armazenados no cache
+            CertificateDTO certificateDTO = parsedCertificate.getCertificateData().toBuilder()
+                .validationTimestamp(LocalDateTime.now())
+                .remoteAddress(remoteAddress)
+                .userAgent(userAgent)
+                .sessionId(SessionIds.next().toString())
+                .build();
             
-            // Verificar apenas se o certificado está dentro do período de validade
-            boolean isValid = isValidityPeriodValid(clientCertificate);
-            certificateDTO.setValid(isValid);
+            X509Certificate[] certificateChain = parsedCertificate.getCertificateChain();
+            Outcome outcome = checkValidity(certificateDTO, certificateChain, true);
+            validationMetrics.outcome(certificateDTO.getIssuerName(), outcome, certificateChain.length, certificateChain[0]);
             
-            // Log de auditoria completo
-            LoggingConfiguration.TRANSACAO_LOG.info(
-                "LOGIN_CERTIFICADO|timestamp={}|ip={}|cpf={}|serialNumber={}|fingerprint={}|issuer={}|subject={}|validUntil={}|algorithm={}|sessionId={}|userAgent={}", 
-                certificateDTO.getValidationTimestamp(),
-                certificateDTO.getRemoteAddress(),
-                certificateDTO.getCpf(),
-                certificateDTO.getSerialNumber(),
-                certificateDTO.getFingerprint(),
-                certificateDTO.getIssuerDN(),
-                certificateDTO.getSubjectDN(),
-                certificateDTO.getNotAfter(),
-                certificateDTO.getSignatureAlgorithm(),
-                certificateDTO.getSessionId(),
-                certificateDTO.getUserAgent()
-            );
+            // Auditoria assíncrona: o evento é apenas enfileirado, sem I/O na thread da requisição
+            long start = System.nanoTime();
+            auditPipeline.publish(AuditEvent.from(certificateDTO));
+            validationMetrics.record(Stage.AUDIT, start);
             
             return certificateDTO;
             
@@ -86,35 +109,119 @@ public class CertificateValidationService {
         }
     }
     
+    // Revalidação em lote: sem cache de dados, sem dados de requisição e sem evento de login
+    public CertificateDTO revalidate(X509Certificate[] certificateChain) {
+        if (certificateChain == null || certificateChain.length == 0) {
+            throw new IllegalArgumentException("Cadeia de certificados não fornecida");
+        }
+        CertificateDTO certificateDTO = createCertificateData(certificateChain[0], generateSHA256Fingerprint(certificateChain[0]));
+        certificateDTO.setCertificateChain(createCertificateChain(certificateChain));
+        certificateDTO.setValidationTimestamp(LocalDateTime.now());
+        checkValidity(certificateDTO, certificateChain, false);
+        return certificateDTO;
+    }
+    
+    // CPF do titular para autorizar auditores e operadores, ou null quando o certificado não vale:
+    // exige cadeia confiável, validade e revogação como na revalidação, sem evento de login. O
+    // certificado repassado por um proxy só foi decodificado, então a cadeia é conferida aqui.
+    public String authorizedCpf(ParsedCertificate parsedCertificate) {
+        if (parsedCertificate == null) {
+            return null;
+        }
+        CertificateDTO certificateDTO = parsedCertificate.getCertificateData().toBuilder().build();
+        checkValidity(certificateDTO, parsedCertificate.getCertificateChain(), false);
+        return Boolean.TRUE.equals(certificateDTO.getValid()) ? certificateDTO.getCpf() : null;
+    }
+    
+    // Login: registra o tempo das etapas e loga certificados fora da validade
+    private Outcome checkValidity(CertificateDTO certificateDTO, X509Certificate[] certificateChain, boolean login) {
+        // Cadeia até o truststore (assinaturas já verificadas vêm do cache do validador)
+        long start = System.nanoTime();
+        ChainValidationResult chain = certificateChainValidator.validate(certificateChain);
+        certificateDTO.setChainStatus(chain.status().name());
+        if (chain.trustAnchor() != null) {
+            certificateDTO.setTrustAnchor(DistinguishedName.parse(
+                chain.trustAnchor().getSubjectX500Principal().getName()).getCommonNameOrName());
+        }
+        if (login) {
+            start = validationMetrics.record(Stage.CHAIN, start);
+        }
+        
+        // Período de validade e revogação (LCR local ou OCSP, nunca no cache de dados)
+        RevocationResult revocation = revocationService.check(certificateChain);
+        if (login) {
+            validationMetrics.record(Stage.REVOCATION, start);
+        }
+        boolean withinValidity = isValidityPeriodValid(certificateChain[0], login);
+        // A revalidação em lote sempre exige cadeia confiável: não há handshake mTLS validando a cadeia
+        boolean trusted = chain.status() == ChainStatus.TRUSTED || (login && !trustProperties.isRequireTrustedChain());
+        certificateDTO.setRevocationStatus(revocation.status().name());
+        certificateDTO.setRevocationMethod(revocation.method());
+        certificateDTO.setValid(withinValidity && revocation.accepted() && trusted);
+        
+        return !withinValidity ? Outcome.EXPIRED
+            : !revocation.accepted() ? Outcome.REVOKED
+            : !trusted ? Outcome.UNTRUSTED
+            : Outcome.VALID;
+    }
+    
+    // Dados do certificado final, reaproveitados pelo cache entre logins
+    private CertificateDTO createCertificateData(X509Certificate clientCertificate, String fingerprint) {
+        CertificateDTO certificateDTO = new CertificateDTO();
+        
+        // Extrair informações do certificado principal
+        extractCertificateInfo(clientCertificate, certificateDTO);
+        
+        // Dados para auditoria
+        certificateDTO.setFingerprint(fingerprint);
+        certificateDTO.setSubjectDN(clientCertificate.getSubjectX500Principal().getName());
+        certificateDTO.setIssuerDN(clientCertificate.getIssuerX500Principal().getName());
+        
+        return certificateDTO;
+    }
+    
+    private static List<CertificateDTO.CertificateChainDTO> createCertificateChain(X509Certificate[] certificateChain) {
+        List<CertificateDTO.CertificateChainDTO> chain = new ArrayList<>(certificateChain.length);
+        for (X509Certificate cert : certificateChain) {
+            chain.add(createCertificateChainInfo(cert));
+        }
+        return Collections.unmodifiableList(chain);
+    }
+    
     private void extractCertificateInfo(X509Certificate certificate, CertificateDTO dto) {
-        X500Principal subject = certificate.getSubjectX500Principal();
-        X500Principal issuer = certificate.getIssuerX500Principal();
+        // Subject e issuer são percorridos uma única vez cada
+        DistinguishedName subject = DistinguishedName.parse(certificate.getSubjectX500Principal().getName());
+        DistinguishedName issuer = DistinguishedName.parse(certificate.getIssuerX500Principal().getName());
         
-        dto.setSubjectName(extractCommonName(subject.getName()));
-        dto.setIssuerName(extractCommonName(issuer.getName()));
+        dto.setSubjectName(subject.getCommonNameOrName());
+        dto.setIssuerName(issuer.getCommonNameOrName());
         dto.setSerialNumber(certificate.getSerialNumber().toString());
         dto.setNotBefore(LocalDateTime.ofInstant(certificate.getNotBefore().toInstant(), ZoneId.systemDefault()));
         dto.setNotAfter(LocalDateTime.ofInstant(certificate.getNotAfter().toInstant(), ZoneId.systemDefault()));
         dto.setSignatureAlgorithm(certificate.getSigAlgName());
         dto.setVersion(certificate.getVersion());
         
-        // Extrair CPF do subject alternative name ou do subject
-        String subjectStr = subject.getName();
-        String cpf = extractCpf(subjectStr);
-        dto.setCpf(cpf);
-        
-        // Extrair email
-        String email = extractEmail(subjectStr);
-        dto.setEmail(email);
+        // Dados ICP-Brasil do SubjectAltName; CN ("NOME:CPF") e EMAILADDRESS como alternativa
+        IcpBrasilExtensions icpBrasil = IcpBrasilExtensions.decode(certificate);
+        dto.setCpf(icpBrasil.getCpf() != null ? icpBrasil.getCpf() : subject.getCpf());
+        dto.setEmail(icpBrasil.getEmail() != null ? icpBrasil.getEmail() : subject.getEmail());
+        dto.setPersonType(icpBrasil.getPersonType() != null ? icpBrasil.getPersonType().name() : null);
+        dto.setCertificateType(icpBrasil.getCertificateType());
+        dto.setBirthDate(icpBrasil.getBirthDate());
+        dto.setNis(icpBrasil.getNis());
+        dto.setRg(icpBrasil.getRg());
+        dto.setRgIssuer(icpBrasil.getRgIssuer());
+        dto.setCnpj(icpBrasil.getCnpj());
+        dto.setResponsibleName(icpBrasil.getResponsibleName());
     }
     
-    private CertificateDTO.CertificateChainDTO createCertificateChainInfo(X509Certificate certificate) {
+    public static CertificateDTO.CertificateChainDTO createCertificateChainInfo(X509Certificate certificate) {
         X500Principal subject = certificate.getSubjectX500Principal();
         X500Principal issuer = certificate.getIssuerX500Principal();
         
         CertificateDTO.CertificateChainDTO chainInfo = new CertificateDTO.CertificateChainDTO();
-        chainInfo.setSubjectName(extractCommonName(subject.getName()));
-        chainInfo.setIssuerName(extractCommonName(issuer.getName()));
+        chainInfo.setSubjectName(DistinguishedName.parse(subject.getName()).getCommonNameOrName());
+        chainInfo.setIssuerName(DistinguishedName.parse(issuer.getName()).getCommonNameOrName());
         chainInfo.setSerialNumber(certificate.getSerialNumber().toString());
         chainInfo.setNotBefore(LocalDateTime.ofInstant(certificate.getNotBefore().toInstant(), ZoneId.systemDefault()));
         chainInfo.setNotAfter(LocalDateTime.ofInstant(certificate.getNotAfter().toInstant(), ZoneId.systemDefault()));
@@ -123,60 +230,25 @@ public class CertificateValidationService {
         return chainInfo;
     }
     
-    private boolean isValidityPeriodValid(X509Certificate certificate) {
+    private boolean isValidityPeriodValid(X509Certificate certificate, boolean log) {
         try {
             certificate.checkValidity();
             return true;
         } catch (CertificateExpiredException | CertificateNotYetValidException e) {
-            LoggingConfiguration.TRANSACAO_LOG.warn("Certificado fora do período de validade: {}", e.getMessage());
+            // Em lote (arquivos antigos) a maioria está vencida; o resultado já traz valid=false
+            if (log) {
+                LoggingConfiguration.TRANSACAO_LOG.warn("Certificado fora do período de validade: {}", e.getMessage());
+            }
             return false;
         }
     }
     
-    private String extractCommonName(String distinguishedName) {
-        Pattern pattern = Pattern.compile("CN=([^,]+)");
-        Matcher matcher = pattern.matcher(distinguishedName);
-        if (matcher.find()) {
-            return matcher.group(1).trim();
-        }
-        return distinguishedName;
-    }
-    
-    private String extractCpf(String subjectName) {
-        Matcher matcher = CPF_PATTERN.matcher(subjectName);
-        if (matcher.find()) {
-            return matcher.group(1);
-        }
-        return null;
-    }
-    
-    private String extractEmail(String subjectName) {
-        Matcher matcher = EMAIL_PATTERN.matcher(subjectName);
-        if (matcher.find()) {
-            return matcher.group(1);
-        }
-        return null;
-    }
-    
-    private String generateSHA256Fingerprint(X509Certificate certificate) {
+    public static String generateSHA256Fingerprint(X509Certificate certificate) {
         try {
-            MessageDigest md = MessageDigest.getInstance("SHA-256");
-            byte[] der = certificate.getEncoded();
-            md.update(der);
-            byte[] digest = md.digest();
-            
-            StringBuilder hexString = new StringBuilder();
-            for (byte b : digest) {
-                String hex = Integer.toHexString(0xff & b);
-                if (hex.length() == 1) {
-                    hexString.append('0');
-                }
-                hexString.append(hex);
-            }
-            return hexString.toString().toUpperCase();
+            return CertificateFingerprint.sha256(certificate);
         } catch (Exception e) {
             LoggingConfiguration.TRANSACAO_LOG.error("Erro ao gerar fingerprint SHA-256: {}", e.getMessage());
-            return "ERRO_FINGERPRINT";
+            return FINGERPRINT_ERROR;
         }
     }
 }
@@ -0,0 +1,40 @@
+package br.gov.sp.tce.icp_brasil_authenticator.domain.service;
+
+import java.nio.ByteBuffer;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Identificadores de sessão (UUID versão 4) sem o SecureRandom único do UUID.randomUUID(): no Linux
+// ele é um NativePRNG que lê /dev/urandom dentro de blocos synchronized, serializando as requisições
+// e, com virtual threads, prendendo a carrier thread durante a leitura. Aqui há um DRBG por faixa,
+// semeado uma vez e sem I/O depois, e cada chamada sorteia a faixa.
+public final class SessionIds {
+    
+    private static final SecureRandom[] STRIPES = stripes(Runtime.getRuntime().availableProcessors() * 2);
+    
+    private SessionIds() {
+    }
+    
+    public static UUID next() {
+        byte[] bytes = new byte[16];
+        STRIPES[ThreadLocalRandom.current().nextInt(STRIPES.length)].nextBytes(bytes);
+        bytes[6] = (byte) ((bytes[6] & 0x0f) | 0x40);
+        bytes[8] = (byte) ((bytes[8] & 0x3f) | 0x80);
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+    
+    private static SecureRandom[] stripes(int count) {
+        SecureRandom[] stripes = new SecureRandom[count];
+        for (int i = 0; i < count; i++) {
+            try {
+                stripes[i] = SecureRandom.getInstance("DRBG");
+            } catch (NoSuchAlgorithmException e) {
+                stripes[i] = new SecureRandom();
+            }
+        }
+        return stripes;
+    }
+}
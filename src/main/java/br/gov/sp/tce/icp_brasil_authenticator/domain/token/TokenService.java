@@ -0,0 +1,273 @@
+package br.gov.sp.tce.icp_brasil_authenticator.domain.token;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.KeyStore;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.ssl.SslBundle;
+import org.springframework.boot.ssl.SslBundles;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.OctetKeyPair;
+import com.nimbusds.jose.util.Base64URL;
+
+import br.gov.sp.tce.icp_brasil_authenticator.configuration.LoggingConfiguration;
+import br.gov.sp.tce.icp_brasil_authenticator.configuration.TokenProperties;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.dto.CertificateDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+// Emite um JWS compacto (ES256 ou EdDSA) com a identidade do certificado validado, para que os
+// sistemas seguintes verifiquem o titular localmente pela JWKS em vez de repetir o mTLS.
+// A chave é carregada uma vez; o cabeçalho codificado é pré-calculado e as instâncias de
+// Signature já inicializadas são reaproveitadas (Signature não é thread-safe, daí o pool).
+@Component
+@ConditionalOnProperty(name = "icp-brasil.token.enabled", havingValue = "true")
+public class TokenService {
+    
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final Base64.Encoder BASE64URL = Base64.getUrlEncoder().withoutPadding();
+    
+    private final TokenProperties properties;
+    private final Timer signingTimer;
+    
+    private volatile SigningKey current;
+    
+    // Chave anterior continua publicada na JWKS até expirarem os tokens assinados com ela
+    private volatile SigningKey previous;
+    private volatile Instant previousPublishedUntil = Instant.MIN;
+    
+    @Autowired
+    public TokenService(TokenProperties properties, SslBundles sslBundles, MeterRegistry meterRegistry)
+            throws GeneralSecurityException {
+        this(properties, keyPair(properties, sslBundles), meterRegistry);
+        if (properties.getBundle() != null && !properties.getBundle().isBlank()) {
+            sslBundles.addBundleUpdateHandler(properties.getBundle(), this::rotate);
+        }
+    }
+    
+    TokenService(TokenProperties properties, KeyPair keyPair, MeterRegistry meterRegistry) throws GeneralSecurityException {
+        this.properties = properties;
+        this.signingTimer = Timer.builder("token.signing")
+            .description("Tempo de assinatura do token emitido após a validação do certificado")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+        this.current = SigningKey.of(keyPair);
+        LoggingConfiguration.TRANSACAO_LOG.info("Token: assinatura {} com chave {}", current.jwk().getAlgorithm(),
+            current.jwk().getKeyID());
+    }
+    
+    public IssuedToken issue(CertificateDTO certificate) {
+        long start = System.nanoTime();
+        Instant issuedAt = Instant.now();
+        Instant expiresAt = issuedAt.plus(properties.getTtl());
+        SigningKey key = current;
+        
+        try {
+            Map<String, Object> claims = new LinkedHashMap<>();
+            claims.put("iss", properties.getIssuer());
+            claims.put("sub", certificate.getCpf() != null ? certificate.getCpf() : certificate.getFingerprint());
+            if (properties.getAudience() != null && !properties.getAudience().isBlank()) {
+                claims.put("aud", properties.getAudience());
+            }
+            claims.put("iat", issuedAt.getEpochSecond());
+            claims.put("exp", expiresAt.getEpochSecond());
+            claims.put("sid", certificate.getSessionId());
+            claims.put("cpf", certificate.getCpf());
+            if (certificate.getCnpj() != null) {
+                claims.put("cnpj", certificate.getCnpj());
+            }
+            claims.put("fingerprint", certificate.getFingerprint());
+            claims.put("cert_issuer", certificate.getIssuerName());
+            
+            byte[] payload = BASE64URL.encode(JSON.writeValueAsBytes(claims));
+            byte[] signingInput = Arrays.copyOf(key.encodedHeader(), key.encodedHeader().length + payload.length);
+            System.arraycopy(payload, 0, signingInput, key.encodedHeader().length, payload.length);
+            
+            String token = new String(signingInput, StandardCharsets.US_ASCII) + '.'
+                + BASE64URL.encodeToString(key.sign(signingInput));
+            return new IssuedToken(token, expiresAt);
+            
+        } catch (JsonProcessingException | GeneralSecurityException e) {
+            throw new IllegalStateException("Erro ao assinar token", e);
+        } finally {
+            signingTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+    
+    // Chaves públicas em formato JWKS (RFC 7517)
+    public Map<String, Object> jwks() {
+        List<JWK> keys = new ArrayList<>(2);
+        keys.add(current.jwk());
+        SigningKey retired = previous;
+        if (retired != null && Instant.now().isBefore(previousPublishedUntil)) {
+            keys.add(retired.jwk());
+        }
+        return new JWKSet(keys).toJSONObject(true);
+    }
+    
+    public String keyId() {
+        return current.jwk().getKeyID();
+    }
+    
+    // Chamado pelo SslBundles quando o keystore do bundle é atualizado
+    void rotate(SslBundle bundle) {
+        try {
+            rotate(keyPair(bundle));
+        } catch (Exception e) {
+            // Mantém a chave atual
+            LoggingConfiguration.TRANSACAO_LOG.error("Erro ao recarregar chave de assinatura do token: {}", e.getMessage());
+        }
+    }
+    
+    void rotate(KeyPair keyPair) throws GeneralSecurityException {
+        SigningKey rotated = SigningKey.of(keyPair);
+        previous = current;
+        previousPublishedUntil = Instant.now().plus(properties.getTtl());
+        current = rotated;
+        LoggingConfiguration.TRANSACAO_LOG.info("Token: chave de assinatura trocada para {}", rotated.jwk().getKeyID());
+    }
+    
+    private static KeyPair keyPair(TokenProperties properties, SslBundles sslBundles) throws GeneralSecurityException {
+        if (properties.getBundle() != null && !properties.getBundle().isBlank()) {
+            return keyPair(sslBundles.getBundle(properties.getBundle()));
+        }
+        // Sem bundle, cada instância gera a sua chave e os tokens só são verificáveis pela JWKS dela
+        LoggingConfiguration.TRANSACAO_LOG.warn("Token: icp-brasil.token.bundle não configurado; usando chave {} efêmera",
+            properties.getAlgorithm());
+        return generate(properties.getAlgorithm());
+    }
+    
+    static KeyPair keyPair(SslBundle bundle) throws GeneralSecurityException {
+        KeyStore keyStore = bundle.getStores().getKeyStore();
+        if (keyStore == null) {
+            throw new IllegalStateException("Bundle sem keystore para a chave de assinatura do token");
+        }
+        String alias = bundle.getKey().getAlias();
+        if (alias == null) {
+            Enumeration<String> aliases = keyStore.aliases();
+            while (alias == null && aliases.hasMoreElements()) {
+                String candidate = aliases.nextElement();
+                alias = keyStore.isKeyEntry(candidate) ? candidate : null;
+            }
+        }
+        String password = bundle.getKey().getPassword() != null
+            ? bundle.getKey().getPassword() : bundle.getStores().getKeyStorePassword();
+        if (alias == null || !(keyStore.getKey(alias, password != null ? password.toCharArray() : null)
+                instanceof PrivateKey privateKey)) {
+            throw new IllegalStateException("Chave privada de assinatura do token não encontrada no bundle");
+        }
+        return new KeyPair(keyStore.getCertificate(alias).getPublicKey(), privateKey);
+    }
+    
+    static KeyPair generate(TokenProperties.Algorithm algorithm) throws GeneralSecurityException {
+        if (algorithm == TokenProperties.Algorithm.EDDSA) {
+            return KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+        }
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(new ECGenParameterSpec("secp256r1"));
+        return generator.generateKeyPair();
+    }
+    
+    public record IssuedToken(String value, Instant expiresAt) {
+    }
+    
+    // Chave carregada, JWK pública correspondente e pool de Signature inicializadas para assinar
+    private record SigningKey(String signatureAlgorithm, PrivateKey privateKey, JWK jwk, byte[] encodedHeader,
+                              Queue<Signature> signatures) {
+        
+        static SigningKey of(KeyPair keyPair) throws GeneralSecurityException {
+            PrivateKey privateKey = keyPair.getPrivate();
+            PublicKey publicKey = keyPair.getPublic();
+            JWK jwk;
+            String signatureAlgorithm;
+            
+            try {
+                if (privateKey instanceof ECPrivateKey ec && ec.getParams().getCurve().getField().getFieldSize() == 256) {
+                    // JWS usa a assinatura ECDSA em R||S (P1363), não em DER
+                    signatureAlgorithm = "SHA256withECDSAinP1363Format";
+                    jwk = new ECKey.Builder(Curve.P_256, (ECPublicKey) publicKey)
+                        .keyUse(KeyUse.SIGNATURE)
+                        .algorithm(JWSAlgorithm.ES256)
+                        .keyIDFromThumbprint()
+                        .build();
+                } else if ("EdDSA".equals(privateKey.getAlgorithm()) || "Ed25519".equals(privateKey.getAlgorithm())) {
+                    // SubjectPublicKeyInfo do Ed25519: 12 bytes de cabeçalho seguidos dos 32 bytes da chave
+                    byte[] encoded = publicKey.getEncoded();
+                    signatureAlgorithm = "Ed25519";
+                    jwk = new OctetKeyPair.Builder(Curve.Ed25519,
+                            Base64URL.encode(Arrays.copyOfRange(encoded, encoded.length - 32, encoded.length)))
+                        .keyUse(KeyUse.SIGNATURE)
+                        .algorithm(JWSAlgorithm.EdDSA)
+                        .keyIDFromThumbprint()
+                        .build();
+                } else {
+                    throw new IllegalStateException("Chave de assinatura do token deve ser EC P-256 ou Ed25519: "
+                        + privateKey.getAlgorithm());
+                }
+            } catch (JOSEException e) {
+                throw new GeneralSecurityException("Erro ao montar a JWK da chave de assinatura", e);
+            }
+            
+            Map<String, Object> header = new LinkedHashMap<>();
+            header.put("alg", jwk.getAlgorithm().getName());
+            header.put("typ", "JWT");
+            header.put("kid", jwk.getKeyID());
+            byte[] encodedHeader;
+            try {
+                encodedHeader = (BASE64URL.encodeToString(JSON.writeValueAsBytes(header)) + '.')
+                    .getBytes(StandardCharsets.US_ASCII);
+            } catch (JsonProcessingException e) {
+                throw new GeneralSecurityException("Erro ao montar o cabeçalho do token", e);
+            }
+            
+            SigningKey key = new SigningKey(signatureAlgorithm, privateKey, jwk, encodedHeader, new ConcurrentLinkedQueue<>());
+            // Valida a chave (e aquece o pool) antes de aceitar requisições
+            key.sign(encodedHeader);
+            return key;
+        }
+        
+        byte[] sign(byte[] signingInput) throws GeneralSecurityException {
+            Signature signature = signatures.poll();
+            if (signature == null) {
+                signature = Signature.getInstance(signatureAlgorithm);
+                signature.initSign(privateKey);
+            }
+            signature.update(signingInput);
+            // sign() devolve a instância ao estado de initSign, pronta para o próximo uso
+            byte[] value = signature.sign();
+            signatures.offer(signature);
+            return value;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package br.gov.sp.tce.icp_brasil_authenticator.domain.trust;
+
+import java.nio.ByteBuffer;
+import java.security.cert.X509Certificate;
+import java.util.Date;
+import java.util.List;
+
+import org.springframework.stereotype.Service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import br.gov.sp.tce.icp_brasil_authenticator.configuration.TrustProperties;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.certificate.CertificateFingerprint;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+// Validação do caminho de certificação sem CertPathBuilder: a cada passo o emissor é buscado
+// no índice do truststore (AKI/SKI ou subject) e, se ausente, na cadeia apresentada pelo cliente.
+// O custo é proporcional ao tamanho da cadeia, não à quantidade de ACs do truststore, e
+// assinaturas já verificadas (certificado, chave da AC) não são verificadas novamente.
+@Service
+public class CertificateChainValidator {
+    
+    static final String CACHE_NAME = "trust.signature";
+    
+    private final TrustedCertificates trustedCertificates;
+    private final int maxPathLength;
+    private final Cache<SignatureKey, Boolean> verifiedSignatures;
+    
+    public CertificateChainValidator(TrustedCertificates trustedCertificates, TrustProperties properties, MeterRegistry meterRegistry) {
+        this.trustedCertificates = trustedCertificates;
+        this.maxPathLength = properties.getMaxPathLength();
+        this.verifiedSignatures = Caffeine.newBuilder()
+            .maximumSize(properties.getSignatureCacheSize())
+            .recordStats()
+            .build();
+        
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedSignatures, CACHE_NAME);
+    }
+    
+    public ChainValidationResult validate(X509Certificate[] certificateChain) {
+        Date now = new Date();
+        X509Certificate current = certificateChain[0];
+        
+        for (int depth = 0; depth < maxPathLength; depth++) {
+            // AC do truststore que emitiu o certificado atual fecha o caminho
+            List<X509Certificate> anchors = trustedCertificates.findIssuerCandidates(current);
+            for (X509Certificate anchor : anchors) {
+                if (isSignedBy(current, anchor)) {
+                    if (!isSelfIssued(anchor) && !isWithinValidity(anchor, now)) {
+                        return ChainValidationResult.untrusted("AC fora da validade: " + anchor.getSubjectX500Principal().getName());
+                    }
+                    return ChainValidationResult.trusted(anchor);
+                }
+            }
+            
+            if (isSelfIssued(current)) {
+                return ChainValidationResult.untrusted("Raiz não confiável: " + current.getSubjectX500Principal().getName());
+            }
+            
+            // Próximo elemento pela cadeia enviada no handshake
+            X509Certificate issuer = findPresentedIssuer(certificateChain, current);
+            if (issuer == null) {
+                return anchors.isEmpty()
+                    ? ChainValidationResult.incomplete("Emissor não encontrado: " + current.getIssuerX500Principal().getName())
+                    : ChainValidationResult.untrusted("Assinatura não confere com a AC do truststore");
+            }
+            if (!isSignedBy(current, issuer)) {
+                return ChainValidationResult.untrusted("Assinatura inválida: " + current.getSubjectX500Principal().getName());
+            }
+            if (!isCertificateAuthority(issuer) || !isWithinValidity(issuer, now)) {
+                return ChainValidationResult.untrusted("AC intermediária inválida: " + issuer.getSubjectX500Principal().getName());
+            }
+            current = issuer;
+        }
+        
+        return ChainValidationResult.untrusted("Caminho excede " + maxPathLength + " certificados");
+    }
+    
+    // Emissor pelo DN e assinatura conferida com a chave dele; verificações bem-sucedidas ficam em cache
+    public boolean isSignedBy(X509Certificate certificate, X509Certificate issuer) {
+        if (!certificate.getIssuerX500Principal().equals(issuer.getSubjectX500Principal())) {
+            return false;
+        }
+        try {
+            // A chave cobre o certificado inteiro: uma assinatura copiada para outro TBS não reaproveita o cache
+            SignatureKey key = new SignatureKey(CertificateFingerprint.sha256(certificate),
+                ByteBuffer.wrap(issuer.getPublicKey().getEncoded()));
+            if (verifiedSignatures.getIfPresent(key) != null) {
+                return true;
+            }
+            certificate.verify(issuer.getPublicKey());
+            // Apenas verificações bem-sucedidas ficam em cache
+            verifiedSignatures.put(key, Boolean.TRUE);
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+    
+    private static X509Certificate findPresentedIssuer(X509Certificate[] certificateChain, X509Certificate certificate) {
+        for (X509Certificate candidate : certificateChain) {
+            if (candidate != certificate && candidate.getSubjectX500Principal().equals(certificate.getIssuerX500Principal())) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+    
+    private static boolean isSelfIssued(X509Certificate certificate) {
+        return certificate.getSubjectX500Principal().equals(certificate.getIssuerX500Principal());
+    }
+    
+    private static boolean isCertificateAuthority(X509Certificate certificate) {
+        boolean[] keyUsage = certificate.getKeyUsage();
+        return certificate.getBasicConstraints() >= 0 && (keyUsage == null || keyUsage[5]);
+    }
+    
+    private static boolean isWithinValidity(X509Certificate certificate, Date now) {
+        return !now.before(certificate.getNotBefore()) && !now.after(certificate.getNotAfter());
+    }
+    
+    // SHA-256 do DER do certificado + chave pública da AC; ByteBuffer compara pelo conteúdo
+    private record SignatureKey(String certificateFingerprint, ByteBuffer issuerPublicKey) {
+    }
+}
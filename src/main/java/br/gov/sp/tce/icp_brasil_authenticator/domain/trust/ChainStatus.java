@@ -0,0 +1,13 @@
+package br.gov.sp.tce.icp_brasil_authenticator.domain.trust;
+
+public enum ChainStatus {
+    
+    // Caminho verificado até uma AC do truststore
+    TRUSTED,
+    
+    // Assinatura inválida, AC fora da validade ou raiz desconhecida
+    UNTRUSTED,
+    
+    // Emissor ausente tanto na cadeia apresentada quanto no truststore
+    INCOMPLETE
+}
@@ -0,0 +1,19 @@
+package br.gov.sp.tce.icp_brasil_authenticator.domain.trust;
+
+import java.security.cert.X509Certificate;
+
+// Resultado da validação da cadeia; trustAnchor é a AC do truststore que fechou o caminho
+public record ChainValidationResult(ChainStatus status, X509Certificate trustAnchor, String reason) {
+    
+    static ChainValidationResult trusted(X509Certificate trustAnchor) {
+        return new ChainValidationResult(ChainStatus.TRUSTED, trustAnchor, null);
+    }
+    
+    static ChainValidationResult untrusted(String reason) {
+        return new ChainValidationResult(ChainStatus.UNTRUSTED, null, reason);
+    }
+    
+    static ChainValidationResult incomplete(String reason) {
+        return new ChainValidationResult(ChainStatus.INCOMPLETE, null, reason);
+    }
+}
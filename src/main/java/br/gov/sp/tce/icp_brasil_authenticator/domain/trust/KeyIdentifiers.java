@@ -0,0 +1,45 @@
+package br.gov.sp.tce.icp_brasil_authenticator.domain.trust;
+
+import java.security.cert.X509Certificate;
+import java.util.HexFormat;
+
+import org.bouncycastle.asn1.x509.AuthorityKeyIdentifier;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.SubjectKeyIdentifier;
+import org.bouncycastle.cert.jcajce.JcaX509ExtensionUtils;
+
+// Leitura das extensões SubjectKeyIdentifier e AuthorityKeyIdentifier (keyIdentifier em hexadecimal)
+final class KeyIdentifiers {
+    
+    private static final HexFormat HEX_FORMAT = HexFormat.of();
+    
+    private KeyIdentifiers() {
+    }
+    
+    static String subjectKeyIdentifier(X509Certificate certificate) {
+        byte[] extension = certificate.getExtensionValue(Extension.subjectKeyIdentifier.getId());
+        if (extension == null) {
+            return null;
+        }
+        try {
+            return HEX_FORMAT.formatHex(SubjectKeyIdentifier.getInstance(
+                JcaX509ExtensionUtils.parseExtensionValue(extension)).getKeyIdentifier());
+        } catch (Exception e) {
+            return null;
+        }
+    }
+    
+    static String authorityKeyIdentifier(X509Certificate certificate) {
+        byte[] extension = certificate.getExtensionValue(Extension.authorityKeyIdentifier.getId());
+        if (extension == null) {
+            return null;
+        }
+        try {
+            byte[] keyIdentifier = AuthorityKeyIdentifier.getInstance(
+                JcaX509ExtensionUtils.parseExtensionValue(extension)).getKeyIdentifier();
+            return keyIdentifier != null ? HEX_FORMAT.formatHex(keyIdentifier) : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
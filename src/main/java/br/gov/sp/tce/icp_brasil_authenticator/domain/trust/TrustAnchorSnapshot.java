@@ -0,0 +1,266 @@
+package br.gov.sp.tce.icp_brasil_authenticator.domain.trust;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import javax.security.auth.x500.X500Principal;
+
+// Snapshot binário das ACs do truststore gerado no build (TrustAnchorSnapshotGenerator): o DER de
+// cada certificado e as duas tabelas de busca (SubjectKeyIdentifier e subject canônico) já montadas,
+// mais o SHA-256 do .p12 de origem. Na inicialização o arquivo é mapeado em memória e nada é
+// decodificado; o certificado só é lido do DER na primeira vez em que uma busca o retorna.
+//
+// Formato (big-endian): cabeçalho | offsets das entradas | tabela por keyIdentifier | tabela por
+// subject | entradas. As tabelas usam endereçamento aberto com sondagem linear; cada posição guarda
+// o índice da entrada + 1 (0 = vazia) e chaves repetidas (ACs renovadas) ocupam posições seguidas.
+final class TrustAnchorSnapshot implements TrustedCertificates.Index {
+    
+    static final int MAGIC = 0x49435054; // "ICPT"
+    static final int VERSION = 1;
+    
+    private static final int DIGEST_LENGTH = 32;
+    // magic, versão, digest, quantidade, tamanho das duas tabelas
+    private static final int HEADER_LENGTH = 4 + 4 + DIGEST_LENGTH + 4 + 4 + 4;
+    
+    private final ByteBuffer buffer;
+    private final int size;
+    private final int keyIdentifierSlots;
+    private final int subjectSlots;
+    private final int keyIdentifierTable;
+    private final int subjectTable;
+    private final AtomicReferenceArray<X509Certificate> certificates;
+    
+    private TrustAnchorSnapshot(ByteBuffer buffer) throws IOException {
+        if (buffer.capacity() < HEADER_LENGTH || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Arquivo não é um snapshot de truststore");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Versão de snapshot não suportada: " + buffer.getInt(4));
+        }
+        this.buffer = buffer;
+        this.size = buffer.getInt(8 + DIGEST_LENGTH);
+        this.keyIdentifierSlots = buffer.getInt(12 + DIGEST_LENGTH);
+        this.subjectSlots = buffer.getInt(16 + DIGEST_LENGTH);
+        this.keyIdentifierTable = HEADER_LENGTH + 4 * size;
+        this.subjectTable = keyIdentifierTable + 4 * keyIdentifierSlots;
+        if (size < 0 || Integer.bitCount(keyIdentifierSlots) != 1 || Integer.bitCount(subjectSlots) != 1
+            || subjectTable + 4L * subjectSlots > buffer.capacity()) {
+            throw new IOException("Snapshot de truststore corrompido");
+        }
+        this.certificates = new AtomicReferenceArray<>(size);
+    }
+    
+    // Mapeia o snapshot (somente leitura; o mapeamento continua válido depois de fechar o canal)
+    static TrustAnchorSnapshot open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new TrustAnchorSnapshot(buffer);
+        }
+    }
+    
+    static TrustAnchorSnapshot of(byte[] bytes) throws IOException {
+        return new TrustAnchorSnapshot(ByteBuffer.wrap(bytes).asReadOnlyBuffer());
+    }
+    
+    // O snapshot só vale para o .p12 exato de que foi gerado
+    boolean matches(byte[] trustStore) {
+        byte[] digest = new byte[DIGEST_LENGTH];
+        buffer.get(8, digest);
+        return MessageDigest.isEqual(digest, sha256(trustStore));
+    }
+    
+    @Override
+    public List<X509Certificate> findBySubject(X500Principal subject) {
+        return find(subjectTable, subjectSlots, subject.getName(X500Principal.CANONICAL), true);
+    }
+    
+    @Override
+    public List<X509Certificate> findByKeyIdentifier(String keyIdentifier) {
+        List<X509Certificate> found = find(keyIdentifierTable, keyIdentifierSlots, keyIdentifier, false);
+        return found.isEmpty() ? null : found;
+    }
+    
+    @Override
+    public int size() {
+        return size;
+    }
+    
+    private List<X509Certificate> find(int table, int slots, String key, boolean subject) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        List<X509Certificate> found = List.of();
+        for (int slot = slot(key, slots); ; slot = (slot + 1) & (slots - 1)) {
+            int entry = buffer.getInt(table + 4 * slot) - 1;
+            if (entry < 0) {
+                return found;
+            }
+            if (keyEquals(entry, subject, keyBytes)) {
+                if (found.isEmpty()) {
+                    found = new ArrayList<>(1);
+                }
+                found.add(certificate(entry));
+            }
+        }
+    }
+    
+    private boolean keyEquals(int entry, boolean subject, byte[] key) {
+        int offset = buffer.getInt(HEADER_LENGTH + 4 * entry);
+        int length = Short.toUnsignedInt(buffer.getShort(offset));
+        if (subject) {
+            offset += 2 + length;
+            length = Short.toUnsignedInt(buffer.getShort(offset));
+        }
+        if (length != key.length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (buffer.get(offset + 2 + i) != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private X509Certificate certificate(int entry) {
+        X509Certificate certificate = certificates.get(entry);
+        if (certificate != null) {
+            return certificate;
+        }
+        int offset = buffer.getInt(HEADER_LENGTH + 4 * entry);
+        offset += 2 + Short.toUnsignedInt(buffer.getShort(offset));
+        offset += 2 + Short.toUnsignedInt(buffer.getShort(offset));
+        byte[] der = new byte[buffer.getInt(offset)];
+        buffer.get(offset + 4, der);
+        try {
+            certificate = (X509Certificate) CertificateFactory.getInstance("X.509")
+                .generateCertificate(new ByteArrayInputStream(der));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Certificado inválido no snapshot de truststore (entrada " + entry + ")", e);
+        }
+        // Decodificado uma vez por entrada; as buscas seguintes devolvem a mesma instância
+        return certificates.compareAndSet(entry, null, certificate) ? certificate : certificates.get(entry);
+    }
+    
+    // Grava o snapshot em um arquivo temporário e o move para o destino, para que uma instância
+    // lendo o arquivo anterior nunca veja um snapshot pela metade
+    static void write(byte[] trustStore, List<X509Certificate> anchors, Path file) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            Files.write(temporary, serialize(trustStore, anchors));
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+    
+    static byte[] serialize(byte[] trustStore, List<X509Certificate> anchors) throws IOException {
+        int size = anchors.size();
+        byte[][] keyIdentifiers = new byte[size][];
+        byte[][] subjects = new byte[size][];
+        byte[][] encoded = new byte[size][];
+        String[] keyIdentifierKeys = new String[size];
+        String[] subjectKeys = new String[size];
+        for (int i = 0; i < size; i++) {
+            X509Certificate anchor = anchors.get(i);
+            keyIdentifierKeys[i] = KeyIdentifiers.subjectKeyIdentifier(anchor);
+            subjectKeys[i] = anchor.getSubjectX500Principal().getName(X500Principal.CANONICAL);
+            keyIdentifiers[i] = keyIdentifierKeys[i] != null ? keyIdentifierKeys[i].getBytes(StandardCharsets.UTF_8) : new byte[0];
+            subjects[i] = subjectKeys[i].getBytes(StandardCharsets.UTF_8);
+            try {
+                encoded[i] = anchor.getEncoded();
+            } catch (GeneralSecurityException e) {
+                throw new IOException("Certificado de AC sem codificação DER: " + anchor.getSubjectX500Principal(), e);
+            }
+            if (keyIdentifiers[i].length > 0xFFFF || subjects[i].length > 0xFFFF) {
+                throw new IOException("Subject ou keyIdentifier longo demais: " + anchor.getSubjectX500Principal());
+            }
+        }
+        
+        // Fator de carga até 1/2 mantém as sondagens curtas
+        int slots = Integer.highestOneBit(Math.max(1, size) * 2 - 1) << 1;
+        int[] keyIdentifierTable = table(keyIdentifierKeys, slots);
+        int[] subjectTable = table(subjectKeys, slots);
+        
+        int offset = HEADER_LENGTH + 4 * (size + 2 * slots);
+        int[] offsets = new int[size];
+        for (int i = 0; i < size; i++) {
+            offsets[i] = offset;
+            offset += 2 + keyIdentifiers[i].length + 2 + subjects[i].length + 4 + encoded[i].length;
+        }
+        
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(offset);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.write(sha256(trustStore));
+            out.writeInt(size);
+            out.writeInt(slots);
+            out.writeInt(slots);
+            for (int value : offsets) {
+                out.writeInt(value);
+            }
+            for (int value : keyIdentifierTable) {
+                out.writeInt(value);
+            }
+            for (int value : subjectTable) {
+                out.writeInt(value);
+            }
+            for (int i = 0; i < size; i++) {
+                out.writeShort(keyIdentifiers[i].length);
+                out.write(keyIdentifiers[i]);
+                out.writeShort(subjects[i].length);
+                out.write(subjects[i]);
+                out.writeInt(encoded[i].length);
+                out.write(encoded[i]);
+            }
+        }
+        return bytes.toByteArray();
+    }
+    
+    private static int[] table(String[] keys, int slots) {
+        int[] table = new int[slots];
+        for (int entry = 0; entry < keys.length; entry++) {
+            if (keys[entry] == null) {
+                continue;
+            }
+            int slot = slot(keys[entry], slots);
+            while (table[slot] != 0) {
+                slot = (slot + 1) & (slots - 1);
+            }
+            table[slot] = entry + 1;
+        }
+        return table;
+    }
+    
+    private static int slot(String key, int slots) {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & (slots - 1);
+    }
+    
+    static byte[] sha256(byte[] bytes) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(bytes);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package br.gov.sp.tce.icp_brasil_authenticator.domain.trust;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyStore;
+import java.security.cert.X509Certificate;
+import java.util.List;
+
+// Etapa de build do perfil fast-startup: lê o truststore .p12 e grava o TrustAnchorSnapshot que a
+// aplicação mapeia na inicialização (icp-brasil.trust.snapshot).
+// Uso: TrustAnchorSnapshotGenerator <truststore.p12> <senha> <snapshot> [tipo]
+public final class TrustAnchorSnapshotGenerator {
+    
+    private TrustAnchorSnapshotGenerator() {
+    }
+    
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3) {
+            System.err.println("Uso: TrustAnchorSnapshotGenerator <truststore.p12> <senha> <snapshot> [tipo]");
+            System.exit(2);
+        }
+        Path trustStore = Path.of(args[0]);
+        Path snapshot = Path.of(args[2]);
+        if (!Files.isRegularFile(trustStore)) {
+            // Build sem os .p12 (ex.: CI): a aplicação simplesmente carrega o truststore na inicialização
+            System.out.println("Truststore " + trustStore + " não encontrado; snapshot não gerado");
+            return;
+        }
+        
+        byte[] bytes = Files.readAllBytes(trustStore);
+        KeyStore keyStore = KeyStore.getInstance(args.length > 3 ? args[3] : "PKCS12");
+        keyStore.load(new ByteArrayInputStream(bytes), args[1].toCharArray());
+        List<X509Certificate> anchors = TrustedCertificates.certificates(keyStore);
+        TrustAnchorSnapshot.write(bytes, anchors, snapshot);
+        System.out.println("Snapshot " + snapshot + " gerado: " + anchors.size() + " certificados de AC, "
+            + Files.size(snapshot) + " bytes");
+    }
+}
@@ -0,0 +1,125 @@
+package br.gov.sp.tce.icp_brasil_authenticator.domain.trust;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyStore;
+import java.security.cert.Certificate;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.ssl.SslBundle;
+import org.springframework.boot.ssl.SslBundleRegistry;
+import org.springframework.boot.ssl.SslBundles;
+import org.springframework.boot.ssl.SslStoreBundle;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import br.gov.sp.tce.icp_brasil_authenticator.configuration.LoggingConfiguration;
+import br.gov.sp.tce.icp_brasil_authenticator.configuration.TrustProperties;
+
+// Monta o truststore a partir de um diretório de certificados (.crt/.cer/.pem, como o pacote de
+// ACs do ITI) e atualiza o bundle SSL do servidor quando o conteúdo muda. A atualização do bundle
+// troca o SSLContext do Tomcat para novos handshakes e reconstrói o índice de TrustedCertificates.
+// Um diretório sem certificados ou com algum arquivo ilegível (ex.: cópia em andamento) não é
+// aplicado: o truststore anterior continua em uso e a leitura é repetida no próximo ciclo.
+@Component
+@ConditionalOnProperty(name = "icp-brasil.trust.certificates-directory")
+public class TrustDirectoryWatcher {
+    
+    private final Path directory;
+    private final String bundleName;
+    private final SslBundles sslBundles;
+    private final SslBundleRegistry sslBundleRegistry;
+    
+    private volatile String lastSignature;
+    
+    public TrustDirectoryWatcher(TrustProperties properties, @Value("${server.ssl.bundle:}") String bundleName,
+                                 SslBundles sslBundles, SslBundleRegistry sslBundleRegistry) {
+        this.directory = properties.getCertificatesDirectory();
+        this.bundleName = bundleName;
+        this.sslBundles = sslBundles;
+        this.sslBundleRegistry = sslBundleRegistry;
+    }
+    
+    @Scheduled(fixedDelayString = "${icp-brasil.trust.watch-interval:10s}")
+    public void refresh() {
+        try {
+            List<Path> files = certificateFiles();
+            String signature = signature(files);
+            if (signature.equals(lastSignature)) {
+                return;
+            }
+            
+            KeyStore trustStore = trustStore(files);
+            if (trustStore.size() == 0) {
+                throw new IllegalStateException("nenhum certificado encontrado");
+            }
+            SslBundle current = sslBundles.getBundle(bundleName);
+            SslStoreBundle stores = SslStoreBundle.of(current.getStores().getKeyStore(),
+                current.getStores().getKeyStorePassword(), trustStore);
+            sslBundleRegistry.updateBundle(bundleName,
+                SslBundle.of(stores, current.getKey(), current.getOptions(), current.getProtocol()));
+            
+            lastSignature = signature;
+            LoggingConfiguration.TRANSACAO_LOG.info("Truststore atualizado a partir de {}: {} certificados",
+                directory, trustStore.size());
+        
+        } catch (Exception e) {
+            // lastSignature não avança: o mesmo conteúdo é tentado de novo no próximo ciclo
+            LoggingConfiguration.TRANSACAO_LOG.error("Truststore anterior mantido; erro ao atualizar a partir de {}: {}",
+                directory, e.getMessage());
+        }
+    }
+    
+    private List<Path> certificateFiles() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*.{crt,cer,pem,CRT,CER,PEM}")) {
+            stream.forEach(files::add);
+        }
+        files.sort(null);
+        return files;
+    }
+    
+    // Nome, tamanho e data de modificação de cada arquivo; muda quando algum certificado é trocado
+    private static String signature(List<Path> files) throws IOException {
+        StringBuilder signature = new StringBuilder();
+        for (Path file : files) {
+            signature.append(file.getFileName()).append(':')
+                .append(Files.size(file)).append(':')
+                .append(Files.getLastModifiedTime(file).toMillis()).append(';');
+        }
+        return signature.toString();
+    }
+    
+    static KeyStore trustStore(List<Path> files) throws Exception {
+        CertificateFactory factory = CertificateFactory.getInstance("X.509");
+        KeyStore trustStore = KeyStore.getInstance("PKCS12");
+        trustStore.load(null, null);
+        
+        for (Path file : files) {
+            try (InputStream in = Files.newInputStream(file)) {
+                // Um arquivo pode conter vários certificados (DER ou PEM concatenados)
+                int i = 0;
+                for (Certificate certificate : factory.generateCertificates(in)) {
+                    if (certificate instanceof X509Certificate) {
+                        trustStore.setCertificateEntry(file.getFileName() + "#" + i++, certificate);
+                    }
+                }
+                if (i == 0) {
+                    throw new IllegalStateException("nenhum certificado X.509");
+                }
+            } catch (Exception e) {
+                // Um arquivo inválido invalida o conjunto: aplicar o restante removeria ACs em uso
+                throw new IllegalStateException("Certificado inválido " + file.getFileName() + ": " + e.getMessage(), e);
+            }
+        }
+        return trustStore;
+    }
+}
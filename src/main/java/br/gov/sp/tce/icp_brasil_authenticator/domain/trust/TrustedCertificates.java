@@ -0,0 +1,210 @@
+package br.gov.sp.tce.icp_brasil_authenticator.domain.trust;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.security.KeyStore;
+import java.security.cert.Certificate;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.security.auth.x500.X500Principal;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.ssl.JksSslBundleProperties;
+import org.springframework.boot.autoconfigure.ssl.SslProperties;
+import org.springframework.boot.ssl.SslBundle;
+import org.springframework.boot.ssl.SslBundles;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import br.gov.sp.tce.icp_brasil_authenticator.configuration.LoggingConfiguration;
+import br.gov.sp.tce.icp_brasil_authenticator.configuration.TrustProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+// Certificados das ACs do truststore do bundle SSL do servidor (server.ssl.bundle), indexados
+// pelo subject e pelo SubjectKeyIdentifier. A busca do emissor de um certificado é um lookup
+// em mapa, independente da quantidade de ACs. Quando o bundle é atualizado (arquivo alterado
+// ou diretório de .crt), um novo índice é montado fora da requisição e trocado atomicamente.
+// Na inicialização, com icp-brasil.trust.snapshot, o índice vem do snapshot gerado no build
+// (TrustAnchorSnapshot) em vez de decodificar o .p12, desde que o snapshot corresponda a ele.
+@Component
+public class TrustedCertificates {
+    
+    private volatile Index index;
+    
+    private final Timer reloadTimer;
+    
+    @Autowired
+    public TrustedCertificates(SslBundles sslBundles, @Value("${server.ssl.bundle:}") String bundleName,
+                               TrustProperties properties, SslProperties sslProperties, ResourceLoader resourceLoader,
+                               MeterRegistry meterRegistry) {
+        this(sslBundles, bundleName,
+            snapshot(properties.getSnapshot(), trustStoreLocation(sslProperties, bundleName), resourceLoader), meterRegistry);
+    }
+    
+    public TrustedCertificates(SslBundles sslBundles, String bundleName, MeterRegistry meterRegistry) {
+        this(sslBundles, bundleName, null, meterRegistry);
+    }
+    
+    TrustedCertificates(SslBundles sslBundles, String bundleName, TrustAnchorSnapshot snapshot, MeterRegistry meterRegistry) {
+        this.index = snapshot != null ? snapshot : MapIndex.of(List.of());
+        this.reloadTimer = Timer.builder("trust.reload")
+            .description("Tempo de recarga do truststore e reconstrução do índice de ACs")
+            .register(meterRegistry);
+        Gauge.builder("trust.anchors", this, TrustedCertificates::size)
+            .description("Certificados de AC no truststore")
+            .register(meterRegistry);
+        
+        if (bundleName == null || bundleName.isBlank()) {
+            return;
+        }
+        try {
+            if (snapshot == null) {
+                reload(sslBundles.getBundle(bundleName));
+            }
+            sslBundles.addBundleUpdateHandler(bundleName, this::reload);
+        } catch (Exception e) {
+            LoggingConfiguration.TRANSACAO_LOG.warn("Truststore do bundle {} indisponível: {}", bundleName, e.getMessage());
+        }
+    }
+    
+    public TrustedCertificates(Collection<X509Certificate> certificates) {
+        this.index = MapIndex.of(certificates);
+        this.reloadTimer = null;
+    }
+    
+    public List<X509Certificate> findBySubject(X500Principal subject) {
+        return index.findBySubject(subject);
+    }
+    
+    // Possíveis emissores do certificado: pelo AuthorityKeyIdentifier e, na falta dele, pelo issuer DN
+    public List<X509Certificate> findIssuerCandidates(X509Certificate certificate) {
+        Index current = index;
+        String authorityKeyIdentifier = KeyIdentifiers.authorityKeyIdentifier(certificate);
+        if (authorityKeyIdentifier != null) {
+            List<X509Certificate> candidates = current.findByKeyIdentifier(authorityKeyIdentifier);
+            if (candidates != null) {
+                return candidates;
+            }
+        }
+        return current.findBySubject(certificate.getIssuerX500Principal());
+    }
+    
+    public int size() {
+        return index.size();
+    }
+    
+    // Chamado na inicialização e pelo SslBundles a cada atualização do bundle
+    void reload(SslBundle bundle) {
+        long start = System.nanoTime();
+        try {
+            Index reloaded = MapIndex.of(certificates(bundle.getStores().getTrustStore()));
+            index = reloaded;
+            LoggingConfiguration.TRANSACAO_LOG.info("Truststore carregado: {} certificados de AC em {} ms", reloaded.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (Exception e) {
+            // Mantém o índice anterior
+            LoggingConfiguration.TRANSACAO_LOG.error("Erro ao recarregar truststore: {}", e.getMessage());
+        } finally {
+            reloadTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+    
+    // Snapshot do build para o .p12 do bundle, ou null para carregar o .p12 (snapshot não configurado,
+    // ilegível ou gerado de outro truststore)
+    static TrustAnchorSnapshot snapshot(Path file, String trustStoreLocation, ResourceLoader resourceLoader) {
+        if (file == null) {
+            return null;
+        }
+        if (trustStoreLocation == null || trustStoreLocation.isBlank()) {
+            LoggingConfiguration.TRANSACAO_LOG.warn("Snapshot {} ignorado: bundle sem truststore .p12", file);
+            return null;
+        }
+        long start = System.nanoTime();
+        try {
+            TrustAnchorSnapshot snapshot = TrustAnchorSnapshot.open(file);
+            if (!snapshot.matches(resourceLoader.getResource(trustStoreLocation).getContentAsByteArray())) {
+                LoggingConfiguration.TRANSACAO_LOG.warn("Snapshot {} não corresponde a {}; carregando o truststore",
+                    file, trustStoreLocation);
+                return null;
+            }
+            LoggingConfiguration.TRANSACAO_LOG.info("Truststore carregado do snapshot {}: {} certificados de AC em {} ms",
+                file, snapshot.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            return snapshot;
+        } catch (IOException e) {
+            LoggingConfiguration.TRANSACAO_LOG.warn("Snapshot {} indisponível: {}", file, e.getMessage());
+            return null;
+        }
+    }
+    
+    private static String trustStoreLocation(SslProperties sslProperties, String bundleName) {
+        JksSslBundleProperties bundle = sslProperties.getBundle().getJks().get(bundleName);
+        return bundle != null ? bundle.getTruststore().getLocation() : null;
+    }
+    
+    static List<X509Certificate> certificates(KeyStore keyStore) throws Exception {
+        if (keyStore == null) {
+            return List.of();
+        }
+        List<X509Certificate> certificates = new ArrayList<>(keyStore.size());
+        Enumeration<String> aliases = keyStore.aliases();
+        while (aliases.hasMoreElements()) {
+            Certificate certificate = keyStore.getCertificate(aliases.nextElement());
+            if (certificate instanceof X509Certificate x509) {
+                certificates.add(x509);
+            }
+        }
+        return certificates;
+    }
+    
+    // Índice de ACs: em mapas, montado a partir do KeyStore, ou mapeado do snapshot do build
+    interface Index {
+        
+        List<X509Certificate> findBySubject(X500Principal subject);
+        
+        // null quando nenhuma AC tem o keyIdentifier
+        List<X509Certificate> findByKeyIdentifier(String keyIdentifier);
+        
+        int size();
+    }
+    
+    private record MapIndex(Map<X500Principal, List<X509Certificate>> bySubject,
+                            Map<String, List<X509Certificate>> byKeyIdentifier, int size) implements Index {
+        
+        static MapIndex of(Collection<X509Certificate> certificates) {
+            Map<X500Principal, List<X509Certificate>> subjects = new HashMap<>();
+            Map<String, List<X509Certificate>> keyIdentifiers = new HashMap<>();
+            for (X509Certificate certificate : certificates) {
+                subjects.computeIfAbsent(certificate.getSubjectX500Principal(), k -> new ArrayList<>(1)).add(certificate);
+                String keyIdentifier = KeyIdentifiers.subjectKeyIdentifier(certificate);
+                if (keyIdentifier != null) {
+                    keyIdentifiers.computeIfAbsent(keyIdentifier, k -> new ArrayList<>(1)).add(certificate);
+                }
+            }
+            subjects.replaceAll((subject, list) -> List.copyOf(list));
+            keyIdentifiers.replaceAll((keyIdentifier, list) -> List.copyOf(list));
+            return new MapIndex(Collections.unmodifiableMap(subjects), Collections.unmodifiableMap(keyIdentifiers),
+                certificates.size());
+        }
+        
+        @Override
+        public List<X509Certificate> findBySubject(X500Principal subject) {
+            return bySubject.getOrDefault(subject, List.of());
+        }
+        
+        @Override
+        public List<X509Certificate> findByKeyIdentifier(String keyIdentifier) {
+            return byKeyIdentifier.get(keyIdentifier);
+        }
+    }
+}
@@ -7,6 +7,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
 
 import br.gov.sp.tce.icp_brasil_authenticator.configuration.LoggingConfiguration;
 
@@ -27,6 +28,21 @@ public class GlobalExceptionHandler {
         return ResponseEntity.badRequest().body(errorDTO);
     }
     
+    // Status já definido por quem lançou (ex.: 400 dos endpoints do actuator)
+    @ExceptionHandler(ResponseStatusException.class)
+    public ResponseEntity<ErrorDTO> handleResponseStatusException(
+            ResponseStatusException ex, WebRequest request) {
+        
+        LoggingConfiguration.ACESSO_LOG.info("Erro {} - URI: {} - Mensagem: {}", 
+            ex.getStatusCode().value(), request.getDescription(false), ex.getReason());
+        
+        ErrorDTO errorDTO = new ErrorDTO(Collections.singletonList(
+            new ErrorDTO.Message(ex.getReason())
+        ));
+        
+        return ResponseEntity.status(ex.getStatusCode()).body(errorDTO);
+    }
+    
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<ErrorDTO> handleRuntimeException(
             RuntimeException ex, WebRequest request) {
@@ -0,0 +1,60 @@
+package br.gov.sp.tce.icp_brasil_authenticator.metrics;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import br.gov.sp.tce.icp_brasil_authenticator.domain.dto.CertificateDTO;
+import br.gov.sp.tce.icp_brasil_authenticator.metrics.ValidationMetrics.Stage;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+
+// Etapa SERIALIZATION do /validate: o início é marcado logo antes do Jackson escrever o
+// CertificateDTO e o tempo é registrado no postHandle, que o Spring MVC chama depois de a
+// resposta @ResponseBody ter sido escrita.
+@ControllerAdvice
+@RequiredArgsConstructor
+public class SerializationTimingAdvice implements ResponseBodyAdvice<Object>, HandlerInterceptor, WebMvcConfigurer {
+    
+    private static final String START_ATTRIBUTE = SerializationTimingAdvice.class.getName() + ".start";
+    
+    private final ValidationMetrics validationMetrics;
+    
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+    
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (body instanceof CertificateDTO && request instanceof ServletServerHttpRequest servletRequest) {
+            servletRequest.getServletRequest().setAttribute(START_ATTRIBUTE, System.nanoTime());
+        }
+        return body;
+    }
+    
+    @Override
+    public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler,
+                           ModelAndView modelAndView) {
+        if (request.getAttribute(START_ATTRIBUTE) instanceof Long start) {
+            validationMetrics.record(Stage.SERIALIZATION, start);
+        }
+    }
+    
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(this).addPathPatterns("/api/certificate/validate");
+    }
+}
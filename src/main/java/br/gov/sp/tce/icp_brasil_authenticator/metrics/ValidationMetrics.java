@@ -0,0 +1,112 @@
+package br.gov.sp.tce.icp_brasil_authenticator.metrics;
+
+import java.security.cert.X509Certificate;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+// Tempo de cada etapa do /validate e resultado das validações por AC emissora. Os medidores
+// são registrados uma vez e guardados em campos/mapas, de modo que a requisição só faz
+// System.nanoTime e o record, sem busca no registry nem alocação de tags.
+@Component
+public class ValidationMetrics {
+    
+    static final String OTHER_ISSUER = "other";
+    static final int MAX_CHAIN_LENGTH_TAG = 5;
+    
+    public enum Stage {
+        // Extração dos dados (ou leitura do cache) e fingerprint SHA-256
+        PARSE, FINGERPRINT,
+        // Validação do caminho até o truststore e verificação de revogação
+        CHAIN, REVOCATION,
+        // Publicação do evento de auditoria e captura de diagnóstico (só nas requisições amostradas)
+        AUDIT, LOGGING,
+        // Emissão do token e escrita do JSON da resposta
+        TOKEN, SERIALIZATION
+    }
+    
+    public enum Outcome { VALID, EXPIRED, REVOKED, UNTRUSTED }
+    
+    private final MeterRegistry meterRegistry;
+    private final int maxIssuerTags;
+    private final Map<Stage, Timer> stages = new EnumMap<>(Stage.class);
+    private final DistributionSummary expiryDays;
+    
+    // Contadores por AC emissora; ACs além de maxIssuerTags vão para "other"
+    private final Map<String, IssuerCounters> outcomes = new ConcurrentHashMap<>();
+    
+    @Autowired
+    public ValidationMetrics(MeterRegistry meterRegistry, @Value("${icp-brasil.metrics.max-issuer-tags:100}") int maxIssuerTags) {
+        this.meterRegistry = meterRegistry;
+        this.maxIssuerTags = maxIssuerTags;
+        for (Stage stage : Stage.values()) {
+            stages.put(stage, Timer.builder("certificate.validation.stage")
+                .description("Tempo de cada etapa da validação do certificado")
+                .tag("stage", stage.name().toLowerCase(Locale.ROOT))
+                .register(meterRegistry));
+        }
+        this.expiryDays = DistributionSummary.builder("certificate.expiry.days")
+            .description("Dias até o vencimento dos certificados validados (vencidos contam como 0)")
+            .baseUnit("days")
+            .serviceLevelObjectives(7, 30, 90, 180, 365, 730, 1095)
+            .register(meterRegistry);
+    }
+    
+    // Registra o tempo desde startNanos (obtido de System.nanoTime) e devolve o instante atual
+    public long record(Stage stage, long startNanos) {
+        long now = System.nanoTime();
+        stages.get(stage).record(now - startNanos, TimeUnit.NANOSECONDS);
+        return now;
+    }
+    
+    public void outcome(String issuer, Outcome outcome, int chainLength, X509Certificate certificate) {
+        String key = issuer != null ? issuer : OTHER_ISSUER;
+        IssuerCounters counters = outcomes.get(key);
+        if (counters == null) {
+            counters = outcomes.size() < maxIssuerTags
+                ? outcomes.computeIfAbsent(key, IssuerCounters::new)
+                : outcomes.computeIfAbsent(OTHER_ISSUER, IssuerCounters::new);
+        }
+        counters.get(outcome, Math.max(1, Math.min(chainLength, MAX_CHAIN_LENGTH_TAG))).increment();
+        
+        long remaining = certificate.getNotAfter().getTime() - System.currentTimeMillis();
+        expiryDays.record(Math.max(0, TimeUnit.MILLISECONDS.toDays(remaining)));
+    }
+    
+    // [resultado][tamanho da cadeia - 1], registrados no primeiro uso de cada combinação
+    private final class IssuerCounters {
+        
+        private final String issuer;
+        private final Counter[][] counters = new Counter[Outcome.values().length][MAX_CHAIN_LENGTH_TAG];
+        
+        IssuerCounters(String issuer) {
+            this.issuer = issuer;
+        }
+        
+        Counter get(Outcome outcome, int chainLength) {
+            Counter counter = counters[outcome.ordinal()][chainLength - 1];
+            if (counter == null) {
+                // Corrida entre threads é inofensiva: o registry devolve o mesmo Counter
+                counter = Counter.builder("certificate.validations")
+                    .description("Validações por AC emissora, resultado e tamanho da cadeia apresentada")
+                    .tag("issuer", issuer)
+                    .tag("outcome", outcome.name().toLowerCase(Locale.ROOT))
+                    .tag("chain_length", chainLength == MAX_CHAIN_LENGTH_TAG ? chainLength + "+" : String.valueOf(chainLength))
+                    .register(meterRegistry);
+                counters[outcome.ordinal()][chainLength - 1] = counter;
+            }
+            return counter;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package br.gov.sp.tce.icp_brasil_authenticator.metrics;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+
+import br.gov.sp.tce.icp_brasil_authenticator.configuration.LoggingConfiguration;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+// Pinning de virtual threads lido dos eventos JFR jdk.VirtualThreadPinned: a virtual thread bloqueou
+// (I/O, sleep, lock) dentro de synchronized ou de código nativo e segurou a carrier thread. Cada
+// ponto de pinning distinto é registrado uma vez no log com a pilha, para localizar a causa.
+public class VirtualThreadPinningMetrics implements MeterBinder, AutoCloseable {
+    
+    private static final int MAX_LOGGED_LOCATIONS = 100;
+    private static final int LOGGED_FRAMES = 8;
+    
+    private final Duration threshold;
+    private final Set<String> loggedLocations = ConcurrentHashMap.newKeySet();
+    
+    private RecordingStream recording;
+    
+    public VirtualThreadPinningMetrics(Duration threshold) {
+        this.threshold = threshold;
+    }
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Timer pinned = Timer.builder("jvm.threads.virtual.pinned")
+            .description("Tempo em que virtual threads bloquearam presas à carrier thread")
+            .register(registry);
+        Counter submitFailed = Counter.builder("jvm.threads.virtual.submit.failed")
+            .description("Virtual threads que não puderam ser agendadas ou retomadas")
+            .register(registry);
+        
+        recording = new RecordingStream();
+        recording.setMaxAge(Duration.ofSeconds(10));
+        recording.enable("jdk.VirtualThreadPinned").withThreshold(threshold).withStackTrace();
+        recording.enable("jdk.VirtualThreadSubmitFailed");
+        recording.onEvent("jdk.VirtualThreadPinned", event -> {
+            pinned.record(event.getDuration());
+            logLocation(event);
+        });
+        recording.onEvent("jdk.VirtualThreadSubmitFailed", event -> submitFailed.increment());
+        recording.startAsync();
+    }
+    
+    private void logLocation(RecordedEvent event) {
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        if (stackTrace == null || loggedLocations.size() >= MAX_LOGGED_LOCATIONS) {
+            return;
+        }
+        String frames = stackTrace.getFrames().stream()
+            .limit(LOGGED_FRAMES)
+            .map(VirtualThreadPinningMetrics::frame)
+            .collect(Collectors.joining(" <- "));
+        if (loggedLocations.add(frames)) {
+            LoggingConfiguration.TRANSACAO_LOG.warn("Virtual thread presa à carrier thread por {} ms: {}",
+                event.getDuration().toMillis(), frames);
+        }
+    }
+    
+    private static String frame(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+    
+    @Override
+    public void close() {
+        if (recording != null) {
+            recording.close();
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package br.gov.sp.tce.icp_brasil_authenticator.security;
+
+import java.security.cert.X509Certificate;
+import java.util.List;
+
+import org.springframework.security.web.util.matcher.IpAddressMatcher;
+import org.springframework.stereotype.Component;
+
+import br.gov.sp.tce.icp_brasil_authenticator.configuration.ClientCertificateProperties;
+import br.gov.sp.tce.icp_brasil_authenticator.configuration.ClientCertificateProperties.Source;
+import br.gov.sp.tce.icp_brasil_authenticator.configuration.LoggingConfiguration;
+import br.gov.sp.tce.icp_brasil_authenticator.configuration.TrustProperties;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.certificate.ForwardedCertificateDecoder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+
+// Obtém a cadeia do certificado do cliente conforme icp-brasil.client-certificate.source: do
+// handshake mTLS deste servidor (TLS) ou de cabeçalhos de um proxy que termina o TLS (HEADER,
+// XFCC). Cabeçalhos só são aceitos quando a conexão vem de um dos trusted-proxies; de outras
+// origens são ignorados, como se o cliente não tivesse apresentado certificado. Sem handshake
+// mTLS neste servidor ninguém verificou a cadeia repassada, por isso HEADER e XFCC exigem
+// icp-brasil.trust.require-trusted-chain.
+@Component
+public class ClientCertificateResolver {
+    
+    public static final String TLS_ATTRIBUTE = "jakarta.servlet.request.X509Certificate";
+    
+    private final ClientCertificateProperties properties;
+    private final List<IpAddressMatcher> trustedProxies;
+    private final ForwardedCertificateDecoder decoder;
+    private final Counter untrustedProxy;
+    private final Counter invalidHeader;
+    
+    public ClientCertificateResolver(ClientCertificateProperties properties, TrustProperties trustProperties,
+                                     MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.trustedProxies = properties.getTrustedProxies().stream().map(IpAddressMatcher::new).toList();
+        if (properties.getSource() != Source.TLS && trustedProxies.isEmpty()) {
+            throw new IllegalStateException("icp-brasil.client-certificate.trusted-proxies é obrigatório com source "
+                + properties.getSource());
+        }
+        if (properties.getSource() != Source.TLS && !trustProperties.isRequireTrustedChain()) {
+            throw new IllegalStateException("icp-brasil.trust.require-trusted-chain=true é obrigatório com source "
+                + properties.getSource());
+        }
+        this.decoder = properties.getSource() == Source.TLS ? null
+            : new ForwardedCertificateDecoder(properties.getDecodeCacheSize(), properties.getDecodeCacheTtl(), meterRegistry);
+        this.untrustedProxy = rejected(meterRegistry, "untrusted_proxy");
+        this.invalidHeader = rejected(meterRegistry, "invalid_header");
+    }
+    
+    private static Counter rejected(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("client.certificate.rejected")
+            .description("Certificados repassados por proxy que foram descartados")
+            .tag("reason", reason)
+            .register(meterRegistry);
+    }
+    
+    // null quando não há certificado (ou quando o cabeçalho não pode ser aceito)
+    public X509Certificate[] resolve(HttpServletRequest request) {
+        return switch (properties.getSource()) {
+            case TLS -> (X509Certificate[]) request.getAttribute(TLS_ATTRIBUTE);
+            case HEADER -> fromProxy(request, request.getHeader(properties.getHeader()));
+            case XFCC -> fromProxy(request, request.getHeader(properties.getXfccHeader()));
+        };
+    }
+    
+    private X509Certificate[] fromProxy(HttpServletRequest request, String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        if (!isTrustedProxy(request)) {
+            untrustedProxy.increment();
+            LoggingConfiguration.ACESSO_LOG.warn("Cabeçalho de certificado ignorado: {} não é um proxy confiável",
+                request.getRemoteAddr());
+            return null;
+        }
+        try {
+            return properties.getSource() == Source.XFCC
+                ? decoder.decodeXfcc(value)
+                : decoder.decode(value, properties.getChainHeader() != null ? request.getHeader(properties.getChainHeader()) : null);
+        } catch (IllegalArgumentException e) {
+            invalidHeader.increment();
+            LoggingConfiguration.ACESSO_LOG.warn("Cabeçalho de certificado inválido de {}: {}",
+                request.getRemoteAddr(), e.getMessage());
+            return null;
+        }
+    }
+    
+    // IP do cliente: atrás de um proxy confiável, o último endereço incluído no X-Forwarded-For
+    public String remoteAddress(HttpServletRequest request) {
+        if (properties.getSource() == Source.TLS || !isTrustedProxy(request)) {
+            return request.getRemoteAddr();
+        }
+        String forwardedFor = request.getHeader(properties.getForwardedForHeader());
+        if (forwardedFor == null || forwardedFor.isBlank()) {
+            return request.getRemoteAddr();
+        }
+        return forwardedFor.substring(forwardedFor.lastIndexOf(',') + 1).trim();
+    }
+    
+    private boolean isTrustedProxy(HttpServletRequest request) {
+        String remoteAddress = request.getRemoteAddr();
+        for (IpAddressMatcher trustedProxy : trustedProxies) {
+            if (trustedProxy.matches(remoteAddress)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
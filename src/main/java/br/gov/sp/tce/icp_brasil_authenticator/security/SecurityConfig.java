@@ -2,13 +2,13 @@ package br.gov.sp.tce.icp_brasil_authenticator.security;
 
 import java.io.IOException;
 import java.security.cert.X509Certificate;
-import java.text.SimpleDateFormat;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
+import org.springframework.security.authorization.AuthorizationDecision;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
@@ -17,10 +17,19 @@ import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.preauth.x509.X509AuthenticationFilter;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import br.gov.sp.tce.icp_brasil_authenticator.configuration.RateLimitProperties;
+import br.gov.sp.tce.icp_brasil_authenticator.diagnostics.DiagnosticsRecorder;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.certificate.ParsedCertificate;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.service.CertificateValidationService;
+import br.gov.sp.tce.icp_brasil_authenticator.metrics.ValidationMetrics;
+import br.gov.sp.tce.icp_brasil_authenticator.metrics.ValidationMetrics.Stage;
+import br.gov.sp.tce.icp_brasil_authenticator.security.ratelimit.RateLimitFilter;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
 
 @Configuration
 @EnableWebSecurity
@@ -31,7 +40,13 @@ public class SecurityConfig {
     private static final Logger log = LoggerFactory.getLogger(SecurityConfig.class);
 
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http,
+                                           CertificateValidationService certificateValidationService,
+                                           ValidationMetrics validationMetrics,
+                                           ClientCertificateResolver clientCertificateResolver,
+                                           RateLimitProperties rateLimitProperties,
+                                           DiagnosticsRecorder diagnosticsRecorder,
+                                           MeterRegistry meterRegistry) throws Exception {
         http
             .sessionManagement(session -> 
                 session.sessionCreationPolicy(SessionCreationPolicy.STATELESS)
@@ -47,88 +62,69 @@ public class SecurityConfig {
                 })
             )
             .authorizeHttpRequests(authz -> authz
+                // Diagnósticos expõem dados de certificados e endereços: só para os CPFs operadores,
+                // com cadeia confiável como na consulta de auditoria
+                .requestMatchers("/actuator/diagnostics", "/actuator/diagnostics/**").access((authentication, context) ->
+                    new AuthorizationDecision(diagnosticsRecorder.isOperator(
+                        certificateValidationService.authorizedCpf(ParsedCertificate.from(context.getRequest())))))
                 .requestMatchers("/actuator/**", "/api/health/**").permitAll()
                 .anyRequest().permitAll()
             )
-            .addFilterAfter(new CertificateLoggingFilter(), X509AuthenticationFilter.class);
+            .addFilterAfter(new CertificateLoggingFilter(certificateValidationService, validationMetrics, clientCertificateResolver,
+                diagnosticsRecorder), X509AuthenticationFilter.class);
+        
+        // Limite de taxa depois do filtro de certificado, que disponibiliza o fingerprint
+        if (rateLimitProperties.isEnabled()) {
+            http.addFilterAfter(new RateLimitFilter(rateLimitProperties, clientCertificateResolver, meterRegistry),
+                CertificateLoggingFilter.class);
+        }
         
         return http.build();
     }
     
+    // Processa o certificado cliente uma única vez e o disponibiliza às etapas seguintes
+    // como atributo da requisição (ParsedCertificate); requisições selecionadas pelo
+    // DiagnosticsRecorder são capturadas depois de respondidas
+    @RequiredArgsConstructor
     private static class CertificateLoggingFilter extends OncePerRequestFilter {
         
+        private final CertificateValidationService certificateValidationService;
+        private final ValidationMetrics validationMetrics;
+        private final ClientCertificateResolver clientCertificateResolver;
+        private final DiagnosticsRecorder diagnosticsRecorder;
+        
         @Override
         protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, 
                                         FilterChain filterChain) throws ServletException, IOException {
             
-            // Captura o certificado cliente da requisição
-            X509Certificate[] certs = (X509Certificate[]) request.getAttribute("jakarta.servlet.request.X509Certificate");
+            long start = System.nanoTime();
+            
+            // Captura o certificado cliente do handshake ou dos cabeçalhos do proxy
+            X509Certificate[] certs = clientCertificateResolver.resolve(request);
+            ParsedCertificate parsedCertificate = null;
             
             if (certs != null && certs.length > 0) {
-                X509Certificate clientCert = certs[0];
-                logCertificateInfo(clientCert);
+                try {
+                    parsedCertificate = certificateValidationService.parseCertificate(certs);
+                    parsedCertificate.bindTo(request);
+                } catch (Exception e) {
+                    log.error("Erro ao extrair informações do certificado: {}", e.getMessage());
+                }
             } else {
-                log.info("Nenhum certificado cliente encontrado na requisição");
+                log.debug("Nenhum certificado cliente encontrado na requisição");
             }
             
+            String clientAddress = clientCertificateResolver.remoteAddress(request);
+            String reason = diagnosticsRecorder.select(
+                parsedCertificate != null ? parsedCertificate.getFingerprint() : null, clientAddress);
+            
             filterChain.doFilter(request, response);
-        }
-        
-        private void logCertificateInfo(X509Certificate cert) {
-            try {
-                SimpleDateFormat sdf = new SimpleDateFormat("dd/MM/yyyy HH:mm:ss");
-                
-                log.info("=== INFORMAÇÕES DO CERTIFICADO CLIENTE ===");
-                log.info("Subject (Titular): {}", cert.getSubjectX500Principal().getName());
-                log.info("Issuer (Emissor): {}", cert.getIssuerX500Principal().getName());
-                log.info("Serial Number: {}", cert.getSerialNumber());
-                log.info("Válido de: {}", sdf.format(cert.getNotBefore()));
-                log.info("Válido até: {}", sdf.format(cert.getNotAfter()));
-                log.info("Versão: {}", cert.getVersion());
-                log.info("Algoritmo de Assinatura: {}", cert.getSigAlgName());
-                
-                // Extrai informações específicas do Subject
-                String subjectDN = cert.getSubjectX500Principal().getName();
-                String cn = extractFromDN(subjectDN, "CN");
-                String cpf = extractCPFFromCN(cn);
-                String email = extractFromDN(subjectDN, "EMAILADDRESS");
-                
-                if (cn != null) log.info("Nome (CN): {}", cn);
-                if (cpf != null) log.info("CPF extraído: {}", cpf);
-                if (email != null) log.info("Email: {}", email);
-                
-                log.info("===============================================");
-                
-            } catch (Exception e) {
-                log.error("Erro ao extrair informações do certificado: {}", e.getMessage());
-            }
-        }
-        
-        private String extractFromDN(String dn, String attribute) {
-            String[] parts = dn.split(",");
-            for (String part : parts) {
-                part = part.trim();
-                if (part.startsWith(attribute + "=")) {
-                    return part.substring(attribute.length() + 1);
-                }
-            }
-            return null;
-        }
-        
-        private String extractCPFFromCN(String cn) {
-            if (cn == null) return null;
             
-            // Padrão típico: "NOME:CPF" ou "NOME CPF:XXXXX"
-            if (cn.contains(":")) {
-                String[] parts = cn.split(":");
-                for (String part : parts) {
-                    part = part.trim();
-                    if (part.matches("\\d{11}")) {
-                        return part;
-                    }
-                }
+            if (reason != null) {
+                long captureStart = System.nanoTime();
+                diagnosticsRecorder.record(request, response, reason, clientAddress, start);
+                validationMetrics.record(Stage.LOGGING, captureStart);
             }
-            return null;
         }
     }
 }
@@ -0,0 +1,133 @@
+package br.gov.sp.tce.icp_brasil_authenticator.security.concurrency;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import br.gov.sp.tce.icp_brasil_authenticator.configuration.ConcurrencyLimitProperties;
+import br.gov.sp.tce.icp_brasil_authenticator.configuration.LoggingConfiguration;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// Recusa com 503 as requisições acima do limite de concorrência, antes que esperem na fila de uma
+// dependência lenta (OCSP, banco de auditoria) e prendam threads do Tomcat. Os caminhos de
+// validação usam o limite ajustado pela latência; health e actuator têm um limite fixo separado,
+// de modo que continuam respondendo enquanto a validação está saturada.
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+    
+    private static final byte[] BODY = "{\"errors\":[{\"message\":\"Serviço sobrecarregado, tente novamente\"}]}"
+        .getBytes(StandardCharsets.UTF_8);
+    
+    private final List<String> paths;
+    private final List<String> excludedPaths;
+    private final List<String> managementPaths;
+    private final ConcurrencyLimiter validationLimiter;
+    private final ConcurrencyLimiter managementLimiter;
+    private final Counter validationShed;
+    private final Counter managementShed;
+    
+    public ConcurrencyLimitFilter(ConcurrencyLimitProperties properties, MeterRegistry meterRegistry) {
+        this(properties, new ConcurrencyLimiter(properties.getInitialLimit(), properties.getMinLimit(),
+            properties.getMaxLimit(), properties.getTolerance(), properties.getBackoffRatio(),
+            properties.getWindowSize(), properties.getMinRttWindow().toNanos()), meterRegistry);
+    }
+    
+    ConcurrencyLimitFilter(ConcurrencyLimitProperties properties, ConcurrencyLimiter validationLimiter,
+                           MeterRegistry meterRegistry) {
+        this.paths = List.copyOf(properties.getPaths());
+        this.excludedPaths = List.copyOf(properties.getExcludedPaths());
+        this.managementPaths = List.copyOf(properties.getManagement().getPaths());
+        this.validationLimiter = validationLimiter;
+        this.managementLimiter = ConcurrencyLimiter.fixed(properties.getManagement().getLimit());
+        this.validationShed = register(meterRegistry, "validation", validationLimiter);
+        this.managementShed = register(meterRegistry, "management", managementLimiter);
+    }
+    
+    private static Counter register(MeterRegistry meterRegistry, String group, ConcurrencyLimiter limiter) {
+        Gauge.builder("concurrency.limit", limiter, ConcurrencyLimiter::getLimit)
+            .description("Limite atual de requisições simultâneas")
+            .tag("group", group)
+            .register(meterRegistry);
+        Gauge.builder("concurrency.in.flight", limiter, ConcurrencyLimiter::getInFlight)
+            .description("Requisições em andamento")
+            .tag("group", group)
+            .register(meterRegistry);
+        return Counter.builder("concurrency.shed")
+            .description("Requisições recusadas com 503 pelo limite de concorrência")
+            .tag("group", group)
+            .register(meterRegistry);
+    }
+    
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return limiter(request.getRequestURI()) == null;
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        
+        ConcurrencyLimiter limiter = limiter(request.getRequestURI());
+        if (!limiter.tryAcquire()) {
+            (limiter == managementLimiter ? managementShed : validationShed).increment();
+            reject(request, response);
+            return;
+        }
+        
+        long start = System.nanoTime();
+        boolean completed = false;
+        try {
+            filterChain.doFilter(request, response);
+            completed = true;
+        } finally {
+            if (completed && !request.isAsyncStarted() && isSuccessful(response)) {
+                limiter.release(System.nanoTime() - start);
+            } else {
+                // Erro, recusa (429, 400 sem certificado) ou resposta assíncrona: a duração não
+                // representa a latência de uma validação
+                limiter.release();
+            }
+        }
+    }
+    
+    private static boolean isSuccessful(HttpServletResponse response) {
+        return response.getStatus() >= 200 && response.getStatus() < 300;
+    }
+    
+    private ConcurrencyLimiter limiter(String uri) {
+        for (String path : excludedPaths) {
+            if (uri.startsWith(path)) {
+                return null;
+            }
+        }
+        for (String path : managementPaths) {
+            if (uri.startsWith(path)) {
+                return managementLimiter;
+            }
+        }
+        for (String path : paths) {
+            if (uri.startsWith(path)) {
+                return validationLimiter;
+            }
+        }
+        return null;
+    }
+    
+    private static void reject(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        LoggingConfiguration.ACESSO_LOG.debug("Limite de concorrência atingido em {}", request.getRequestURI());
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader("Retry-After", "1");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(BODY.length);
+        response.getOutputStream().write(BODY);
+    }
+}
@@ -0,0 +1,132 @@
+package br.gov.sp.tce.icp_brasil_authenticator.security.concurrency;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+// Limite de requisições simultâneas ajustado pela latência medida (AIMD). As latências são
+// agrupadas em janelas de windowSize amostras; ao fechar uma janela, se a média passar de
+// tolerance vezes a latência sem carga (menor média de janela vista nos últimos dois períodos de
+// minRttWindow), o limite é multiplicado por backoffRatio; senão, se a janela chegou perto do
+// limite, ele sobe 1. A referência é uma média, e não a menor amostra: com respostas rápidas e
+// lentas misturadas (cache, recusas), a menor amostra fica muito abaixo de qualquer média e o
+// limite cairia até o mínimo sem haver fila. Com min == max o limite é fixo. A admissão é um CAS no contador de
+// requisições em andamento; a atualização da janela usa tryLock e, se outra thread a estiver
+// atualizando, a amostra é descartada, sem espera no caminho da requisição.
+public class ConcurrencyLimiter {
+    
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double backoffRatio;
+    private final int windowSize;
+    private final long minRttWindowNanos;
+    private final LongSupplier clock;
+    
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile int limit;
+    
+    // Estado da janela, protegido por lock
+    private long windowSum;
+    private int windowCount;
+    private int windowMaxInFlight;
+    private long minRtt = Long.MAX_VALUE;
+    private long previousMinRtt = Long.MAX_VALUE;
+    private long minRttStart;
+    
+    public ConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double tolerance, double backoffRatio,
+                              int windowSize, long minRttWindowNanos) {
+        this(initialLimit, minLimit, maxLimit, tolerance, backoffRatio, windowSize, minRttWindowNanos, System::nanoTime);
+    }
+    
+    ConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double tolerance, double backoffRatio,
+                       int windowSize, long minRttWindowNanos, LongSupplier nanoClock) {
+        if (minLimit < 1 || maxLimit < minLimit || tolerance < 1 || backoffRatio <= 0 || backoffRatio >= 1
+            || windowSize < 1 || minRttWindowNanos <= 0) {
+            throw new IllegalArgumentException("Parâmetros inválidos para o limite de concorrência");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.backoffRatio = backoffRatio;
+        this.windowSize = windowSize;
+        this.minRttWindowNanos = minRttWindowNanos;
+        this.clock = nanoClock;
+        this.limit = Math.clamp(initialLimit, minLimit, maxLimit);
+        this.minRttStart = nanoClock.getAsLong();
+    }
+    
+    // Limite fixo, sem ajuste pela latência
+    public static ConcurrencyLimiter fixed(int limit) {
+        return new ConcurrencyLimiter(limit, limit, limit, 1, 0.5, 1, 1);
+    }
+    
+    // Reserva uma vaga; false quando o limite já foi atingido
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+    
+    // Libera a vaga sem usar a latência (ex.: requisição assíncrona ou interrompida por erro)
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+    
+    // Libera a vaga e registra a latência da requisição
+    public void release(long latencyNanos) {
+        int current = inFlight.getAndDecrement();
+        if (minLimit == maxLimit || !lock.tryLock()) {
+            return;
+        }
+        try {
+            sample(latencyNanos, current);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    private void sample(long latencyNanos, int current) {
+        long now = clock.getAsLong();
+        if (now - minRttStart >= minRttWindowNanos) {
+            // Nova janela do mínimo: mantém a anterior para a latência sem carga não saltar de uma vez
+            previousMinRtt = minRtt;
+            minRtt = Long.MAX_VALUE;
+            minRttStart = now;
+        }
+        windowSum += latencyNanos;
+        windowMaxInFlight = Math.max(windowMaxInFlight, current);
+        if (++windowCount < windowSize) {
+            return;
+        }
+        
+        long average = windowSum / windowCount;
+        minRtt = Math.min(minRtt, average);
+        long noLoad = Math.min(minRtt, previousMinRtt);
+        int currentLimit = limit;
+        if (average > tolerance * noLoad) {
+            limit = Math.max(minLimit, (int) (currentLimit * backoffRatio));
+        } else if (windowMaxInFlight * 2 >= currentLimit) {
+            // Só cresce quando a janela usou ao menos metade do limite
+            limit = Math.min(maxLimit, currentLimit + 1);
+        }
+        windowSum = 0;
+        windowCount = 0;
+        windowMaxInFlight = 0;
+    }
+    
+    public int getLimit() {
+        return limit;
+    }
+    
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
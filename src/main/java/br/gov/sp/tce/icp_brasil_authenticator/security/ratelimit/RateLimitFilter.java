@@ -0,0 +1,101 @@
+package br.gov.sp.tce.icp_brasil_authenticator.security.ratelimit;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import br.gov.sp.tce.icp_brasil_authenticator.configuration.LoggingConfiguration;
+import br.gov.sp.tce.icp_brasil_authenticator.configuration.RateLimitProperties;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.certificate.ParsedCertificate;
+import br.gov.sp.tce.icp_brasil_authenticator.security.ClientCertificateResolver;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// Limita requisições por IP do cliente e por fingerprint do certificado (já processado pelo
+// filtro de certificado), respondendo 429 com Retry-After. No caminho aceito são dois CAS em
+// tabelas de tamanho fixo, sem alocação nem lock.
+public class RateLimitFilter extends OncePerRequestFilter {
+    
+    private static final byte[] BODY = "{\"errors\":[{\"message\":\"Limite de requisições excedido\"}]}"
+        .getBytes(StandardCharsets.UTF_8);
+    
+    private final List<String> paths;
+    private final RateLimiter addressLimiter;
+    private final RateLimiter certificateLimiter;
+    private final ClientCertificateResolver clientCertificateResolver;
+    private final Counter addressRejected;
+    private final Counter certificateRejected;
+    
+    public RateLimitFilter(RateLimitProperties properties, ClientCertificateResolver clientCertificateResolver,
+                           MeterRegistry meterRegistry) {
+        this.paths = List.copyOf(properties.getPaths());
+        this.addressLimiter = new RateLimiter(properties.getAddress().getRate(), properties.getAddress().getBurst(),
+            properties.getBuckets());
+        this.certificateLimiter = new RateLimiter(properties.getCertificate().getRate(),
+            properties.getCertificate().getBurst(), properties.getBuckets());
+        this.clientCertificateResolver = clientCertificateResolver;
+        this.addressRejected = rejected(meterRegistry, "address");
+        this.certificateRejected = rejected(meterRegistry, "certificate");
+    }
+    
+    private static Counter rejected(MeterRegistry meterRegistry, String key) {
+        return Counter.builder("rate.limit.rejected")
+            .description("Requisições recusadas com 429 pelo limite de taxa")
+            .tag("key", key)
+            .register(meterRegistry);
+    }
+    
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        for (String path : paths) {
+            if (uri.startsWith(path)) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        
+        String remoteAddress = clientCertificateResolver.remoteAddress(request);
+        long wait = addressLimiter.tryAcquire(remoteAddress);
+        if (wait != RateLimiter.ALLOWED) {
+            addressRejected.increment();
+            reject(response, wait, "endereço", remoteAddress);
+            return;
+        }
+        
+        ParsedCertificate parsedCertificate = ParsedCertificate.from(request);
+        if (parsedCertificate != null) {
+            wait = certificateLimiter.tryAcquire(parsedCertificate.getFingerprint());
+            if (wait != RateLimiter.ALLOWED) {
+                certificateRejected.increment();
+                reject(response, wait, "certificado", parsedCertificate.getFingerprint());
+                return;
+            }
+        }
+        
+        filterChain.doFilter(request, response);
+    }
+    
+    private static void reject(HttpServletResponse response, long waitMicros, String key, String value) throws IOException {
+        LoggingConfiguration.ACESSO_LOG.debug("Limite de taxa excedido por {} {}", key, value);
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        // Retry-After em segundos inteiros, arredondado para cima
+        response.setHeader("Retry-After", String.valueOf(Math.max(1, (waitMicros + 999_999) / 1_000_000)));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(BODY.length);
+        response.getOutputStream().write(BODY);
+    }
+}
@@ -0,0 +1,120 @@
+package br.gov.sp.tce.icp_brasil_authenticator.security.ratelimit;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+// Limite de taxa por chave (fingerprint ou IP) em uma tabela de tamanho fixo, sem locks. Cada
+// bucket é um long: 16 bits de etiqueta da chave e 48 bits do TAT (theoretical arrival time do
+// GCRA, em microssegundos), atualizado por CAS. A chave pode ocupar dois buckets possíveis; se
+// nenhum for dela, toma o que estiver ocioso ou, na falta, o de menor TAT. Assim, uma enxurrada
+// de chaves novas substitui entradas (o limite é aproximado) mas nunca aumenta a memória.
+public class RateLimiter {
+    
+    // Resultado de tryAcquire: 0 quando aceita, senão os microssegundos até a próxima permissão
+    public static final long ALLOWED = 0;
+    
+    private static final int TAG_BITS = 16;
+    private static final long TIME_MASK = (1L << (64 - TAG_BITS)) - 1;
+    
+    private final AtomicLongArray buckets;
+    private final int mask;
+    private final long seed = ThreadLocalRandom.current().nextLong();
+    private final long intervalMicros;
+    private final long toleranceMicros;
+    private final LongSupplier clock;
+    private final long epoch;
+    
+    public RateLimiter(double ratePerSecond, int burst, int size) {
+        this(ratePerSecond, burst, size, () -> System.nanoTime() / 1_000);
+    }
+    
+    RateLimiter(double ratePerSecond, int burst, int size, LongSupplier microsClock) {
+        if (ratePerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("rate e burst devem ser positivos");
+        }
+        int capacity = Integer.highestOneBit(Math.max(2, size - 1)) << 1;
+        this.buckets = new AtomicLongArray(capacity);
+        this.mask = capacity - 1;
+        this.intervalMicros = Math.max(1, Math.round(TimeUnit.SECONDS.toMicros(1) / ratePerSecond));
+        this.toleranceMicros = intervalMicros * (burst - 1);
+        this.clock = microsClock;
+        // O TAT é relativo ao início (cabe em 48 bits por ~8 anos) e nunca é 0, o valor de bucket vazio
+        this.epoch = microsClock.getAsLong() - toleranceMicros - 1;
+    }
+    
+    public long tryAcquire(CharSequence key) {
+        long hash = hash(key, seed);
+        long tag = (hash >>> (64 - TAG_BITS)) | 1;
+        int first = (int) hash & mask;
+        int second = (int) (hash >>> 24) & mask;
+        long now = clock.getAsLong() - epoch;
+        
+        while (true) {
+            long firstState = buckets.get(first);
+            long secondState = buckets.get(second);
+            int index;
+            long state;
+            if (tag(firstState) == tag) {
+                index = first;
+                state = firstState;
+            } else if (tag(secondState) == tag) {
+                index = second;
+                state = secondState;
+            } else {
+                // Bucket novo para a chave: o que tiver menor TAT (vazio ou ocioso há mais tempo)
+                boolean useFirst = (firstState & TIME_MASK) <= (secondState & TIME_MASK);
+                index = useFirst ? first : second;
+                state = useFirst ? firstState : secondState;
+                long claimed = (tag << (64 - TAG_BITS)) | (now + intervalMicros);
+                if (buckets.compareAndSet(index, state, claimed)) {
+                    return ALLOWED;
+                }
+                continue;
+            }
+            
+            // GCRA: aceita enquanto o TAT não passar de now + tolerância (burst)
+            long tat = Math.max(state & TIME_MASK, now);
+            long wait = tat - toleranceMicros - now;
+            if (wait > 0) {
+                return wait;
+            }
+            if (buckets.compareAndSet(index, state, (tag << (64 - TAG_BITS)) | (tat + intervalMicros))) {
+                return ALLOWED;
+            }
+        }
+    }
+    
+    private static long tag(long state) {
+        return state >>> (64 - TAG_BITS);
+    }
+    
+    // Hash dos caracteres da chave com a semente aleatória da instância, em blocos de 4 caracteres.
+    // Não parte do hashCode: Strings com o mesmo hashCode são fáceis de gerar e cairiam sempre nos
+    // mesmos buckets, qualquer que fosse a semente.
+    static long hash(CharSequence key, long seed) {
+        int length = key.length();
+        long hash = seed;
+        int i = 0;
+        for (; i + 4 <= length; i += 4) {
+            hash = mix(hash ^ (key.charAt(i) | (long) key.charAt(i + 1) << 16
+                | (long) key.charAt(i + 2) << 32 | (long) key.charAt(i + 3) << 48));
+        }
+        long tail = 0;
+        for (int shift = 0; i < length; i++, shift += 16) {
+            tail |= (long) key.charAt(i) << shift;
+        }
+        return mix(mix(hash ^ tail) ^ length);
+    }
+    
+    // Finalizador do MurmurHash3: espalha os bits de cada bloco pelo hash inteiro
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb93fe53ec4c3L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
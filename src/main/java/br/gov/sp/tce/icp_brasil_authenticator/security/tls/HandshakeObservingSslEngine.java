@@ -0,0 +1,230 @@
+package br.gov.sp.tce.icp_brasil_authenticator.security.tls;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.function.BiFunction;
+
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLEngineResult;
+import javax.net.ssl.SSLEngineResult.HandshakeStatus;
+import javax.net.ssl.SSLException;
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLSession;
+
+import org.apache.tomcat.util.net.SSLUtil;
+
+// SSLEngine que delega tudo ao engine do conector e observa o primeiro handshake: início no primeiro
+// wrap/unwrap, fim quando o engine sinaliza FINISHED. A sessão é considerada retomada quando foi
+// criada antes do início do handshake (sessão do cache, ticket ou PSK), o que vale para TLS 1.2 e 1.3.
+class HandshakeObservingSslEngine extends SSLEngine implements SSLUtil.ProtocolInfo {
+    
+    private final SSLEngine delegate;
+    private final TlsHandshakeMetrics metrics;
+    
+    private long startNanos;
+    private long startMillis;
+    private boolean recorded;
+    
+    HandshakeObservingSslEngine(SSLEngine delegate, TlsHandshakeMetrics metrics) {
+        super(delegate.getPeerHost(), delegate.getPeerPort());
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+    
+    @Override
+    public SSLEngineResult wrap(ByteBuffer[] sources, int offset, int length, ByteBuffer destination) throws SSLException {
+        started();
+        try {
+            return observe(delegate.wrap(sources, offset, length, destination));
+        } catch (SSLException e) {
+            failed();
+            throw e;
+        }
+    }
+    
+    @Override
+    public SSLEngineResult unwrap(ByteBuffer source, ByteBuffer[] destinations, int offset, int length) throws SSLException {
+        started();
+        try {
+            return observe(delegate.unwrap(source, destinations, offset, length));
+        } catch (SSLException e) {
+            failed();
+            throw e;
+        }
+    }
+    
+    private void started() {
+        if (startNanos == 0 && !recorded) {
+            startNanos = System.nanoTime();
+            startMillis = System.currentTimeMillis();
+        }
+    }
+    
+    private SSLEngineResult observe(SSLEngineResult result) {
+        if (!recorded && result.getHandshakeStatus() == HandshakeStatus.FINISHED) {
+            recorded = true;
+            SSLSession session = delegate.getSession();
+            String type = session.getCreationTime() < startMillis ? TlsHandshakeMetrics.RESUMED : TlsHandshakeMetrics.FULL;
+            metrics.handshake(type, session.getProtocol(), session.getCipherSuite(), System.nanoTime() - startNanos);
+        }
+        return result;
+    }
+    
+    private void failed() {
+        if (!recorded) {
+            recorded = true;
+            metrics.failure();
+        }
+    }
+    
+    @Override
+    public Runnable getDelegatedTask() {
+        return delegate.getDelegatedTask();
+    }
+    
+    @Override
+    public void closeInbound() throws SSLException {
+        delegate.closeInbound();
+    }
+    
+    @Override
+    public boolean isInboundDone() {
+        return delegate.isInboundDone();
+    }
+    
+    @Override
+    public void closeOutbound() {
+        delegate.closeOutbound();
+    }
+    
+    @Override
+    public boolean isOutboundDone() {
+        return delegate.isOutboundDone();
+    }
+    
+    @Override
+    public String[] getSupportedCipherSuites() {
+        return delegate.getSupportedCipherSuites();
+    }
+    
+    @Override
+    public String[] getEnabledCipherSuites() {
+        return delegate.getEnabledCipherSuites();
+    }
+    
+    @Override
+    public void setEnabledCipherSuites(String[] suites) {
+        delegate.setEnabledCipherSuites(suites);
+    }
+    
+    @Override
+    public String[] getSupportedProtocols() {
+        return delegate.getSupportedProtocols();
+    }
+    
+    @Override
+    public String[] getEnabledProtocols() {
+        return delegate.getEnabledProtocols();
+    }
+    
+    @Override
+    public void setEnabledProtocols(String[] protocols) {
+        delegate.setEnabledProtocols(protocols);
+    }
+    
+    @Override
+    public SSLSession getSession() {
+        return delegate.getSession();
+    }
+    
+    @Override
+    public SSLSession getHandshakeSession() {
+        return delegate.getHandshakeSession();
+    }
+    
+    @Override
+    public void beginHandshake() throws SSLException {
+        delegate.beginHandshake();
+    }
+    
+    @Override
+    public HandshakeStatus getHandshakeStatus() {
+        return delegate.getHandshakeStatus();
+    }
+    
+    @Override
+    public void setUseClientMode(boolean mode) {
+        delegate.setUseClientMode(mode);
+    }
+    
+    @Override
+    public boolean getUseClientMode() {
+        return delegate.getUseClientMode();
+    }
+    
+    @Override
+    public void setNeedClientAuth(boolean need) {
+        delegate.setNeedClientAuth(need);
+    }
+    
+    @Override
+    public boolean getNeedClientAuth() {
+        return delegate.getNeedClientAuth();
+    }
+    
+    @Override
+    public void setWantClientAuth(boolean want) {
+        delegate.setWantClientAuth(want);
+    }
+    
+    @Override
+    public boolean getWantClientAuth() {
+        return delegate.getWantClientAuth();
+    }
+    
+    @Override
+    public void setEnableSessionCreation(boolean flag) {
+        delegate.setEnableSessionCreation(flag);
+    }
+    
+    @Override
+    public boolean getEnableSessionCreation() {
+        return delegate.getEnableSessionCreation();
+    }
+    
+    @Override
+    public SSLParameters getSSLParameters() {
+        return delegate.getSSLParameters();
+    }
+    
+    @Override
+    public void setSSLParameters(SSLParameters parameters) {
+        delegate.setSSLParameters(parameters);
+    }
+    
+    // O Tomcat obtém o protocolo ALPN por esta interface quando o engine a implementa
+    @Override
+    public String getNegotiatedProtocol() {
+        return delegate instanceof SSLUtil.ProtocolInfo info ? info.getNegotiatedProtocol() : delegate.getApplicationProtocol();
+    }
+    
+    @Override
+    public String getApplicationProtocol() {
+        return delegate.getApplicationProtocol();
+    }
+    
+    @Override
+    public String getHandshakeApplicationProtocol() {
+        return delegate.getHandshakeApplicationProtocol();
+    }
+    
+    @Override
+    public void setHandshakeApplicationProtocolSelector(BiFunction<SSLEngine, List<String>, String> selector) {
+        delegate.setHandshakeApplicationProtocolSelector(selector);
+    }
+    
+    @Override
+    public BiFunction<SSLEngine, List<String>, String> getHandshakeApplicationProtocolSelector() {
+        return delegate.getHandshakeApplicationProtocolSelector();
+    }
+}
@@ -0,0 +1,160 @@
+package br.gov.sp.tce.icp_brasil_authenticator.security.tls;
+
+import java.security.KeyManagementException;
+import java.security.SecureRandom;
+import java.security.cert.X509Certificate;
+import java.util.List;
+import java.util.Map;
+
+import javax.net.ssl.KeyManager;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLServerSocketFactory;
+import javax.net.ssl.SSLSession;
+import javax.net.ssl.SSLSessionContext;
+import javax.net.ssl.TrustManager;
+
+import org.apache.tomcat.util.net.SSLContext;
+import org.apache.tomcat.util.net.SSLHostConfig;
+import org.apache.tomcat.util.net.SSLHostConfigCertificate;
+import org.apache.tomcat.util.net.SSLImplementation;
+import org.apache.tomcat.util.net.SSLSupport;
+import org.apache.tomcat.util.net.SSLUtil;
+import org.apache.tomcat.util.net.jsse.JSSEImplementation;
+import org.apache.tomcat.util.net.openssl.OpenSSLImplementation;
+import org.apache.tomcat.util.net.openssl.OpenSSLStatus;
+
+import br.gov.sp.tce.icp_brasil_authenticator.configuration.LoggingConfiguration;
+import br.gov.sp.tce.icp_brasil_authenticator.configuration.TlsProperties;
+import br.gov.sp.tce.icp_brasil_authenticator.configuration.TlsProperties.Engine;
+
+// Implementação SSL do conector: delega ao engine configurado (JSSE ou OpenSSL via tomcat-native),
+// aplica cache e timeout de sessão a cada SSLHostConfig (inclusive nas recargas do bundle, que o
+// recriam) e instrumenta os handshakes. O Tomcat a instancia por reflexão, por isso a configuração
+// é estática (ver TlsConfiguration).
+public class InstrumentedSslImplementation extends SSLImplementation {
+    
+    private static volatile TlsProperties properties = new TlsProperties();
+    private static volatile TlsHandshakeMetrics metrics;
+    
+    private final SSLImplementation delegate;
+    
+    public InstrumentedSslImplementation() {
+        Engine engine = effectiveEngine(properties.getEngine());
+        this.delegate = engine == Engine.OPENSSL ? new OpenSSLImplementation() : new JSSEImplementation();
+        TlsHandshakeMetrics current = metrics;
+        if (current != null) {
+            current.engine(engine);
+        }
+        LoggingConfiguration.TRANSACAO_LOG.info("Engine TLS do conector: {}", engine);
+    }
+    
+    public static void configure(TlsProperties properties, TlsHandshakeMetrics metrics) {
+        InstrumentedSslImplementation.properties = properties;
+        InstrumentedSslImplementation.metrics = metrics;
+    }
+    
+    // OpenSSL depende da libtcnative carregada pelo AprLifecycleListener; sem ela o conector segue com JSSE
+    static Engine effectiveEngine(Engine configured) {
+        if (configured == Engine.OPENSSL && !OpenSSLStatus.isAvailable()) {
+            LoggingConfiguration.TRANSACAO_LOG.warn("Engine TLS OPENSSL indisponível (tomcat-native não carregado); usando JSSE");
+            return Engine.JSSE;
+        }
+        return configured;
+    }
+    
+    @Override
+    public SSLSupport getSSLSupport(SSLSession session, Map<String, List<String>> additionalAttributes) {
+        return delegate.getSSLSupport(session, additionalAttributes);
+    }
+    
+    // Os dois engines leem cache, timeout e tickets do SSLHostConfig ao criar o SSLContext. Os
+    // tickets do JSSE dependem também das propriedades jdk.tls.server.* (ver TlsConfiguration).
+    @Override
+    public SSLUtil getSSLUtil(SSLHostConfigCertificate certificate) {
+        TlsProperties current = properties;
+        SSLHostConfig hostConfig = certificate.getSSLHostConfig();
+        hostConfig.setSessionCacheSize(current.getSessionCacheSize());
+        hostConfig.setSessionTimeout((int) current.getSessionTimeout().toSeconds());
+        hostConfig.setDisableSessionTickets(!current.getSessionTickets().isEnabled());
+        return new Util(delegate.getSSLUtil(certificate));
+    }
+    
+    private record Util(SSLUtil delegate) implements SSLUtil {
+        
+        @Override
+        public SSLContext createSSLContext(List<String> negotiableProtocols) throws Exception {
+            return new Context(delegate.createSSLContext(negotiableProtocols));
+        }
+        
+        @Override
+        public void configureSessionContext(SSLSessionContext sessionContext) {
+            delegate.configureSessionContext(sessionContext);
+        }
+        
+        @Override
+        public KeyManager[] getKeyManagers() throws Exception {
+            return delegate.getKeyManagers();
+        }
+        
+        @Override
+        public TrustManager[] getTrustManagers() throws Exception {
+            return delegate.getTrustManagers();
+        }
+        
+        @Override
+        public String[] getEnabledProtocols() {
+            return delegate.getEnabledProtocols();
+        }
+        
+        @Override
+        public String[] getEnabledCiphers() {
+            return delegate.getEnabledCiphers();
+        }
+    }
+    
+    private record Context(SSLContext delegate) implements SSLContext {
+        
+        @Override
+        public void init(KeyManager[] keyManagers, TrustManager[] trustManagers, SecureRandom random) throws KeyManagementException {
+            delegate.init(keyManagers, trustManagers, random);
+        }
+        
+        @Override
+        public void destroy() {
+            delegate.destroy();
+        }
+        
+        @Override
+        public SSLSessionContext getServerSessionContext() {
+            return delegate.getServerSessionContext();
+        }
+        
+        @Override
+        public SSLEngine createSSLEngine() {
+            SSLEngine engine = delegate.createSSLEngine();
+            TlsHandshakeMetrics current = metrics;
+            return current == null ? engine : new HandshakeObservingSslEngine(engine, current);
+        }
+        
+        @Override
+        public SSLServerSocketFactory getServerSocketFactory() {
+            return delegate.getServerSocketFactory();
+        }
+        
+        @Override
+        public SSLParameters getSupportedSSLParameters() {
+            return delegate.getSupportedSSLParameters();
+        }
+        
+        @Override
+        public X509Certificate[] getCertificateChain(String alias) {
+            return delegate.getCertificateChain(alias);
+        }
+        
+        @Override
+        public X509Certificate[] getAcceptedIssuers() {
+            return delegate.getAcceptedIssuers();
+        }
+    }
+}
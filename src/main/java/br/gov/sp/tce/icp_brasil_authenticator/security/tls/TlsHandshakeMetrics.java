@@ -0,0 +1,74 @@
+package br.gov.sp.tce.icp_brasil_authenticator.security.tls;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.stereotype.Component;
+
+import br.gov.sp.tce.icp_brasil_authenticator.configuration.TlsProperties.Engine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+// Handshakes TLS do conector HTTPS: completos x retomados, duração, protocolo e cifra negociados.
+// Protocolos e cifras são limitados pelo que o conector habilita, então os tags têm cardinalidade baixa.
+@Component
+public class TlsHandshakeMetrics {
+    
+    public static final String FULL = "full";
+    public static final String RESUMED = "resumed";
+    
+    private final MeterRegistry meterRegistry;
+    private final Map<Tags, Meters> meters = new ConcurrentHashMap<>();
+    private final Counter failures;
+    
+    public TlsHandshakeMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.failures = Counter.builder("tls.handshake.failures")
+            .description("Handshakes TLS interrompidos por erro (certificado recusado, protocolo ou cifra incompatível)")
+            .register(meterRegistry);
+    }
+    
+    public void handshake(String type, String protocol, String cipherSuite, long durationNanos) {
+        Meters handshake = meters.computeIfAbsent(new Tags(type, protocol, cipherSuite), this::register);
+        handshake.count().increment();
+        handshake.duration().record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+    
+    public void failure() {
+        failures.increment();
+    }
+    
+    // Engine efetivamente em uso no conector (pode diferir do configurado quando o OpenSSL falta)
+    public void engine(Engine engine) {
+        Gauge.builder("tls.engine", () -> 1)
+            .description("Implementação TLS em uso no conector HTTPS")
+            .tag("engine", engine.name().toLowerCase())
+            .register(meterRegistry);
+    }
+    
+    private Meters register(Tags tags) {
+        Counter count = Counter.builder("tls.handshakes")
+            .description("Handshakes TLS concluídos")
+            .tag("type", tags.type())
+            .tag("protocol", tags.protocol())
+            .tag("cipher", tags.cipherSuite())
+            .register(meterRegistry);
+        // Do primeiro registro TLS ao Finished; inclui a ida e volta com o cliente
+        Timer duration = Timer.builder("tls.handshake.duration")
+            .description("Duração dos handshakes TLS")
+            .tag("type", tags.type())
+            .tag("protocol", tags.protocol())
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+        return new Meters(count, duration);
+    }
+    
+    private record Tags(String type, String protocol, String cipherSuite) {
+    }
+    
+    private record Meters(Counter count, Timer duration) {
+    }
+}
@@ -0,0 +1,191 @@
+package br.gov.sp.tce.icp_brasil_authenticator.benchmark;
+
+import java.security.PublicKey;
+import java.security.cert.X509Certificate;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.gov.sp.tce.icp_brasil_authenticator.configuration.AuditProperties;
+import br.gov.sp.tce.icp_brasil_authenticator.configuration.CertificateCacheProperties;
+import br.gov.sp.tce.icp_brasil_authenticator.configuration.RevocationProperties;
+import br.gov.sp.tce.icp_brasil_authenticator.configuration.TrustProperties;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.audit.AuditEvent;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.audit.AuditPipeline;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.audit.AuditSink;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.certificate.DistinguishedName;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.certificate.IcpBrasilExtensions;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.dto.CertificateDTO;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.revocation.CrlRevocationService;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.revocation.OcspRevocationService;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.revocation.RevocationService;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.service.CertificateDataCache;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.service.CertificateValidationService;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.trust.CertificateChainValidator;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.trust.TrustedCertificates;
+import br.gov.sp.tce.icp_brasil_authenticator.support.IcpBrasilTestCertificates;
+import br.gov.sp.tce.icp_brasil_authenticator.support.IcpBrasilTestCertificates.Issuer;
+import br.gov.sp.tce.icp_brasil_authenticator.support.IcpBrasilTestCertificates.KeyType;
+import br.gov.sp.tce.icp_brasil_authenticator.metrics.ValidationMetrics;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// Caminho quente do processamento de certificados, sobre cadeias de 1, 3 e 4 níveis com chaves
+// RSA-2048, RSA-4096 e ECDSA P-256. Rodar com o perfil benchmark (alocação via -prof gc):
+// mvn -Pbenchmark verify -DskipTests -Djmh.includes=CertificateProcessingBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CertificateProcessingBenchmark {
+    
+    private static final int CORPUS_SIZE = 32;
+    
+    @Param({"1", "3", "4"})
+    public int chainLength;
+    
+    @Param({"RSA_2048", "RSA_4096", "EC_P256"})
+    public KeyType keyType;
+    
+    private X509Certificate[][] chains;
+    private int next;
+    
+    private CertificateValidationService uncachedService;
+    private CertificateValidationService cachedService;
+    private AuditPipeline auditPipeline;
+    private ObjectMapper objectMapper;
+    private CertificateDTO validated;
+    
+    @Setup
+    public void setUp() {
+        // Logs de transação por requisição distorcem a medição
+        ((Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+        
+        Issuer[] authorities = IcpBrasilTestCertificates.authorities(chainLength, keyType);
+        chains = new X509Certificate[CORPUS_SIZE][];
+        for (int i = 0; i < CORPUS_SIZE; i++) {
+            PublicKey publicKey = keyType.generate().getPublic();
+            String cpf = String.format("%011d", 10_000_000_000L + i * 7919L);
+            X509Certificate leaf = (i & 1) == 0
+                ? IcpBrasilTestCertificates.eCpf("TITULAR " + i, cpf, LocalDate.of(1970 + i % 30, 1 + i % 12, 1 + i % 28),
+                    IcpBrasilTestCertificates.POLICY_A3, publicKey, authorities[0])
+                : IcpBrasilTestCertificates.eCnpj("EMPRESA " + i + " LTDA", "123" + cpf, "RESPONSAVEL " + i, cpf,
+                    IcpBrasilTestCertificates.POLICY_A1, publicKey, authorities[0]);
+            chains[i] = IcpBrasilTestCertificates.chain(leaf, authorities, chainLength);
+        }
+        
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        auditPipeline = new AuditPipeline(new AuditProperties(), new DiscardingSink(), null, meterRegistry);
+        auditPipeline.start();
+        
+        TrustedCertificates trustedCertificates = new TrustedCertificates(List.of(authorities[authorities.length - 1].certificate()));
+        CertificateCacheProperties disabledCache = new CertificateCacheProperties();
+        disabledCache.setEnabled(false);
+        uncachedService = service(disabledCache, trustedCertificates, meterRegistry);
+        cachedService = service(new CertificateCacheProperties(), trustedCertificates, new SimpleMeterRegistry());
+        
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        validated = uncachedService.validateCertificate(chains[0], "10.0.0.1", "Mozilla/5.0");
+    }
+    
+    @TearDown
+    public void tearDown() {
+        auditPipeline.stop();
+    }
+    
+    private CertificateValidationService service(CertificateCacheProperties cacheProperties,
+                                                 TrustedCertificates trustedCertificates, SimpleMeterRegistry meterRegistry) {
+        RevocationProperties revocationProperties = new RevocationProperties();
+        TrustProperties trustProperties = new TrustProperties();
+        CertificateChainValidator chainValidator = new CertificateChainValidator(trustedCertificates, trustProperties, meterRegistry);
+        return new CertificateValidationService(
+            new CertificateDataCache(cacheProperties, meterRegistry),
+            auditPipeline,
+            new RevocationService(
+                new CrlRevocationService(revocationProperties, trustedCertificates, meterRegistry),
+                new OcspRevocationService(revocationProperties, meterRegistry),
+                trustedCertificates, chainValidator),
+            chainValidator,
+            trustProperties,
+            new ValidationMetrics(meterRegistry, 100));
+    }
+    
+    private X509Certificate[] nextChain() {
+        X509Certificate[] chain = chains[next];
+        next = (next + 1) % CORPUS_SIZE;
+        return chain;
+    }
+    
+    // Login de um certificado ainda não visto (sem cache de dados)
+    @Benchmark
+    public CertificateDTO validateCertificate() {
+        return uncachedService.validateCertificate(nextChain(), "10.0.0.1", "Mozilla/5.0");
+    }
+    
+    // Login repetido do mesmo titular (dados vindos do CertificateDataCache)
+    @Benchmark
+    public CertificateDTO validateCertificateCached() {
+        return cachedService.validateCertificate(nextChain(), "10.0.0.1", "Mozilla/5.0");
+    }
+    
+    @Benchmark
+    public String generateSHA256Fingerprint() {
+        return CertificateValidationService.generateSHA256Fingerprint(nextChain()[0]);
+    }
+    
+    // Equivalente atual de extractCommonName, extractCpf e extractEmail
+    @Benchmark
+    public void extractCommonNameCpfEmail(Blackhole bh) {
+        X509Certificate certificate = nextChain()[0];
+        DistinguishedName subject = DistinguishedName.parse(certificate.getSubjectX500Principal().getName());
+        IcpBrasilExtensions icpBrasil = IcpBrasilExtensions.decode(certificate);
+        bh.consume(subject.getCommonNameOrName());
+        bh.consume(icpBrasil.getCpf() != null ? icpBrasil.getCpf() : subject.getCpf());
+        bh.consume(icpBrasil.getEmail() != null ? icpBrasil.getEmail() : subject.getEmail());
+    }
+    
+    @Benchmark
+    public void createCertificateChainInfo(Blackhole bh) {
+        for (X509Certificate certificate : nextChain()) {
+            bh.consume(CertificateValidationService.createCertificateChainInfo(certificate));
+        }
+    }
+    
+    @Benchmark
+    public byte[] jacksonSerialization() throws Exception {
+        return objectMapper.writeValueAsBytes(validated);
+    }
+    
+    private static final class DiscardingSink implements AuditSink {
+        
+        @Override
+        public String name() {
+            return "discard";
+        }
+        
+        @Override
+        public void write(List<AuditEvent> batch) {
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package br.gov.sp.tce.icp_brasil_authenticator.benchmark;
+
+import java.security.cert.CertPathBuilder;
+import java.security.cert.CertStore;
+import java.security.cert.CollectionCertStoreParameters;
+import java.security.cert.PKIXBuilderParameters;
+import java.security.cert.TrustAnchor;
+import java.security.cert.X509CertSelector;
+import java.security.cert.X509Certificate;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import br.gov.sp.tce.icp_brasil_authenticator.configuration.TrustProperties;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.trust.CertificateChainValidator;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.trust.TrustedCertificates;
+import br.gov.sp.tce.icp_brasil_authenticator.support.IcpBrasilTestCertificates;
+import br.gov.sp.tce.icp_brasil_authenticator.support.IcpBrasilTestCertificates.Issuer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// Custo por requisição da validação de cadeia conforme cresce a quantidade de ACs no truststore:
+// validador indexado (AKI/SKI + cache de assinaturas) contra CertPathBuilder PKIX montado a cada chamada
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChainValidationBenchmark {
+    
+    @Param({"10", "100", "1000"})
+    public int anchorCount;
+    
+    private X509Certificate[] chain;
+    private List<X509Certificate> truststore;
+    private CertificateChainValidator validator;
+    
+    @Setup
+    public void setUp() {
+        Issuer root = IcpBrasilTestCertificates.selfSignedAuthority(
+            "CN=AC Raiz Benchmark,O=ICP-Brasil,C=BR", IcpBrasilTestCertificates.ecKeyPair());
+        Issuer intermediate = IcpBrasilTestCertificates.subordinateAuthority(
+            "CN=AC Intermediaria Benchmark,O=ICP-Brasil,C=BR", IcpBrasilTestCertificates.ecKeyPair(), root);
+        X509Certificate leaf = IcpBrasilTestCertificates.eCpf("TITULAR BENCHMARK", "12345678901",
+            LocalDate.of(1980, 1, 1), IcpBrasilTestCertificates.POLICY_A3,
+            IcpBrasilTestCertificates.ecKeyPair().getPublic(), intermediate);
+        chain = new X509Certificate[] {leaf, intermediate.certificate()};
+        
+        // A raiz verdadeira fica no meio de anchorCount ACs sem relação com o certificado
+        truststore = new ArrayList<>(anchorCount);
+        for (int i = 0; i < anchorCount - 1; i++) {
+            truststore.add(IcpBrasilTestCertificates.selfSignedAuthority(
+                "CN=AC Raiz " + i + ",O=ICP-Brasil,C=BR", IcpBrasilTestCertificates.ecKeyPair()).certificate());
+        }
+        truststore.add(truststore.size() / 2, root.certificate());
+        
+        validator = new CertificateChainValidator(new TrustedCertificates(truststore), new TrustProperties(), new SimpleMeterRegistry());
+    }
+    
+    @Benchmark
+    public Object indexedValidator() {
+        return validator.validate(chain);
+    }
+    
+    @Benchmark
+    public Object pkixCertPathBuilder() throws Exception {
+        Set<TrustAnchor> anchors = new HashSet<>(truststore.size());
+        for (X509Certificate certificate : truststore) {
+            anchors.add(new TrustAnchor(certificate, null));
+        }
+        X509CertSelector target = new X509CertSelector();
+        target.setCertificate(chain[0]);
+        
+        PKIXBuilderParameters parameters = new PKIXBuilderParameters(anchors, target);
+        parameters.setRevocationEnabled(false);
+        parameters.addCertStore(CertStore.getInstance("Collection", new CollectionCertStoreParameters(List.of(chain))));
+        return CertPathBuilder.getInstance("PKIX").build(parameters);
+    }
+}
@@ -0,0 +1,109 @@
+package br.gov.sp.tce.icp_brasil_authenticator.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.security.auth.x500.X500Principal;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import br.gov.sp.tce.icp_brasil_authenticator.domain.certificate.DistinguishedName;
+
+// Compara o parser de DN em passada única com as extrações por regex/split usadas
+// anteriormente no CertificateValidationService e no CertificateLoggingFilter
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DistinguishedNameBenchmark {
+    
+    private static final Pattern CPF_PATTERN = Pattern.compile("(\\d{11})");
+    private static final Pattern EMAIL_PATTERN = Pattern.compile("([a-zA-Z0-9._%+-]+@[a-zA-Z0-9.-]+\\.[a-zA-Z]{2,})");
+    
+    private String subjectDN;
+    
+    @Setup
+    public void setUp() {
+        subjectDN = new X500Principal("CN=FULANO DE TAL DA SILVA:12345678901, OU=videoconferencia, "
+            + "OU=12345678000199, OU=RFB e-CPF A3, OU=Secretaria da Receita Federal do Brasil - RFB, "
+            + "O=ICP-Brasil, L=Sao Paulo, ST=SP, C=BR, EMAILADDRESS=fulano@example.com").getName();
+    }
+    
+    @Benchmark
+    public void singlePassParser(Blackhole bh) {
+        DistinguishedName dn = DistinguishedName.parse(subjectDN);
+        bh.consume(dn.getCommonNameOrName());
+        bh.consume(dn.getCpf());
+        bh.consume(dn.getEmail());
+    }
+    
+    @Benchmark
+    public void legacyServiceRegex(Blackhole bh) {
+        bh.consume(legacyExtractCommonName(subjectDN));
+        bh.consume(legacyFind(CPF_PATTERN, subjectDN));
+        bh.consume(legacyFind(EMAIL_PATTERN, subjectDN));
+    }
+    
+    @Benchmark
+    public void legacyFilterSplit(Blackhole bh) {
+        String cn = legacyExtractFromDN(subjectDN, "CN");
+        bh.consume(cn);
+        bh.consume(legacyExtractCPFFromCN(cn));
+        bh.consume(legacyExtractFromDN(subjectDN, "EMAILADDRESS"));
+    }
+    
+    private static String legacyExtractCommonName(String distinguishedName) {
+        Pattern pattern = Pattern.compile("CN=([^,]+)");
+        Matcher matcher = pattern.matcher(distinguishedName);
+        if (matcher.find()) {
+            return matcher.group(1).trim();
+        }
+        return distinguishedName;
+    }
+    
+    private static String legacyFind(Pattern pattern, String subjectName) {
+        Matcher matcher = pattern.matcher(subjectName);
+        if (matcher.find()) {
+            return matcher.group(1);
+        }
+        return null;
+    }
+    
+    private static String legacyExtractFromDN(String dn, String attribute) {
+        String[] parts = dn.split(",");
+        for (String part : parts) {
+            part = part.trim();
+            if (part.startsWith(attribute + "=")) {
+                return part.substring(attribute.length() + 1);
+            }
+        }
+        return null;
+    }
+    
+    private static String legacyExtractCPFFromCN(String cn) {
+        if (cn == null) return null;
+        if (cn.contains(":")) {
+            String[] parts = cn.split(":");
+            for (String part : parts) {
+                part = part.trim();
+                if (part.matches("\\d{11}")) {
+                    return part;
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,91 @@
+package br.gov.sp.tce.icp_brasil_authenticator.benchmark;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.security.cert.X509Certificate;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import br.gov.sp.tce.icp_brasil_authenticator.domain.certificate.ForwardedCertificateDecoder;
+import br.gov.sp.tce.icp_brasil_authenticator.support.IcpBrasilTestCertificates;
+import br.gov.sp.tce.icp_brasil_authenticator.support.IcpBrasilTestCertificates.Issuer;
+import br.gov.sp.tce.icp_brasil_authenticator.support.IcpBrasilTestCertificates.KeyType;
+
+// Decodificação do certificado repassado pelo proxy (PEM com URL-encoding, certificado e cadeia
+// de 2 ACs, como no nginx e no XFCC do Envoy): sem cache, todo login refaz percent-decoding, base64
+// e parse do CertificateFactory; com cache, resta o SHA-256 do cabeçalho e o lookup.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ForwardedCertificateBenchmark {
+    
+    private ForwardedCertificateDecoder cold;
+    private ForwardedCertificateDecoder warm;
+    private String header;
+    private String chainHeader;
+    private String xfcc;
+    
+    @Setup
+    public void setUp() throws Exception {
+        cold = new ForwardedCertificateDecoder(0, Duration.ofHours(1), null);
+        warm = new ForwardedCertificateDecoder(10_000, Duration.ofHours(1), null);
+        
+        Issuer[] authorities = IcpBrasilTestCertificates.authorities(3, KeyType.RSA_2048);
+        X509Certificate leaf = IcpBrasilTestCertificates.eCpf("JOAO DA SILVA", "12345678901", LocalDate.of(1980, 1, 1),
+            IcpBrasilTestCertificates.POLICY_A1, IcpBrasilTestCertificates.defaultKeyPair().getPublic(), authorities[0]);
+        header = escape(pem(leaf));
+        chainHeader = escape(pem(authorities[0].certificate()) + pem(authorities[1].certificate()));
+        xfcc = "By=spiffe://cluster.local/ns/default/sa/authenticator;Hash=0f;Cert=\"" + header + "\";Chain=\""
+            + escape(pem(leaf) + pem(authorities[0].certificate()) + pem(authorities[1].certificate()))
+            + "\";Subject=\"CN=JOAO DA SILVA:12345678901,OU=RFB e-CPF A1,O=ICP-Brasil,C=BR\";URI=";
+        
+        warm.decode(header, chainHeader);
+        warm.decodeXfcc(xfcc);
+    }
+    
+    @Benchmark
+    public X509Certificate[] headerCold() {
+        return cold.decode(header, chainHeader);
+    }
+    
+    @Benchmark
+    public X509Certificate[] headerWarm() {
+        return warm.decode(header, chainHeader);
+    }
+    
+    @Benchmark
+    public X509Certificate[] xfccCold() {
+        return cold.decodeXfcc(xfcc);
+    }
+    
+    @Benchmark
+    public X509Certificate[] xfccWarm() {
+        return warm.decodeXfcc(xfcc);
+    }
+    
+    private static String escape(String pem) {
+        return URLEncoder.encode(pem, StandardCharsets.UTF_8).replace("+", "%20");
+    }
+    
+    private static String pem(X509Certificate certificate) throws Exception {
+        return "-----BEGIN CERTIFICATE-----\n"
+            + Base64.getMimeEncoder(64, "\n".getBytes(StandardCharsets.US_ASCII)).encodeToString(certificate.getEncoded())
+            + "\n-----END CERTIFICATE-----\n";
+    }
+}
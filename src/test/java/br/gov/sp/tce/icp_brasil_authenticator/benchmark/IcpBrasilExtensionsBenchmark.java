@@ -0,0 +1,77 @@
+package br.gov.sp.tce.icp_brasil_authenticator.benchmark;
+
+import java.security.cert.CertificateParsingException;
+import java.security.cert.X509Certificate;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import br.gov.sp.tce.icp_brasil_authenticator.domain.certificate.IcpBrasilExtensions;
+import br.gov.sp.tce.icp_brasil_authenticator.support.IcpBrasilTestCertificates;
+
+// Vazão do decodificador de otherName ICP-Brasil sobre um corpus misto de e-CPF e e-CNPJ,
+// comparado à API getSubjectAlternativeNames() do JDK
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IcpBrasilExtensionsBenchmark {
+    
+    private static final int CORPUS_SIZE = 64;
+    
+    private X509Certificate[] corpus;
+    private int next;
+    
+    @Setup
+    public void setUp() {
+        corpus = new X509Certificate[CORPUS_SIZE];
+        for (int i = 0; i < CORPUS_SIZE; i++) {
+            String document = String.format("%011d", 10_000_000_000L + i * 7919L);
+            corpus[i] = (i & 1) == 0
+                ? IcpBrasilTestCertificates.eCpf("TITULAR " + i, document, LocalDate.of(1970 + i % 30, 1 + i % 12, 1 + i % 28),
+                    IcpBrasilTestCertificates.POLICY_A3)
+                : IcpBrasilTestCertificates.eCnpj("EMPRESA " + i + " LTDA", "123" + document, "RESPONSAVEL " + i,
+                    document, IcpBrasilTestCertificates.POLICY_A1);
+        }
+    }
+    
+    private X509Certificate nextCertificate() {
+        X509Certificate certificate = corpus[next];
+        next = (next + 1) % CORPUS_SIZE;
+        return certificate;
+    }
+    
+    @Benchmark
+    public void streamingDecoder(Blackhole bh) {
+        IcpBrasilExtensions extensions = IcpBrasilExtensions.decode(nextCertificate());
+        bh.consume(extensions.getCpf());
+        bh.consume(extensions.getCnpj());
+        bh.consume(extensions.getCertificateType());
+    }
+    
+    @Benchmark
+    public void jdkSubjectAlternativeNames(Blackhole bh) throws CertificateParsingException {
+        // Apenas localiza os otherName; o decodificador acima já entrega os campos prontos
+        Collection<List<?>> names = nextCertificate().getSubjectAlternativeNames();
+        for (List<?> name : names) {
+            if (Integer.valueOf(0).equals(name.get(0))) {
+                bh.consume(name.get(1));
+            }
+        }
+    }
+}
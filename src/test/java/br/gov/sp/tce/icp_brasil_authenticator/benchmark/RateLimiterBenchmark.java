@@ -0,0 +1,73 @@
+package br.gov.sp.tce.icp_brasil_authenticator.benchmark;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import br.gov.sp.tce.icp_brasil_authenticator.security.ratelimit.RateLimiter;
+
+// Custo do limite de taxa no caminho aceito com 32 threads disputando a mesma tabela: chaves
+// distintas por thread (logins de usuários diferentes) e uma única chave para todas as threads
+// (pior caso de contenção no CAS do mesmo bucket). Os limites são altos para nada ser recusado.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(32)
+public class RateLimiterBenchmark {
+    
+    private RateLimiter limiter;
+    
+    @Setup
+    public void setUp() {
+        limiter = new RateLimiter(1_000_000_000, 1_000_000, 65_536);
+    }
+    
+    @State(Scope.Thread)
+    public static class Keys {
+        
+        private final String[] addresses = new String[1024];
+        private int next;
+        
+        @Setup
+        public void setUp() {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < addresses.length; i++) {
+                addresses[i] = "10." + random.nextInt(256) + "." + random.nextInt(256) + "." + random.nextInt(256);
+            }
+        }
+        
+        String next() {
+            return addresses[next++ & (addresses.length - 1)];
+        }
+    }
+    
+    // Referência: só a escolha da chave
+    @Benchmark
+    public String baseline(Keys keys) {
+        return keys.next();
+    }
+    
+    @Benchmark
+    public long distinctKeys(Keys keys) {
+        return limiter.tryAcquire(keys.next());
+    }
+    
+    @Benchmark
+    public long sharedKey() {
+        return limiter.tryAcquire("10.0.0.1");
+    }
+}
@@ -0,0 +1,121 @@
+package br.gov.sp.tce.icp_brasil_authenticator.benchmark;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import br.gov.sp.tce.icp_brasil_authenticator.configuration.CertificateCacheProperties;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.dto.CertificateDTO;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.serialization.CertificateResponseConverter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// Serialização da resposta do /validate em cada formato: ObjectMapper completo a cada requisição
+// (como o conversor Jackson padrão) e CertificateResponseConverter, com a parte do certificado
+// já em cache (login repetido). O tamanho de cada resposta é impresso no início da execução.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseSerializationBenchmark {
+    
+    @Param({ "JSON", "CBOR", "SMILE" })
+    private String format;
+    
+    private MediaType mediaType;
+    private ObjectWriter objectWriter;
+    private CertificateResponseConverter converter;
+    private CertificateDTO certificate;
+    
+    @Setup
+    public void setUp() throws Exception {
+        JsonFactory factory = switch (format) {
+            case "CBOR" -> new CBORFactory();
+            case "SMILE" -> new SmileFactory();
+            default -> new JsonFactory();
+        };
+        mediaType = switch (format) {
+            case "CBOR" -> MediaType.APPLICATION_CBOR;
+            case "SMILE" -> CertificateResponseConverter.APPLICATION_SMILE;
+            default -> MediaType.APPLICATION_JSON;
+        };
+        objectWriter = new Jackson2ObjectMapperBuilder().factory(factory).build().writerFor(CertificateDTO.class);
+        converter = new CertificateResponseConverter(new Jackson2ObjectMapperBuilder(), new CertificateCacheProperties(),
+            new SimpleMeterRegistry());
+        certificate = certificate();
+        
+        System.out.printf("%n%s: %d bytes (ObjectMapper), %d bytes (CertificateResponseConverter)%n", format,
+            objectWriter.writeValueAsBytes(certificate).length, converter.write(certificate, mediaType).length);
+    }
+    
+    @Benchmark
+    public byte[] objectMapper() throws Exception {
+        return objectWriter.writeValueAsBytes(certificate);
+    }
+    
+    @Benchmark
+    public byte[] cachedCertificatePart() throws Exception {
+        return converter.write(certificate, mediaType);
+    }
+    
+    private static CertificateDTO certificate() {
+        LocalDateTime now = LocalDateTime.now();
+        return CertificateDTO.builder()
+            .subjectName("JOAO DA SILVA")
+            .cpf("12345678901")
+            .email("joao.silva@example.com")
+            .issuerName("AC SOLUTI Multipla v5")
+            .serialNumber("6E2F1A0C9B3D4E5F")
+            .notBefore(now.minusYears(1))
+            .notAfter(now.plusYears(2))
+            .valid(true)
+            .revocationStatus("GOOD")
+            .revocationMethod("OCSP")
+            .chainStatus("TRUSTED")
+            .trustAnchor("Autoridade Certificadora Raiz Brasileira v10")
+            .certificateChain(List.of(
+                new CertificateDTO.CertificateChainDTO("JOAO DA SILVA:12345678901", "AC SOLUTI Multipla v5",
+                    "6E2F1A0C9B3D4E5F", now.minusYears(1), now.plusYears(2), false),
+                new CertificateDTO.CertificateChainDTO("AC SOLUTI Multipla v5", "AC SOLUTI v5", "0A1B2C3D",
+                    now.minusYears(5), now.plusYears(5), false),
+                new CertificateDTO.CertificateChainDTO("AC SOLUTI v5", "Autoridade Certificadora Raiz Brasileira v10",
+                    "0F", now.minusYears(8), now.plusYears(8), false)))
+            .signatureAlgorithm("SHA256withRSA")
+            .version(3)
+            .personType("PF")
+            .certificateType("A3")
+            .birthDate(LocalDate.of(1980, 1, 1))
+            .nis("12345678901")
+            .rg("123456789")
+            .rgIssuer("SSPSP")
+            .fingerprint("9F86D081884C7D659A2FEAA0C55AD015A3BF4F1B2B0B822CD15D6C15B0F00A08")
+            .subjectDN("CN=JOAO DA SILVA:12345678901,OU=RFB e-CPF A3,OU=Secretaria da Receita Federal do Brasil - RFB,O=ICP-Brasil,C=BR")
+            .issuerDN("CN=AC SOLUTI Multipla v5,OU=AC SOLUTI,OU=Autoridade Certificadora Raiz Brasileira v5,O=ICP-Brasil,C=BR")
+            .validationTimestamp(now)
+            .remoteAddress("10.0.0.1")
+            .userAgent("Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/126.0")
+            .sessionId("0f8fad5b-d9cb-469f-a165-70867728950e")
+            .build();
+    }
+}
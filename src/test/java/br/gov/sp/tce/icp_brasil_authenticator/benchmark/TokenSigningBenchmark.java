@@ -0,0 +1,92 @@
+package br.gov.sp.tce.icp_brasil_authenticator.benchmark;
+
+import java.security.KeyPairGenerator;
+import java.security.interfaces.ECPrivateKey;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.ssl.DefaultSslBundleRegistry;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.ECDSASigner;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+
+import br.gov.sp.tce.icp_brasil_authenticator.configuration.TokenProperties;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.dto.CertificateDTO;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.token.TokenService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// Custo da emissão do token no /validate: TokenService (cabeçalho pré-codificado e Signature
+// reaproveitada) com ES256 e EdDSA, comparado à montagem usual com o Nimbus a cada requisição
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenSigningBenchmark {
+    
+    @Param({ "ES256", "EDDSA" })
+    private TokenProperties.Algorithm algorithm;
+    
+    private TokenService tokenService;
+    private ECPrivateKey nimbusKey;
+    private CertificateDTO certificate;
+    
+    @Setup
+    public void setUp() throws Exception {
+        // Sem bundle, o serviço gera uma chave efêmera do algoritmo configurado
+        TokenProperties properties = new TokenProperties();
+        properties.setAlgorithm(algorithm);
+        tokenService = new TokenService(properties, new DefaultSslBundleRegistry(), new SimpleMeterRegistry());
+        
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(new ECGenParameterSpec("secp256r1"));
+        nimbusKey = (ECPrivateKey) generator.generateKeyPair().getPrivate();
+        
+        certificate = CertificateDTO.builder()
+            .cpf("12345678901")
+            .fingerprint("9F86D081884C7D659A2FEAA0C55AD015A3BF4F1B2B0B822CD15D6C15B0F00A08")
+            .issuerName("AC SOLUTI Multipla v5")
+            .sessionId("0f8fad5b-d9cb-469f-a165-70867728950e")
+            .build();
+    }
+    
+    @Benchmark
+    public String tokenService() {
+        return tokenService.issue(certificate).value();
+    }
+    
+    // Referência: novo ECDSASigner, cabeçalho e claims montados pelo Nimbus em cada emissão
+    @Benchmark
+    public String nimbusPerRequest() throws Exception {
+        Date now = new Date();
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+            .issuer("icp-brasil-authenticator")
+            .subject(certificate.getCpf())
+            .issueTime(now)
+            .expirationTime(new Date(now.getTime() + 300_000))
+            .claim("sid", certificate.getSessionId())
+            .claim("cpf", certificate.getCpf())
+            .claim("fingerprint", certificate.getFingerprint())
+            .claim("cert_issuer", certificate.getIssuerName())
+            .build();
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.ES256).keyID("kid").build(), claims);
+        jwt.sign(new ECDSASigner(nimbusKey));
+        return jwt.serialize();
+    }
+}
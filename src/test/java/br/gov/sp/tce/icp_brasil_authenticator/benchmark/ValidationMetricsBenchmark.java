@@ -0,0 +1,82 @@
+package br.gov.sp.tce.icp_brasil_authenticator.benchmark;
+
+import java.security.cert.X509Certificate;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import br.gov.sp.tce.icp_brasil_authenticator.metrics.ValidationMetrics;
+import br.gov.sp.tce.icp_brasil_authenticator.metrics.ValidationMetrics.Outcome;
+import br.gov.sp.tce.icp_brasil_authenticator.metrics.ValidationMetrics.Stage;
+import br.gov.sp.tce.icp_brasil_authenticator.support.IcpBrasilTestCertificates;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+
+// Sobrecarga da instrumentação em uma requisição do /validate: as oito etapas e o contador de
+// resultado por AC com o PrometheusMeterRegistry da aplicação (histogramas de percentis ligados,
+// como no application.yml). A meta é ficar em poucos microssegundos por requisição.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidationMetricsBenchmark {
+    
+    private static final String[] ISSUERS = {
+        "AC SOLUTI Multipla v5", "AC SERASA RFB v5", "AC Certisign RFB G5", "AC VALID RFB v5"
+    };
+    
+    private static final Stage[] STAGES = Stage.values();
+    
+    private ValidationMetrics validationMetrics;
+    private X509Certificate certificate;
+    private int next;
+    
+    @Setup
+    public void setUp() {
+        PrometheusMeterRegistry meterRegistry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        meterRegistry.config().meterFilter(new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                return DistributionStatisticConfig.builder().percentilesHistogram(true).build().merge(config);
+            }
+        });
+        validationMetrics = new ValidationMetrics(meterRegistry, 100);
+        certificate = IcpBrasilTestCertificates.eCpf("JOAO DA SILVA", "12345678901", LocalDate.of(1980, 1, 1),
+            IcpBrasilTestCertificates.POLICY_A1);
+    }
+    
+    // Referência: apenas as leituras de relógio que a instrumentação faz
+    @Benchmark
+    public long baseline() {
+        long sum = 0;
+        for (int i = 0; i < STAGES.length; i++) {
+            sum += System.nanoTime();
+        }
+        return sum;
+    }
+    
+    @Benchmark
+    public long instrumentedRequest() {
+        long start = System.nanoTime();
+        for (Stage stage : STAGES) {
+            start = validationMetrics.record(stage, start);
+        }
+        validationMetrics.outcome(ISSUERS[next++ & 3], Outcome.VALID, 3, certificate);
+        return start;
+    }
+}
@@ -0,0 +1,107 @@
+package br.gov.sp.tce.icp_brasil_authenticator.diagnostics;
+
+import java.security.cert.X509Certificate;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import br.gov.sp.tce.icp_brasil_authenticator.configuration.DiagnosticsProperties;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.certificate.ParsedCertificate;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.dto.CertificateDTO;
+import br.gov.sp.tce.icp_brasil_authenticator.support.IcpBrasilTestCertificates;
+
+class DiagnosticsRecorderTest {
+    
+    private static final String FINGERPRINT = "9F86D081884C7D659A2FEAA0C55AD015A3BF4F1B2B0B822CD15D6C15B0F00A08";
+    
+    private DiagnosticsProperties properties;
+    private X509Certificate certificate;
+    
+    @BeforeEach
+    void setUp() {
+        properties = new DiagnosticsProperties();
+        properties.setCapacity(2);
+        properties.setOperatorCpfs(List.of("12345678901"));
+        certificate = IcpBrasilTestCertificates.eCpf("JOAO DA SILVA", "12345678901", LocalDate.of(1980, 1, 1),
+            IcpBrasilTestCertificates.POLICY_A1);
+    }
+    
+    @Test
+    void testSelect_WithSamplingChangedAtRuntime_ShouldFollowSelectors() {
+        // Given: amostragem desligada por padrão
+        DiagnosticsRecorder recorder = new DiagnosticsRecorder(properties);
+        assertNull(recorder.select(FINGERPRINT, "10.1.2.3"));
+        
+        // When
+        recorder.update(null, List.of(FINGERPRINT.toLowerCase()), List.of("10.1.0.0/16"));
+        
+        // Then
+        assertEquals(DiagnosticsRecorder.REASON_FINGERPRINT, recorder.select(FINGERPRINT, "192.0.2.1"));
+        assertEquals(DiagnosticsRecorder.REASON_ADDRESS, recorder.select(null, "10.1.2.3"));
+        assertNull(recorder.select(null, "192.0.2.1"));
+        
+        recorder.update(1.0, null, null);
+        assertEquals(DiagnosticsRecorder.REASON_SAMPLE, recorder.select(null, "192.0.2.1"));
+        assertEquals(List.of(FINGERPRINT), recorder.sampling().fingerprints());
+        assertThrows(IllegalArgumentException.class, () -> recorder.update(1.5, null, null));
+    }
+    
+    @Test
+    void testRecord_WithMoreSnapshotsThanCapacity_ShouldKeepNewestWithTlsAndCertificate() {
+        // Given
+        DiagnosticsRecorder recorder = new DiagnosticsRecorder(properties);
+        
+        // When
+        for (int i = 0; i < 3; i++) {
+            recorder.record(request("/api/certificate/validate?n=" + i), new MockHttpServletResponse(),
+                DiagnosticsRecorder.REASON_SAMPLE, "192.0.2.1", System.nanoTime());
+        }
+        
+        // Then: do mais recente para o mais antigo, sem o primeiro
+        List<DiagnosticSnapshot> snapshots = recorder.snapshots();
+        assertEquals(2, snapshots.size());
+        assertEquals(3, recorder.recorded());
+        DiagnosticSnapshot snapshot = snapshots.get(0);
+        assertEquals("TLSv1.3", snapshot.tls().protocol());
+        assertEquals("TLS_AES_128_GCM_SHA256", snapshot.tls().cipherSuite());
+        assertEquals(FINGERPRINT, snapshot.certificates().get(0).fingerprint());
+        assertEquals(certificate.getSubjectX500Principal().getName(), snapshot.certificates().get(0).subjectDN());
+        assertEquals("X509Certificate[1]", snapshot.attributes().get("jakarta.servlet.request.X509Certificate"));
+        assertFalse(snapshot.attributes().containsKey("org.springframework.web.servlet.HandlerMapping.bestMatchingPattern"));
+        
+        recorder.clear();
+        assertTrue(recorder.snapshots().isEmpty());
+    }
+    
+    @Test
+    void testIsOperator_WithConfiguredCpf_ShouldAllowOnlyOperator() {
+        // Given
+        DiagnosticsRecorder recorder = new DiagnosticsRecorder(properties);
+        
+        // When / Then
+        assertTrue(recorder.isOperator("12345678901"));
+        assertFalse(recorder.isOperator("98765432100"));
+        assertFalse(recorder.isOperator(null));
+    }
+    
+    private MockHttpServletRequest request(String uri) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        request.setSecure(true);
+        request.setAttribute("org.apache.tomcat.util.net.secure_protocol_version", "TLSv1.3");
+        request.setAttribute("jakarta.servlet.request.cipher_suite", "TLS_AES_128_GCM_SHA256");
+        request.setAttribute("jakarta.servlet.request.X509Certificate", new X509Certificate[] { certificate });
+        request.setAttribute("org.springframework.web.servlet.HandlerMapping.bestMatchingPattern", "/validate");
+        new ParsedCertificate(new X509Certificate[] { certificate }, FINGERPRINT,
+            CertificateDTO.builder().cpf("12345678901").fingerprint(FINGERPRINT).build()).bindTo(request);
+        return request;
+    }
+}
@@ -0,0 +1,101 @@
+package br.gov.sp.tce.icp_brasil_authenticator.domain.audit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.Test;
+
+import br.gov.sp.tce.icp_brasil_authenticator.configuration.AuditProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AuditPipelineTest {
+
+    @Test
+    void testPublish_WithRunningPipeline_ShouldDeliverAllEventsInBatches() throws Exception {
+        // Given
+        CollectingSink sink = new CollectingSink();
+        AuditProperties properties = new AuditProperties();
+        properties.setBatchSize(16);
+        properties.setConsumers(2);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        AuditPipeline pipeline = new AuditPipeline(properties, sink, null, meterRegistry);
+        pipeline.start();
+
+        // When
+        for (int i = 0; i < 1000; i++) {
+            pipeline.publish(event("session-" + i));
+        }
+        pipeline.stop();
+
+        // Then
+        assertEquals(1000, sink.events.size());
+        assertTrue(sink.largestBatch <= 16);
+        assertEquals(0, pipeline.queueDepth());
+        assertEquals(1000.0, meterRegistry.get("audit.batch.size").summary().totalAmount());
+    }
+
+    @Test
+    void testPublish_WithFullQueueAndDropPolicy_ShouldCountDroppedEvents() {
+        // Given
+        AuditProperties properties = new AuditProperties();
+        properties.setCapacity(4);
+        properties.setOverflowPolicy(AuditProperties.OverflowPolicy.DROP);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        AuditPipeline pipeline = new AuditPipeline(properties, new CollectingSink(), null, meterRegistry);
+
+        // When
+        for (int i = 0; i < 10; i++) {
+            pipeline.publish(event("session-" + i));
+        }
+
+        // Then
+        assertEquals(4, pipeline.queueDepth());
+        assertEquals(6.0, meterRegistry.get("audit.events.dropped").counter().count());
+    }
+
+    @Test
+    void testPublish_WithFullQueueAndSpillPolicy_ShouldWriteToSpillSink() {
+        // Given
+        AuditProperties properties = new AuditProperties();
+        properties.setCapacity(4);
+        properties.setOverflowPolicy(AuditProperties.OverflowPolicy.SPILL);
+        CollectingSink spillSink = new CollectingSink();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        AuditPipeline pipeline = new AuditPipeline(properties, new CollectingSink(), spillSink, meterRegistry);
+
+        // When
+        for (int i = 0; i < 10; i++) {
+            pipeline.publish(event("session-" + i));
+        }
+
+        // Then
+        assertEquals(6, spillSink.events.size());
+        assertEquals(6.0, meterRegistry.get("audit.events.spilled").counter().count());
+    }
+
+    private static AuditEvent event(String sessionId) {
+        return new AuditEvent(LocalDateTime.now(), "10.0.0.1", "12345678901", "1", "AB", "CN=AC", "CN=Titular",
+            LocalDateTime.now().plusYears(1), "SHA256withRSA", sessionId, "JUnit");
+    }
+
+    private static class CollectingSink implements AuditSink {
+
+        private final List<AuditEvent> events = new CopyOnWriteArrayList<>();
+        private volatile int largestBatch;
+
+        @Override
+        public String name() {
+            return "collecting";
+        }
+
+        @Override
+        public void write(List<AuditEvent> batch) {
+            events.addAll(batch);
+            largestBatch = Math.max(largestBatch, batch.size());
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package br.gov.sp.tce.icp_brasil_authenticator.domain.audit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import br.gov.sp.tce.icp_brasil_authenticator.domain.dto.AuditLoginDTO;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.dto.AuditPageDTO;
+
+// Tabela criada pelo changelog Liquibase em H2 (modo PostgreSQL), sem rede
+@JdbcTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:audit;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.liquibase.enabled=true",
+    "icp-brasil.audit.store.enabled=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(AuditRepository.class)
+class AuditRepositoryTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AuditRepository auditRepository;
+
+    @Test
+    void testFindLogins_WithKeysetPagination_ShouldReturnEveryRowOnceInDescendingOrder() {
+        // Given: timestamps repetidos para exercitar o desempate por id
+        LocalDateTime base = LocalDateTime.of(2026, 1, 1, 8, 0);
+        List<AuditEvent> events = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            events.add(event("11111111111", base.plusMinutes(i / 2), "session-" + i));
+        }
+        for (int i = 0; i < 20; i++) {
+            events.add(event("22222222222", base.plusMinutes(i), "other-" + i));
+        }
+        new JdbcAuditSink(jdbcTemplate).write(events);
+
+        // When
+        List<AuditLoginDTO> all = new ArrayList<>();
+        List<Integer> pageSizes = new ArrayList<>();
+        String cursor = null;
+        do {
+            AuditPageDTO page = auditRepository.findLogins("11111111111", null, null, null, null, cursor, 30);
+            all.addAll(page.getItems());
+            pageSizes.add(page.getItems().size());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        // Then
+        assertEquals(List.of(30, 30, 30, 10), pageSizes);
+        Set<String> sessions = new HashSet<>();
+        for (int i = 0; i < all.size(); i++) {
+            assertTrue(sessions.add(all.get(i).getSessionId()));
+            assertEquals("11111111111", all.get(i).getCpf());
+            if (i > 0) {
+                AuditLoginDTO previous = all.get(i - 1);
+                assertTrue(previous.getTimestamp().isAfter(all.get(i).getTimestamp())
+                    || (previous.getTimestamp().equals(all.get(i).getTimestamp()) && previous.getId() > all.get(i).getId()));
+            }
+        }
+    }
+
+    @Test
+    void testFindLogins_WithTimeRange_ShouldFilterByTimestamp() {
+        // Given
+        LocalDateTime base = LocalDateTime.of(2026, 3, 1, 0, 0);
+        new JdbcAuditSink(jdbcTemplate).write(List.of(
+            event("33333333333", base.minusDays(1), "before"),
+            event("33333333333", base.plusDays(1), "inside"),
+            event("33333333333", base.plusMonths(4), "after")));
+
+        // When
+        AuditPageDTO page = auditRepository.findLogins("33333333333", null, null, base, base.plusMonths(3), null, 10);
+
+        // Then
+        assertEquals(1, page.getItems().size());
+        assertEquals("inside", page.getItems().get(0).getSessionId());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void testFindLogins_WithoutFilter_ShouldThrowException() {
+        assertThrows(IllegalArgumentException.class,
+            () -> auditRepository.findLogins(null, null, null, null, null, null, 10));
+        assertThrows(IllegalArgumentException.class,
+            () -> auditRepository.findLogins("11111111111", null, null, null, null, "invalido", 10));
+    }
+
+    private static AuditEvent event(String cpf, LocalDateTime timestamp, String sessionId) {
+        return new AuditEvent(timestamp, "10.0.0.1", cpf, "1", "AB" + cpf, "CN=AC Teste", "CN=Titular:" + cpf,
+            timestamp.plusYears(1), "SHA256withRSA", sessionId, "JUnit");
+    }
+}
@@ -0,0 +1,76 @@
+package br.gov.sp.tce.icp_brasil_authenticator.domain.batch;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.cert.X509Certificate;
+import java.time.LocalDate;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import br.gov.sp.tce.icp_brasil_authenticator.support.IcpBrasilTestCertificates;
+
+class CertificateBatchReaderTest {
+    
+    @Test
+    void testNext_WithMixedFormats_ShouldReadEachCertificateWithItsLine() throws Exception {
+        // Given
+        X509Certificate certificate = IcpBrasilTestCertificates.eCpf("FULANO DE TAL", "12345678901",
+            LocalDate.of(1980, 1, 1), IcpBrasilTestCertificates.POLICY_A1);
+        String der = Base64.getEncoder().encodeToString(certificate.getEncoded());
+        String pem = "-----BEGIN CERTIFICATE-----\r\n" + Base64.getMimeEncoder().encodeToString(certificate.getEncoded())
+            + "\r\n-----END CERTIFICATE-----\r\n";
+        String input = "{\"id\":\"doc-1\",\"certificate\":\"" + der + "\"}\n"
+            + "\n"
+            + "\"" + der + "\"\n"
+            + der + "\n"
+            + pem
+            + "{\"id\":7}\n"
+            + "{invalido";
+        
+        // When / Then
+        try (CertificateBatchReader reader = new CertificateBatchReader(
+                new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), 16 * 1024)) {
+            BatchItem json = reader.next();
+            assertEquals(1, json.line());
+            assertEquals("doc-1", json.id());
+            assertArrayEquals(new X509Certificate[] { certificate }, json.loader().load());
+            
+            assertEquals(3, reader.next().line());
+            assertEquals(4, reader.next().line());
+            
+            BatchItem pemItem = reader.next();
+            assertEquals(5, pemItem.line());
+            assertArrayEquals(new X509Certificate[] { certificate }, pemItem.loader().load());
+            
+            BatchItem missing = reader.next();
+            assertEquals("7", missing.id());
+            assertTrue(missing.error().contains("certificate"));
+            assertTrue(reader.next().error().startsWith("JSON inválido"));
+            assertNull(reader.next());
+        }
+    }
+    
+    @Test
+    void testNext_WithOversizedLine_ShouldReportErrorAndContinue() throws Exception {
+        // Given
+        String input = "A".repeat(5000) + "\nMIIB\n";
+        
+        // When / Then: a linha longa é descartada sem ser acumulada em memória
+        try (CertificateBatchReader reader = new CertificateBatchReader(
+                new ByteArrayInputStream(input.getBytes(StandardCharsets.US_ASCII)), 1024)) {
+            BatchItem oversized = reader.next();
+            assertEquals(1, oversized.line());
+            assertTrue(oversized.error().contains("tamanho máximo"));
+            
+            BatchItem next = reader.next();
+            assertEquals(2, next.line());
+            assertNull(next.error());
+            assertNull(reader.next());
+        }
+    }
+}
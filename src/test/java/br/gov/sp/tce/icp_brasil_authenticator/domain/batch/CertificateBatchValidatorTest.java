@@ -0,0 +1,149 @@
+package br.gov.sp.tce.icp_brasil_authenticator.domain.batch;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.cert.X509Certificate;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import br.gov.sp.tce.icp_brasil_authenticator.configuration.AuditProperties;
+import br.gov.sp.tce.icp_brasil_authenticator.configuration.BatchProperties;
+import br.gov.sp.tce.icp_brasil_authenticator.configuration.CertificateCacheProperties;
+import br.gov.sp.tce.icp_brasil_authenticator.configuration.RevocationProperties;
+import br.gov.sp.tce.icp_brasil_authenticator.configuration.TrustProperties;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.audit.AuditPipeline;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.audit.LogAuditSink;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.dto.CertificateBatchResultDTO;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.revocation.CrlRevocationService;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.revocation.OcspRevocationService;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.revocation.RevocationService;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.service.CertificateDataCache;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.service.CertificateValidationService;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.trust.CertificateChainValidator;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.trust.TrustedCertificates;
+import br.gov.sp.tce.icp_brasil_authenticator.support.IcpBrasilTestCertificates;
+import br.gov.sp.tce.icp_brasil_authenticator.metrics.ValidationMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class CertificateBatchValidatorTest {
+    
+    private SimpleMeterRegistry meterRegistry;
+    private CertificateBatchValidator batchValidator;
+    
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        CertificateDataCache cache = new CertificateDataCache(new CertificateCacheProperties(), meterRegistry);
+        RevocationProperties revocationProperties = new RevocationProperties();
+        TrustedCertificates trustedCertificates = new TrustedCertificates(
+            List.of(IcpBrasilTestCertificates.defaultIssuer().certificate()));
+        TrustProperties trustProperties = new TrustProperties();
+        CertificateChainValidator chainValidator = new CertificateChainValidator(trustedCertificates, trustProperties, meterRegistry);
+        RevocationService revocationService = new RevocationService(
+            new CrlRevocationService(revocationProperties, trustedCertificates, meterRegistry),
+            new OcspRevocationService(revocationProperties, meterRegistry),
+            trustedCertificates, chainValidator);
+        CertificateValidationService service = new CertificateValidationService(cache,
+            new AuditPipeline(new AuditProperties(), new LogAuditSink(), null, meterRegistry), revocationService,
+            chainValidator, trustProperties,
+            new ValidationMetrics(meterRegistry, 100));
+        
+        BatchProperties properties = new BatchProperties();
+        properties.setParallelism(4);
+        properties.setMaxInFlight(8);
+        batchValidator = new CertificateBatchValidator(service, properties, meterRegistry);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        batchValidator.close();
+    }
+    
+    @Test
+    void testValidate_WithSlowWriter_ShouldBoundCertificatesInFlight() throws Exception {
+        // Given
+        X509Certificate certificate = IcpBrasilTestCertificates.eCpf("FULANO DE TAL", "12345678901",
+            LocalDate.of(1980, 1, 1), IcpBrasilTestCertificates.POLICY_A1);
+        String der = Base64.getEncoder().encodeToString(certificate.getEncoded());
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            input.append("{\"id\":\"").append(i).append("\",\"certificate\":\"").append(der).append("\"}\n");
+        }
+        input.append("nao-e-base64\n");
+        
+        // When
+        List<CertificateBatchResultDTO> results = new ArrayList<>();
+        List<Double> inFlight = new ArrayList<>();
+        CertificateBatchValidator.Summary summary;
+        try (CertificateBatchReader reader = new CertificateBatchReader(
+                new ByteArrayInputStream(input.toString().getBytes(StandardCharsets.UTF_8)), 16 * 1024)) {
+            summary = batchValidator.validate(reader, result -> {
+                inFlight.add(meterRegistry.get("batch.certificates.in.flight").gauge().value());
+                results.add(result);
+                Thread.yield();
+            });
+        }
+        
+        // Then: todos os certificados respondidos uma vez, sem passar do limite em memória
+        assertEquals(201, results.size());
+        assertEquals(200, summary.valid());
+        assertEquals(1, summary.failed());
+        assertTrue(inFlight.stream().allMatch(value -> value <= 8));
+        assertEquals(0, meterRegistry.get("batch.certificates.in.flight").gauge().value());
+        
+        Set<String> ids = new HashSet<>();
+        for (CertificateBatchResultDTO result : results) {
+            if (result.getError() == null) {
+                assertEquals("12345678901", result.getCertificate().getCpf());
+                assertEquals("TRUSTED", result.getCertificate().getChainStatus());
+                assertNull(result.getCertificate().getSessionId());
+                ids.add(result.getId());
+            } else {
+                assertEquals(201, result.getLine());
+                assertNull(result.getCertificate());
+            }
+        }
+        assertEquals(200, ids.size());
+        assertEquals(200, meterRegistry.get("batch.certificates").tag("result", "valid").counter().count());
+    }
+    
+    @Test
+    void testValidate_WithSelfSignedCertificate_ShouldReportInvalid() throws Exception {
+        // Given: certificado autoassinado, fora do truststore (require-trusted-chain no padrão false)
+        KeyPair keyPair = IcpBrasilTestCertificates.ecKeyPair();
+        X500Name subject = new X500Name("CN=FULANO DE TAL:12345678901,O=ICP-Brasil,C=BR");
+        X509Certificate certificate = IcpBrasilTestCertificates.build(subject, keyPair.getPublic(), subject,
+            keyPair.getPrivate(), false);
+        String input = "{\"id\":\"1\",\"certificate\":\""
+            + Base64.getEncoder().encodeToString(certificate.getEncoded()) + "\"}\n";
+        
+        // When
+        List<CertificateBatchResultDTO> results = new ArrayList<>();
+        CertificateBatchValidator.Summary summary;
+        try (CertificateBatchReader reader = new CertificateBatchReader(
+                new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), 16 * 1024)) {
+            summary = batchValidator.validate(reader, results::add);
+        }
+        
+        // Then
+        assertEquals(1, results.size());
+        assertFalse(results.get(0).getCertificate().getValid());
+        assertEquals("UNTRUSTED", results.get(0).getCertificate().getChainStatus());
+        assertEquals(0, summary.valid());
+        assertEquals(1, summary.invalid());
+    }
+}
@@ -0,0 +1,105 @@
+package br.gov.sp.tce.icp_brasil_authenticator.domain.batch;
+
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyStore;
+import java.security.cert.X509Certificate;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import br.gov.sp.tce.icp_brasil_authenticator.support.IcpBrasilTestCertificates;
+
+class CertificateFileSourceTest {
+    
+    @TempDir
+    Path directory;
+    
+    @Test
+    void testNext_WithDirectoryZipKeyStoreAndBundle_ShouldReadEveryCertificate() throws Exception {
+        // Given
+        X509Certificate certificate = IcpBrasilTestCertificates.eCpf("FULANO DE TAL", "12345678901",
+            LocalDate.of(1980, 1, 1), IcpBrasilTestCertificates.POLICY_A1);
+        Files.createDirectories(directory.resolve("der"));
+        Files.write(directory.resolve("der/titular.cer"), certificate.getEncoded());
+        Files.writeString(directory.resolve("ignorado.txt"), "não é certificado");
+        
+        try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(directory.resolve("ACcompactado.zip")))) {
+            zip.putNextEntry(new ZipEntry("acs/titular.crt"));
+            zip.write(certificate.getEncoded());
+            zip.closeEntry();
+        }
+        
+        KeyStore keyStore = KeyStore.getInstance("PKCS12");
+        keyStore.load(null, null);
+        keyStore.setCertificateEntry("titular", certificate);
+        try (OutputStream out = Files.newOutputStream(directory.resolve("store.p12"))) {
+            keyStore.store(out, "changeit".toCharArray());
+        }
+        
+        // Bundle acima do limite: lido por mapeamento de memória
+        String pem = "-----BEGIN CERTIFICATE-----\n" + Base64.getMimeEncoder().encodeToString(certificate.getEncoded())
+            + "\n-----END CERTIFICATE-----\n";
+        Files.writeString(directory.resolve("bundle.pem"), pem.repeat(3));
+        
+        // When
+        List<BatchItem> items = new ArrayList<>();
+        long files;
+        try (CertificateFileSource source = new CertificateFileSource(List.of(directory), "changeit".toCharArray(),
+                1024, 16 * 1024)) {
+            for (BatchItem item; (item = source.next()) != null; ) {
+                items.add(item);
+            }
+            files = source.filesRead();
+        }
+        
+        // Then
+        assertEquals(6, items.size());
+        assertEquals(4, files);
+        for (BatchItem item : items) {
+            assertNull(item.error(), item.id());
+            assertArrayEquals(new X509Certificate[] { certificate }, item.loader().load());
+        }
+        assertNotNull(find(items, directory.resolve("der/titular.cer").toString()));
+        assertNotNull(find(items, directory.resolve("ACcompactado.zip") + "!/acs/titular.crt"));
+        assertNotNull(find(items, directory.resolve("store.p12") + "#titular"));
+        // Cada bloco do bundle com a linha onde começa
+        assertEquals(3, items.stream().filter(item -> item.id().endsWith("bundle.pem"))
+            .mapToLong(BatchItem::line).distinct().count());
+    }
+    
+    @Test
+    void testNext_WithWrongKeyStorePassword_ShouldReportFileError() throws Exception {
+        // Given
+        KeyStore keyStore = KeyStore.getInstance("PKCS12");
+        keyStore.load(null, null);
+        keyStore.setCertificateEntry("ac", IcpBrasilTestCertificates.defaultIssuer().certificate());
+        try (OutputStream out = Files.newOutputStream(directory.resolve("store.p12"))) {
+            keyStore.store(out, "changeit".toCharArray());
+        }
+        
+        // When / Then
+        try (CertificateFileSource source = new CertificateFileSource(List.of(directory), "errada".toCharArray(),
+                1024, 16 * 1024)) {
+            BatchItem item = source.next();
+            assertTrue(item.error().startsWith("Arquivo ilegível"));
+            assertNull(source.next());
+        }
+    }
+    
+    private static BatchItem find(List<BatchItem> items, String id) {
+        return items.stream().filter(item -> item.id().equals(id)).findFirst().orElse(null);
+    }
+}
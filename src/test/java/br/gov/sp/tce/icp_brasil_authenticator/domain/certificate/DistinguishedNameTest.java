@@ -0,0 +1,79 @@
+package br.gov.sp.tce.icp_brasil_authenticator.domain.certificate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import javax.security.auth.x500.X500Principal;
+
+import org.junit.jupiter.api.Test;
+
+class DistinguishedNameTest {
+
+    @Test
+    void testParse_WithIcpBrasilSubject_ShouldExtractAttributes() {
+        // Given
+        String dn = new X500Principal("CN=FULANO DE TAL:12345678901, OU=RFB e-CPF A3, "
+            + "OU=Secretaria da Receita Federal do Brasil - RFB, O=ICP-Brasil, C=BR, "
+            + "EMAILADDRESS=fulano@example.com").getName();
+
+        // When
+        DistinguishedName result = DistinguishedName.parse(dn);
+
+        // Then
+        assertEquals("FULANO DE TAL:12345678901", result.getCommonName());
+        assertEquals("12345678901", result.getCpf());
+        assertEquals("ICP-Brasil", result.getOrganization());
+        assertEquals("RFB e-CPF A3", result.getOrganizationalUnit());
+        assertEquals("fulano@example.com", result.getEmail());
+    }
+
+    @Test
+    void testParse_WithEscapedComma_ShouldKeepValueTogether() {
+        // When
+        DistinguishedName result = DistinguishedName.parse("CN=SILVA\\, JOAO:12345678901,O=ICP-Brasil");
+
+        // Then
+        assertEquals("SILVA, JOAO:12345678901", result.getCommonName());
+        assertEquals("12345678901", result.getCpf());
+        assertEquals("ICP-Brasil", result.getOrganization());
+    }
+
+    @Test
+    void testParse_WithMultiValuedRdn_ShouldSplitOnPlus() {
+        // When
+        DistinguishedName result = DistinguishedName.parse("CN=Fulano+UID=123,OU=TI,O=Org");
+
+        // Then
+        assertEquals("Fulano", result.getCommonName());
+        assertEquals("TI", result.getOrganizationalUnit());
+        assertEquals("Org", result.getOrganization());
+    }
+
+    @Test
+    void testParse_WithUtf8HexEscape_ShouldDecodeCharacters() {
+        // When
+        DistinguishedName result = DistinguishedName.parse("CN=Jo\\C3\\A3o da Silva,O=Test");
+
+        // Then
+        assertEquals("João da Silva", result.getCommonName());
+    }
+
+    @Test
+    void testParse_WithoutCommonName_ShouldFallBackToName() {
+        // When
+        DistinguishedName result = DistinguishedName.parse("OU=TI,O=Org");
+
+        // Then
+        assertFalse(result.hasCommonName());
+        assertEquals("OU=TI,O=Org", result.getCommonNameOrName());
+        assertNull(result.getCpf());
+        assertNull(result.getEmail());
+    }
+
+    @Test
+    void testGetCpf_WithoutColonSuffix_ShouldReturnNull() {
+        assertNull(DistinguishedName.parse("CN=123456789012,O=Org").getCpf());
+        assertNull(DistinguishedName.parse("CN=EMPRESA LTDA:12345678000199,O=Org").getCpf());
+    }
+}
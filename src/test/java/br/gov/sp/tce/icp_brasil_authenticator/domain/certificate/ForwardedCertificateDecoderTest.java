@@ -0,0 +1,97 @@
+package br.gov.sp.tce.icp_brasil_authenticator.domain.certificate;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.security.cert.X509Certificate;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import br.gov.sp.tce.icp_brasil_authenticator.support.IcpBrasilTestCertificates;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ForwardedCertificateDecoderTest {
+    
+    private SimpleMeterRegistry meterRegistry;
+    private ForwardedCertificateDecoder decoder;
+    private X509Certificate certificate;
+    private X509Certificate issuer;
+    
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        decoder = new ForwardedCertificateDecoder(100, Duration.ofHours(1), meterRegistry);
+        certificate = IcpBrasilTestCertificates.eCpf("JOAO DA SILVA", "12345678901", LocalDate.of(1980, 1, 1),
+            IcpBrasilTestCertificates.POLICY_A1);
+        issuer = IcpBrasilTestCertificates.defaultIssuer().certificate();
+    }
+    
+    @Test
+    void testDecode_WithEscapedPemAndChain_ShouldReturnChainAndCacheIt() throws Exception {
+        // Given: formato do $ssl_client_escaped_cert do nginx
+        String header = escape(pem(certificate));
+        String chain = escape(pem(issuer));
+        
+        // When
+        X509Certificate[] first = decoder.decode(header, chain);
+        X509Certificate[] second = decoder.decode(header, chain);
+        
+        // Then
+        assertArrayEquals(new X509Certificate[] { certificate, issuer }, first);
+        assertArrayEquals(first, second);
+        assertEquals(1.0, meterRegistry.get("cache.gets").tags("cache", "certificate.decode", "result", "hit")
+            .functionCounter().count());
+    }
+    
+    @Test
+    void testDecode_WithBase64Der_ShouldReturnCertificate() throws Exception {
+        // Given: formato do ssl_c_der,base64 do HAProxy (mantém o '+' do base64)
+        String header = Base64.getEncoder().encodeToString(certificate.getEncoded());
+        
+        // When
+        X509Certificate[] decoded = decoder.decode(header, null);
+        
+        // Then
+        assertArrayEquals(new X509Certificate[] { certificate }, decoded);
+    }
+    
+    @Test
+    void testDecodeXfcc_WithSeveralElements_ShouldUseLastElement() throws Exception {
+        // Given: o primeiro elemento poderia ter vindo do cliente; o último foi incluído pelo proxy confiável
+        String xfcc = "By=spiffe://forjado;Cert=\"invalido\";Subject=\"CN=Maria, O=Teste\","
+            + "By=spiffe://cluster.local/ns/default/sa/authenticator;Hash=abc;"
+            + "Cert=\"" + escape(pem(certificate)) + "\";"
+            + "Subject=\"CN=JOAO DA SILVA:12345678901,OU=RFB e-CPF A1\";URI=";
+        
+        // When
+        X509Certificate[] decoded = decoder.decodeXfcc(xfcc);
+        
+        // Then
+        assertArrayEquals(new X509Certificate[] { certificate }, decoded);
+    }
+    
+    @Test
+    void testDecode_WithInvalidHeader_ShouldThrowAndNotCache() {
+        // When / Then
+        assertThrows(IllegalArgumentException.class, () -> decoder.decode("-----BEGIN CERTIFICATE-----x", null));
+        assertThrows(IllegalArgumentException.class, () -> decoder.decode("-----BEGIN CERTIFICATE-----x", null));
+        assertEquals(0.0, meterRegistry.get("cache.size").tag("cache", "certificate.decode").gauge().value());
+    }
+    
+    // Como nginx e Envoy: espaço vira %20 e o '+' do base64 vira %2B
+    private static String escape(String pem) {
+        return URLEncoder.encode(pem, StandardCharsets.UTF_8).replace("+", "%20");
+    }
+    
+    private static String pem(X509Certificate certificate) throws Exception {
+        return "-----BEGIN CERTIFICATE-----\n"
+            + Base64.getMimeEncoder(64, "\n".getBytes(StandardCharsets.US_ASCII)).encodeToString(certificate.getEncoded())
+            + "\n-----END CERTIFICATE-----\n";
+    }
+}
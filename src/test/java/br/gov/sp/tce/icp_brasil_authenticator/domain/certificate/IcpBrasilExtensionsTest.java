@@ -0,0 +1,67 @@
+package br.gov.sp.tce.icp_brasil_authenticator.domain.certificate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+
+import java.security.cert.X509Certificate;
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.Test;
+
+import br.gov.sp.tce.icp_brasil_authenticator.support.IcpBrasilTestCertificates;
+
+class IcpBrasilExtensionsTest {
+
+    @Test
+    void testDecode_WithECpfCertificate_ShouldReadPersonData() {
+        // Given
+        X509Certificate certificate = IcpBrasilTestCertificates.eCpf("FULANO DE TAL", "12345678901",
+            LocalDate.of(1985, 7, 23), IcpBrasilTestCertificates.POLICY_A3);
+
+        // When
+        IcpBrasilExtensions result = IcpBrasilExtensions.decode(certificate);
+
+        // Then
+        assertEquals(IcpBrasilExtensions.PersonType.PF, result.getPersonType());
+        assertEquals("A3", result.getCertificateType());
+        assertEquals(LocalDate.of(1985, 7, 23), result.getBirthDate());
+        assertEquals("12345678901", result.getCpf());
+        assertEquals("12345678901", result.getNis());
+        assertEquals("123456789", result.getRg());
+        assertEquals("SSPSP", result.getRgIssuer());
+        assertEquals("fulano.de.tal@example.com", result.getEmail());
+        assertNull(result.getCnpj());
+        assertNull(result.getVoterId());
+    }
+
+    @Test
+    void testDecode_WithECnpjCertificate_ShouldReadCompanyAndResponsible() {
+        // Given
+        X509Certificate certificate = IcpBrasilTestCertificates.eCnpj("EMPRESA EXEMPLO LTDA", "12345678000199",
+            "BELTRANO DA SILVA", "98765432100", IcpBrasilTestCertificates.POLICY_A1);
+
+        // When
+        IcpBrasilExtensions result = IcpBrasilExtensions.decode(certificate);
+
+        // Then
+        assertEquals(IcpBrasilExtensions.PersonType.PJ, result.getPersonType());
+        assertEquals("A1", result.getCertificateType());
+        assertEquals("12345678000199", result.getCnpj());
+        assertEquals("BELTRANO DA SILVA", result.getResponsibleName());
+        assertEquals("98765432100", result.getCpf());
+        assertNull(result.getNis());
+        assertNull(result.getRg());
+    }
+
+    @Test
+    void testDecode_WithoutExtensions_ShouldLeaveFieldsEmpty() {
+        // When
+        IcpBrasilExtensions result = IcpBrasilExtensions.decode(mock(X509Certificate.class));
+
+        // Then
+        assertNull(result.getPersonType());
+        assertNull(result.getCertificateType());
+        assertNull(result.getCpf());
+    }
+}
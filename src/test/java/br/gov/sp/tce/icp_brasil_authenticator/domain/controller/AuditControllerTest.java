@@ -0,0 +1,117 @@
+package br.gov.sp.tce.icp_brasil_authenticator.domain.controller;
+
+import java.security.KeyPair;
+import java.security.cert.X509Certificate;
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import br.gov.sp.tce.icp_brasil_authenticator.configuration.AuditProperties;
+import br.gov.sp.tce.icp_brasil_authenticator.configuration.CertificateCacheProperties;
+import br.gov.sp.tce.icp_brasil_authenticator.configuration.ClientCertificateProperties;
+import br.gov.sp.tce.icp_brasil_authenticator.configuration.ClientCertificateProperties.Source;
+import br.gov.sp.tce.icp_brasil_authenticator.configuration.RevocationProperties;
+import br.gov.sp.tce.icp_brasil_authenticator.configuration.TrustProperties;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.audit.AuditPipeline;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.audit.AuditRepository;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.audit.LogAuditSink;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.dto.AuditPageDTO;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.revocation.CrlRevocationService;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.revocation.OcspRevocationService;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.revocation.RevocationService;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.service.CertificateDataCache;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.service.CertificateValidationService;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.trust.CertificateChainValidator;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.trust.TrustedCertificates;
+import br.gov.sp.tce.icp_brasil_authenticator.metrics.ValidationMetrics;
+import br.gov.sp.tce.icp_brasil_authenticator.security.ClientCertificateResolver;
+import br.gov.sp.tce.icp_brasil_authenticator.support.IcpBrasilTestCertificates;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AuditControllerTest {
+    
+    private static final String AUDITOR_CPF = "12345678901";
+    
+    private AuditRepository auditRepository;
+    private AuditController controller;
+    
+    @BeforeEach
+    void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        RevocationProperties revocationProperties = new RevocationProperties();
+        TrustedCertificates trustedCertificates = new TrustedCertificates(
+            List.of(IcpBrasilTestCertificates.defaultIssuer().certificate()));
+        TrustProperties trustProperties = new TrustProperties();
+        trustProperties.setRequireTrustedChain(true);
+        CertificateChainValidator chainValidator = new CertificateChainValidator(trustedCertificates, trustProperties, meterRegistry);
+        CertificateValidationService service = new CertificateValidationService(
+            new CertificateDataCache(new CertificateCacheProperties(), meterRegistry),
+            new AuditPipeline(new AuditProperties(), new LogAuditSink(), null, meterRegistry),
+            new RevocationService(
+                new CrlRevocationService(revocationProperties, trustedCertificates, meterRegistry),
+                new OcspRevocationService(revocationProperties, meterRegistry),
+                trustedCertificates, chainValidator),
+            chainValidator, trustProperties, new ValidationMetrics(meterRegistry, 100));
+        
+        // Certificado repassado por um proxy que termina o TLS
+        ClientCertificateProperties clientCertificateProperties = new ClientCertificateProperties();
+        clientCertificateProperties.setSource(Source.HEADER);
+        clientCertificateProperties.setTrustedProxies(List.of("10.0.0.0/24"));
+        AuditProperties auditProperties = new AuditProperties();
+        auditProperties.getStore().setAuditorCpfs(List.of(AUDITOR_CPF));
+        auditRepository = mock(AuditRepository.class);
+        controller = new AuditController(auditRepository, auditProperties, service,
+            new ClientCertificateResolver(clientCertificateProperties, trustProperties, meterRegistry));
+    }
+    
+    @Test
+    void testFindLogins_WithForwardedSelfSignedAuditorCertificate_ShouldForbid() throws Exception {
+        // Given: certificado autoassinado com o CPF do auditor, repassado pelo proxy sem verificação
+        KeyPair keyPair = IcpBrasilTestCertificates.ecKeyPair();
+        X500Name issuer = new X500Name("CN=AC Falsa,O=ICP-Brasil,C=BR");
+        X509Certificate forged = IcpBrasilTestCertificates.eCpf("AUDITOR", AUDITOR_CPF, LocalDate.of(1980, 1, 1),
+            IcpBrasilTestCertificates.POLICY_A3, keyPair.getPublic(),
+            new IcpBrasilTestCertificates.Issuer(IcpBrasilTestCertificates.build(issuer, keyPair.getPublic(), issuer,
+                keyPair.getPrivate(), true), keyPair.getPrivate()));
+        
+        // When
+        ResponseEntity<AuditPageDTO> response = findLogins(forged);
+        
+        // Then
+        assertEquals(403, response.getStatusCode().value());
+        verify(auditRepository, never()).findLogins(any(), any(), any(), any(), any(), any(), anyInt());
+    }
+    
+    @Test
+    void testFindLogins_WithForwardedTrustedAuditorCertificate_ShouldQueryAudit() throws Exception {
+        // Given
+        X509Certificate auditor = IcpBrasilTestCertificates.eCpf("AUDITOR", AUDITOR_CPF, LocalDate.of(1980, 1, 1),
+            IcpBrasilTestCertificates.POLICY_A3);
+        
+        // When
+        ResponseEntity<AuditPageDTO> response = findLogins(auditor);
+        
+        // Then
+        assertEquals(200, response.getStatusCode().value());
+        verify(auditRepository).findLogins(any(), any(), any(), any(), any(), any(), anyInt());
+    }
+    
+    private ResponseEntity<AuditPageDTO> findLogins(X509Certificate certificate) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/audit/logins");
+        request.setRemoteAddr("10.0.0.7");
+        request.addHeader("X-SSL-Client-Cert", Base64.getEncoder().encodeToString(certificate.getEncoded()));
+        return controller.findLogins(request, "98765432100", null, null, null, null, null, null);
+    }
+}
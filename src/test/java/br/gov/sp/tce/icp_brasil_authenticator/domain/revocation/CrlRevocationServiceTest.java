@@ -0,0 +1,172 @@
+package br.gov.sp.tce.icp_brasil_authenticator.domain.revocation;
+
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.cert.X509CRL;
+import java.security.cert.X509Certificate;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import br.gov.sp.tce.icp_brasil_authenticator.configuration.RevocationProperties;
+import br.gov.sp.tce.icp_brasil_authenticator.configuration.TrustProperties;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.trust.CertificateChainValidator;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.trust.TrustedCertificates;
+import br.gov.sp.tce.icp_brasil_authenticator.support.IcpBrasilTestCertificates;
+import br.gov.sp.tce.icp_brasil_authenticator.support.IcpBrasilTestCertificates.Issuer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class CrlRevocationServiceTest {
+    
+    @TempDir
+    Path crlDirectory;
+    
+    @Test
+    void testCheck_WithLoadedCrl_ShouldReportRevokedGoodAndUnknown() throws Exception {
+        // Given
+        Issuer issuer = IcpBrasilTestCertificates.defaultIssuer();
+        X509Certificate revoked = eCpf(issuer);
+        X509Certificate good = eCpf(issuer);
+        X509Certificate otherIssuer = eCpf(IcpBrasilTestCertificates.selfSignedAuthority(
+            "CN=AC Sem LCR, O=ICP-Brasil, C=BR", IcpBrasilTestCertificates.defaultKeyPair()));
+        
+        // LCR volumosa, com um serial acima de 128 bits
+        List<BigInteger> serials = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            serials.add(BigInteger.valueOf(1_000_000_000L + i * 7L));
+        }
+        serials.add(BigInteger.ONE.shiftLeft(150).add(BigInteger.TEN));
+        serials.add(revoked.getSerialNumber());
+        write("ac.crl", IcpBrasilTestCertificates.crl(issuer, Duration.ofDays(1), serials.toArray(BigInteger[]::new)));
+        
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        CrlRevocationService service = service(meterRegistry, issuer.certificate());
+        
+        // When
+        service.refresh();
+        
+        // Then
+        assertEquals(RevocationStatus.REVOKED, service.check(revoked));
+        assertEquals(RevocationStatus.GOOD, service.check(good));
+        assertEquals(RevocationStatus.UNKNOWN, service.check(otherIssuer));
+        assertEquals(10_002.0, meterRegistry.get("revocation.crl.entries").gauge().value());
+        assertTrue(meterRegistry.get("revocation.crl.age").gauge().value() >= 0);
+        assertEquals(1, meterRegistry.get("revocation.crl.refresh").tag("result", "success").timer().count());
+    }
+    
+    @Test
+    void testRefresh_WithReplacedCrlFile_ShouldSwapIndex() throws Exception {
+        // Given
+        Issuer issuer = IcpBrasilTestCertificates.defaultIssuer();
+        X509Certificate certificate = eCpf(issuer);
+        Path file = write("ac.crl", IcpBrasilTestCertificates.crl(issuer, Duration.ofDays(1)));
+        
+        CrlRevocationService service = service(new SimpleMeterRegistry(), issuer.certificate());
+        service.refresh();
+        assertEquals(RevocationStatus.GOOD, service.check(certificate));
+        
+        // When: nova LCR publicada antes do nextUpdate da anterior
+        write("ac.crl", IcpBrasilTestCertificates.crl(issuer, Duration.ofDays(1), certificate.getSerialNumber()));
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().plusSeconds(60)));
+        service.refresh();
+        
+        // Then
+        assertEquals(RevocationStatus.REVOKED, service.check(certificate));
+        assertEquals(1, service.indexedIssuers());
+    }
+    
+    @Test
+    void testRefresh_WithCrlNotSignedByTrustedAuthority_ShouldRejectCrl() throws Exception {
+        // Given: LCR assinada por uma AC fora do truststore
+        Issuer untrusted = IcpBrasilTestCertificates.selfSignedAuthority(
+            "CN=AC Desconhecida, O=ICP-Brasil, C=BR", IcpBrasilTestCertificates.defaultKeyPair());
+        X509Certificate certificate = eCpf(untrusted);
+        write("desconhecida.crl", IcpBrasilTestCertificates.crl(untrusted, Duration.ofDays(1), certificate.getSerialNumber()));
+        
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        CrlRevocationService service = service(meterRegistry, IcpBrasilTestCertificates.defaultIssuer().certificate());
+        
+        // When
+        service.refresh();
+        
+        // Then
+        assertEquals(RevocationStatus.UNKNOWN, service.check(certificate));
+        assertEquals(1, meterRegistry.get("revocation.crl.refresh").tag("result", "failure").timer().count());
+    }
+    
+    @Test
+    void testRevocationCheck_WithoutCrlForIssuer_ShouldApplyFailurePolicy() throws Exception {
+        // Given: nenhuma LCR carregada para a AC do certificado
+        Issuer issuer = IcpBrasilTestCertificates.defaultIssuer();
+        X509Certificate certificate = eCpf(issuer);
+        X509Certificate[] chain = {certificate, issuer.certificate()};
+        RevocationProperties properties = new RevocationProperties();
+        properties.getCrl().setEnabled(true);
+        properties.getCrl().setDirectory(crlDirectory);
+        
+        // When
+        RevocationResult softFail = revocationService(properties, issuer.certificate()).check(chain);
+        properties.getCrl().setFailurePolicy(RevocationProperties.FailurePolicy.HARD);
+        RevocationResult hardFail = revocationService(properties, issuer.certificate()).check(chain);
+        
+        // Then
+        assertEquals(RevocationStatus.UNKNOWN, softFail.status());
+        assertTrue(softFail.accepted());
+        assertEquals(RevocationStatus.UNKNOWN, hardFail.status());
+        assertFalse(hardFail.accepted());
+    }
+    
+    @Test
+    void testRevokedSerialIndex_ShouldFindOnlyIndexedSerials() {
+        // Given
+        List<BigInteger> serials = List.of(
+            BigInteger.valueOf(5), BigInteger.ONE.shiftLeft(100), new BigInteger("-42"),
+            new BigInteger("FFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFF", 16), BigInteger.valueOf(5));
+        
+        // When
+        RevokedSerialIndex index = RevokedSerialIndex.of(serials);
+        
+        // Then
+        for (BigInteger serial : serials) {
+            assertTrue(index.contains(serial));
+        }
+        assertFalse(index.contains(BigInteger.valueOf(6)));
+        assertFalse(index.contains(BigInteger.ONE.shiftLeft(100).add(BigInteger.ONE)));
+        assertEquals(4, index.size());
+    }
+    
+    private CrlRevocationService service(SimpleMeterRegistry meterRegistry, X509Certificate trusted) {
+        RevocationProperties properties = new RevocationProperties();
+        properties.getCrl().setEnabled(true);
+        properties.getCrl().setDirectory(crlDirectory);
+        return new CrlRevocationService(properties, new TrustedCertificates(List.of(trusted)), meterRegistry);
+    }
+    
+    private static RevocationService revocationService(RevocationProperties properties, X509Certificate trusted) {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        TrustedCertificates trustedCertificates = new TrustedCertificates(List.of(trusted));
+        return new RevocationService(
+            new CrlRevocationService(properties, trustedCertificates, meterRegistry),
+            new OcspRevocationService(properties, meterRegistry),
+            trustedCertificates, new CertificateChainValidator(trustedCertificates, new TrustProperties(), meterRegistry));
+    }
+    
+    private Path write(String name, X509CRL crl) throws Exception {
+        return Files.write(crlDirectory.resolve(name), crl.getEncoded());
+    }
+    
+    private static X509Certificate eCpf(Issuer issuer) {
+        return IcpBrasilTestCertificates.eCpf("FULANO DE TAL", "12345678901", LocalDate.of(1980, 1, 1),
+            IcpBrasilTestCertificates.POLICY_A3, IcpBrasilTestCertificates.defaultKeyPair().getPublic(), issuer);
+    }
+}
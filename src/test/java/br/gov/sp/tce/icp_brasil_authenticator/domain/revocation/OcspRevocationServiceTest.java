@@ -0,0 +1,216 @@
+package br.gov.sp.tce.icp_brasil_authenticator.domain.revocation;
+
+import java.security.cert.X509Certificate;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import br.gov.sp.tce.icp_brasil_authenticator.configuration.RevocationProperties;
+import br.gov.sp.tce.icp_brasil_authenticator.configuration.TrustProperties;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.trust.CertificateChainValidator;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.trust.TrustedCertificates;
+import br.gov.sp.tce.icp_brasil_authenticator.support.IcpBrasilTestCertificates;
+import br.gov.sp.tce.icp_brasil_authenticator.support.IcpBrasilTestCertificates.Issuer;
+import br.gov.sp.tce.icp_brasil_authenticator.support.OcspTestResponder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class OcspRevocationServiceTest {
+    
+    private Issuer issuer;
+    private OcspTestResponder responder;
+    private SimpleMeterRegistry meterRegistry;
+    private RevocationProperties properties;
+    
+    @BeforeEach
+    void setUp() {
+        issuer = IcpBrasilTestCertificates.defaultIssuer();
+        responder = OcspTestResponder.start(issuer);
+        meterRegistry = new SimpleMeterRegistry();
+        properties = new RevocationProperties();
+        properties.getOcsp().setEnabled(true);
+        properties.getOcsp().setResponderUrl(responder.uri());
+    }
+    
+    @AfterEach
+    void tearDown() {
+        responder.close();
+    }
+    
+    @Test
+    void testCheck_WithResponder_ShouldCacheGoodAndRevokedResponses() {
+        // Given
+        X509Certificate good = eCpf();
+        X509Certificate revoked = eCpf();
+        responder.revoke(revoked.getSerialNumber());
+        RevocationService service = revocationService();
+        
+        // When
+        RevocationResult goodResult = service.check(chain(good));
+        RevocationResult revokedResult = service.check(chain(revoked));
+        for (int i = 0; i < 10; i++) {
+            service.check(chain(good));
+        }
+        
+        // Then
+        assertEquals(RevocationStatus.GOOD, goodResult.status());
+        assertEquals("OCSP", goodResult.method());
+        assertTrue(goodResult.accepted());
+        assertEquals(RevocationStatus.REVOKED, revokedResult.status());
+        assertFalse(revokedResult.accepted());
+        assertEquals(2, responder.requests());
+        assertEquals(10.0, meterRegistry.get("revocation.ocsp.lookups").tag("result", "hit").counter().count());
+        assertEquals(2.0, meterRegistry.get("revocation.ocsp.lookups").tag("result", "miss").counter().count());
+    }
+    
+    @Test
+    void testCheck_WithConcurrentLookups_ShouldSendSingleRequest() throws Exception {
+        // Given: responder lento e uma rajada de logins do mesmo titular
+        responder.setDelay(Duration.ofMillis(300));
+        X509Certificate certificate = eCpf();
+        RevocationService service = revocationService();
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        
+        // When
+        List<Future<RevocationResult>> results = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return service.check(chain(certificate));
+            }));
+        }
+        start.countDown();
+        
+        // Then
+        for (Future<RevocationResult> result : results) {
+            assertEquals(RevocationStatus.GOOD, result.get().status());
+        }
+        executor.shutdown();
+        assertEquals(1, responder.requests());
+        assertTrue(meterRegistry.get("revocation.ocsp.lookups").tag("result", "coalesced").counter().count() > 0);
+    }
+    
+    @Test
+    void testCheck_WithEntryCloseToNextUpdate_ShouldPrefetchInBackground() throws Exception {
+        // Given: toda resposta em cache já está dentro da janela de renovação
+        responder.setValidity(Duration.ofMinutes(1));
+        properties.getOcsp().setPrefetchBefore(Duration.ofMinutes(5));
+        X509Certificate certificate = eCpf();
+        RevocationService service = revocationService();
+        service.check(chain(certificate));
+        
+        // When
+        RevocationResult cached = service.check(chain(certificate));
+        
+        // Then: resposta devolvida do cache e nova consulta feita em segundo plano
+        assertEquals(RevocationStatus.GOOD, cached.status());
+        for (int i = 0; i < 50 && responder.requests() < 2; i++) {
+            Thread.sleep(20);
+        }
+        assertEquals(2, responder.requests());
+        assertEquals(1.0, meterRegistry.get("revocation.ocsp.prefetch").counter().count());
+    }
+    
+    @Test
+    void testCheck_WithSlowResponder_ShouldApplyFailurePolicy() {
+        // Given
+        responder.setDelay(Duration.ofSeconds(2));
+        properties.getOcsp().setRequestTimeout(Duration.ofMillis(200));
+        X509Certificate certificate = eCpf();
+        
+        // When
+        RevocationResult softFail = revocationService().check(chain(certificate));
+        properties.getOcsp().setFailurePolicy(RevocationProperties.FailurePolicy.HARD);
+        RevocationResult hardFail = revocationService().check(chain(certificate));
+        
+        // Then
+        assertEquals(RevocationStatus.UNKNOWN, softFail.status());
+        assertTrue(softFail.accepted());
+        assertEquals(RevocationStatus.UNKNOWN, hardFail.status());
+        assertFalse(hardFail.accepted());
+    }
+    
+    @Test
+    void testCheck_WithoutNextUpdate_ShouldAcceptOnlyRecentResponses() {
+        // Given: responder que não informa nextUpdate
+        responder.setValidity(null);
+        properties.getOcsp().setFailurePolicy(RevocationProperties.FailurePolicy.HARD);
+        X509Certificate certificate = eCpf();
+        
+        // When
+        responder.setAge(Duration.ofMinutes(10));
+        RevocationResult recent = revocationService().check(chain(certificate));
+        responder.setAge(Duration.ofHours(2));
+        RevocationResult stale = revocationService().check(chain(certificate));
+        
+        // Then: acima de maximum-age (1h) a resposta é tratada como falha do responder
+        assertEquals(RevocationStatus.GOOD, recent.status());
+        assertTrue(recent.accepted());
+        assertEquals(RevocationStatus.UNKNOWN, stale.status());
+        assertFalse(stale.accepted());
+    }
+    
+    @Test
+    void testCheck_WithThisUpdateInTheFuture_ShouldRejectBeyondClockSkew() {
+        // Given
+        properties.getOcsp().setFailurePolicy(RevocationProperties.FailurePolicy.HARD);
+        X509Certificate certificate = eCpf();
+        
+        // When
+        responder.setAge(Duration.ofMinutes(-1));
+        RevocationResult withinSkew = revocationService().check(chain(certificate));
+        responder.setAge(Duration.ofMinutes(-30));
+        RevocationResult beyondSkew = revocationService().check(chain(certificate));
+        
+        // Then
+        assertEquals(RevocationStatus.GOOD, withinSkew.status());
+        assertEquals(RevocationStatus.UNKNOWN, beyondSkew.status());
+        assertFalse(beyondSkew.accepted());
+    }
+    
+    @Test
+    void testCheck_WithForgedIntermediateCopyingIssuerName_ShouldQueryRealIssuer() {
+        // Given: certificado revogado apresentado com uma "AC" forjada com o mesmo DN da AC real
+        X509Certificate revoked = eCpf();
+        responder.revoke(revoked.getSerialNumber());
+        X509Certificate forged = IcpBrasilTestCertificates.build(issuer.name(),
+            IcpBrasilTestCertificates.rsaKeyPair(2048).getPublic(), issuer.name(),
+            IcpBrasilTestCertificates.rsaKeyPair(2048).getPrivate(), true);
+        
+        // When
+        RevocationResult result = revocationService().check(new X509Certificate[] {revoked, forged});
+        
+        // Then: consulta feita com a AC do truststore, que assinou o certificado
+        assertEquals(RevocationStatus.REVOKED, result.status());
+        assertFalse(result.accepted());
+    }
+    
+    private RevocationService revocationService() {
+        TrustedCertificates trustedCertificates = new TrustedCertificates(List.of(issuer.certificate()));
+        return new RevocationService(
+            new CrlRevocationService(properties, trustedCertificates, meterRegistry),
+            new OcspRevocationService(properties, meterRegistry),
+            trustedCertificates, new CertificateChainValidator(trustedCertificates, new TrustProperties(), meterRegistry));
+    }
+    
+    private X509Certificate[] chain(X509Certificate certificate) {
+        return new X509Certificate[] {certificate, issuer.certificate()};
+    }
+    
+    private X509Certificate eCpf() {
+        return IcpBrasilTestCertificates.eCpf("FULANO DE TAL", "12345678901", LocalDate.of(1980, 1, 1),
+            IcpBrasilTestCertificates.POLICY_A3, IcpBrasilTestCertificates.defaultKeyPair().getPublic(), issuer);
+    }
+}
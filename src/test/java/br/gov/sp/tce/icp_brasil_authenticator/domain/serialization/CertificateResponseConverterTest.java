@@ -0,0 +1,141 @@
+package br.gov.sp.tce.icp_brasil_authenticator.domain.serialization;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import br.gov.sp.tce.icp_brasil_authenticator.configuration.CertificateCacheProperties;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.dto.CertificateDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class CertificateResponseConverterTest {
+    
+    private static final String FINGERPRINT = "9F86D081884C7D659A2FEAA0C55AD015A3BF4F1B2B0B822CD15D6C15B0F00A08";
+    
+    private SimpleMeterRegistry meterRegistry;
+    private CertificateResponseConverter converter;
+    
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        converter = new CertificateResponseConverter(new Jackson2ObjectMapperBuilder(), new CertificateCacheProperties(),
+            meterRegistry);
+    }
+    
+    @Test
+    void testWrite_WithEachFormat_ShouldMatchFullSerialization() throws Exception {
+        // Given
+        CertificateDTO certificate = certificate(FINGERPRINT, "10.0.0.1");
+        
+        // When / Then: a resposta emendada é lida como o mesmo objeto da serialização completa
+        assertSameTree(new Jackson2ObjectMapperBuilder().build(), certificate, MediaType.APPLICATION_JSON);
+        assertSameTree(new Jackson2ObjectMapperBuilder().factory(new CBORFactory()).build(), certificate,
+            MediaType.APPLICATION_CBOR);
+        assertSameTree(new Jackson2ObjectMapperBuilder().factory(new SmileFactory()).build(), certificate,
+            CertificateResponseConverter.APPLICATION_SMILE);
+    }
+    
+    @Test
+    void testWrite_WithRepeatedCertificate_ShouldReuseCertificatePartAndWriteRequestFields() throws Exception {
+        // Given
+        ObjectMapper mapper = new Jackson2ObjectMapperBuilder().build();
+        
+        // When
+        converter.write(certificate(FINGERPRINT, "10.0.0.1"), MediaType.APPLICATION_JSON);
+        JsonNode second = mapper.readTree(converter.write(certificate(FINGERPRINT, "10.0.0.2"), MediaType.APPLICATION_JSON));
+        
+        // Then
+        assertEquals("10.0.0.2", second.get("remoteAddress").asText());
+        assertEquals("JOAO DA SILVA", second.get("subjectName").asText());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tags("cache", "certificate.response", "result", "hit")
+            .functionCounter().count());
+    }
+    
+    @Test
+    void testWrite_WithSameFingerprintAndAnotherChain_ShouldWritePresentedChain() throws Exception {
+        // Given: o mesmo certificado apresentado depois só com o certificado final
+        ObjectMapper mapper = new Jackson2ObjectMapperBuilder().build();
+        CertificateDTO leafOnly = certificate(FINGERPRINT, "10.0.0.2");
+        leafOnly.setCertificateChain(leafOnly.getCertificateChain().subList(0, 1));
+        
+        // When
+        converter.write(certificate(FINGERPRINT, "10.0.0.1"), MediaType.APPLICATION_JSON);
+        JsonNode second = mapper.readTree(converter.write(leafOnly, MediaType.APPLICATION_JSON));
+        
+        // Then
+        assertEquals(1, second.get("certificateChain").size());
+        assertEquals(mapper.readTree(mapper.writeValueAsBytes(leafOnly)), second);
+    }
+    
+    @Test
+    void testWrite_WithFingerprintError_ShouldNotUseCache() throws Exception {
+        // Given
+        ObjectMapper mapper = new Jackson2ObjectMapperBuilder().build();
+        
+        // When
+        converter.write(certificate("ERRO_FINGERPRINT", "10.0.0.1"), MediaType.APPLICATION_JSON);
+        CertificateDTO other = certificate("ERRO_FINGERPRINT", "10.0.0.1");
+        other.setSubjectName("MARIA SOUZA");
+        JsonNode response = mapper.readTree(converter.write(other, MediaType.APPLICATION_JSON));
+        
+        // Then
+        assertEquals("MARIA SOUZA", response.get("subjectName").asText());
+        assertEquals(0.0, meterRegistry.get("cache.size").tag("cache", "certificate.response").gauge().value());
+    }
+    
+    private void assertSameTree(ObjectMapper mapper, CertificateDTO certificate, MediaType mediaType) throws Exception {
+        JsonNode expected = mapper.readTree(mapper.writeValueAsBytes(certificate));
+        // Duas vezes: parte do certificado serializada e depois lida do cache
+        assertEquals(expected, mapper.readTree(converter.write(certificate, mediaType)));
+        assertEquals(expected, mapper.readTree(converter.write(certificate, mediaType)));
+    }
+    
+    static CertificateDTO certificate(String fingerprint, String remoteAddress) {
+        LocalDateTime now = LocalDateTime.of(2026, 10, 18, 10, 30);
+        return CertificateDTO.builder()
+            .subjectName("JOAO DA SILVA")
+            .cpf("12345678901")
+            .email("joao.silva@example.com")
+            .issuerName("AC SOLUTI Multipla v5")
+            .serialNumber("1A2B3C4D")
+            .notBefore(now.minusYears(1))
+            .notAfter(now.plusYears(2))
+            .valid(true)
+            .revocationStatus("GOOD")
+            .revocationMethod("OCSP")
+            .chainStatus("TRUSTED")
+            .trustAnchor("AC Raiz v10")
+            .certificateChain(List.of(
+                new CertificateDTO.CertificateChainDTO("JOAO DA SILVA:12345678901", "AC SOLUTI Multipla v5", "1A2B3C4D",
+                    now.minusYears(1), now.plusYears(2), false),
+                new CertificateDTO.CertificateChainDTO("AC SOLUTI Multipla v5", "AC SOLUTI v5", "0F",
+                    now.minusYears(5), now.plusYears(5), false)))
+            .signatureAlgorithm("SHA256withRSA")
+            .version(3)
+            .personType("PF")
+            .certificateType("A3")
+            .birthDate(LocalDate.of(1980, 1, 1))
+            .nis("12345678901")
+            .rg("123456789")
+            .rgIssuer("SSPSP")
+            .fingerprint(fingerprint)
+            .subjectDN("CN=JOAO DA SILVA:12345678901,OU=RFB e-CPF A3,O=ICP-Brasil,C=BR")
+            .issuerDN("CN=AC SOLUTI Multipla v5,OU=AC SOLUTI,O=ICP-Brasil,C=BR")
+            .validationTimestamp(now)
+            .remoteAddress(remoteAddress)
+            .userAgent("Mozilla/5.0")
+            .sessionId("0f8fad5b-d9cb-469f-a165-70867728950e")
+            .build();
+    }
+}
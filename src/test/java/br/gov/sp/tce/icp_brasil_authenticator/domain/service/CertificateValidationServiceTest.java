@@ -3,26 +3,64 @@ package br.gov.sp.tce.icp_brasil_authenticator.domain.service;
 import java.math.BigInteger;
 import java.security.cert.X509Certificate;
 import java.util.Date;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import br.gov.sp.tce.icp_brasil_authenticator.configuration.AuditProperties;
+import br.gov.sp.tce.icp_brasil_authenticator.configuration.CertificateCacheProperties;
+import br.gov.sp.tce.icp_brasil_authenticator.configuration.RevocationProperties;
+import br.gov.sp.tce.icp_brasil_authenticator.configuration.TrustProperties;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.audit.AuditPipeline;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.audit.LogAuditSink;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.certificate.ParsedCertificate;
 import br.gov.sp.tce.icp_brasil_authenticator.domain.dto.CertificateDTO;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.revocation.CrlRevocationService;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.revocation.OcspRevocationService;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.revocation.RevocationService;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.trust.CertificateChainValidator;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.trust.TrustedCertificates;
+import br.gov.sp.tce.icp_brasil_authenticator.metrics.ValidationMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 @ExtendWith(MockitoExtension.class)
 class CertificateValidationServiceTest {
 
-    @InjectMocks
+    private SimpleMeterRegistry meterRegistry;
+    
     private CertificateValidationService certificateValidationService;
+    
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        CertificateDataCache cache = new CertificateDataCache(new CertificateCacheProperties(), meterRegistry);
+        AuditPipeline auditPipeline = new AuditPipeline(new AuditProperties(), new LogAuditSink(), null, meterRegistry);
+        RevocationProperties revocationProperties = new RevocationProperties();
+        TrustedCertificates trustedCertificates = new TrustedCertificates(List.of());
+        TrustProperties trustProperties = new TrustProperties();
+        CertificateChainValidator chainValidator = new CertificateChainValidator(trustedCertificates, trustProperties, meterRegistry);
+        RevocationService revocationService = new RevocationService(
+            new CrlRevocationService(revocationProperties, trustedCertificates, meterRegistry),
+            new OcspRevocationService(revocationProperties, meterRegistry),
+            trustedCertificates, chainValidator);
+        certificateValidationService = new CertificateValidationService(
+            cache, auditPipeline, revocationService, chainValidator, trustProperties,
+            new ValidationMetrics(meterRegistry, 100));
+    }
 
     @Test
     void testValidateCertificate_WithValidCertificate_ShouldReturnCertificateDTO() {
@@ -87,4 +125,100 @@ class CertificateValidationServiceTest {
         
         assertEquals("Cadeia de certificados não fornecida", exception.getMessage());
     }
+
+    @Test
+    void testValidateCertificate_WithRepeatedCertificate_ShouldReuseCachedData() throws Exception {
+        // Given
+        X509Certificate mockCertificate = mock(X509Certificate.class);
+        X509Certificate[] certificateChain = {mockCertificate};
+        
+        when(mockCertificate.getEncoded()).thenReturn(new byte[] {0x30, 0x03, 0x02, 0x01, 0x01});
+        when(mockCertificate.getSubjectX500Principal())
+            .thenReturn(new javax.security.auth.x500.X500Principal("CN=João da Silva:12345678901, O=Test"));
+        when(mockCertificate.getIssuerX500Principal())
+            .thenReturn(new javax.security.auth.x500.X500Principal("CN=AC SOLUTI, O=Test CA"));
+        when(mockCertificate.getSerialNumber()).thenReturn(new BigInteger("123456789"));
+        when(mockCertificate.getNotBefore()).thenReturn(new Date());
+        when(mockCertificate.getNotAfter()).thenReturn(new Date(System.currentTimeMillis() + 365L * 24 * 60 * 60 * 1000));
+        when(mockCertificate.getSigAlgName()).thenReturn("SHA256withRSA");
+        when(mockCertificate.getVersion()).thenReturn(3);
+
+        // When
+        CertificateDTO first = certificateValidationService.validateCertificate(certificateChain, "192.168.1.1", "Mozilla/5.0");
+        CertificateDTO second = certificateValidationService.validateCertificate(certificateChain, "192.168.1.2", "curl/8.0");
+
+        // Then
+        assertEquals(first.getFingerprint(), second.getFingerprint());
+        assertEquals(first.getCertificateChain(), second.getCertificateChain());
+        assertEquals("192.168.1.2", second.getRemoteAddress());
+        assertEquals("curl/8.0", second.getUserAgent());
+        assertNotEquals(first.getSessionId(), second.getSessionId());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tags("cache", "certificate.data", "result", "hit").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tags("cache", "certificate.data", "result", "miss").functionCounter().count());
+    }
+
+    @Test
+    void testValidateCertificate_WithSameCertificateInAnotherChain_ShouldReturnPresentedChain() throws Exception {
+        // Given: o mesmo certificado final apresentado sozinho e depois com a AC emissora
+        X509Certificate mockCertificate = mock(X509Certificate.class);
+        X509Certificate mockIssuer = mock(X509Certificate.class);
+        
+        when(mockCertificate.getEncoded()).thenReturn(new byte[] {0x30, 0x03, 0x02, 0x01, 0x01});
+        when(mockCertificate.getSubjectX500Principal())
+            .thenReturn(new javax.security.auth.x500.X500Principal("CN=João da Silva:12345678901, O=Test"));
+        when(mockCertificate.getIssuerX500Principal())
+            .thenReturn(new javax.security.auth.x500.X500Principal("CN=AC SOLUTI, O=Test CA"));
+        when(mockCertificate.getSerialNumber()).thenReturn(new BigInteger("123456789"));
+        when(mockCertificate.getNotBefore()).thenReturn(new Date());
+        when(mockCertificate.getNotAfter()).thenReturn(new Date(System.currentTimeMillis() + 365L * 24 * 60 * 60 * 1000));
+        when(mockCertificate.getSigAlgName()).thenReturn("SHA256withRSA");
+        when(mockCertificate.getVersion()).thenReturn(3);
+        when(mockIssuer.getSubjectX500Principal())
+            .thenReturn(new javax.security.auth.x500.X500Principal("CN=AC SOLUTI, O=Test CA"));
+        when(mockIssuer.getIssuerX500Principal())
+            .thenReturn(new javax.security.auth.x500.X500Principal("CN=AC Raiz, O=Test CA"));
+        when(mockIssuer.getSerialNumber()).thenReturn(new BigInteger("42"));
+        when(mockIssuer.getNotBefore()).thenReturn(new Date());
+        when(mockIssuer.getNotAfter()).thenReturn(new Date(System.currentTimeMillis() + 365L * 24 * 60 * 60 * 1000));
+
+        // When
+        CertificateDTO alone = certificateValidationService.validateCertificate(
+            new X509Certificate[] {mockCertificate}, "192.168.1.1", "Mozilla/5.0");
+        CertificateDTO withIssuer = certificateValidationService.validateCertificate(
+            new X509Certificate[] {mockCertificate, mockIssuer}, "192.168.1.1", "Mozilla/5.0");
+
+        // Then: os dados do titular vêm do cache, mas a cadeia é a de cada requisição
+        assertEquals(1, alone.getCertificateChain().size());
+        assertEquals(2, withIssuer.getCertificateChain().size());
+        assertEquals("AC SOLUTI", withIssuer.getCertificateChain().get(1).getSubjectName());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tags("cache", "certificate.data", "result", "hit").functionCounter().count());
+    }
+
+    @Test
+    void testValidateCertificate_WithParsedCertificate_ShouldNotParseAgain() {
+        // Given
+        X509Certificate mockCertificate = mock(X509Certificate.class);
+        when(mockCertificate.getSubjectX500Principal())
+            .thenReturn(new javax.security.auth.x500.X500Principal("CN=João da Silva:12345678901, O=Test"));
+        when(mockCertificate.getIssuerX500Principal())
+            .thenReturn(new javax.security.auth.x500.X500Principal("CN=AC SOLUTI, O=Test CA"));
+        when(mockCertificate.getSerialNumber()).thenReturn(new BigInteger("123456789"));
+        when(mockCertificate.getNotBefore()).thenReturn(new Date());
+        when(mockCertificate.getNotAfter()).thenReturn(new Date(System.currentTimeMillis() + 365L * 24 * 60 * 60 * 1000));
+        when(mockCertificate.getSigAlgName()).thenReturn("SHA256withRSA");
+        when(mockCertificate.getVersion()).thenReturn(3);
+        
+        ParsedCertificate parsed = certificateValidationService.parseCertificate(new X509Certificate[] {mockCertificate});
+        clearInvocations(mockCertificate);
+
+        // When
+        CertificateDTO result = certificateValidationService.validate(parsed, "192.168.1.1", "Mozilla/5.0");
+
+        // Then
+        assertEquals("12345678901", result.getCpf());
+        assertEquals("192.168.1.1", result.getRemoteAddress());
+        verify(mockCertificate, never()).getSerialNumber();
+        verify(mockCertificate, never()).getSigAlgName();
+        verify(mockCertificate, never()).getVersion();
+    }
 }
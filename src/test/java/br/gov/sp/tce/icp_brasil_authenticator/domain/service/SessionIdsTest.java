@@ -0,0 +1,26 @@
+package br.gov.sp.tce.icp_brasil_authenticator.domain.service;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class SessionIdsTest {
+    
+    @Test
+    void testNext_ShouldGenerateUniqueRandomUuids() {
+        // When
+        Set<UUID> ids = new HashSet<>();
+        for (int i = 0; i < 10_000; i++) {
+            UUID id = SessionIds.next();
+            
+            // Then: versão 4 (aleatório) e variante RFC 4122, como UUID.randomUUID()
+            assertEquals(4, id.version());
+            assertEquals(2, id.variant());
+            assertTrue(ids.add(id));
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package br.gov.sp.tce.icp_brasil_authenticator.domain.token;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.Signature;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nimbusds.jose.crypto.ECDSAVerifier;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+
+import br.gov.sp.tce.icp_brasil_authenticator.configuration.TokenProperties;
+import br.gov.sp.tce.icp_brasil_authenticator.domain.dto.CertificateDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class TokenServiceTest {
+    
+    private static final CertificateDTO CERTIFICATE = CertificateDTO.builder()
+        .cpf("12345678901")
+        .fingerprint("AB12CD34")
+        .issuerName("AC TESTE")
+        .sessionId("0f8fad5b-d9cb-469f-a165-70867728950e")
+        .valid(true)
+        .build();
+    
+    @Test
+    void testIssue_WithEs256Key_ShouldBeVerifiableWithPublishedJwk() throws Exception {
+        // Given
+        TokenProperties properties = new TokenProperties();
+        properties.setTtl(Duration.ofMinutes(2));
+        properties.setAudience("sistema-teste");
+        TokenService service = new TokenService(properties, TokenService.generate(TokenProperties.Algorithm.ES256),
+            new SimpleMeterRegistry());
+        
+        // When
+        TokenService.IssuedToken token = service.issue(CERTIFICATE);
+        
+        // Then: verificado com a chave pública da JWKS, como faria um serviço seguinte
+        SignedJWT jwt = SignedJWT.parse(token.value());
+        JWKSet jwks = JWKSet.parse(service.jwks());
+        ECKey key = (ECKey) jwks.getKeyByKeyId(jwt.getHeader().getKeyID());
+        assertTrue(jwt.verify(new ECDSAVerifier(key)));
+        assertTrue(jwks.getKeys().stream().noneMatch(jwk -> jwk.isPrivate()));
+        
+        JWTClaimsSet claims = jwt.getJWTClaimsSet();
+        assertEquals("icp-brasil-authenticator", claims.getIssuer());
+        assertEquals("12345678901", claims.getSubject());
+        assertEquals(List.of("sistema-teste"), claims.getAudience());
+        assertEquals("12345678901", claims.getStringClaim("cpf"));
+        assertEquals("AB12CD34", claims.getStringClaim("fingerprint"));
+        assertEquals("AC TESTE", claims.getStringClaim("cert_issuer"));
+        assertEquals(CERTIFICATE.getSessionId(), claims.getStringClaim("sid"));
+        assertEquals(120, (claims.getExpirationTime().getTime() - claims.getIssueTime().getTime()) / 1000);
+        assertEquals(token.expiresAt().getEpochSecond(), claims.getExpirationTime().toInstant().getEpochSecond());
+    }
+    
+    @Test
+    void testIssue_WithEd25519Key_ShouldProduceValidEdDsaSignature() throws Exception {
+        // Given
+        KeyPair keyPair = TokenService.generate(TokenProperties.Algorithm.EDDSA);
+        TokenService service = new TokenService(new TokenProperties(), keyPair, new SimpleMeterRegistry());
+        
+        // When
+        String[] parts = service.issue(CERTIFICATE).value().split("\\.");
+        
+        // Then
+        Map<?, ?> header = new ObjectMapper().readValue(Base64.getUrlDecoder().decode(parts[0]), Map.class);
+        assertEquals("EdDSA", header.get("alg"));
+        assertEquals(service.keyId(), header.get("kid"));
+        
+        Signature signature = Signature.getInstance("Ed25519");
+        signature.initVerify(keyPair.getPublic());
+        signature.update((parts[0] + "." + parts[1]).getBytes(StandardCharsets.US_ASCII));
+        assertTrue(signature.verify(Base64.getUrlDecoder().decode(parts[2])));
+    }
+    
+    @Test
+    void testRotate_ShouldSignWithNewKeyAndKeepPreviousInJwks() throws Exception {
+        // Given
+        TokenService service = new TokenService(new TokenProperties(),
+            TokenService.generate(TokenProperties.Algorithm.ES256), new SimpleMeterRegistry());
+        String previousKeyId = service.keyId();
+        
+        // When
+        service.rotate(TokenService.generate(TokenProperties.Algorithm.ES256));
+        SignedJWT jwt = SignedJWT.parse(service.issue(CERTIFICATE).value());
+        
+        // Then: tokens ainda válidos da chave anterior continuam verificáveis
+        JWKSet jwks = JWKSet.parse(service.jwks());
+        assertNotEquals(previousKeyId, service.keyId());
+        assertEquals(service.keyId(), jwt.getHeader().getKeyID());
+        assertEquals(2, jwks.getKeys().size());
+        assertTrue(jwks.getKeyByKeyId(previousKeyId) != null);
+    }
+}
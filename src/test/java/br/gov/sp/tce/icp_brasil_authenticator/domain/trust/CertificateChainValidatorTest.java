@@ -0,0 +1,116 @@
+package br.gov.sp.tce.icp_brasil_authenticator.domain.trust;
+
+import java.io.ByteArrayInputStream;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509Certificate;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import org.bouncycastle.asn1.ASN1Encodable;
+import org.bouncycastle.asn1.DERBitString;
+import org.bouncycastle.asn1.DERSequence;
+import org.bouncycastle.asn1.x509.Certificate;
+import org.junit.jupiter.api.Test;
+
+import br.gov.sp.tce.icp_brasil_authenticator.configuration.TrustProperties;
+import br.gov.sp.tce.icp_brasil_authenticator.support.IcpBrasilTestCertificates;
+import br.gov.sp.tce.icp_brasil_authenticator.support.IcpBrasilTestCertificates.Issuer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class CertificateChainValidatorTest {
+    
+    private final Issuer root = IcpBrasilTestCertificates.selfSignedAuthority(
+        "CN=AC Raiz Teste v10,O=ICP-Brasil,C=BR", IcpBrasilTestCertificates.ecKeyPair());
+    private final Issuer intermediate = IcpBrasilTestCertificates.subordinateAuthority(
+        "CN=AC Intermediaria Teste,O=ICP-Brasil,C=BR", IcpBrasilTestCertificates.ecKeyPair(), root);
+    private final X509Certificate leaf = IcpBrasilTestCertificates.eCpf("FULANO DE TAL", "12345678901",
+        LocalDate.of(1980, 1, 1), IcpBrasilTestCertificates.POLICY_A3, IcpBrasilTestCertificates.ecKeyPair().getPublic(), intermediate);
+    
+    @Test
+    void testValidate_WithIntermediatePresented_ShouldBuildPathToRoot() {
+        // Given: apenas a raiz no truststore
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        CertificateChainValidator validator = validator(meterRegistry, root.certificate());
+        X509Certificate[] chain = {leaf, intermediate.certificate()};
+        
+        // When
+        ChainValidationResult first = validator.validate(chain);
+        ChainValidationResult second = validator.validate(chain);
+        
+        // Then: a segunda validação reaproveita as duas assinaturas verificadas
+        assertEquals(ChainStatus.TRUSTED, first.status());
+        assertSame(root.certificate(), first.trustAnchor());
+        assertEquals(ChainStatus.TRUSTED, second.status());
+        assertEquals(2.0, meterRegistry.get("cache.gets").tag("cache", CertificateChainValidator.CACHE_NAME)
+            .tag("result", "hit").functionCounter().count());
+    }
+    
+    @Test
+    void testValidate_WithIntermediateInTruststore_ShouldTrustLeafAlone() {
+        // Given
+        CertificateChainValidator validator = validator(new SimpleMeterRegistry(), root.certificate(), intermediate.certificate());
+        
+        // When
+        ChainValidationResult result = validator.validate(new X509Certificate[] {leaf});
+        
+        // Then
+        assertEquals(ChainStatus.TRUSTED, result.status());
+        assertSame(intermediate.certificate(), result.trustAnchor());
+    }
+    
+    @Test
+    void testValidate_WithMissingIntermediate_ShouldReportIncomplete() {
+        // Given
+        CertificateChainValidator validator = validator(new SimpleMeterRegistry(), root.certificate());
+        
+        // When
+        ChainValidationResult result = validator.validate(new X509Certificate[] {leaf});
+        
+        // Then
+        assertEquals(ChainStatus.INCOMPLETE, result.status());
+    }
+    
+    @Test
+    void testValidate_WithUnknownRootOrForgedIssuer_ShouldReportUntrusted() {
+        // Given: raiz fora do truststore e intermediária forjada com o mesmo nome
+        CertificateChainValidator validator = validator(new SimpleMeterRegistry(), IcpBrasilTestCertificates.defaultIssuer().certificate());
+        Issuer forged = IcpBrasilTestCertificates.selfSignedAuthority(
+            "CN=AC Intermediaria Teste,O=ICP-Brasil,C=BR", IcpBrasilTestCertificates.ecKeyPair());
+        
+        // When
+        ChainValidationResult unknownRoot = validator.validate(new X509Certificate[] {leaf, intermediate.certificate(), root.certificate()});
+        ChainValidationResult forgedIssuer = validator.validate(new X509Certificate[] {leaf, forged.certificate()});
+        
+        // Then
+        assertEquals(ChainStatus.UNTRUSTED, unknownRoot.status());
+        assertEquals(ChainStatus.UNTRUSTED, forgedIssuer.status());
+    }
+    
+    @Test
+    void testValidate_WithSignatureCopiedToForgedCertificate_ShouldNotReuseCachedVerification() throws Exception {
+        // Given: cadeia legítima já validada (assinatura da folha em cache) e um certificado forjado
+        // com outro titular, emitido em nome da mesma AC e com a assinatura da folha legítima
+        CertificateChainValidator validator = validator(new SimpleMeterRegistry(), root.certificate());
+        assertEquals(ChainStatus.TRUSTED, validator.validate(new X509Certificate[] {leaf, intermediate.certificate()}).status());
+        X509Certificate unsigned = IcpBrasilTestCertificates.eCpf("CICLANO DE TAL", "98765432100", LocalDate.of(1990, 1, 1),
+            IcpBrasilTestCertificates.POLICY_A3, IcpBrasilTestCertificates.ecKeyPair().getPublic(),
+            new Issuer(intermediate.certificate(), IcpBrasilTestCertificates.ecKeyPair().getPrivate()));
+        Certificate structure = Certificate.getInstance(unsigned.getEncoded());
+        X509Certificate forged = (X509Certificate) CertificateFactory.getInstance("X.509").generateCertificate(
+            new ByteArrayInputStream(new DERSequence(new ASN1Encodable[] {
+                structure.getTBSCertificate(), structure.getSignatureAlgorithm(), new DERBitString(leaf.getSignature())
+            }).getEncoded()));
+        
+        // When
+        ChainValidationResult result = validator.validate(new X509Certificate[] {forged, intermediate.certificate()});
+        
+        // Then
+        assertEquals(ChainStatus.UNTRUSTED, result.status());
+    }
+    
+    private static CertificateChainValidator validator(SimpleMeterRegistry meterRegistry, X509Certificate... trusted) {
+        return new CertificateChainValidator(new TrustedCertificates(List.of(trusted)), new TrustProperties(), meterRegistry);
+    }
+}
@@ -0,0 +1,113 @@
+package br.gov.sp.tce.icp_brasil_authenticator.domain.trust;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.security.KeyStore;
+import java.security.cert.X509Certificate;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.ssl.DefaultSslBundleRegistry;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import br.gov.sp.tce.icp_brasil_authenticator.configuration.TrustProperties;
+import br.gov.sp.tce.icp_brasil_authenticator.support.IcpBrasilTestCertificates;
+import br.gov.sp.tce.icp_brasil_authenticator.support.IcpBrasilTestCertificates.Issuer;
+import br.gov.sp.tce.icp_brasil_authenticator.support.IcpBrasilTestCertificates.KeyType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class TrustAnchorSnapshotTest {
+    
+    private static final char[] PASSWORD = "changeit".toCharArray();
+    
+    @TempDir
+    Path directory;
+    
+    @Test
+    void testOpen_WithGeneratedSnapshot_ShouldFindSameAuthoritiesAsKeyStore() throws Exception {
+        // Given: cadeia de 4 níveis e uma AC renovada (mesmo subject e mesma chave em dois certificados)
+        Issuer[] authorities = IcpBrasilTestCertificates.authorities(4, KeyType.EC_P256);
+        KeyPair renewedKey = IcpBrasilTestCertificates.ecKeyPair();
+        Issuer renewed = IcpBrasilTestCertificates.selfSignedAuthority("CN=AC Renovada,O=ICP-Brasil,C=BR", renewedKey);
+        Issuer previous = IcpBrasilTestCertificates.selfSignedAuthority("CN=AC Renovada,O=ICP-Brasil,C=BR", renewedKey);
+        byte[] trustStore = trustStore(authorities[0], authorities[1], authorities[2], renewed, previous);
+        Path file = directory.resolve("trust-anchors.snapshot");
+        TrustAnchorSnapshotGenerator.main(new String[] { write("truststore.p12", trustStore).toString(), "changeit", file.toString() });
+        
+        // When
+        TrustAnchorSnapshot snapshot = TrustAnchorSnapshot.open(file);
+        TrustedCertificates trustedCertificates = new TrustedCertificates(new DefaultSslBundleRegistry(), "", snapshot,
+            new SimpleMeterRegistry());
+        
+        // Then
+        X509Certificate leaf = IcpBrasilTestCertificates.eCpf("JOAO DA SILVA", "12345678901", LocalDate.of(1980, 1, 1),
+            IcpBrasilTestCertificates.POLICY_A1, IcpBrasilTestCertificates.ecKeyPair().getPublic(), authorities[0]);
+        assertTrue(snapshot.matches(trustStore));
+        assertEquals(5, trustedCertificates.size());
+        assertEquals(List.of(authorities[0].certificate()), trustedCertificates.findIssuerCandidates(leaf));
+        assertEquals(List.of(authorities[1].certificate()), trustedCertificates.findIssuerCandidates(authorities[0].certificate()));
+        assertEquals(2, trustedCertificates.findBySubject(renewed.certificate().getSubjectX500Principal()).size());
+        assertEquals(2, trustedCertificates.findIssuerCandidates(renewed.certificate()).size());
+        assertTrue(trustedCertificates.findIssuerCandidates(IcpBrasilTestCertificates.eCpf("MARIA SOUZA", "98765432100",
+            LocalDate.of(1990, 1, 1), IcpBrasilTestCertificates.POLICY_A1)).isEmpty());
+        // Decodificado uma única vez
+        assertSame(trustedCertificates.findIssuerCandidates(leaf).get(0), trustedCertificates.findIssuerCandidates(leaf).get(0));
+        assertEquals(ChainStatus.TRUSTED, new CertificateChainValidator(trustedCertificates, new TrustProperties(),
+            new SimpleMeterRegistry()).validate(new X509Certificate[] { leaf }).status());
+    }
+    
+    @Test
+    void testSnapshot_WithDifferentOrCorruptedFile_ShouldFallBackToTrustStore() throws Exception {
+        // Given
+        Issuer[] authorities = IcpBrasilTestCertificates.authorities(3, KeyType.EC_P256);
+        byte[] trustStore = trustStore(authorities[0], authorities[1]);
+        Path trustStoreFile = write("truststore.p12", trustStore);
+        Path snapshotFile = directory.resolve("trust-anchors.snapshot");
+        TrustAnchorSnapshot.write(trustStore, TrustedCertificates.certificates(load(trustStore)), snapshotFile);
+        DefaultResourceLoader resourceLoader = new DefaultResourceLoader();
+        String location = trustStoreFile.toUri().toString();
+        
+        // When / Then: snapshot do mesmo .p12
+        assertNotNull(TrustedCertificates.snapshot(snapshotFile, location, resourceLoader));
+        
+        // When / Then: truststore alterado depois do build
+        write("truststore.p12", trustStore(authorities[0]));
+        assertNull(TrustedCertificates.snapshot(snapshotFile, location, resourceLoader));
+        
+        // When / Then: arquivo que não é um snapshot
+        Files.write(snapshotFile, new byte[] { 1, 2, 3 });
+        assertNull(TrustedCertificates.snapshot(snapshotFile, location, resourceLoader));
+        assertNull(TrustedCertificates.snapshot(directory.resolve("ausente.snapshot"), location, resourceLoader));
+    }
+    
+    private Path write(String name, byte[] bytes) throws Exception {
+        return Files.write(directory.resolve(name), bytes);
+    }
+    
+    private static byte[] trustStore(Issuer... authorities) throws Exception {
+        KeyStore keyStore = KeyStore.getInstance("PKCS12");
+        keyStore.load(null, null);
+        for (int i = 0; i < authorities.length; i++) {
+            keyStore.setCertificateEntry("ac" + i, authorities[i].certificate());
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        keyStore.store(out, PASSWORD);
+        return out.toByteArray();
+    }
+    
+    private static KeyStore load(byte[] bytes) throws Exception {
+        KeyStore keyStore = KeyStore.getInstance("PKCS12");
+        keyStore.load(new ByteArrayInputStream(bytes), PASSWORD);
+        return keyStore;
+    }
+}
@@ -0,0 +1,103 @@
+package br.gov.sp.tce.icp_brasil_authenticator.domain.trust;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyStore;
+import java.security.cert.X509Certificate;
+import java.time.LocalDate;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.ssl.DefaultSslBundleRegistry;
+import org.springframework.boot.ssl.SslBundle;
+import org.springframework.boot.ssl.SslStoreBundle;
+
+import br.gov.sp.tce.icp_brasil_authenticator.configuration.TrustProperties;
+import br.gov.sp.tce.icp_brasil_authenticator.support.IcpBrasilTestCertificates;
+import br.gov.sp.tce.icp_brasil_authenticator.support.IcpBrasilTestCertificates.Issuer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class TrustDirectoryWatcherTest {
+    
+    @TempDir
+    Path certificatesDirectory;
+    
+    @Test
+    void testRefresh_WithNewAuthorityFile_ShouldUpdateBundleAndRebuildIndex() throws Exception {
+        // Given: bundle do servidor com truststore vazio
+        KeyStore empty = KeyStore.getInstance("PKCS12");
+        empty.load(null, null);
+        DefaultSslBundleRegistry registry = new DefaultSslBundleRegistry();
+        registry.registerBundle("server", SslBundle.of(SslStoreBundle.of(null, null, empty)));
+        
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        TrustedCertificates trustedCertificates = new TrustedCertificates(registry, "server", meterRegistry);
+        CertificateChainValidator validator = new CertificateChainValidator(trustedCertificates, new TrustProperties(), meterRegistry);
+        
+        Issuer authority = IcpBrasilTestCertificates.selfSignedAuthority(
+            "CN=AC Nova ITI,O=ICP-Brasil,C=BR", IcpBrasilTestCertificates.ecKeyPair());
+        X509Certificate leaf = IcpBrasilTestCertificates.eCpf("FULANO DE TAL", "12345678901", LocalDate.of(1980, 1, 1),
+            IcpBrasilTestCertificates.POLICY_A3, IcpBrasilTestCertificates.ecKeyPair().getPublic(), authority);
+        assertEquals(ChainStatus.INCOMPLETE, validator.validate(new X509Certificate[] {leaf}).status());
+        
+        TrustProperties properties = new TrustProperties();
+        properties.setCertificatesDirectory(certificatesDirectory);
+        TrustDirectoryWatcher watcher = new TrustDirectoryWatcher(properties, "server", registry, registry);
+        
+        // When: ACs publicadas no diretório (uma em DER, outra em PEM)
+        Files.write(certificatesDirectory.resolve("ac-nova.crt"), authority.certificate().getEncoded());
+        Files.writeString(certificatesDirectory.resolve("ac-teste.pem"), pem(IcpBrasilTestCertificates.defaultIssuer().certificate()));
+        watcher.refresh();
+        watcher.refresh();
+        
+        // Then: bundle atualizado uma única vez e índice reconstruído
+        assertEquals(2, registry.getBundle("server").getStores().getTrustStore().size());
+        assertEquals(2, trustedCertificates.size());
+        assertEquals(ChainStatus.TRUSTED, validator.validate(new X509Certificate[] {leaf}).status());
+        assertEquals(2, meterRegistry.get("trust.reload").timer().count());
+        assertEquals(2.0, meterRegistry.get("trust.anchors").gauge().value());
+    }
+    
+    @Test
+    void testRefresh_WithEmptyDirectoryOrUnreadableFile_ShouldKeepPreviousBundle() throws Exception {
+        // Given: bundle do servidor com uma AC
+        KeyStore previous = KeyStore.getInstance("PKCS12");
+        previous.load(null, null);
+        previous.setCertificateEntry("ac-teste", IcpBrasilTestCertificates.defaultIssuer().certificate());
+        DefaultSslBundleRegistry registry = new DefaultSslBundleRegistry();
+        registry.registerBundle("server", SslBundle.of(SslStoreBundle.of(null, null, previous)));
+        
+        TrustProperties properties = new TrustProperties();
+        properties.setCertificatesDirectory(certificatesDirectory);
+        TrustDirectoryWatcher watcher = new TrustDirectoryWatcher(properties, "server", registry, registry);
+        Issuer authority = IcpBrasilTestCertificates.selfSignedAuthority(
+            "CN=AC Nova ITI,O=ICP-Brasil,C=BR", IcpBrasilTestCertificates.ecKeyPair());
+        
+        // When: diretório vazio, depois uma AC válida ao lado de um arquivo truncado
+        watcher.refresh();
+        SslBundle afterEmpty = registry.getBundle("server");
+        Files.write(certificatesDirectory.resolve("ac-nova.crt"), authority.certificate().getEncoded());
+        Files.write(certificatesDirectory.resolve("ac-copiando.crt"), new byte[] {0x30, (byte) 0x82, 0x01});
+        watcher.refresh();
+        SslBundle afterPartial = registry.getBundle("server");
+        // Cópia concluída: a mesma leitura é refeita no ciclo seguinte
+        Files.delete(certificatesDirectory.resolve("ac-copiando.crt"));
+        watcher.refresh();
+        
+        // Then
+        assertSame(previous, afterEmpty.getStores().getTrustStore());
+        assertSame(previous, afterPartial.getStores().getTrustStore());
+        KeyStore updated = registry.getBundle("server").getStores().getTrustStore();
+        assertEquals(1, updated.size());
+        assertEquals(authority.certificate(), updated.getCertificate(updated.aliases().nextElement()));
+    }
+    
+    private static String pem(X509Certificate certificate) throws Exception {
+        return "-----BEGIN CERTIFICATE-----\n"
+            + Base64.getMimeEncoder(64, "\n".getBytes()).encodeToString(certificate.getEncoded())
+            + "\n-----END CERTIFICATE-----\n";
+    }
+}
@@ -0,0 +1,151 @@
+package br.gov.sp.tce.icp_brasil_authenticator.loadtest;
+
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.security.KeyStore;
+import java.security.SecureRandom;
+import java.security.cert.Certificate;
+import java.security.cert.X509Certificate;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManagerFactory;
+
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.ExtendedKeyUsage;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.GeneralName;
+import org.bouncycastle.asn1.x509.GeneralNames;
+import org.bouncycastle.asn1.x509.KeyPurposeId;
+
+import br.gov.sp.tce.icp_brasil_authenticator.support.IcpBrasilTestCertificates;
+import br.gov.sp.tce.icp_brasil_authenticator.support.IcpBrasilTestCertificates.Issuer;
+import br.gov.sp.tce.icp_brasil_authenticator.support.IcpBrasilTestCertificates.KeyType;
+
+// PKI descartável do teste de carga: raiz e AC intermediária de teste, certificado do servidor
+// para localhost e N certificados e-CPF de clientes. Grava keystore/truststore do servidor em
+// PKCS12 e monta um SSLContext por cliente (cada um com seu cache de sessões TLS).
+final class LoadTestPki {
+    
+    static final char[] PASSWORD = "changeit".toCharArray();
+    
+    // Gerar uma chave RSA por cliente tornaria a preparação lenta sem mudar o custo do handshake
+    // no servidor (verificação de uma assinatura por handshake completo); as chaves são reaproveitadas
+    private static final int KEY_POOL_SIZE = 16;
+    
+    private final List<SSLContext> clientContexts;
+    private final Issuer clientIssuer;
+    private final Path keyStore;
+    private final Path trustStore;
+    
+    private LoadTestPki(List<SSLContext> clientContexts, Issuer clientIssuer, Path keyStore, Path trustStore) {
+        this.clientContexts = clientContexts;
+        this.clientIssuer = clientIssuer;
+        this.keyStore = keyStore;
+        this.trustStore = trustStore;
+    }
+    
+    static LoadTestPki create(Path directory, int clients, KeyType keyType) throws Exception {
+        return create(directory, clients, keyType, 0);
+    }
+    
+    // Com extraAuthorities, o truststore do servidor recebe também ACs subordinadas à raiz de teste que
+    // não emitem nenhum cliente, aproximando o tamanho do truststore da ICP-Brasil (centenas de ACs)
+    static LoadTestPki create(Path directory, int clients, KeyType keyType, int extraAuthorities) throws Exception {
+        Files.createDirectories(directory);
+        
+        // Cadeia de 3 níveis como na ICP-Brasil: [0] AC emissora dos clientes, [1] raiz
+        Issuer[] authorities = IcpBrasilTestCertificates.authorities(3, keyType);
+        
+        // O servidor usa RSA por causa das cifras ECDHE-RSA configuradas no bundle
+        KeyPair serverKeyPair = IcpBrasilTestCertificates.rsaKeyPair(2048);
+        X509Certificate serverCertificate = IcpBrasilTestCertificates.build(new X500Name("CN=localhost,O=Teste de Carga,C=BR"),
+            serverKeyPair.getPublic(), authorities[0].name(), authorities[0].privateKey(), false,
+            new Extension(Extension.subjectAlternativeName, false, new GeneralNames(new GeneralName[] {
+                new GeneralName(GeneralName.dNSName, "localhost"),
+                new GeneralName(GeneralName.iPAddress, "127.0.0.1")
+            }).getEncoded()),
+            new Extension(Extension.extendedKeyUsage, false, new ExtendedKeyUsage(KeyPurposeId.id_kp_serverAuth).getEncoded()));
+        
+        KeyStore serverKeyStore = KeyStore.getInstance("PKCS12");
+        serverKeyStore.load(null, null);
+        serverKeyStore.setKeyEntry("server", serverKeyPair.getPrivate(), PASSWORD,
+            new Certificate[] { serverCertificate, authorities[0].certificate(), authorities[1].certificate() });
+        Path keyStore = store(serverKeyStore, directory.resolve("server-keystore.p12"));
+        
+        KeyStore serverTrustStore = KeyStore.getInstance("PKCS12");
+        serverTrustStore.load(null, null);
+        for (Issuer authority : authorities) {
+            serverTrustStore.setCertificateEntry(authority.certificate().getSubjectX500Principal().getName(), authority.certificate());
+        }
+        for (int i = 0; i < extraAuthorities; i++) {
+            Issuer extra = IcpBrasilTestCertificates.subordinateAuthority(
+                "CN=AC Complementar " + i + ",OU=Instituto Nacional de Tecnologia da Informacao - ITI,O=ICP-Brasil,C=BR",
+                IcpBrasilTestCertificates.ecKeyPair(), authorities[1]);
+            serverTrustStore.setCertificateEntry(extra.certificate().getSubjectX500Principal().getName(), extra.certificate());
+        }
+        Path trustStore = store(serverTrustStore, directory.resolve("server-truststore.p12"));
+        
+        // Os clientes confiam na raiz de teste para validar o certificado do servidor
+        KeyStore clientTrustStore = KeyStore.getInstance("PKCS12");
+        clientTrustStore.load(null, null);
+        clientTrustStore.setCertificateEntry("root", authorities[1].certificate());
+        TrustManagerFactory trustManagers = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+        trustManagers.init(clientTrustStore);
+        
+        KeyPair[] keyPairs = new KeyPair[Math.min(clients, KEY_POOL_SIZE)];
+        for (int i = 0; i < keyPairs.length; i++) {
+            keyPairs[i] = keyType.generate();
+        }
+        
+        SecureRandom random = new SecureRandom();
+        List<SSLContext> clientContexts = new ArrayList<>(clients);
+        for (int i = 0; i < clients; i++) {
+            KeyPair keyPair = keyPairs[i % keyPairs.length];
+            String cpf = String.format("%011d", random.nextLong(100_000_000_000L));
+            X509Certificate leaf = IcpBrasilTestCertificates.eCpf("CLIENTE CARGA " + i, cpf, LocalDate.of(1980, 1, 1),
+                IcpBrasilTestCertificates.POLICY_A1, keyPair.getPublic(), authorities[0]);
+            
+            KeyStore clientKeyStore = KeyStore.getInstance("PKCS12");
+            clientKeyStore.load(null, null);
+            clientKeyStore.setKeyEntry("client", keyPair.getPrivate(), PASSWORD,
+                new Certificate[] { leaf, authorities[0].certificate() });
+            KeyManagerFactory keyManagers = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+            keyManagers.init(clientKeyStore, PASSWORD);
+            
+            SSLContext context = SSLContext.getInstance("TLS");
+            context.init(keyManagers.getKeyManagers(), trustManagers.getTrustManagers(), null);
+            clientContexts.add(context);
+        }
+        return new LoadTestPki(clientContexts, authorities[0], keyStore, trustStore);
+    }
+    
+    private static Path store(KeyStore store, Path file) throws Exception {
+        try (OutputStream out = Files.newOutputStream(file)) {
+            store.store(out, PASSWORD);
+        }
+        return file;
+    }
+    
+    List<SSLContext> clientContexts() {
+        return clientContexts;
+    }
+    
+    // AC emissora dos e-CPF dos clientes (e das respostas do responder OCSP de teste)
+    Issuer clientIssuer() {
+        return clientIssuer;
+    }
+    
+    Path keyStore() {
+        return keyStore;
+    }
+    
+    Path trustStore() {
+        return trustStore;
+    }
+}
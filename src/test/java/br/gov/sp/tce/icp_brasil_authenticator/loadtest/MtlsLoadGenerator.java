@@ -0,0 +1,601 @@
+package br.gov.sp.tce.icp_brasil_authenticator.loadtest;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSession;
+import javax.net.ssl.SSLSocket;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.boot.convert.DurationStyle;
+
+import br.gov.sp.tce.icp_brasil_authenticator.IcpBrasilAuthenticatorApplication;
+import br.gov.sp.tce.icp_brasil_authenticator.support.IcpBrasilTestCertificates.KeyType;
+import br.gov.sp.tce.icp_brasil_authenticator.support.OcspTestResponder;
+
+// Teste de carga mTLS ponta a ponta, sem rede externa: gera a PKI de teste, sobe a aplicação em
+// outra JVM com keystore/truststore correspondentes e dispara GET /api/certificate/validate com
+// concorrência, proporção de sessões TLS retomadas e keep-alive configuráveis. Relata vazão,
+// histogramas (HdrHistogram) de handshake e de requisição e CPU do servidor por requisição.
+// Com mais de um engine TLS em --engines ou modo de threads em --threads (platform, virtual), repete
+// a medição para cada combinação e compara os resultados. Com --ocsp-delay, cada login consulta um
+// responder OCSP local que demora o tempo informado, simulando uma dependência lenta. Respostas 503
+// do limite de concorrência são contadas à parte, fora do histograma de requisições, e uma sonda
+// mede a latência de /api/health/status durante a carga.
+//
+// mvn -Ploadtest verify -DskipTests -Dloadtest.concurrency=64 -Dloadtest.resume-ratio=0.5
+// mvn -Ploadtest verify -DskipTests -Dloadtest.engines=jsse,openssl -Dloadtest.resume-ratio=0 -Dloadtest.requests-per-connection=1
+// mvn -Ploadtest verify -DskipTests -Dloadtest.threads=platform,virtual -Dloadtest.ocsp-delay=500ms -Dloadtest.concurrency=400
+// mvn -Ploadtest verify -DskipTests -Dloadtest.ocsp-delay=200ms -Dloadtest.concurrency=400 -Dloadtest.server-args=--icp-brasil.concurrency-limit.enabled=false
+public final class MtlsLoadGenerator {
+    
+    private static final String PATH = "/api/certificate/validate";
+    private static final String HEALTH_PATH = "/api/health/status";
+    private static final long HEALTH_INTERVAL_MILLIS = 100;
+    // Pausa do cliente após um 503, respeitando o Retry-After: 1 do servidor (que fecha a conexão)
+    private static final long SHED_PAUSE_MILLIS = 1000;
+    private static final Pattern HANDSHAKES_METRIC = Pattern.compile("^tls_handshakes_total\\{[^}]*type=\"(\\w+)\"[^}]*\\} (\\S+)$", Pattern.MULTILINE);
+    private static final Pattern ENGINE_METRIC = Pattern.compile("^tls_engine\\{[^}]*engine=\"(\\w+)\"[^}]*\\} 1\\.0$", Pattern.MULTILINE);
+    private static final Pattern LIMIT_METRIC = Pattern.compile("^concurrency_limit\\{[^}]*group=\"validation\"[^}]*\\} (\\S+)$", Pattern.MULTILINE);
+    private static final Pattern PINNED_METRIC = Pattern.compile("^jvm_threads_virtual_pinned_seconds_count(?:\\{[^}]*\\})? (\\S+)$", Pattern.MULTILINE);
+    
+    private final Options options;
+    private final LoadTestPki pki;
+    private final String engine;
+    private final String threads;
+    private final OcspTestResponder ocspResponder;
+    private final Path output;
+    private final int port;
+    
+    private final Recorder fullHandshakes = new Recorder(3);
+    private final Recorder resumedHandshakes = new Recorder(3);
+    private final Recorder requests = new Recorder(3);
+    private final Recorder health = new Recorder(3);
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder shed = new LongAdder();
+    private final AtomicReferenceArray<SSLSession> sessions;
+    
+    private volatile boolean running = true;
+    private volatile String negotiated = "-";
+    
+    private MtlsLoadGenerator(Options options, LoadTestPki pki, String engine, String threads, OcspTestResponder ocspResponder,
+                              Path output, int port) {
+        this.options = options;
+        this.pki = pki;
+        this.engine = engine;
+        this.threads = threads;
+        this.ocspResponder = ocspResponder;
+        this.output = output;
+        this.port = port;
+        this.sessions = new AtomicReferenceArray<>(options.clients());
+    }
+    
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+        Files.createDirectories(options.output());
+        
+        System.out.printf("Gerando PKI de teste com %d clientes (%s)...%n", options.clients(), options.keyType());
+        LoadTestPki pki = LoadTestPki.create(options.output(), options.clients(), options.keyType());
+        
+        OcspTestResponder responder = null;
+        if (!options.ocspDelay().isZero()) {
+            responder = OcspTestResponder.start(pki.clientIssuer());
+            responder.setDelay(options.ocspDelay());
+            System.out.printf("Responder OCSP local em %s com atraso de %s%n", responder.uri(), options.ocspDelay());
+        }
+        
+        try {
+            List<Result> results = new ArrayList<>();
+            for (String engine : options.engines()) {
+                for (String threads : options.threads()) {
+                    Path output = options.output();
+                    if (options.engines().size() > 1) {
+                        output = output.resolve(options.threads().size() > 1 ? engine + "-" + threads : engine);
+                    } else if (options.threads().size() > 1) {
+                        output = output.resolve(threads);
+                    }
+                    Files.createDirectories(output);
+                    MtlsLoadGenerator generator = new MtlsLoadGenerator(options, pki, engine, threads,
+                        responder, output, freePort());
+                    results.add(generator.run());
+                }
+            }
+            if (results.size() > 1) {
+                compare(results, options.output());
+            }
+        } finally {
+            if (responder != null) {
+                responder.close();
+            }
+        }
+    }
+    
+    private Result run() throws Exception {
+        Process server = startServer();
+        Thread shutdownHook = new Thread(server::destroy);
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+        try {
+            awaitServer(server);
+            return measure(server);
+        } finally {
+            server.destroy();
+            server.waitFor(30, TimeUnit.SECONDS);
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        }
+    }
+    
+    private Result measure(Process server) throws Exception {
+        ExecutorService workers = Executors.newFixedThreadPool(options.concurrency());
+        for (int i = 0; i < options.concurrency(); i++) {
+            workers.execute(this::work);
+        }
+        Thread healthProbe = Thread.ofPlatform().name("health-probe").daemon().start(this::probeHealth);
+        
+        System.out.printf("Aquecimento por %s...%n", options.warmup());
+        Thread.sleep(options.warmup().toMillis());
+        
+        // A leitura das métricas pode esperar na fila do Tomcat saturado, por isso vem antes do início da janela
+        ServerMetrics serverStart = serverMetrics();
+        
+        // Descarta o aquecimento: os Recorders devolvem e zeram o intervalo corrente
+        fullHandshakes.getIntervalHistogram();
+        resumedHandshakes.getIntervalHistogram();
+        requests.getIntervalHistogram();
+        health.getIntervalHistogram();
+        errors.reset();
+        shed.reset();
+        int ocspStart = ocspResponder != null ? ocspResponder.requests() : 0;
+        Duration cpuStart = cpu(server);
+        long start = System.nanoTime();
+        
+        System.out.printf("Medindo por %s...%n", options.duration());
+        Thread.sleep(options.duration().toMillis());
+        
+        Histogram full = fullHandshakes.getIntervalHistogram();
+        Histogram resumed = resumedHandshakes.getIntervalHistogram();
+        Histogram request = requests.getIntervalHistogram();
+        Histogram healthRequest = health.getIntervalHistogram();
+        long errorCount = errors.sum();
+        long shedCount = shed.sum();
+        Duration cpu = cpu(server).minus(cpuStart);
+        int ocspRequests = ocspResponder != null ? ocspResponder.requests() - ocspStart : 0;
+        double seconds = (System.nanoTime() - start) / 1e9;
+        ServerMetrics serverEnd = serverMetrics();
+        Map<String, Long> serverHandshakes = new TreeMap<>(serverEnd.handshakes());
+        serverStart.handshakes().forEach((type, count) -> serverHandshakes.merge(type, -count, Long::sum));
+        
+        running = false;
+        workers.shutdown();
+        workers.awaitTermination(30, TimeUnit.SECONDS);
+        healthProbe.join(TimeUnit.SECONDS.toMillis(30));
+        
+        long pinned = serverEnd.pinned() < 0 ? -1 : serverEnd.pinned() - Math.max(0, serverStart.pinned());
+        
+        return report(full, resumed, request, healthRequest, errorCount, shedCount, cpu, seconds, serverHandshakes,
+            serverEnd.engine(), pinned, serverEnd.limit(), ocspRequests);
+    }
+    
+    private void work() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (running) {
+            int client = random.nextInt(options.clients());
+            boolean resume = random.nextDouble() < options.resumeRatio();
+            try {
+                connection(client, resume);
+            } catch (Exception e) {
+                errors.increment();
+            }
+        }
+    }
+    
+    // Uma conexão: handshake (retomando ou não a sessão anterior do cliente) e N requisições em keep-alive
+    private void connection(int client, boolean resume) throws IOException {
+        SSLContext context = pki.clientContexts().get(client);
+        SSLSession previous = sessions.get(client);
+        if (!resume && previous != null) {
+            // Remove a sessão do cache do cliente e força um handshake completo
+            previous.invalidate();
+        }
+        
+        long start = System.nanoTime();
+        long startMillis = System.currentTimeMillis();
+        try (SSLSocket socket = (SSLSocket) context.getSocketFactory().createSocket("localhost", port)) {
+            socket.setTcpNoDelay(true);
+            socket.startHandshake();
+            long handshake = System.nanoTime() - start;
+            
+            // Sessão retomada (ID no TLS 1.2, PSK no TLS 1.3) mantém a data de criação da original
+            SSLSession session = socket.getSession();
+            boolean resumed = session.getCreationTime() < startMillis;
+            (resumed ? resumedHandshakes : fullHandshakes).recordValue(handshake / 1000);
+            sessions.set(client, session);
+            negotiated = session.getProtocol() + " " + session.getCipherSuite();
+            
+            OutputStream out = socket.getOutputStream();
+            InputStream in = new BufferedInputStream(socket.getInputStream());
+            byte[] request = ("GET " + PATH + " HTTP/1.1\r\nHost: localhost\r\nAccept: application/json\r\n\r\n")
+                .getBytes(StandardCharsets.US_ASCII);
+            for (int i = 0; i < options.requestsPerConnection() && running; i++) {
+                long requestStart = System.nanoTime();
+                out.write(request);
+                out.flush();
+                int status = readResponse(in);
+                if (status == 503) {
+                    shed.increment();
+                    pause(SHED_PAUSE_MILLIS);
+                    return;
+                }
+                requests.recordValue((System.nanoTime() - requestStart) / 1000);
+                if (status != 200) {
+                    errors.increment();
+                }
+            }
+        }
+    }
+    
+    // Sonda de /api/health/status em uma conexão própria, a cada HEALTH_INTERVAL_MILLIS
+    private void probeHealth() {
+        byte[] request = ("GET " + HEALTH_PATH + " HTTP/1.1\r\nHost: localhost\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+        while (running) {
+            try (SSLSocket socket = (SSLSocket) pki.clientContexts().get(0).getSocketFactory().createSocket("localhost", port)) {
+                socket.startHandshake();
+                OutputStream out = socket.getOutputStream();
+                InputStream in = new BufferedInputStream(socket.getInputStream());
+                while (running) {
+                    long start = System.nanoTime();
+                    out.write(request);
+                    out.flush();
+                    int status = readResponse(in);
+                    health.recordValue((System.nanoTime() - start) / 1000);
+                    if (status != 200) {
+                        errors.increment();
+                    }
+                    pause(HEALTH_INTERVAL_MILLIS);
+                }
+            } catch (IOException e) {
+                errors.increment();
+                pause(HEALTH_INTERVAL_MILLIS);
+            }
+        }
+    }
+    
+    private static void pause(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private void awaitServer(Process server) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(2);
+        while (System.nanoTime() < deadline) {
+            if (!server.isAlive()) {
+                throw new IllegalStateException("Servidor encerrou na inicialização; ver " + output.resolve("server.log"));
+            }
+            try (SSLSocket socket = (SSLSocket) pki.clientContexts().get(0).getSocketFactory().createSocket("localhost", port)) {
+                OutputStream out = socket.getOutputStream();
+                out.write(("GET " + PATH + " HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+                out.flush();
+                int status = readResponse(new BufferedInputStream(socket.getInputStream()));
+                if (status != 200) {
+                    throw new IllegalStateException("Servidor respondeu " + status + " para " + PATH);
+                }
+                System.out.printf("Servidor pronto na porta %d%n", port);
+                return;
+            } catch (IOException e) {
+                Thread.sleep(500);
+            }
+        }
+        throw new IllegalStateException("Servidor não respondeu em 2 minutos");
+    }
+    
+    private Process startServer() throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(options.serverJvmArgs());
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(IcpBrasilAuthenticatorApplication.class.getName());
+        command.add("--server.port=" + port);
+        command.add("--spring.ssl.bundle.jks.server.keystore.location=file:" + pki.keyStore().toAbsolutePath());
+        command.add("--spring.ssl.bundle.jks.server.keystore.password=" + new String(LoadTestPki.PASSWORD));
+        command.add("--spring.ssl.bundle.jks.server.truststore.location=file:" + pki.trustStore().toAbsolutePath());
+        command.add("--spring.ssl.bundle.jks.server.truststore.password=" + new String(LoadTestPki.PASSWORD));
+        command.add("--icp-brasil.tls.engine=" + engine);
+        command.add("--spring.threads.virtual.enabled=" + "virtual".equals(threads));
+        // Todos os clientes saem de 127.0.0.1 e repetem o login em laço: o limite de taxa mediria só os 429
+        command.add("--icp-brasil.rate-limit.enabled=false");
+        if (ocspResponder != null) {
+            // Sem cache de respostas: todo login espera o responder
+            command.add("--icp-brasil.revocation.ocsp.enabled=true");
+            command.add("--icp-brasil.revocation.ocsp.responder-url=" + ocspResponder.uri());
+            command.add("--icp-brasil.revocation.ocsp.maximum-ttl=0s");
+            command.add("--icp-brasil.revocation.ocsp.request-timeout=" + options.ocspDelay().plusSeconds(10).toMillis() + "ms");
+        }
+        command.addAll(options.serverArgs());
+        
+        Path log = output.resolve("server.log");
+        System.out.printf("Iniciando servidor com engine TLS %s e threads %s (log em %s)...%n", engine, threads, log);
+        return new ProcessBuilder(command)
+            .redirectErrorStream(true)
+            .redirectOutput(log.toFile())
+            .start();
+    }
+    
+    static int readResponse(InputStream in) throws IOException {
+        return readResponse(in, null);
+    }
+    
+    // Status da resposta HTTP/1.1; consome o corpo (Content-Length ou chunked) para manter a conexão,
+    // copiando-o para body quando informado
+    static int readResponse(InputStream in, OutputStream body) throws IOException {
+        String statusLine = readLine(in);
+        if (statusLine == null) {
+            throw new IOException("Conexão encerrada pelo servidor");
+        }
+        int status = Integer.parseInt(statusLine.substring(9, 12));
+        
+        long contentLength = -1;
+        boolean chunked = false;
+        String header;
+        while ((header = readLine(in)) != null && !header.isEmpty()) {
+            String lower = header.toLowerCase(Locale.ROOT);
+            if (lower.startsWith("content-length:")) {
+                contentLength = Long.parseLong(lower.substring(15).trim());
+            } else if (lower.startsWith("transfer-encoding:") && lower.contains("chunked")) {
+                chunked = true;
+            }
+        }
+        
+        if (chunked) {
+            long size;
+            while ((size = Long.parseLong(readLine(in).trim(), 16)) > 0) {
+                consume(in, size, body);
+                readLine(in);
+            }
+            // Trailers até a linha vazia
+            while ((header = readLine(in)) != null && !header.isEmpty()) {
+                // ignorado
+            }
+        } else if (contentLength > 0) {
+            consume(in, contentLength, body);
+        }
+        return status;
+    }
+    
+    private static void consume(InputStream in, long length, OutputStream body) throws IOException {
+        if (body == null) {
+            in.skipNBytes(length);
+        } else {
+            body.write(in.readNBytes((int) length));
+        }
+    }
+    
+    private static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream(64);
+        int b;
+        while ((b = in.read()) != -1) {
+            if (b == '\n') {
+                byte[] bytes = line.toByteArray();
+                int length = bytes.length > 0 && bytes[bytes.length - 1] == '\r' ? bytes.length - 1 : bytes.length;
+                return new String(bytes, 0, length, StandardCharsets.US_ASCII);
+            }
+            line.write(b);
+        }
+        return line.size() == 0 ? null : line.toString(StandardCharsets.US_ASCII);
+    }
+    
+    // Handshakes contados pelo servidor por tipo (full/resumed), engine TLS em uso e pinning de virtual
+    // threads, lidos do endpoint Prometheus
+    private ServerMetrics serverMetrics() {
+        Map<String, Long> handshakes = new TreeMap<>();
+        String effectiveEngine = "?";
+        long pinned = -1;
+        int limit = -1;
+        try (SSLSocket socket = (SSLSocket) pki.clientContexts().get(0).getSocketFactory().createSocket("localhost", port)) {
+            OutputStream out = socket.getOutputStream();
+            out.write("GET /actuator/prometheus HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            if (readResponse(new BufferedInputStream(socket.getInputStream()), body) == 200) {
+                String metrics = body.toString(StandardCharsets.UTF_8);
+                Matcher matcher = HANDSHAKES_METRIC.matcher(metrics);
+                while (matcher.find()) {
+                    handshakes.merge(matcher.group(1), (long) Double.parseDouble(matcher.group(2)), Long::sum);
+                }
+                Matcher engineMatcher = ENGINE_METRIC.matcher(metrics);
+                if (engineMatcher.find()) {
+                    effectiveEngine = engineMatcher.group(1);
+                }
+                Matcher limitMatcher = LIMIT_METRIC.matcher(metrics);
+                if (limitMatcher.find()) {
+                    limit = (int) Double.parseDouble(limitMatcher.group(1));
+                }
+                Matcher pinnedMatcher = PINNED_METRIC.matcher(metrics);
+                if (pinnedMatcher.find()) {
+                    pinned = (long) Double.parseDouble(pinnedMatcher.group(1));
+                }
+            }
+        } catch (IOException e) {
+            // Métricas indisponíveis: o relatório fica só com a visão do cliente
+        }
+        return new ServerMetrics(handshakes, effectiveEngine, pinned, limit);
+    }
+    
+    private static Duration cpu(Process server) {
+        return server.toHandle().info().totalCpuDuration().orElse(Duration.ZERO);
+    }
+    
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+    
+    private Result report(Histogram full, Histogram resumed, Histogram request, Histogram healthRequest, long errorCount,
+                          long shedCount, Duration cpu, double seconds, Map<String, Long> serverHandshakes,
+                          String effectiveEngine, long pinned, int limit, int ocspRequests) throws IOException {
+        long requestCount = request.getTotalCount();
+        long handshakeCount = full.getTotalCount() + resumed.getTotalCount();
+        double cpuSeconds = cpu.toNanos() / 1e9;
+        
+        StringBuilder summary = new StringBuilder();
+        summary.append(String.format(Locale.ROOT,
+            "Teste de carga mTLS: %d clientes, concorrência %d, %d requisições por conexão, %.0f%% de sessões retomadas, chave %s%n",
+            options.clients(), options.concurrency(), options.requestsPerConnection(), options.resumeRatio() * 100, options.keyType()));
+        summary.append(String.format(Locale.ROOT, "Duração medida: %.1f s, protocolo: %s, engine TLS: %s (em uso: %s), threads: %s%n",
+            seconds, negotiated, engine, effectiveEngine, threads));
+        if (ocspResponder != null) {
+            summary.append(String.format(Locale.ROOT, "Responder OCSP com atraso de %d ms: %d consultas (%.1f/s)%n",
+                options.ocspDelay().toMillis(), ocspRequests, ocspRequests / seconds));
+        }
+        summary.append(String.format(Locale.ROOT, "Requisições: %d (%.1f/s), recusadas com 503: %d (%.1f/s), erros: %d%n",
+            requestCount, requestCount / seconds, shedCount, shedCount / seconds, errorCount));
+        summary.append(String.format(Locale.ROOT, "Handshakes: %d (%.1f/s), completos: %d, retomados: %d%n",
+            handshakeCount, handshakeCount / seconds, full.getTotalCount(), resumed.getTotalCount()));
+        if (!serverHandshakes.isEmpty()) {
+            summary.append(String.format(Locale.ROOT, "Handshakes vistos pelo servidor (tls_handshakes_total): %s%n", serverHandshakes));
+        }
+        summary.append(String.format(Locale.ROOT, "CPU do servidor: %.2f s (%.2f núcleos), %.1f µs por requisição, %.1f µs por handshake%n",
+            cpuSeconds, cpuSeconds / seconds,
+            requestCount == 0 ? 0 : cpu.toNanos() / 1e3 / requestCount,
+            handshakeCount == 0 ? 0 : cpu.toNanos() / 1e3 / handshakeCount));
+        if (limit >= 0) {
+            summary.append(String.format(Locale.ROOT, "Limite de concorrência ao final (concurrency_limit): %d%n", limit));
+        }
+        if (pinned >= 0) {
+            summary.append(String.format(Locale.ROOT, "Pinning de virtual threads (jvm_threads_virtual_pinned): %d%n", pinned));
+        }
+        summary.append(String.format(Locale.ROOT, "%n%-20s %10s %10s %10s %10s %10s %10s%n",
+            "Latência (ms)", "média", "p50", "p90", "p99", "p99.9", "máx"));
+        summary.append(percentiles("handshake completo", full));
+        summary.append(percentiles("handshake retomado", resumed));
+        summary.append(percentiles("requisição", request));
+        summary.append(percentiles("health", healthRequest));
+        
+        System.out.println();
+        System.out.print(summary);
+        Files.writeString(output.resolve("summary.txt"), summary);
+        histogram(full, "handshake-full.hgrm");
+        histogram(resumed, "handshake-resumed.hgrm");
+        histogram(request, "request.hgrm");
+        histogram(healthRequest, "health.hgrm");
+        System.out.printf("%nRelatório e histogramas em %s%n", output);
+        
+        return new Result(engine, effectiveEngine, threads, requestCount / seconds, handshakeCount / seconds,
+            requestCount == 0 ? 0 : cpu.toNanos() / 1e3 / requestCount,
+            handshakeCount == 0 ? 0 : cpu.toNanos() / 1e3 / handshakeCount,
+            full.getTotalCount() == 0 ? 0 : full.getValueAtPercentile(50) / 1000.0,
+            full.getTotalCount() == 0 ? 0 : full.getValueAtPercentile(99) / 1000.0,
+            request.getTotalCount() == 0 ? 0 : request.getValueAtPercentile(99) / 1000.0,
+            healthRequest.getTotalCount() == 0 ? 0 : healthRequest.getValueAtPercentile(99) / 1000.0, shedCount, errorCount);
+    }
+    
+    private static void compare(List<Result> results, Path output) throws IOException {
+        StringBuilder comparison = new StringBuilder(String.format(Locale.ROOT,
+            "%-10s %-10s %-10s %12s %12s %14s %14s %12s %12s %12s %15s %8s %8s%n",
+            "Engine", "Em uso", "Threads", "req/s", "handshakes/s", "CPU/req (µs)", "CPU/hs (µs)", "hs p50 (ms)", "hs p99 (ms)",
+            "req p99 (ms)", "health p99 (ms)", "503", "erros"));
+        for (Result result : results) {
+            comparison.append(String.format(Locale.ROOT,
+                "%-10s %-10s %-10s %12.1f %12.1f %14.1f %14.1f %12.2f %12.2f %12.2f %15.2f %8d %8d%n",
+                result.engine(), result.effectiveEngine(), result.threads(), result.requestsPerSecond(), result.handshakesPerSecond(),
+                result.cpuPerRequestMicros(), result.cpuPerHandshakeMicros(), result.fullHandshakeP50Millis(),
+                result.fullHandshakeP99Millis(), result.requestP99Millis(), result.healthP99Millis(), result.shed(),
+                result.errors()));
+        }
+        System.out.printf("%nComparação%n%s", comparison);
+        Files.writeString(output.resolve("comparison.txt"), comparison);
+    }
+    
+    private static String percentiles(String name, Histogram histogram) {
+        if (histogram.getTotalCount() == 0) {
+            return String.format(Locale.ROOT, "%-20s %10s%n", name, "-");
+        }
+        return String.format(Locale.ROOT, "%-20s %10.2f %10.2f %10.2f %10.2f %10.2f %10.2f%n", name,
+            histogram.getMean() / 1000, histogram.getValueAtPercentile(50) / 1000.0,
+            histogram.getValueAtPercentile(90) / 1000.0, histogram.getValueAtPercentile(99) / 1000.0,
+            histogram.getValueAtPercentile(99.9) / 1000.0, histogram.getMaxValue() / 1000.0);
+    }
+    
+    // Distribuição completa em milissegundos, no formato lido pelo HdrHistogram plotter
+    private void histogram(Histogram histogram, String file) throws IOException {
+        try (PrintStream out = new PrintStream(Files.newOutputStream(output.resolve(file)), false, StandardCharsets.UTF_8)) {
+            histogram.outputPercentileDistribution(out, 1000.0);
+        }
+    }
+    
+    private record ServerMetrics(Map<String, Long> handshakes, String engine, long pinned, int limit) {
+    }
+    
+    record Result(String engine, String effectiveEngine, String threads, double requestsPerSecond, double handshakesPerSecond,
+                  double cpuPerRequestMicros, double cpuPerHandshakeMicros, double fullHandshakeP50Millis,
+                  double fullHandshakeP99Millis, double requestP99Millis, double healthP99Millis, long shed, long errors) {
+    }
+    
+    // Parâmetros --nome=valor (repassados pelo profile loadtest a partir de -Dloadtest.*)
+    record Options(int clients, int concurrency, Duration warmup, Duration duration, double resumeRatio,
+                   int requestsPerConnection, KeyType keyType, Path output, List<String> engines,
+                   List<String> threads, Duration ocspDelay, List<String> serverJvmArgs, List<String> serverArgs) {
+        
+        static Options parse(String[] args) {
+            Map<String, String> values = new HashMap<>();
+            for (String arg : args) {
+                if (arg.startsWith("--") && arg.contains("=")) {
+                    int separator = arg.indexOf('=');
+                    values.put(arg.substring(2, separator), arg.substring(separator + 1));
+                }
+            }
+            Options options = new Options(
+                Integer.parseInt(values.getOrDefault("clients", "200")),
+                Integer.parseInt(values.getOrDefault("concurrency", "32")),
+                DurationStyle.detectAndParse(values.getOrDefault("warmup", "10s")),
+                DurationStyle.detectAndParse(values.getOrDefault("duration", "30s")),
+                Double.parseDouble(values.getOrDefault("resume-ratio", "0.9")),
+                Integer.parseInt(values.getOrDefault("requests-per-connection", "10")),
+                KeyType.valueOf(values.getOrDefault("key-type", KeyType.RSA_2048.name())),
+                Path.of(values.getOrDefault("output", "target/loadtest")),
+                List.of(values.getOrDefault("engines", "jsse").trim().split("\\s*,\\s*")),
+                List.of(values.getOrDefault("threads", "platform").trim().split("\\s*,\\s*")),
+                DurationStyle.detectAndParse(values.getOrDefault("ocsp-delay", "0ms")),
+                words(values.get("server-jvm-args")),
+                words(values.get("server-args")));
+            if (options.clients() < 1 || options.concurrency() < 1 || options.requestsPerConnection() < 1
+                || options.resumeRatio() < 0 || options.resumeRatio() > 1 || options.ocspDelay().isNegative()
+                || !List.of("platform", "virtual").containsAll(options.threads())) {
+                throw new IllegalArgumentException("Parâmetros inválidos: " + options);
+            }
+            return options;
+        }
+        
+        private static List<String> words(String value) {
+            return value == null || value.isBlank() ? List.of() : List.of(value.trim().split("\\s+"));
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package br.gov.sp.tce.icp_brasil_authenticator.loadtest;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import javax.net.ssl.SSLSocket;
+
+import br.gov.sp.tce.icp_brasil_authenticator.domain.trust.TrustAnchorSnapshotGenerator;
+import br.gov.sp.tce.icp_brasil_authenticator.support.IcpBrasilTestCertificates.KeyType;
+
+// Tempo até a primeira validação bem-sucedida: sobe a aplicação em outra JVM e repete
+// GET /api/certificate/validate com mTLS até receber 200 com "valid":true, medindo do início do
+// processo. O truststore tem a cadeia dos clientes mais --anchors ACs complementares e a cadeia
+// confiável é exigida, então a resposta só é válida depois de o índice de ACs estar carregado.
+// Compara os modos em --modes, intercalados a cada rodada:
+//   jar               java -jar do jar empacotado (como no Dockerfile original)
+//   snapshot          idem, com o snapshot de ACs (icp-brasil.trust.snapshot)
+//   aot-cds           jar extraído do perfil fast-startup, com AOT e o arquivo CDS do build
+//   aot-cds-snapshot  idem, com o snapshot de ACs
+//
+// mvn -Pfast-startup,startup verify -DskipTests -Dstartup.runs=5 -Dstartup.anchors=300
+public final class StartupTimer {
+    
+    private static final String PATH = "/api/certificate/validate";
+    private static final Pattern STARTED = Pattern.compile("Started \\S+ in ([\\d.]+) seconds");
+    private static final List<String> MODES = List.of("jar", "snapshot", "aot-cds", "aot-cds-snapshot");
+    
+    private final Options options;
+    private final LoadTestPki pki;
+    private final Path snapshot;
+    
+    private StartupTimer(Options options, LoadTestPki pki, Path snapshot) {
+        this.options = options;
+        this.pki = pki;
+        this.snapshot = snapshot;
+    }
+    
+    public static void main(String[] args) throws Exception {
+        // O CertificateRequest do servidor lista o DN de todas as ACs do truststore e passa do limite
+        // padrão de 32 KB do cliente JSSE (navegadores aceitam mensagens maiores)
+        System.setProperty("jdk.tls.maxHandshakeMessageSize", "262144");
+        Options options = Options.parse(args);
+        Files.createDirectories(options.output());
+        
+        System.out.printf("Gerando PKI de teste com %d ACs complementares no truststore...%n", options.anchors());
+        LoadTestPki pki = LoadTestPki.create(options.output(), 1, KeyType.RSA_2048, options.anchors());
+        // Mesma etapa do perfil fast-startup, sobre o truststore de teste
+        Path snapshot = options.output().resolve("trust-anchors.snapshot");
+        TrustAnchorSnapshotGenerator.main(new String[] {
+            pki.trustStore().toString(), new String(LoadTestPki.PASSWORD), snapshot.toString() });
+        
+        new StartupTimer(options, pki, snapshot).run();
+    }
+    
+    private void run() throws Exception {
+        Map<String, List<Sample>> samples = new LinkedHashMap<>();
+        for (String mode : options.modes()) {
+            samples.put(mode, new ArrayList<>());
+        }
+        for (int run = 1; run <= options.runs(); run++) {
+            for (String mode : options.modes()) {
+                Sample sample = measure(mode, run);
+                samples.get(mode).add(sample);
+                System.out.printf(Locale.ROOT, "Rodada %d, %-17s primeira validação em %6d ms (Spring: %.2f s)%n",
+                    run, mode, sample.firstValidationMillis(), sample.startedSeconds());
+            }
+        }
+        report(samples);
+    }
+    
+    private Sample measure(String mode, int run) throws Exception {
+        int port = freePort();
+        Path log = options.output().resolve("server-" + mode + "-" + run + ".log");
+        long start = System.nanoTime();
+        Process server = new ProcessBuilder(command(mode, port))
+            .directory(mode.startsWith("aot-cds") ? options.application().toFile() : null)
+            .redirectErrorStream(true)
+            .redirectOutput(log.toFile())
+            .start();
+        try {
+            awaitValidation(server, port, log);
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            Matcher started = STARTED.matcher(Files.readString(log));
+            return new Sample(elapsed, started.find() ? Double.parseDouble(started.group(1)) : Double.NaN);
+        } finally {
+            server.destroy();
+            server.waitFor(30, TimeUnit.SECONDS);
+        }
+    }
+    
+    private List<String> command(String mode, int port) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(options.serverJvmArgs());
+        if (mode.startsWith("aot-cds")) {
+            // Caminhos relativos, como no treino do build: o CDS confere o classpath da execução
+            command.add("-XX:SharedArchiveFile=application.jsa");
+            command.add("-Dspring.aot.enabled=true");
+            command.add("-jar");
+            command.add(applicationJar().getFileName().toString());
+        } else {
+            command.add("-jar");
+            command.add(options.jar().toAbsolutePath().toString());
+        }
+        command.add("--server.port=" + port);
+        command.add("--spring.ssl.bundle.jks.server.keystore.location=file:" + pki.keyStore().toAbsolutePath());
+        command.add("--spring.ssl.bundle.jks.server.keystore.password=" + new String(LoadTestPki.PASSWORD));
+        command.add("--spring.ssl.bundle.jks.server.truststore.location=file:" + pki.trustStore().toAbsolutePath());
+        command.add("--spring.ssl.bundle.jks.server.truststore.password=" + new String(LoadTestPki.PASSWORD));
+        command.add("--icp-brasil.trust.require-trusted-chain=true");
+        if (mode.endsWith("snapshot")) {
+            command.add("--icp-brasil.trust.snapshot=" + snapshot.toAbsolutePath());
+        }
+        command.addAll(options.serverArgs());
+        return command;
+    }
+    
+    private Path applicationJar() throws IOException {
+        try (Stream<Path> files = Files.list(options.application())) {
+            return files.filter(file -> file.toString().endsWith(".jar")).findFirst()
+                .orElseThrow(() -> new IllegalStateException("Jar extraído não encontrado em " + options.application()
+                    + "; gerar com mvn -Pfast-startup package"));
+        }
+    }
+    
+    private void awaitValidation(Process server, int port, Path log) throws Exception {
+        byte[] request = ("GET " + PATH + " HTTP/1.1\r\nHost: localhost\r\nAccept: application/json\r\nConnection: close\r\n\r\n")
+            .getBytes(StandardCharsets.US_ASCII);
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(2);
+        String last = "conexão recusada";
+        while (System.nanoTime() < deadline) {
+            if (!server.isAlive()) {
+                throw new IllegalStateException("Servidor encerrou na inicialização; ver " + log);
+            }
+            try (SSLSocket socket = (SSLSocket) pki.clientContexts().get(0).getSocketFactory().createSocket("localhost", port)) {
+                OutputStream out = socket.getOutputStream();
+                out.write(request);
+                out.flush();
+                ByteArrayOutputStream body = new ByteArrayOutputStream();
+                int status = MtlsLoadGenerator.readResponse(new BufferedInputStream(socket.getInputStream()), body);
+                if (status == 200 && body.toString(StandardCharsets.UTF_8).contains("\"valid\":true")) {
+                    return;
+                }
+                if (status == 200) {
+                    throw new IllegalStateException("Validação recusada: " + body.toString(StandardCharsets.UTF_8));
+                }
+                last = "HTTP " + status;
+            } catch (IOException e) {
+                // Porta ainda fechada
+                last = e.toString();
+            }
+            Thread.sleep(10);
+        }
+        throw new IllegalStateException("Sem validação bem-sucedida em 2 minutos (" + last + "); ver " + log);
+    }
+    
+    private void report(Map<String, List<Sample>> samples) throws IOException {
+        StringBuilder summary = new StringBuilder(String.format(Locale.ROOT,
+            "Tempo até a primeira validação: %d rodadas, truststore com %d ACs, %d CPUs%n%n%-18s %12s %12s %12s %14s%n",
+            options.runs(), options.anchors() + 2, Runtime.getRuntime().availableProcessors(),
+            "Modo", "mediana (ms)", "mín (ms)", "máx (ms)", "Spring (s)"));
+        samples.forEach((mode, values) -> {
+            long[] millis = values.stream().mapToLong(Sample::firstValidationMillis).sorted().toArray();
+            double[] started = values.stream().mapToDouble(Sample::startedSeconds).sorted().toArray();
+            summary.append(String.format(Locale.ROOT, "%-18s %12d %12d %12d %14.2f%n", mode,
+                millis[millis.length / 2], millis[0], millis[millis.length - 1], started[started.length / 2]));
+        });
+        System.out.printf("%n%s", summary);
+        Files.writeString(options.output().resolve("startup.txt"), summary);
+    }
+    
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+    
+    private record Sample(long firstValidationMillis, double startedSeconds) {
+    }
+    
+    // Parâmetros --nome=valor (repassados pelo profile startup a partir de -Dstartup.*)
+    record Options(int runs, int anchors, List<String> modes, Path jar, Path application, Path output,
+                   List<String> serverJvmArgs, List<String> serverArgs) {
+        
+        static Options parse(String[] args) {
+            Map<String, String> values = new HashMap<>();
+            for (String arg : args) {
+                if (arg.startsWith("--") && arg.contains("=")) {
+                    int separator = arg.indexOf('=');
+                    values.put(arg.substring(2, separator), arg.substring(separator + 1));
+                }
+            }
+            Options options = new Options(
+                Integer.parseInt(values.getOrDefault("runs", "5")),
+                Integer.parseInt(values.getOrDefault("anchors", "300")),
+                List.of(values.getOrDefault("modes", String.join(",", MODES)).trim().split("\\s*,\\s*")),
+                Path.of(values.getOrDefault("jar", "target/icp-brasil-authenticator-0.0.1-SNAPSHOT.jar")),
+                Path.of(values.getOrDefault("application", "target/application")),
+                Path.of(values.getOrDefault("output", "target/startup")),
+                words(values.get("server-jvm-args")),
+                words(values.get("server-args")));
+            if (options.runs() < 1 || options.anchors() < 0 || !MODES.containsAll(options.modes())) {
+                throw new IllegalArgumentException("Parâmetros inválidos: " + options);
+            }
+            return options;
+        }
+        
+        private static List<String> words(String value) {
+            return value == null || value.isBlank() ? List.of() : Arrays.asList(value.trim().split("\\s+"));
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package br.gov.sp.tce.icp_brasil_authenticator.metrics;
+
+import java.security.cert.X509Certificate;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import br.gov.sp.tce.icp_brasil_authenticator.metrics.ValidationMetrics.Outcome;
+import br.gov.sp.tce.icp_brasil_authenticator.metrics.ValidationMetrics.Stage;
+import br.gov.sp.tce.icp_brasil_authenticator.support.IcpBrasilTestCertificates;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ValidationMetricsTest {
+    
+    private SimpleMeterRegistry meterRegistry;
+    private ValidationMetrics validationMetrics;
+    private X509Certificate certificate;
+    
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        validationMetrics = new ValidationMetrics(meterRegistry, 2);
+        certificate = IcpBrasilTestCertificates.eCpf("JOAO DA SILVA", "12345678901", LocalDate.of(1980, 1, 1),
+            IcpBrasilTestCertificates.POLICY_A1);
+    }
+    
+    @Test
+    void testRecord_WithStage_ShouldRecordStageTimer() {
+        // Given
+        long start = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(5);
+        
+        // When
+        long now = validationMetrics.record(Stage.CHAIN, start);
+        
+        // Then
+        assertTrue(now > start);
+        assertEquals(1, meterRegistry.get("certificate.validation.stage").tag("stage", "chain").timer().count());
+        assertTrue(meterRegistry.get("certificate.validation.stage").tag("stage", "chain").timer()
+            .totalTime(TimeUnit.MILLISECONDS) >= 5);
+        assertEquals(0, meterRegistry.get("certificate.validation.stage").tag("stage", "parse").timer().count());
+    }
+    
+    @Test
+    void testOutcome_WithMoreIssuersThanLimit_ShouldGroupExtraIssuersAsOther() {
+        // When
+        validationMetrics.outcome("AC A", Outcome.VALID, 3, certificate);
+        validationMetrics.outcome("AC B", Outcome.REVOKED, 3, certificate);
+        validationMetrics.outcome("AC C", Outcome.VALID, 3, certificate);
+        validationMetrics.outcome("AC A", Outcome.VALID, 3, certificate);
+        
+        // Then
+        assertEquals(2.0, meterRegistry.get("certificate.validations").tags("issuer", "AC A", "outcome", "valid").counter().count());
+        assertEquals(1.0, meterRegistry.get("certificate.validations").tags("issuer", "AC B", "outcome", "revoked").counter().count());
+        assertEquals(1.0, meterRegistry.get("certificate.validations").tags("issuer", "other", "outcome", "valid").counter().count());
+        assertNull(meterRegistry.find("certificate.validations").tag("issuer", "AC C").counter());
+    }
+    
+    @Test
+    void testOutcome_WithLongChain_ShouldBucketChainLength() {
+        // When
+        validationMetrics.outcome("AC A", Outcome.UNTRUSTED, 7, certificate);
+        validationMetrics.outcome("AC A", Outcome.UNTRUSTED, 1, certificate);
+        
+        // Then
+        assertEquals(1.0, meterRegistry.get("certificate.validations").tag("chain_length", "5+").counter().count());
+        assertEquals(1.0, meterRegistry.get("certificate.validations").tag("chain_length", "1").counter().count());
+    }
+    
+    @Test
+    void testOutcome_WithCertificate_ShouldRecordDaysToExpiry() {
+        // When: certificado de teste vence em 365 dias
+        validationMetrics.outcome("AC A", Outcome.VALID, 2, certificate);
+        
+        // Then
+        DistributionSummary expiryDays = meterRegistry.get("certificate.expiry.days").summary();
+        assertEquals(1, expiryDays.count());
+        assertTrue(expiryDays.max() >= 364 && expiryDays.max() <= 365);
+    }
+}
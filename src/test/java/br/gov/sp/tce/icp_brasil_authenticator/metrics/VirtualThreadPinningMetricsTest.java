@@ -0,0 +1,46 @@
+package br.gov.sp.tce.icp_brasil_authenticator.metrics;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class VirtualThreadPinningMetricsTest {
+    
+    private final Object monitor = new Object();
+    
+    @Test
+    void testBindTo_WithSleepInsideSynchronized_ShouldRecordPinning() throws Exception {
+        // Given
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        try (VirtualThreadPinningMetrics metrics = new VirtualThreadPinningMetrics(Duration.ofMillis(10))) {
+            metrics.bindTo(meterRegistry);
+            Timer pinned = meterRegistry.get("jvm.threads.virtual.pinned").timer();
+            
+            // When: virtual thread bloqueia dentro de um monitor
+            Thread.ofVirtual().start(() -> {
+                synchronized (monitor) {
+                    try {
+                        Thread.sleep(50);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }).join();
+            
+            // Then: o evento JFR chega ao stream em até alguns segundos
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(15);
+            while (pinned.count() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(100);
+            }
+            assertEquals(1, pinned.count());
+            assertTrue(pinned.totalTime(TimeUnit.MILLISECONDS) >= 40);
+            assertEquals(0.0, meterRegistry.get("jvm.threads.virtual.submit.failed").counter().count());
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package br.gov.sp.tce.icp_brasil_authenticator.security;
+
+import java.security.cert.X509Certificate;
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import br.gov.sp.tce.icp_brasil_authenticator.configuration.ClientCertificateProperties;
+import br.gov.sp.tce.icp_brasil_authenticator.configuration.ClientCertificateProperties.Source;
+import br.gov.sp.tce.icp_brasil_authenticator.configuration.TrustProperties;
+import br.gov.sp.tce.icp_brasil_authenticator.support.IcpBrasilTestCertificates;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ClientCertificateResolverTest {
+    
+    private SimpleMeterRegistry meterRegistry;
+    private ClientCertificateResolver resolver;
+    private X509Certificate certificate;
+    private String header;
+    
+    @BeforeEach
+    void setUp() throws Exception {
+        ClientCertificateProperties properties = new ClientCertificateProperties();
+        properties.setSource(Source.HEADER);
+        properties.setTrustedProxies(List.of("10.0.0.0/24"));
+        TrustProperties trustProperties = new TrustProperties();
+        trustProperties.setRequireTrustedChain(true);
+        meterRegistry = new SimpleMeterRegistry();
+        resolver = new ClientCertificateResolver(properties, trustProperties, meterRegistry);
+        certificate = IcpBrasilTestCertificates.eCpf("JOAO DA SILVA", "12345678901", LocalDate.of(1980, 1, 1),
+            IcpBrasilTestCertificates.POLICY_A1);
+        header = Base64.getEncoder().encodeToString(certificate.getEncoded());
+    }
+    
+    @Test
+    void testResolve_WithTrustedProxy_ShouldDecodeHeaderAndUseForwardedFor() {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr("10.0.0.7");
+        request.addHeader("X-SSL-Client-Cert", header);
+        request.addHeader("X-Forwarded-For", "203.0.113.9, 192.0.2.44");
+        
+        // When
+        X509Certificate[] certificates = resolver.resolve(request);
+        
+        // Then
+        assertArrayEquals(new X509Certificate[] { certificate }, certificates);
+        assertEquals("192.0.2.44", resolver.remoteAddress(request));
+    }
+    
+    @Test
+    void testResolve_WithUntrustedSource_ShouldIgnoreHeader() {
+        // Given: cliente acessando o serviço diretamente, sem passar pelo proxy
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr("192.168.1.50");
+        request.addHeader("X-SSL-Client-Cert", header);
+        request.addHeader("X-Forwarded-For", "10.0.0.7");
+        
+        // When
+        X509Certificate[] certificates = resolver.resolve(request);
+        
+        // Then
+        assertNull(certificates);
+        assertEquals("192.168.1.50", resolver.remoteAddress(request));
+        assertEquals(1.0, meterRegistry.get("client.certificate.rejected").tag("reason", "untrusted_proxy").counter().count());
+    }
+    
+    @Test
+    void testConstructor_WithForwardedSourceAndUntrustedChainsAccepted_ShouldRefuseToStart() {
+        // Given: cabeçalho do proxy sem exigir cadeia confiável (padrão de require-trusted-chain)
+        ClientCertificateProperties properties = new ClientCertificateProperties();
+        properties.setSource(Source.XFCC);
+        
+        // When / Then
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+            () -> new ClientCertificateResolver(properties, new TrustProperties(), meterRegistry));
+        assertEquals("icp-brasil.trust.require-trusted-chain=true é obrigatório com source XFCC", exception.getMessage());
+    }
+}
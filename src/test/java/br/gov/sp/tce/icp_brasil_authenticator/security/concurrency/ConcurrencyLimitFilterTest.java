@@ -0,0 +1,186 @@
+package br.gov.sp.tce.icp_brasil_authenticator.security.concurrency;
+
+import java.io.IOException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import br.gov.sp.tce.icp_brasil_authenticator.configuration.ConcurrencyLimitProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletResponse;
+
+class ConcurrencyLimitFilterTest {
+    
+    private static final int CLIENTS = 64;
+    
+    @Test
+    void testDoFilter_WithValidationSaturated_ShouldShedValidationAndKeepHealth() throws Exception {
+        // Given: limite mínimo 1 e uma validação parada dentro da cadeia
+        ConcurrencyLimitProperties properties = new ConcurrencyLimitProperties();
+        properties.setInitialLimit(1);
+        properties.setMinLimit(1);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(properties, meterRegistry);
+        MockHttpServletResponse[] nested = new MockHttpServletResponse[3];
+        FilterChain blocked = (request, response) -> {
+            nested[0] = filter(filter, "/api/certificate/validate", new MockFilterChain());
+            nested[1] = filter(filter, "/api/health/status", new MockFilterChain());
+            nested[2] = filter(filter, "/api/certificate/validate/batch", new MockFilterChain());
+        };
+        
+        // When
+        MockHttpServletResponse first = filter(filter, "/api/certificate/validate", blocked);
+        
+        // Then
+        assertEquals(200, first.getStatus());
+        assertEquals(503, nested[0].getStatus());
+        assertEquals("1", nested[0].getHeader("Retry-After"));
+        assertEquals(200, nested[1].getStatus());
+        assertEquals(200, nested[2].getStatus());
+        assertEquals(1.0, meterRegistry.get("concurrency.shed").tag("group", "validation").counter().count());
+        assertEquals(0.0, meterRegistry.get("concurrency.shed").tag("group", "management").counter().count());
+        assertEquals(0.0, meterRegistry.get("concurrency.in.flight").tag("group", "validation").gauge().value());
+        assertEquals(1.0, meterRegistry.get("concurrency.limit").tag("group", "validation").gauge().value());
+    }
+    
+    @Test
+    void testDoFilter_WithSlowDependencyOverloaded_ShouldKeepP99Bounded() throws Exception {
+        // Given: dependência lenta com 4 conexões e 10ms por chamada (como um pool de banco ou um
+        // responder OCSP), chamada por 64 clientes em laço fechado
+        ConcurrencyLimitProperties properties = new ConcurrencyLimitProperties();
+        properties.setEnabled(true);
+        
+        // When
+        Overload unlimited = overload(null);
+        Overload limited = overload(new ConcurrencyLimitFilter(properties, new SimpleMeterRegistry()));
+        
+        // Then: sem limite, cada chamada espera a fila inteira (~64/4 x 10ms); com o limite, as
+        // excedentes recebem 503 logo e as aceitas esperam pouco além da própria dependência
+        assertEquals(0, unlimited.shed());
+        assertTrue(limited.shed() > 0, "nenhuma requisição recusada");
+        assertTrue(unlimited.p99Millis() > 100, "p99 sem limite: " + unlimited.p99Millis() + "ms");
+        assertTrue(limited.p99Millis() < unlimited.p99Millis() / 2,
+            "p99 com limite: " + limited.p99Millis() + "ms, sem limite: " + unlimited.p99Millis() + "ms");
+    }
+    
+    @Test
+    void testDoFilter_WithFastRejectionsBetweenSlowValidations_ShouldNotShrinkLimit() throws Exception {
+        // Given: 429 do rate limit e 400 sem certificado respondidos na hora, entre validações de 10ms
+        ConcurrencyLimitProperties properties = new ConcurrencyLimitProperties();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(properties, meterRegistry);
+        int[] statuses = {429, 200, 400, 200};
+        
+        // When
+        for (int i = 0; i < 200; i++) {
+            int status = statuses[i % statuses.length];
+            filter(filter, "/api/certificate/validate", (request, response) -> {
+                if (status == 200) {
+                    sleep(10);
+                }
+                ((HttpServletResponse) response).setStatus(status);
+            });
+        }
+        
+        // Then: só as validações entram na latência, e a média delas fica estável
+        assertEquals(properties.getInitialLimit(),
+            meterRegistry.get("concurrency.limit").tag("group", "validation").gauge().value());
+    }
+    
+    // Mede o p99 das requisições aceitas depois de 1s de sobrecarga (tempo de o limite convergir)
+    private static Overload overload(ConcurrencyLimitFilter filter) throws Exception {
+        Semaphore connections = new Semaphore(4, true);
+        FilterChain dependency = (request, response) -> {
+            try {
+                connections.acquire();
+                try {
+                    Thread.sleep(10);
+                } finally {
+                    connections.release();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        
+        // Aquecimento sem fila, de onde o limite tira a latência sem carga (duas janelas)
+        if (filter != null) {
+            for (int i = 0; i < 40; i++) {
+                filter(filter, "/api/certificate/validate", dependency);
+            }
+        }
+        
+        ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+        LongAdder shed = new LongAdder();
+        long start = System.nanoTime();
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(1);
+        long end = measureFrom + TimeUnit.MILLISECONDS.toNanos(1500);
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        try {
+            for (int i = 0; i < CLIENTS; i++) {
+                clients.execute(() -> {
+                    while (System.nanoTime() < end) {
+                        long requestStart = System.nanoTime();
+                        try {
+                            MockHttpServletResponse response = filter == null
+                                ? filter(dependency) : filter(filter, "/api/certificate/validate", dependency);
+                            if (response.getStatus() == 503) {
+                                shed.increment();
+                                // Cliente respeita a recusa em vez de repetir em laço
+                                Thread.sleep(5);
+                            } else if (requestStart >= measureFrom) {
+                                latencies.add(System.nanoTime() - requestStart);
+                            }
+                        } catch (Exception e) {
+                            throw new IllegalStateException(e);
+                        }
+                    }
+                });
+            }
+        } finally {
+            clients.shutdown();
+            assertTrue(clients.awaitTermination(30, TimeUnit.SECONDS));
+        }
+        
+        long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+        assertTrue(sorted.length > 0);
+        return new Overload(TimeUnit.NANOSECONDS.toMillis(sorted[(int) (sorted.length * 0.99)]), shed.sum());
+    }
+    
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private static MockHttpServletResponse filter(FilterChain chain) throws ServletException, IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        chain.doFilter(new MockHttpServletRequest("GET", "/api/certificate/validate"), response);
+        return response;
+    }
+    
+    private static MockHttpServletResponse filter(ConcurrencyLimitFilter filter, String uri, FilterChain chain)
+            throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+    
+    private record Overload(long p99Millis, long shed) {
+    }
+}
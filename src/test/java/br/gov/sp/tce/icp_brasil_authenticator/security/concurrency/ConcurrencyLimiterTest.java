@@ -0,0 +1,122 @@
+package br.gov.sp.tce.icp_brasil_authenticator.security.concurrency;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class ConcurrencyLimiterTest {
+    
+    private final AtomicLong now = new AtomicLong();
+    
+    @Test
+    void testTryAcquire_WithFixedLimitReached_ShouldRejectUntilRelease() {
+        // Given
+        ConcurrencyLimiter limiter = ConcurrencyLimiter.fixed(2);
+        
+        // When / Then
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        limiter.release(TimeUnit.SECONDS.toNanos(5));
+        assertTrue(limiter.tryAcquire());
+        assertEquals(2, limiter.getLimit());
+        assertEquals(2, limiter.getInFlight());
+    }
+    
+    @Test
+    void testRelease_WithLatencyAboveTolerance_ShouldDecreaseLimit() {
+        // Given: janelas de 5 amostras, latência sem carga de 10ms
+        ConcurrencyLimiter limiter = limiter(20);
+        
+        // When: janela em 10ms com o limite em uso, depois janela em 50ms
+        window(limiter, 10, 10);
+        int increased = limiter.getLimit();
+        window(limiter, 10, 50);
+        
+        // Then
+        assertEquals(21, increased);
+        assertEquals(18, limiter.getLimit());
+    }
+    
+    @Test
+    void testRelease_WithLowUsage_ShouldNotIncreaseLimit() {
+        // Given
+        ConcurrencyLimiter limiter = limiter(20);
+        
+        // When: uma requisição por vez, bem abaixo do limite
+        window(limiter, 1, 10);
+        
+        // Then
+        assertEquals(20, limiter.getLimit());
+    }
+    
+    @Test
+    void testRelease_WithSustainedHighLatency_ShouldStopAtMinimumAndRecoverAfterNewBaseline() {
+        // Given
+        ConcurrencyLimiter limiter = limiter(20);
+        window(limiter, 10, 10);
+        
+        // When: a dependência fica 5x mais lenta de vez
+        for (int i = 0; i < 30; i++) {
+            window(limiter, 10, 50);
+        }
+        int minimum = limiter.getLimit();
+        // Dois períodos do mínimo depois, 50ms é a nova latência sem carga
+        now.addAndGet(TimeUnit.SECONDS.toNanos(31));
+        window(limiter, 4, 50);
+        now.addAndGet(TimeUnit.SECONDS.toNanos(31));
+        window(limiter, 4, 50);
+        window(limiter, 4, 50);
+        
+        // Then
+        assertEquals(4, minimum);
+        assertEquals(6, limiter.getLimit());
+    }
+    
+    @Test
+    void testRelease_WithMixedFastAndSlowResponses_ShouldKeepLimitUntilAverageRises() {
+        // Given: acertos de cache em 1ms misturados a validações completas em 20ms, sem fila
+        ConcurrencyLimiter limiter = limiter(20);
+        
+        // When
+        for (int i = 0; i < 20; i++) {
+            window(limiter, 20, 1, 20, 1, 20, 1);
+        }
+        int steady = limiter.getLimit();
+        // A mesma mistura com fila: a média passa de 2x a média sem carga
+        window(limiter, 20, 30, 60, 30, 60, 30);
+        
+        // Then: a menor amostra (1ms) não vira referência e o limite não cai até o mínimo
+        assertEquals(40, steady);
+        assertEquals(36, limiter.getLimit());
+    }
+    
+    private ConcurrencyLimiter limiter(int initialLimit) {
+        return new ConcurrencyLimiter(initialLimit, 4, 100, 2.0, 0.9, 5, TimeUnit.SECONDS.toNanos(30), now::get);
+    }
+    
+    // Uma janela de 5 amostras com a latência informada e inFlight requisições simultâneas
+    private static void window(ConcurrencyLimiter limiter, int inFlight, long latencyMillis) {
+        window(limiter, inFlight, latencyMillis, latencyMillis, latencyMillis, latencyMillis, latencyMillis);
+    }
+    
+    private static void window(ConcurrencyLimiter limiter, int inFlight, long... latenciesMillis) {
+        int acquired = 0;
+        while (acquired < inFlight && limiter.tryAcquire()) {
+            acquired++;
+        }
+        for (int i = 0; i < 5; i++) {
+            limiter.release(TimeUnit.MILLISECONDS.toNanos(latenciesMillis[i]));
+            if (i < 4) {
+                limiter.tryAcquire();
+            }
+        }
+        while (limiter.getInFlight() > 0) {
+            limiter.release();
+        }
+    }
+}
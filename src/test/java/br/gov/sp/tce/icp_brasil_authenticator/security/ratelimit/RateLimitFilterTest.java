@@ -0,0 +1,48 @@
+package br.gov.sp.tce.icp_brasil_authenticator.security.ratelimit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import br.gov.sp.tce.icp_brasil_authenticator.configuration.ClientCertificateProperties;
+import br.gov.sp.tce.icp_brasil_authenticator.configuration.RateLimitProperties;
+import br.gov.sp.tce.icp_brasil_authenticator.configuration.TrustProperties;
+import br.gov.sp.tce.icp_brasil_authenticator.security.ClientCertificateResolver;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class RateLimitFilterTest {
+    
+    @Test
+    void testDoFilter_WithAddressOverLimit_ShouldRespond429WithRetryAfter() throws Exception {
+        // Given: 1 requisição a cada 10s por endereço
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setAddress(new RateLimitProperties.Limit(0.1, 1));
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        RateLimitFilter filter = new RateLimitFilter(properties,
+            new ClientCertificateResolver(new ClientCertificateProperties(), new TrustProperties(), meterRegistry), meterRegistry);
+        
+        // When
+        MockHttpServletResponse first = filter(filter, "/api/certificate/validate");
+        MockHttpServletResponse second = filter(filter, "/api/certificate/validate");
+        MockHttpServletResponse health = filter(filter, "/api/health/status");
+        
+        // Then
+        assertEquals(200, first.getStatus());
+        assertEquals(429, second.getStatus());
+        assertEquals("10", second.getHeader("Retry-After"));
+        assertNull(health.getHeader("Retry-After"));
+        assertEquals(200, health.getStatus());
+        assertEquals(1.0, meterRegistry.get("rate.limit.rejected").tag("key", "address").counter().count());
+    }
+    
+    private static MockHttpServletResponse filter(RateLimitFilter filter, String uri) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        request.setRemoteAddr("192.0.2.10");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
@@ -0,0 +1,64 @@
+package br.gov.sp.tce.icp_brasil_authenticator.security.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class RateLimiterTest {
+    
+    private final AtomicLong clock = new AtomicLong(1_000_000);
+    
+    @Test
+    void testTryAcquire_WithBurstExceeded_ShouldRejectUntilNextInterval() {
+        // Given: 10/s (um a cada 100ms) com burst de 3
+        RateLimiter limiter = new RateLimiter(10, 3, 1024, clock::get);
+        
+        // When / Then
+        for (int i = 0; i < 3; i++) {
+            assertEquals(RateLimiter.ALLOWED, limiter.tryAcquire("10.0.0.1"));
+        }
+        long wait = limiter.tryAcquire("10.0.0.1");
+        assertEquals(100_000, wait);
+        assertEquals(RateLimiter.ALLOWED, limiter.tryAcquire("10.0.0.2"));
+        
+        clock.addAndGet(wait);
+        assertEquals(RateLimiter.ALLOWED, limiter.tryAcquire("10.0.0.1"));
+        assertTrue(limiter.tryAcquire("10.0.0.1") > 0);
+    }
+    
+    @Test
+    void testTryAcquire_WithManyMoreKeysThanBuckets_ShouldKeepFixedTableAndAllowNewKeys() {
+        // Given
+        RateLimiter limiter = new RateLimiter(1, 1, 64, clock::get);
+        
+        // When: 10 mil chaves diferentes em uma tabela de 64 buckets
+        int allowed = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (limiter.tryAcquire("chave-" + i) == RateLimiter.ALLOWED) {
+                allowed++;
+            }
+        }
+        
+        // Then: chaves novas tomam buckets de outras, sem crescer a tabela; raras colisões da
+        // etiqueta de 16 bits fazem duas chaves dividirem um bucket (limite aproximado)
+        assertTrue(allowed > 9_900);
+        assertEquals(RateLimiter.ALLOWED, limiter.tryAcquire("chave-nova"));
+        assertTrue(limiter.tryAcquire("chave-nova") > 0);
+    }
+    
+    @Test
+    void testHash_WithEqualHashCodes_ShouldDependOnKeyAndSeed() {
+        // Given: "Aa" e "BB" têm o mesmo hashCode, assim como qualquer concatenação dos dois
+        String first = "AaAaAaAa";
+        String second = "BBBBBBBB";
+        assertEquals(first.hashCode(), second.hashCode());
+        
+        // When / Then
+        assertNotEquals(RateLimiter.hash(first, 42), RateLimiter.hash(second, 42));
+        assertNotEquals(RateLimiter.hash(first, 42), RateLimiter.hash(first, 43));
+        assertEquals(RateLimiter.hash(first, 42), RateLimiter.hash(new StringBuilder(first), 42));
+    }
+}
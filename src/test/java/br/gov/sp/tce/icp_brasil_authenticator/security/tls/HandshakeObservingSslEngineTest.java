@@ -0,0 +1,150 @@
+package br.gov.sp.tce.icp_brasil_authenticator.security.tls;
+
+import java.nio.ByteBuffer;
+import java.security.KeyPair;
+import java.security.KeyStore;
+import java.security.cert.Certificate;
+import java.security.cert.X509Certificate;
+import java.time.LocalDate;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLEngineResult.HandshakeStatus;
+import javax.net.ssl.SSLException;
+import javax.net.ssl.TrustManagerFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.junit.jupiter.api.Test;
+
+import br.gov.sp.tce.icp_brasil_authenticator.support.IcpBrasilTestCertificates;
+import br.gov.sp.tce.icp_brasil_authenticator.support.IcpBrasilTestCertificates.Issuer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class HandshakeObservingSslEngineTest {
+    
+    private static final char[] PASSWORD = "changeit".toCharArray();
+    
+    @Test
+    void testHandshake_WithCachedClientSession_ShouldRecordFullThenResumed() throws Exception {
+        for (String protocol : new String[] {"TLSv1.3", "TLSv1.2"}) {
+            // Given: servidor com client-auth need e um cliente que reutiliza o mesmo SSLContext
+            SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+            TlsHandshakeMetrics metrics = new TlsHandshakeMetrics(meterRegistry);
+            Issuer authority = IcpBrasilTestCertificates.defaultIssuer();
+            SSLContext server = context(authority, "CN=localhost");
+            SSLContext client = context(authority, null);
+            
+            // When: duas conexões seguidas
+            handshake(client, server, metrics, protocol);
+            Thread.sleep(5);
+            handshake(client, server, metrics, protocol);
+            
+            // Then: a primeira é completa e a segunda retoma a sessão, com protocolo e cifra nos tags
+            assertEquals(1.0, meterRegistry.get("tls.handshakes").tag("type", "full").tag("protocol", protocol).counter().count(), protocol);
+            assertEquals(1.0, meterRegistry.get("tls.handshakes").tag("type", "resumed").tag("protocol", protocol).counter().count(), protocol);
+            assertEquals(2, meterRegistry.get("tls.handshake.duration").timers().stream().mapToLong(t -> t.count()).sum(), protocol);
+            assertEquals(0.0, meterRegistry.get("tls.handshake.failures").counter().count(), protocol);
+        }
+    }
+    
+    @Test
+    void testHandshake_WithUntrustedClientCertificate_ShouldRecordFailure() throws Exception {
+        // Given: cliente com certificado de uma AC fora do truststore do servidor
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        TlsHandshakeMetrics metrics = new TlsHandshakeMetrics(meterRegistry);
+        Issuer trusted = IcpBrasilTestCertificates.defaultIssuer();
+        Issuer unknown = IcpBrasilTestCertificates.selfSignedAuthority("CN=AC Desconhecida,O=Teste,C=BR",
+            IcpBrasilTestCertificates.rsaKeyPair(2048));
+        SSLContext server = context(trusted, "CN=localhost");
+        SSLContext client = context(unknown, null, trusted);
+        
+        // When / Then: o servidor recusa o certificado e o handshake conta como falha
+        assertThrows(SSLException.class, () -> handshake(client, server, metrics, "TLSv1.3"));
+        assertEquals(1.0, meterRegistry.get("tls.handshake.failures").counter().count());
+        assertEquals(0, meterRegistry.find("tls.handshakes").counters().size());
+    }
+    
+    private static SSLContext context(Issuer issuer, String serverSubject) throws Exception {
+        return context(issuer, serverSubject, issuer);
+    }
+    
+    // Chave e certificado emitidos por issuer; confia em trusted
+    private static SSLContext context(Issuer issuer, String serverSubject, Issuer trusted) throws Exception {
+        KeyPair keyPair = IcpBrasilTestCertificates.defaultKeyPair();
+        X509Certificate certificate = serverSubject != null
+            ? IcpBrasilTestCertificates.build(new X500Name(serverSubject), keyPair.getPublic(),
+                issuer.name(), issuer.privateKey(), false)
+            : IcpBrasilTestCertificates.eCpf("FULANO DE TAL", "12345678901", LocalDate.of(1980, 1, 1),
+                IcpBrasilTestCertificates.POLICY_A3, keyPair.getPublic(), issuer);
+        
+        KeyStore keyStore = KeyStore.getInstance("PKCS12");
+        keyStore.load(null, null);
+        keyStore.setKeyEntry("key", keyPair.getPrivate(), PASSWORD, new Certificate[] {certificate, issuer.certificate()});
+        KeyManagerFactory keyManagers = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+        keyManagers.init(keyStore, PASSWORD);
+        
+        KeyStore trustStore = KeyStore.getInstance("PKCS12");
+        trustStore.load(null, null);
+        trustStore.setCertificateEntry("ca", trusted.certificate());
+        TrustManagerFactory trustManagers = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+        trustManagers.init(trustStore);
+        
+        SSLContext context = SSLContext.getInstance("TLS");
+        context.init(keyManagers.getKeyManagers(), trustManagers.getTrustManagers(), null);
+        return context;
+    }
+    
+    // Troca de registros em memória entre os dois engines até o fim do handshake (e do NewSessionTicket)
+    private static void handshake(SSLContext clientContext, SSLContext serverContext, TlsHandshakeMetrics metrics,
+                                  String protocol) throws Exception {
+        SSLEngine client = clientContext.createSSLEngine("localhost", 8443);
+        client.setUseClientMode(true);
+        client.setEnabledProtocols(new String[] {protocol});
+        SSLEngine server = new HandshakeObservingSslEngine(serverContext.createSSLEngine(), metrics);
+        server.setUseClientMode(false);
+        server.setNeedClientAuth(true);
+        server.setEnabledProtocols(new String[] {protocol});
+        
+        int bufferSize = client.getSession().getPacketBufferSize() * 2;
+        ByteBuffer clientToServer = ByteBuffer.allocate(bufferSize);
+        ByteBuffer serverToClient = ByteBuffer.allocate(bufferSize);
+        ByteBuffer clientIn = ByteBuffer.allocate(client.getSession().getApplicationBufferSize() * 2);
+        ByteBuffer serverIn = ByteBuffer.allocate(server.getSession().getApplicationBufferSize() * 2);
+        ByteBuffer empty = ByteBuffer.allocate(0);
+        
+        client.beginHandshake();
+        server.beginHandshake();
+        for (int round = 0; round < 50; round++) {
+            client.wrap(empty, clientToServer);
+            runTasks(client);
+            server.wrap(empty, serverToClient);
+            runTasks(server);
+            
+            clientToServer.flip();
+            serverToClient.flip();
+            client.unwrap(serverToClient, clientIn);
+            runTasks(client);
+            server.unwrap(clientToServer, serverIn);
+            runTasks(server);
+            clientToServer.compact();
+            serverToClient.compact();
+            
+            if (round > 4 && client.getHandshakeStatus() == HandshakeStatus.NOT_HANDSHAKING
+                && server.getHandshakeStatus() == HandshakeStatus.NOT_HANDSHAKING
+                && clientToServer.position() == 0 && serverToClient.position() == 0) {
+                return;
+            }
+        }
+        throw new IllegalStateException("Handshake não concluído");
+    }
+    
+    private static void runTasks(SSLEngine engine) {
+        Runnable task;
+        while ((task = engine.getDelegatedTask()) != null) {
+            task.run();
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package br.gov.sp.tce.icp_brasil_authenticator.security.tls;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+import org.apache.tomcat.util.net.openssl.OpenSSLStatus;
+import org.junit.jupiter.api.Test;
+
+import br.gov.sp.tce.icp_brasil_authenticator.configuration.TlsProperties.Engine;
+
+class InstrumentedSslImplementationTest {
+    
+    @Test
+    void testEffectiveEngine_WithJsse_ShouldKeepJsse() {
+        // When / Then
+        assertEquals(Engine.JSSE, InstrumentedSslImplementation.effectiveEngine(Engine.JSSE));
+    }
+    
+    @Test
+    void testEffectiveEngine_WithOpenSslUnavailable_ShouldFallBackToJsse() {
+        // Given: tomcat-native não carregada
+        assumeFalse(OpenSSLStatus.isAvailable());
+        
+        // When / Then
+        assertEquals(Engine.JSSE, InstrumentedSslImplementation.effectiveEngine(Engine.OPENSSL));
+    }
+}
@@ -0,0 +1,276 @@
+package br.gov.sp.tce.icp_brasil_authenticator.support;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.cert.X509CRL;
+import java.security.cert.X509Certificate;
+import java.security.spec.ECGenParameterSpec;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.bouncycastle.asn1.ASN1Encodable;
+import org.bouncycastle.asn1.ASN1ObjectIdentifier;
+import org.bouncycastle.asn1.DEROctetString;
+import org.bouncycastle.asn1.DERSequence;
+import org.bouncycastle.asn1.DERTaggedObject;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.BasicConstraints;
+import org.bouncycastle.asn1.x509.CRLReason;
+import org.bouncycastle.asn1.x509.CertificatePolicies;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.GeneralName;
+import org.bouncycastle.asn1.x509.GeneralNames;
+import org.bouncycastle.asn1.x509.KeyUsage;
+import org.bouncycastle.asn1.x509.PolicyInformation;
+import org.bouncycastle.cert.X509v2CRLBuilder;
+import org.bouncycastle.cert.X509v3CertificateBuilder;
+import org.bouncycastle.cert.jcajce.JcaX509CRLConverter;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.cert.jcajce.JcaX509ExtensionUtils;
+import org.bouncycastle.cert.jcajce.JcaX509v2CRLBuilder;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+
+// Certificados sintéticos no formato ICP-Brasil (e-CPF / e-CNPJ) para testes e benchmarks
+public final class IcpBrasilTestCertificates {
+    
+    public static final String POLICY_A1 = "2.16.76.1.2.1.1";
+    public static final String POLICY_A3 = "2.16.76.1.2.3.1";
+    
+    private static final DateTimeFormatter BIRTH_DATE = DateTimeFormatter.ofPattern("ddMMyyyy");
+    private static final AtomicLong SERIAL = new AtomicLong(System.currentTimeMillis());
+    
+    private static volatile Issuer defaultIssuer;
+    private static volatile KeyPair defaultKeyPair;
+    
+    private IcpBrasilTestCertificates() {
+    }
+    
+    // AC emissora com chave e certificado, usada para assinar certificados de teste
+    public record Issuer(X509Certificate certificate, PrivateKey privateKey) {
+        
+        public X500Name name() {
+            return X500Name.getInstance(certificate.getSubjectX500Principal().getEncoded());
+        }
+    }
+    
+    // Tipos de chave usados nos corpora de benchmark
+    public enum KeyType {
+        RSA_2048, RSA_4096, EC_P256;
+        
+        public KeyPair generate() {
+            return switch (this) {
+                case RSA_2048 -> rsaKeyPair(2048);
+                case RSA_4096 -> rsaKeyPair(4096);
+                case EC_P256 -> ecKeyPair();
+            };
+        }
+    }
+    
+    public static KeyPair rsaKeyPair(int bits) {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(bits);
+            return generator.generateKeyPair();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    public static KeyPair ecKeyPair() {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+            generator.initialize(new ECGenParameterSpec("secp256r1"));
+            return generator.generateKeyPair();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    public static Issuer defaultIssuer() {
+        if (defaultIssuer == null) {
+            synchronized (IcpBrasilTestCertificates.class) {
+                if (defaultIssuer == null) {
+                    defaultIssuer = selfSignedAuthority("CN=AC Teste ICP-Brasil,OU=Testes,O=ICP-Brasil,C=BR", rsaKeyPair(2048));
+                }
+            }
+        }
+        return defaultIssuer;
+    }
+    
+    public static KeyPair defaultKeyPair() {
+        if (defaultKeyPair == null) {
+            synchronized (IcpBrasilTestCertificates.class) {
+                if (defaultKeyPair == null) {
+                    defaultKeyPair = rsaKeyPair(2048);
+                }
+            }
+        }
+        return defaultKeyPair;
+    }
+    
+    public static Issuer selfSignedAuthority(String subject, KeyPair keyPair) {
+        X500Name name = new X500Name(subject);
+        X509Certificate certificate = build(name, keyPair.getPublic(), name, keyPair.getPrivate(), true, (Extension[]) null);
+        return new Issuer(certificate, keyPair.getPrivate());
+    }
+    
+    public static Issuer subordinateAuthority(String subject, KeyPair keyPair, Issuer issuer) {
+        X509Certificate certificate = build(new X500Name(subject), keyPair.getPublic(), issuer.name(),
+            issuer.privateKey(), true, authorityKeyIdentifier(issuer));
+        return new Issuer(certificate, keyPair.getPrivate());
+    }
+    
+    // ACs de uma cadeia com "levels" certificados (folha incluída): [0] é a AC emissora da folha
+    // e o último elemento a raiz autoassinada. Com levels = 1 a folha é apresentada sozinha.
+    public static Issuer[] authorities(int levels, KeyType keyType) {
+        Issuer[] authorities = new Issuer[Math.max(1, levels - 1)];
+        int last = authorities.length - 1;
+        authorities[last] = selfSignedAuthority("CN=AC Raiz Brasileira v" + levels + ",OU=Instituto Nacional de Tecnologia da Informacao - ITI,O=ICP-Brasil,C=BR",
+            keyType.generate());
+        for (int i = last - 1; i >= 0; i--) {
+            authorities[i] = subordinateAuthority("CN=AC Nivel " + (last - i) + " " + keyType + ",OU=Instituto Nacional de Tecnologia da Informacao - ITI,O=ICP-Brasil,C=BR",
+                keyType.generate(), authorities[i + 1]);
+        }
+        return authorities;
+    }
+    
+    // Cadeia como apresentada no handshake: folha seguida das ACs (exceto quando levels = 1)
+    public static X509Certificate[] chain(X509Certificate leaf, Issuer[] authorities, int levels) {
+        X509Certificate[] chain = new X509Certificate[levels];
+        chain[0] = leaf;
+        for (int i = 1; i < levels; i++) {
+            chain[i] = authorities[i - 1].certificate();
+        }
+        return chain;
+    }
+    
+    public static X509Certificate eCpf(String name, String cpf, LocalDate birthDate, String policy) {
+        return eCpf(name, cpf, birthDate, policy, defaultKeyPair().getPublic(), defaultIssuer());
+    }
+    
+    public static X509Certificate eCpf(String name, String cpf, LocalDate birthDate, String policy,
+                                       PublicKey publicKey, Issuer issuer) {
+        String personData = BIRTH_DATE.format(birthDate) + cpf + "12345678901" + zeroPad("123456789", 15) + spacePad("SSPSP", 10);
+        GeneralNames san = new GeneralNames(new GeneralName[] {
+            otherName("2.16.76.1.3.1", personData),
+            otherName("2.16.76.1.3.6", "000000000000"),
+            otherName("2.16.76.1.3.5", "0000000000000000000000000000000000000000"),
+            new GeneralName(GeneralName.rfc822Name, name.toLowerCase().replace(' ', '.') + "@example.com")
+        });
+        X500Name subject = new X500Name("CN=" + name + ":" + cpf + ",OU=RFB e-CPF " + policyName(policy)
+            + ",OU=Secretaria da Receita Federal do Brasil - RFB,O=ICP-Brasil,C=BR");
+        return leaf(subject, publicKey, issuer, san, policy);
+    }
+    
+    public static X509Certificate eCnpj(String companyName, String cnpj, String responsibleName,
+                                        String responsibleCpf, String policy) {
+        return eCnpj(companyName, cnpj, responsibleName, responsibleCpf, policy, defaultKeyPair().getPublic(), defaultIssuer());
+    }
+    
+    public static X509Certificate eCnpj(String companyName, String cnpj, String responsibleName,
+                                        String responsibleCpf, String policy, PublicKey publicKey, Issuer issuer) {
+        String responsibleData = "01011980" + responsibleCpf + "00000000000" + zeroPad("", 15) + spacePad("", 10);
+        GeneralNames san = new GeneralNames(new GeneralName[] {
+            otherName("2.16.76.1.3.4", responsibleData),
+            otherName("2.16.76.1.3.2", responsibleName),
+            otherName("2.16.76.1.3.3", cnpj),
+            otherName("2.16.76.1.3.7", "000000000000"),
+            new GeneralName(GeneralName.rfc822Name, "contato@example.com")
+        });
+        X500Name subject = new X500Name("CN=" + companyName + ":" + cnpj + ",OU=RFB e-CNPJ " + policyName(policy)
+            + ",OU=Secretaria da Receita Federal do Brasil - RFB,O=ICP-Brasil,C=BR");
+        return leaf(subject, publicKey, issuer, san, policy);
+    }
+    
+    private static X509Certificate leaf(X500Name subject, PublicKey publicKey, Issuer issuer,
+                                        GeneralNames san, String policy) {
+        try {
+            return build(subject, publicKey, issuer.name(), issuer.privateKey(), false, authorityKeyIdentifier(issuer),
+                new Extension(Extension.subjectAlternativeName, false, san.getEncoded()),
+                new Extension(Extension.certificatePolicies, false,
+                    new CertificatePolicies(new PolicyInformation(new ASN1ObjectIdentifier(policy))).getEncoded()));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    public static X509Certificate build(X500Name subject, PublicKey publicKey, X500Name issuer, PrivateKey issuerKey,
+                                        boolean ca, Extension... extensions) {
+        try {
+            Instant now = Instant.now();
+            X509v3CertificateBuilder builder = new JcaX509v3CertificateBuilder(issuer,
+                BigInteger.valueOf(SERIAL.incrementAndGet()), Date.from(now.minus(Duration.ofDays(1))),
+                Date.from(now.plus(Duration.ofDays(365))), subject, publicKey);
+            JcaX509ExtensionUtils extensionUtils = new JcaX509ExtensionUtils();
+            builder.addExtension(Extension.subjectKeyIdentifier, false, extensionUtils.createSubjectKeyIdentifier(publicKey));
+            builder.addExtension(Extension.basicConstraints, true, new BasicConstraints(ca));
+            builder.addExtension(Extension.keyUsage, true, new KeyUsage(ca
+                ? KeyUsage.keyCertSign | KeyUsage.cRLSign
+                : KeyUsage.digitalSignature | KeyUsage.keyEncipherment | KeyUsage.nonRepudiation));
+            if (extensions != null) {
+                for (Extension extension : extensions) {
+                    builder.addExtension(extension);
+                }
+            }
+            String algorithm = issuerKey.getAlgorithm().equals("EC") ? "SHA256withECDSA" : "SHA256withRSA";
+            return new JcaX509CertificateConverter()
+                .getCertificate(builder.build(new JcaContentSignerBuilder(algorithm).build(issuerKey)));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    // LCR emitida agora, com próximo update em nextUpdateIn
+    public static X509CRL crl(Issuer issuer, Duration nextUpdateIn, BigInteger... revokedSerials) {
+        try {
+            Instant now = Instant.now();
+            X509v2CRLBuilder builder = new JcaX509v2CRLBuilder(issuer.certificate(), Date.from(now));
+            builder.setNextUpdate(Date.from(now.plus(nextUpdateIn)));
+            for (BigInteger serial : revokedSerials) {
+                builder.addCRLEntry(serial, Date.from(now), CRLReason.keyCompromise);
+            }
+            String algorithm = issuer.privateKey().getAlgorithm().equals("EC") ? "SHA256withECDSA" : "SHA256withRSA";
+            return new JcaX509CRLConverter()
+                .getCRL(builder.build(new JcaContentSignerBuilder(algorithm).build(issuer.privateKey())));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    private static Extension authorityKeyIdentifier(Issuer issuer) {
+        try {
+            return new Extension(Extension.authorityKeyIdentifier, false,
+                new JcaX509ExtensionUtils().createAuthorityKeyIdentifier(issuer.certificate()).getEncoded());
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    private static GeneralName otherName(String oid, String value) {
+        return new GeneralName(GeneralName.otherName, new DERSequence(new ASN1Encodable[] {
+            new ASN1ObjectIdentifier(oid),
+            new DERTaggedObject(true, 0, new DEROctetString(value.getBytes(StandardCharsets.ISO_8859_1)))
+        }));
+    }
+    
+    private static String zeroPad(String value, int length) {
+        return "0".repeat(length - value.length()) + value;
+    }
+    
+    private static String spacePad(String value, int length) {
+        return value + " ".repeat(length - value.length());
+    }
+    
+    private static String policyName(String policy) {
+        return policy.startsWith("2.16.76.1.2.3") ? "A3" : "A1";
+    }
+}
@@ -0,0 +1,135 @@
+package br.gov.sp.tce.icp_brasil_authenticator.support;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.bouncycastle.asn1.x509.CRLReason;
+import org.bouncycastle.cert.ocsp.BasicOCSPResp;
+import org.bouncycastle.cert.ocsp.BasicOCSPRespBuilder;
+import org.bouncycastle.cert.ocsp.CertificateID;
+import org.bouncycastle.cert.ocsp.CertificateStatus;
+import org.bouncycastle.cert.ocsp.OCSPReq;
+import org.bouncycastle.cert.ocsp.OCSPResp;
+import org.bouncycastle.cert.ocsp.OCSPRespBuilder;
+import org.bouncycastle.cert.ocsp.Req;
+import org.bouncycastle.cert.ocsp.RevokedStatus;
+import org.bouncycastle.cert.ocsp.jcajce.JcaBasicOCSPRespBuilder;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.bouncycastle.operator.jcajce.JcaDigestCalculatorProviderBuilder;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import br.gov.sp.tce.icp_brasil_authenticator.support.IcpBrasilTestCertificates.Issuer;
+
+// Responder OCSP local (HTTP em porta efêmera) que assina as respostas com a chave da própria AC
+public final class OcspTestResponder implements AutoCloseable {
+    
+    private final Issuer issuer;
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final Set<BigInteger> revoked = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger requests = new AtomicInteger();
+    
+    private volatile Duration delay = Duration.ZERO;
+    private volatile Duration validity = Duration.ofHours(1);
+    private volatile Duration age = Duration.ZERO;
+    
+    private OcspTestResponder(Issuer issuer) throws IOException {
+        this.issuer = issuer;
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        this.server.createContext("/", this::handle);
+        this.server.setExecutor(executor);
+        this.server.start();
+    }
+    
+    public static OcspTestResponder start(Issuer issuer) {
+        try {
+            return new OcspTestResponder(issuer);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    public URI uri() {
+        return URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/ocsp");
+    }
+    
+    public void revoke(BigInteger serialNumber) {
+        revoked.add(serialNumber);
+    }
+    
+    // Atraso antes de responder, para simular responder lento
+    public void setDelay(Duration delay) {
+        this.delay = delay;
+    }
+    
+    // Intervalo entre thisUpdate e nextUpdate das respostas; null omite o nextUpdate
+    public void setValidity(Duration validity) {
+        this.validity = validity;
+    }
+    
+    // Idade do thisUpdate das respostas; negativa gera um thisUpdate no futuro
+    public void setAge(Duration age) {
+        this.age = age;
+    }
+    
+    public int requests() {
+        return requests.get();
+    }
+    
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        try (exchange; InputStream in = exchange.getRequestBody()) {
+            OCSPReq request = new OCSPReq(in.readAllBytes());
+            if (!delay.isZero()) {
+                Thread.sleep(delay.toMillis());
+            }
+            byte[] response = respond(request).getEncoded();
+            exchange.getResponseHeaders().add("Content-Type", "application/ocsp-response");
+            exchange.sendResponseHeaders(200, response.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(response);
+            }
+        } catch (Exception e) {
+            exchange.sendResponseHeaders(500, -1);
+        }
+    }
+    
+    private OCSPResp respond(OCSPReq request) throws Exception {
+        Instant now = Instant.now();
+        BasicOCSPRespBuilder builder = new JcaBasicOCSPRespBuilder(issuer.certificate().getPublicKey(),
+            new JcaDigestCalculatorProviderBuilder().build().get(CertificateID.HASH_SHA1));
+        for (Req single : request.getRequestList()) {
+            CertificateID id = single.getCertID();
+            CertificateStatus status = revoked.contains(id.getSerialNumber())
+                ? new RevokedStatus(Date.from(now), CRLReason.keyCompromise)
+                : CertificateStatus.GOOD;
+            Instant thisUpdate = now.minus(age);
+            builder.addResponse(id, status, Date.from(thisUpdate),
+                validity != null ? Date.from(thisUpdate.plus(validity)) : null, null);
+        }
+        
+        String algorithm = issuer.privateKey().getAlgorithm().equals("EC") ? "SHA256withECDSA" : "SHA256withRSA";
+        BasicOCSPResp basic = builder.build(new JcaContentSignerBuilder(algorithm).build(issuer.privateKey()), null, Date.from(now));
+        return new OCSPRespBuilder().build(OCSPRespBuilder.SUCCESSFUL, basic);
+    }
+    
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}